@@ -1,6 +1,11 @@
 package com.avrix;
 
 import com.avrix.agent.AgentLoader;
+import com.avrix.agent.DeferredPatchManager;
+import com.avrix.commands.CommandsManager;
+import com.avrix.commands.EventStatsCommand;
+import com.avrix.commands.NetStatsCommand;
+import com.avrix.commands.ReloadPluginCommand;
 import com.avrix.logs.LineReadingOutputStream;
 import com.avrix.plugin.PluginManager;
 import com.avrix.plugin.ResourceManager;
@@ -34,8 +39,14 @@ public class Launcher {
 
         ResourceManager.init();
 
+        CommandsManager.addCommand(new EventStatsCommand());
+        CommandsManager.addCommand(new NetStatsCommand());
+        CommandsManager.addCommand(new ReloadPluginCommand());
+
         PluginManager.loadPlugins();
 
+        DeferredPatchManager.activate();
+
         switch (System.getProperty("avrix.mode")) {
             case "client" -> MainScreenState.main(args);
             case "server" -> GameServer.main(args);
@@ -21,13 +21,14 @@ public class Agent {
 
     /**
      * The agentmain method is called when the agent is loaded into a running virtual machine (JVM).
-     * It sets up a {@link Instrumentation} object for later use in the agent.
+     * It sets up a {@link Instrumentation} object for later use in the agent and registers the {@link AgentTransformer}.
      *
      * @param agentArgs the agent arguments passed when it was launched
      * @param inst      {@link Instrumentation} object providing access to the JVM
      */
     public static void agentmain(String agentArgs, Instrumentation inst) {
         instrumentation = inst;
+        AgentManager.installTransformer(inst);
     }
 
     /**
@@ -1,18 +1,28 @@
 package com.avrix.agent;
 
-import javassist.ByteArrayClassPath;
-import javassist.ClassPool;
-
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.instrument.Instrumentation;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A class for managing agents designed to modify classes at runtime.
+ * <p>
+ * Modified classes are not loaded by the manager. A class that is not loaded yet receives its new bytecode from the
+ * {@link AgentTransformer} when it is first defined, which also allows patches to add fields and methods.
+ * Classes that are already loaded are retransformed, in a single call for all classes modified inside a batch
+ * (see {@link #beginBatch()}), otherwise immediately.
+ * </p>
  */
 public class AgentManager {
-    private static final Map<String, byte[]> modifyMap = new HashMap<>(); // Repository of modified classes
+    private static final Map<String, byte[]> modifyMap = new ConcurrentHashMap<>(); // Modified classes waiting to be defined or retransformed
+    private static final Map<String, byte[]> appliedMap = new ConcurrentHashMap<>(); // Bytecode last set for each class
     private static final AgentTransformer agentTransformer = new AgentTransformer(); // Transformer for agent
+    private static boolean transformerInstalled; // Whether the transformer is registered in the instrumentation
+    private static int batchDepth; // Number of open batches
 
     /**
      * Method for getting a modified class by its name.
@@ -20,14 +30,106 @@ public class AgentManager {
      * @param className Class name
      * @return Modified class as a byte array
      */
-    public synchronized static byte[] getModifyClass(String className) {
-        try {
-            return modifyMap.remove(className);
-        } catch (Exception e) {
+    public static byte[] getModifyClass(String className) {
+        return modifyMap.remove(className);
+    }
+
+    /**
+     * Returns the bytecode for a class being defined or retransformed. Called by the {@link AgentTransformer}.
+     * A retransformed class always receives its last bytecode, so retransformations by other agents do not revert the patches.
+     *
+     * @param className   Class name
+     * @param redefinition true if the class is being retransformed, false if it is being defined
+     * @return Modified class as a byte array, or {@code null} if the class is not modified
+     */
+    static byte[] getClassBytecode(String className, boolean redefinition) {
+        byte[] modifiedClass = modifyMap.remove(className);
+        if (modifiedClass != null || !redefinition) return modifiedClass;
+
+        return appliedMap.get(className);
+    }
+
+    /**
+     * Returns the bytecode last set for a class by {@link #transformClass(String, byte[])} or {@link #redefineClass(String, byte[])}.
+     *
+     * @param className Class name
+     * @return Class file as a byte array, or {@code null} if the class has not been modified
+     */
+    public static byte[] getAppliedClass(String className) {
+        return appliedMap.get(className);
+    }
+
+    /**
+     * Returns the bytecode last set for each modified class.
+     *
+     * @return unmodifiable {@link Map} of class files by class name
+     */
+    public static Map<String, byte[]> getAppliedClasses() {
+        return Map.copyOf(appliedMap);
+    }
+
+    /**
+     * Returns the current bytecode of a class: the bytecode last set by the manager if the class was modified,
+     * otherwise its original class file from the system class path. The class is not loaded.
+     *
+     * @param className Class name
+     * @return Class file as a byte array, or {@code null} if the class is not found
+     */
+    static byte[] getCurrentClass(String className) {
+        byte[] appliedClass = appliedMap.get(className);
+        return appliedClass != null ? appliedClass : readClassFile(ClassLoader.getSystemClassLoader(), className.replace('.', '/'));
+    }
+
+    /**
+     * Reads a class file from a class loader without loading the class.
+     *
+     * @param loader       class loader, the system class loader if {@code null}
+     * @param internalName class name with '/' separators
+     * @return class file, or {@code null} if not found
+     */
+    static byte[] readClassFile(ClassLoader loader, String internalName) {
+        String resourceName = internalName + ".class";
+        try (InputStream inputStream = loader != null
+                ? loader.getResourceAsStream(resourceName)
+                : ClassLoader.getSystemResourceAsStream(resourceName)) {
+            return inputStream != null ? inputStream.readAllBytes() : null;
+        } catch (IOException e) {
             return null;
         }
     }
 
+    /**
+     * Registers the {@link AgentTransformer} in the instrumentation. Called when the agent is loaded,
+     * before the game classes are, so that modified classes are transformed on their first definition.
+     *
+     * @param instrumentation {@link Instrumentation} of the agent
+     */
+    synchronized static void installTransformer(Instrumentation instrumentation) {
+        if (transformerInstalled) return;
+
+        instrumentation.addTransformer(agentTransformer, true);
+        transformerInstalled = true;
+    }
+
+    /**
+     * Opens a batch of modifications. Already loaded classes modified inside the batch are retransformed together
+     * by the matching {@link #endBatch()} call. Batches may be nested, the outermost one applies the modifications.
+     */
+    public synchronized static void beginBatch() {
+        batchDepth++;
+    }
+
+    /**
+     * Closes a batch of modifications opened by {@link #beginBatch()}, retransforming the modified classes that are already loaded.
+     *
+     * @return true if all the loaded classes were modified
+     */
+    public synchronized static boolean endBatch() {
+        if (batchDepth == 0 || --batchDepth > 0) return true;
+
+        return retransformPendingClasses();
+    }
+
     /**
      * Transforming a class by its name using a new class as a byte array.
      *
@@ -35,32 +137,94 @@ public class AgentManager {
      * @param newClass  Modified class file as a byte array
      */
     public synchronized static void transformClass(String className, byte[] newClass) {
-        try {
-            ClassPool pool = ClassPool.getDefault();
-            pool.removeClassPath(new ByteArrayClassPath(className, pool.get(className).toBytecode()));
-            pool.insertClassPath(new ByteArrayClassPath(className, newClass));
+        redefineClass(className, newClass);
+    }
+
+    /**
+     * Replacing the bytecode of a class. Used to apply class files produced by {@link ClassModifier}, {@link BytecodeModifier}
+     * or read from the {@link PatchCache}. The {@link ClassPoolManager} pool reads the new bytecode for the following patches.
+     *
+     * @param className Name of the class to modify
+     * @param newClass  Modified class file as a byte array
+     * @return true if the class was modified, or will be when it is defined or when the current batch ends
+     */
+    public synchronized static boolean redefineClass(String className, byte[] newClass) {
+        Instrumentation instrumentation = Agent.instrumentation;
+
+        if (instrumentation == null) {
+            System.err.println("[!] Failed to modify class: " + className + " because instrumentation is null.");
+            return false;
+        }
+
+        installTransformer(instrumentation);
+        modifyMap.put(className, newClass);
+        appliedMap.put(className, newClass);
+        ClassPoolManager.updateClass(className, newClass);
+
+        return batchDepth > 0 || retransformPendingClasses();
+    }
+
+    /**
+     * Retransforms the modified classes that are already loaded, in a single call if possible.
+     * The other modified classes stay pending until they are defined.
+     *
+     * @return true if all the loaded classes were modified
+     */
+    private static boolean retransformPendingClasses() {
+        if (modifyMap.isEmpty()) return true;
 
-            Class<?> clazz = Class.forName(className);
+        Instrumentation instrumentation = Agent.instrumentation;
+        List<Class<?>> loadedClasses = new ArrayList<>();
+        boolean success = true;
 
-            Instrumentation instrumentation = Agent.instrumentation;
+        for (Class<?> clazz : instrumentation.getAllLoadedClasses()) {
+            if (!modifyMap.containsKey(clazz.getName())) continue;
 
-            if (instrumentation != null && instrumentation.isModifiableClass(clazz)) {
-                modifyMap.put(clazz.getCanonicalName(), newClass);
-                instrumentation.addTransformer(agentTransformer, true);
-                instrumentation.retransformClasses(clazz);
-                instrumentation.removeTransformer(agentTransformer);
+            if (instrumentation.isModifiableClass(clazz)) {
+                loadedClasses.add(clazz);
             } else {
-                if (instrumentation == null) {
-                    System.err.println("[!] Failed to modify class: " + clazz.getCanonicalName() + " because instrumentation is null.");
-                } else if (!instrumentation.isModifiableClass(clazz)) {
-                    System.err.println("[!] Failed to modify class: " + clazz.getCanonicalName() + " because the class is not modifiable.");
-                } else {
-                    System.err.println("[!] Failed to modify class: " + clazz.getCanonicalName() + " due to unknown reasons.");
+                System.err.println("[!] Failed to modify class: " + clazz.getName() + " because the class is not modifiable.");
+                discardModification(clazz.getName());
+                success = false;
+            }
+        }
+
+        if (loadedClasses.isEmpty()) return success;
+
+        try {
+            instrumentation.retransformClasses(loadedClasses.toArray(new Class<?>[0]));
+        } catch (Exception | LinkageError batchError) {
+            // A single faulty class fails the whole call, the classes are retried one by one to find it
+            for (Class<?> clazz : loadedClasses) {
+                try {
+                    instrumentation.retransformClasses(clazz);
+                } catch (Exception | LinkageError e) {
+                    System.err.printf("[!] Failed to modify class '%s'. Reason: %s%n", clazz.getName(),
+                            e instanceof UnsupportedOperationException
+                                    ? "fields and methods can only be added to classes that are not loaded yet"
+                                    : e.getMessage());
+                    discardModification(clazz.getName());
+                    success = false;
                 }
             }
-        } catch (Exception e) {
-            System.err.printf("[!] Failed to modify class '%s'. Reason: %s%n", className, e.getMessage());
-            e.printStackTrace();
         }
+
+        for (Class<?> clazz : loadedClasses) {
+            modifyMap.remove(clazz.getName());
+        }
+
+        return success;
+    }
+
+    /**
+     * Forgets the modification of a class that could not be applied. The {@link ClassPoolManager} pool is released,
+     * since it already reads the rejected bytecode; the next pool reads the class from the applied classes again.
+     *
+     * @param className Class name
+     */
+    private static void discardModification(String className) {
+        modifyMap.remove(className);
+        appliedMap.remove(className);
+        ClassPoolManager.release();
     }
-}
\ No newline at end of file
+}
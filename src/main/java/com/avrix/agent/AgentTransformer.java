@@ -12,7 +12,7 @@ public class AgentTransformer implements ClassFileTransformer {
     /**
      * The transform method is called for each class that is loaded into the JVM.
      * It takes the byte code of the original class and returns the modified byte code.
-     * This method implementation calls the getModifyClass method of the {@link AgentManager} class to obtain the modified byte code of the class.
+     * This method implementation asks the {@link AgentManager} for the modified byte code of the class, and returns {@code null} for unmodified classes.
      *
      * @param loader              class of the loader that loads this class
      * @param className           full class name in class path format (delimited by '/')
@@ -24,6 +24,8 @@ public class AgentTransformer implements ClassFileTransformer {
      */
     @Override
     public byte[] transform(ClassLoader loader, String className, Class<?> classBeingRedefined, ProtectionDomain protectionDomain, byte[] classfileBuffer) throws IllegalClassFormatException {
-        return AgentManager.getModifyClass(className.replaceAll("/", "."));
+        if (className == null) return null;
+
+        return AgentManager.getClassBytecode(className.replace('/', '.'), classBeingRedefined != null);
     }
 }
\ No newline at end of file
@@ -0,0 +1,440 @@
+package com.avrix.agent;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.commons.AdviceAdapter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * A class for modifying Java classes at runtime on the bytecode level using the <a href="https://asm.ow2.io/">ASM library</a>.
+ * <p>
+ * Unlike {@link ClassModifier}, no source code is compiled and no {@link javassist.ClassPool} is involved: the class file
+ * is read, woven with calls to public static hook methods and written in a single pass, and nothing is retained once
+ * the modifications are applied. Hooks receive the values of the patched code as parameters:
+ * </p>
+ * <ul>
+ *     <li>{@link MethodModification#insertBefore(Class, String)}: {@code void hook([Owner self,] args...)}</li>
+ *     <li>{@link MethodModification#insertAfter(Class, String)}: {@code R hook([Owner self,] [R result])},
+ *     the value returned by the hook is returned by the method</li>
+ *     <li>{@link MethodModification#replaceMethodCall(String, String, Class, String)}: {@code R hook([Target target,] args...)},
+ *     called instead of the original method</li>
+ * </ul>
+ * <p>
+ * {@code self} and {@code target} are only passed for instance methods, and the parameter types must match exactly.
+ * </p>
+ */
+public final class BytecodeModifier {
+    private final String className; // Name of the class being modified
+    private final List<MethodModification> modifications; // Modifications of the methods of the class
+
+    /**
+     * Constructor for creating a {@link BytecodeModifier} object.
+     *
+     * @param className     the name of the class that needs to be modified
+     * @param modifications modifications of the methods of the class
+     */
+    private BytecodeModifier(String className, List<MethodModification> modifications) {
+        this.className = className;
+        this.modifications = List.copyOf(modifications);
+    }
+
+    /**
+     * Applying modifications to the class being modified.
+     * The current bytecode of the class is read from the {@link AgentManager}, the class is not loaded.
+     */
+    public void applyModifications() {
+        try {
+            byte[] inputClass = AgentManager.getCurrentClass(className);
+            if (inputClass == null) {
+                throw new ClassNotFoundException(className);
+            }
+
+            AgentManager.redefineClass(className, transform(inputClass));
+        } catch (Exception e) {
+            System.out.println("[!] Error when trying to apply a modification: " + e.getMessage());
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Weaves the modifications into a class file.
+     *
+     * @param classFile class file to modify
+     * @return modified class file
+     * @throws IllegalArgumentException if a method or a hook is not found
+     */
+    byte[] transform(byte[] classFile) {
+        ClassReader reader = new ClassReader(classFile);
+        ClassWriter writer = new ClassWriter(reader, ClassWriter.COMPUTE_MAXS);
+        Map<MethodModification, Integer> matches = new HashMap<>();
+
+        reader.accept(new ClassVisitor(Opcodes.ASM9, writer) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                MethodVisitor methodVisitor = super.visitMethod(access, name, descriptor, signature, exceptions);
+
+                List<MethodModification> methodModifications = new ArrayList<>();
+                for (MethodModification modification : modifications) {
+                    if (modification.matches(name, descriptor)) {
+                        methodModifications.add(modification);
+                        matches.merge(modification, 1, Integer::sum);
+                    }
+                }
+
+                return methodModifications.isEmpty()
+                        ? methodVisitor
+                        : new HookMethodAdapter(methodVisitor, reader.getClassName(), access, name, descriptor, methodModifications);
+            }
+        }, ClassReader.EXPAND_FRAMES);
+
+        for (MethodModification modification : modifications) {
+            int count = matches.getOrDefault(modification, 0);
+            if (count == 0) {
+                throw new IllegalArgumentException(String.format("Method '%s%s' not found in class '%s'",
+                        modification.methodName, modification.descriptor != null ? modification.descriptor : "", className));
+            }
+            if (count > 1) {
+                throw new IllegalArgumentException(String.format("Method '%s' of class '%s' is overloaded, a descriptor must be specified",
+                        modification.methodName, className));
+            }
+        }
+
+        return writer.toByteArray();
+    }
+
+    /**
+     * A class that implements the Builder pattern to create a {@link BytecodeModifier} object
+     */
+    public static class BytecodeModifierBuilder {
+        private final String className; // Name of the class being modified
+        private final List<MethodModification> modifications = new ArrayList<>(); // Modifications of the methods of the class
+
+        /**
+         * Builder constructor for class {@link BytecodeModifier}
+         *
+         * @param className the name of the class that needs to be modified
+         */
+        public BytecodeModifierBuilder(String className) {
+            this.className = className;
+        }
+
+        /**
+         * Modifies a method of the class by its name. The method must not be overloaded.
+         *
+         * @param methodName     name of the method being modified
+         * @param methodModifier set of modifications of the method
+         * @return the {@link BytecodeModifierBuilder} instance for the call chain
+         */
+        public BytecodeModifierBuilder modifyMethod(String methodName, Consumer<MethodModification> methodModifier) {
+            return modifyMethod(methodName, null, methodModifier);
+        }
+
+        /**
+         * Modifies a method of the class by its name and descriptor.
+         *
+         * @param methodName     name of the method being modified
+         * @param descriptor     JVM descriptor of the method (e.g. "(Ljava/lang/String;I)V"), {@code null} to match any
+         * @param methodModifier set of modifications of the method
+         * @return the {@link BytecodeModifierBuilder} instance for the call chain
+         */
+        public BytecodeModifierBuilder modifyMethod(String methodName, String descriptor, Consumer<MethodModification> methodModifier) {
+            MethodModification modification = new MethodModification(methodName, descriptor);
+            methodModifier.accept(modification);
+            modifications.add(modification);
+            return this;
+        }
+
+        /**
+         * Modifies a constructor of the class. Code inserted before runs after the call to the super constructor.
+         *
+         * @param descriptor          JVM descriptor of the constructor (e.g. "()V")
+         * @param constructorModifier set of modifications of the constructor
+         * @return the {@link BytecodeModifierBuilder} instance for the call chain
+         */
+        public BytecodeModifierBuilder modifyConstructor(String descriptor, Consumer<MethodModification> constructorModifier) {
+            return modifyMethod("<init>", Objects.requireNonNull(descriptor), constructorModifier);
+        }
+
+        /**
+         * Checks whether modifications were made with the builder.
+         *
+         * @return true if at least one method is modified
+         */
+        public boolean hasModifications() {
+            return !modifications.isEmpty();
+        }
+
+        /**
+         * Creates a {@link BytecodeModifier} object based on the current state of the builder.
+         *
+         * @return {@link BytecodeModifier} object
+         */
+        public BytecodeModifier build() {
+            if (modifications.isEmpty()) {
+                throw new IllegalStateException("[!] You must make modifications before building the BytecodeModifier!");
+            }
+            return new BytecodeModifier(className, modifications);
+        }
+    }
+
+    /**
+     * Set of modifications of a method, applied in the order they are declared
+     */
+    public static final class MethodModification {
+        private final String methodName; // Name of the modified method
+        private final String descriptor; // JVM descriptor of the modified method, null to match any
+        private final List<Hook> beforeHooks = new ArrayList<>(); // Hooks called at the start of the method
+        private final List<Hook> afterHooks = new ArrayList<>(); // Hooks called before each return of the method
+        private final List<CallReplacement> callReplacements = new ArrayList<>(); // Method calls replaced by hooks
+
+        /**
+         * Constructor for creating a {@link MethodModification} object.
+         *
+         * @param methodName name of the modified method
+         * @param descriptor JVM descriptor of the modified method, {@code null} to match any
+         */
+        private MethodModification(String methodName, String descriptor) {
+            this.methodName = methodName;
+            this.descriptor = descriptor;
+        }
+
+        /**
+         * Calls a hook at the start of the method, with the instance and the arguments of the method.
+         *
+         * @param hookClass  class declaring the hook
+         * @param hookMethod name of the public static hook method
+         * @return the {@link MethodModification} instance for the call chain
+         */
+        public MethodModification insertBefore(Class<?> hookClass, String hookMethod) {
+            beforeHooks.add(new Hook(hookClass, hookMethod));
+            return this;
+        }
+
+        /**
+         * Calls a hook before each normal return of the method, with the instance and the returned value.
+         * The value returned by the hook replaces the returned value.
+         *
+         * @param hookClass  class declaring the hook
+         * @param hookMethod name of the public static hook method
+         * @return the {@link MethodModification} instance for the call chain
+         */
+        public MethodModification insertAfter(Class<?> hookClass, String hookMethod) {
+            afterHooks.add(new Hook(hookClass, hookMethod));
+            return this;
+        }
+
+        /**
+         * Replaces the calls of a method inside the modified method by calls to a hook, with the target and the arguments of the call.
+         *
+         * @param className  name of the class declaring the called method, e.g. 'zombie.network.GameServer'
+         * @param methodName name of the called method
+         * @param hookClass  class declaring the hook
+         * @param hookMethod name of the public static hook method
+         * @return the {@link MethodModification} instance for the call chain
+         */
+        public MethodModification replaceMethodCall(String className, String methodName, Class<?> hookClass, String hookMethod) {
+            return replaceMethodCall(className, methodName, null, hookClass, hookMethod);
+        }
+
+        /**
+         * Replaces the calls of a method inside the modified method by calls to a hook, with the target and the arguments of the call.
+         *
+         * @param className  name of the class declaring the called method, e.g. 'zombie.network.GameServer'
+         * @param methodName name of the called method
+         * @param descriptor JVM descriptor of the called method, {@code null} to match any
+         * @param hookClass  class declaring the hook
+         * @param hookMethod name of the public static hook method
+         * @return the {@link MethodModification} instance for the call chain
+         */
+        public MethodModification replaceMethodCall(String className, String methodName, String descriptor, Class<?> hookClass, String hookMethod) {
+            if ("<init>".equals(methodName)) {
+                throw new IllegalArgumentException("Constructor calls cannot be replaced");
+            }
+            callReplacements.add(new CallReplacement(className.replace('.', '/'), methodName, descriptor, new Hook(hookClass, hookMethod)));
+            return this;
+        }
+
+        /**
+         * Checks whether the modification applies to a method.
+         *
+         * @param name       method name
+         * @param descriptor JVM descriptor of the method
+         * @return true if the method is modified
+         */
+        private boolean matches(String name, String descriptor) {
+            return methodName.equals(name) && (this.descriptor == null || this.descriptor.equals(descriptor));
+        }
+    }
+
+    /**
+     * Public static hook method
+     *
+     * @param hookClass  Class declaring the hook
+     * @param methodName Name of the hook method
+     */
+    private record Hook(Class<?> hookClass, String methodName) {
+        /**
+         * Returns the internal name of the class declaring the hook.
+         *
+         * @return class name with '/' separators
+         */
+        private String owner() {
+            return Type.getInternalName(hookClass);
+        }
+
+        /**
+         * Checks that the hook exists with the descriptor, by reading the class file of the hook class without loading its parameter types.
+         *
+         * @param descriptor expected JVM descriptor of the hook
+         * @throws IllegalArgumentException if the hook is not found, not public or not static
+         */
+        private void verify(String descriptor) {
+            byte[] classFile = AgentManager.readClassFile(hookClass.getClassLoader(), owner());
+            if (classFile == null) {
+                throw new IllegalArgumentException(String.format("Class file of hook class '%s' not found", hookClass.getName()));
+            }
+
+            boolean[] found = new boolean[1];
+            new ClassReader(classFile).accept(new ClassVisitor(Opcodes.ASM9) {
+                @Override
+                public MethodVisitor visitMethod(int access, String name, String methodDescriptor, String signature, String[] exceptions) {
+                    int required = Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC;
+                    if (name.equals(methodName) && methodDescriptor.equals(descriptor) && (access & required) == required) {
+                        found[0] = true;
+                    }
+                    return null;
+                }
+            }, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+
+            if (!found[0]) {
+                throw new IllegalArgumentException(String.format("Hook 'public static %s.%s%s' not found",
+                        hookClass.getName(), methodName, descriptor));
+            }
+        }
+    }
+
+    /**
+     * Replacement of a method call by a hook
+     *
+     * @param owner      Internal name of the class declaring the called method
+     * @param methodName Name of the called method
+     * @param descriptor JVM descriptor of the called method, {@code null} to match any
+     * @param hook       Hook called instead
+     */
+    private record CallReplacement(String owner, String methodName, String descriptor, Hook hook) {
+    }
+
+    /**
+     * Method visitor weaving the hooks of a method
+     */
+    private static final class HookMethodAdapter extends AdviceAdapter {
+        private final Type ownerType; // Type of the modified class
+        private final boolean isStatic; // Whether the modified method is static
+        private final Type returnType; // Return type of the modified method
+        private final List<MethodModification> modifications; // Modifications of the method
+
+        /**
+         * Constructor for creating a {@link HookMethodAdapter} object.
+         *
+         * @param methodVisitor next visitor of the method
+         * @param owner         internal name of the modified class
+         * @param access        access flags of the method
+         * @param name          method name
+         * @param descriptor    JVM descriptor of the method
+         * @param modifications modifications of the method
+         */
+        private HookMethodAdapter(MethodVisitor methodVisitor, String owner, int access, String name, String descriptor, List<MethodModification> modifications) {
+            super(Opcodes.ASM9, methodVisitor, access, name, descriptor);
+            this.ownerType = Type.getObjectType(owner);
+            this.isStatic = (access & Opcodes.ACC_STATIC) != 0;
+            this.returnType = Type.getReturnType(descriptor);
+            this.modifications = modifications;
+        }
+
+        @Override
+        protected void onMethodEnter() {
+            for (MethodModification modification : modifications) {
+                for (Hook hook : modification.beforeHooks) {
+                    List<Type> parameters = new ArrayList<>();
+                    if (!isStatic) {
+                        parameters.add(ownerType);
+                        loadThis();
+                    }
+                    parameters.addAll(List.of(getArgumentTypes()));
+                    loadArgs();
+
+                    invokeHook(hook, Type.getMethodDescriptor(Type.VOID_TYPE, parameters.toArray(new Type[0])));
+                }
+            }
+        }
+
+        @Override
+        protected void onMethodExit(int opcode) {
+            if (opcode == ATHROW) return;
+
+            for (MethodModification modification : modifications) {
+                for (Hook hook : modification.afterHooks) {
+                    List<Type> parameters = new ArrayList<>();
+                    if (!isStatic) {
+                        parameters.add(ownerType);
+                        loadThis();
+                    }
+                    if (returnType.getSort() != Type.VOID) {
+                        parameters.add(returnType);
+                        if (!isStatic) {
+                            // Moves the instance below the returned value: [result, this] -> [this, result]
+                            if (returnType.getSize() == 2) {
+                                dupX2();
+                                pop();
+                            } else {
+                                swap();
+                            }
+                        }
+                    }
+
+                    invokeHook(hook, Type.getMethodDescriptor(returnType, parameters.toArray(new Type[0])));
+                }
+            }
+        }
+
+        @Override
+        public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface) {
+            for (MethodModification modification : modifications) {
+                for (CallReplacement replacement : modification.callReplacements) {
+                    if (replacement.owner().equals(owner) && replacement.methodName().equals(name)
+                            && (replacement.descriptor() == null || replacement.descriptor().equals(descriptor))) {
+                        String hookDescriptor = opcode == INVOKESTATIC
+                                ? descriptor
+                                : "(" + Type.getObjectType(owner).getDescriptor() + descriptor.substring(1);
+                        replacement.hook().verify(hookDescriptor);
+                        super.visitMethodInsn(INVOKESTATIC, replacement.hook().owner(), replacement.hook().methodName(), hookDescriptor, false);
+                        return;
+                    }
+                }
+            }
+
+            super.visitMethodInsn(opcode, owner, name, descriptor, isInterface);
+        }
+
+        /**
+         * Calls a hook with the values on the stack.
+         *
+         * @param hook       hook to call
+         * @param descriptor JVM descriptor of the hook
+         */
+        private void invokeHook(Hook hook, String descriptor) {
+            hook.verify(descriptor);
+            super.visitMethodInsn(INVOKESTATIC, hook.owner(), hook.methodName(), descriptor, false);
+        }
+    }
+}
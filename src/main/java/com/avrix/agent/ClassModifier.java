@@ -62,7 +62,7 @@ public final class ClassModifier {
          * @throws NotFoundException if the class is not found
          */
         private synchronized CtClass getCtClass(String className) throws NotFoundException {
-            return this.classModifier.ctClass == null ? ClassPool.getDefault().get(className) : this.classModifier.ctClass;
+            return this.classModifier.ctClass == null ? ClassPoolManager.getClassPool().get(className) : this.classModifier.ctClass;
         }
 
         /**
@@ -189,6 +189,58 @@ public final class ClassModifier {
             return this;
         }
 
+        /**
+         * Adds a new field to the class, e.g. {@code "public transient int cachedValue;"}.
+         * Fields can only be added to classes that are not loaded yet when the modifications are applied,
+         * a loaded class cannot change its structure.
+         *
+         * @param fieldSource source code of the field declaration
+         * @return the {@link ClassModifierBuilder} instance for the call chain
+         */
+        public ClassModifierBuilder addField(String fieldSource) {
+            try {
+                CtClass modifyClass = getCtClass(this.classModifier.className);
+                applyBiConsumer((ctClass, source) -> {
+                    try {
+                        ctClass.addField(CtField.make(source, ctClass));
+                    } catch (CannotCompileException e) {
+                        throw new RuntimeException(e);
+                    }
+                }, modifyClass, fieldSource);
+            } catch (Exception e) {
+                System.out.printf("[!] An error occurred while adding a field to class '%s'. Reason: %s%n", this.classModifier.className, e.getMessage());
+                throw new RuntimeException(e);
+            }
+
+            return this;
+        }
+
+        /**
+         * Adds a new method to the class, e.g. {@code "public int getCachedValue() { return cachedValue; }"}.
+         * Methods can only be added to classes that are not loaded yet when the modifications are applied,
+         * a loaded class cannot change its structure.
+         *
+         * @param methodSource source code of the method
+         * @return the {@link ClassModifierBuilder} instance for the call chain
+         */
+        public ClassModifierBuilder addMethod(String methodSource) {
+            try {
+                CtClass modifyClass = getCtClass(this.classModifier.className);
+                applyBiConsumer((ctClass, source) -> {
+                    try {
+                        ctClass.addMethod(CtNewMethod.make(source, ctClass));
+                    } catch (CannotCompileException e) {
+                        throw new RuntimeException(e);
+                    }
+                }, modifyClass, methodSource);
+            } catch (Exception e) {
+                System.out.printf("[!] An error occurred while adding a method to class '%s'. Reason: %s%n", this.classModifier.className, e.getMessage());
+                throw new RuntimeException(e);
+            }
+
+            return this;
+        }
+
         /**
          * Applying modifications to a method by its name using a set of instructions.
          *
@@ -245,6 +297,15 @@ public final class ClassModifier {
             return parameterTypes;
         }
 
+        /**
+         * Checks whether modifications were made with the builder.
+         *
+         * @return true if the class was modified
+         */
+        public boolean hasModifications() {
+            return this.classModifier.ctClass != null;
+        }
+
         /**
          * Creates a {@link ClassModifier} object based on the current state of the builder.
          *
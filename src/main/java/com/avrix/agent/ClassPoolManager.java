@@ -0,0 +1,112 @@
+package com.avrix.agent;
+
+import javassist.ByteArrayClassPath;
+import javassist.ClassPool;
+import javassist.LoaderClassPath;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Manages the {@link ClassPool} used to compile {@link ClassModifier} patches.
+ * <p>
+ * A {@link ClassPool} keeps every {@link javassist.CtClass} it has read, including the large game classes, for as long as
+ * it is reachable. Instead of the process-wide {@link ClassPool#getDefault()}, patches use a pool that is released with
+ * {@link #release()} once plugins are loaded, and created again on demand. A new pool knows the plugin class loaders
+ * that are still alive and the bytecode already applied to each class by the {@link AgentManager}.
+ * </p>
+ */
+public class ClassPoolManager {
+    private static final List<WeakReference<ClassLoader>> classLoaders = new ArrayList<>(); // Plugin class loaders searched by the pool
+    private static PatchClassPool classPool; // Current pool, null if released
+
+    /**
+     * Returns the pool used to compile patches, creating it if needed.
+     *
+     * @return {@link ClassPool} instance
+     */
+    public static synchronized ClassPool getClassPool() {
+        if (classPool == null) {
+            PatchClassPool pool = new PatchClassPool();
+
+            classLoaders.removeIf(reference -> reference.get() == null);
+            for (WeakReference<ClassLoader> reference : classLoaders) {
+                ClassLoader classLoader = reference.get();
+                if (classLoader != null) pool.appendClassPath(new LoaderClassPath(classLoader));
+            }
+
+            for (Map.Entry<String, byte[]> entry : AgentManager.getAppliedClasses().entrySet()) {
+                pool.insertClassPath(new ByteArrayClassPath(entry.getKey(), entry.getValue()));
+            }
+
+            classPool = pool;
+        }
+        return classPool;
+    }
+
+    /**
+     * Adds a plugin class loader to the classes searched by the pool. Only a weak reference to the loader is kept.
+     *
+     * @param classLoader plugin {@link ClassLoader}
+     */
+    public static synchronized void appendClassLoader(ClassLoader classLoader) {
+        classLoaders.add(new WeakReference<>(classLoader));
+        if (classPool != null) classPool.appendClassPath(new LoaderClassPath(classLoader));
+    }
+
+    /**
+     * Removes a plugin class loader from the classes searched by future pools.
+     * The current pool is released, so that it does not keep classes read through the loader.
+     *
+     * @param classLoader plugin {@link ClassLoader}
+     */
+    public static synchronized void removeClassLoader(ClassLoader classLoader) {
+        classLoaders.removeIf(reference -> reference.get() == null || reference.get() == classLoader);
+        classPool = null;
+    }
+
+    /**
+     * Makes the pool read the new bytecode of a modified class. Does nothing if the pool is released,
+     * a new pool reads the bytecode from the {@link AgentManager}.
+     *
+     * @param className name of the modified class
+     * @param newClass  modified class file
+     */
+    static synchronized void updateClass(String className, byte[] newClass) {
+        if (classPool == null) return;
+
+        classPool.insertClassPath(new ByteArrayClassPath(className, newClass));
+        classPool.uncache(className);
+    }
+
+    /**
+     * Releases the pool and all the classes it has read. Called once the plugins are loaded,
+     * and by the {@link AgentManager} when a modification the pool has read could not be applied.
+     */
+    public static synchronized void release() {
+        classPool = null;
+    }
+
+    /**
+     * {@link ClassPool} of the system class path that can forget a class read before it was modified
+     */
+    private static final class PatchClassPool extends ClassPool {
+        /**
+         * Creates a pool searching the system class path.
+         */
+        private PatchClassPool() {
+            super(true);
+        }
+
+        /**
+         * Forgets a class, so that it is read again from the class path on the next lookup.
+         *
+         * @param className class name
+         */
+        private void uncache(String className) {
+            removeCached(className);
+        }
+    }
+}
@@ -2,10 +2,15 @@ package com.avrix.agent;
 
 /**
  * A class for transforming Java classes at runtime.
+ * <p>
+ * Modifications can be made with Javassist source code through {@link #getModifierBuilder()}
+ * and with calls to static hook methods woven by ASM through {@link #getBytecodeBuilder()}.
+ * </p>
  */
 public abstract class ClassTransformer {
     private final String className; // Name of the class being modified
     private final ClassModifier.ClassModifierBuilder modifierBuilder; // Builder for ClassModifier objects
+    private BytecodeModifier.BytecodeModifierBuilder bytecodeBuilder; // Builder for BytecodeModifier objects, created on first use
 
     /**
      * Constructor for creating a {@link ClassTransformer} object.
@@ -26,6 +31,18 @@ public abstract class ClassTransformer {
         return modifierBuilder;
     }
 
+    /**
+     * Gets the {@link BytecodeModifier.BytecodeModifierBuilder} for weaving hooks with ASM.
+     *
+     * @return the {@link BytecodeModifier.BytecodeModifierBuilder} instance.
+     */
+    public final BytecodeModifier.BytecodeModifierBuilder getBytecodeBuilder() {
+        if (bytecodeBuilder == null) {
+            bytecodeBuilder = new BytecodeModifier.BytecodeModifierBuilder(className);
+        }
+        return bytecodeBuilder;
+    }
+
     /**
      * Getting the full name of the class that needs to be modified.
      *
@@ -43,9 +60,17 @@ public abstract class ClassTransformer {
 
     /**
      * Applying modifications to the class being modified.
-     * Called after the {@link #modifyClass()} method is called
+     * Called after the {@link #modifyClass()} method is called.
+     * Javassist modifications are applied first, then the ASM ones.
      */
     public final void applyModifications() {
-        modifierBuilder.build().applyModifications();
+        boolean hasBytecodeModifications = bytecodeBuilder != null && bytecodeBuilder.hasModifications();
+
+        if (modifierBuilder.hasModifications() || !hasBytecodeModifications) {
+            modifierBuilder.build().applyModifications();
+        }
+        if (hasBytecodeModifications) {
+            bytecodeBuilder.build().applyModifications();
+        }
     }
 }
\ No newline at end of file
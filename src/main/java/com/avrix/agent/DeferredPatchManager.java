@@ -0,0 +1,290 @@
+package com.avrix.agent;
+
+import com.avrix.events.Event;
+import com.avrix.events.EventManager;
+import com.avrix.events.EventRegistry;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+
+/**
+ * Manager of the patches applied on demand, marked with {@link PatchCondition}.
+ * <p>
+ * Such a patch is only woven once one of the events raised by its hooks has a listener, so the game methods of events
+ * nobody listens to run unmodified. Listeners registered while the plugins are loaded are taken into account by
+ * {@link #activate()}. Listeners added later request the matching patches, which are compiled and applied in a batch
+ * on a background thread, so the thread adding the listener, possibly the game thread, is not held up.
+ * </p>
+ */
+public class DeferredPatchManager {
+    private static final List<DeferredPatch> pendingPatches = new ArrayList<>(); // Patches waiting for a listener
+    private static final Set<Integer> declaredEvents = new HashSet<>(); // Events listed by the conditions of all patches
+    private static final Set<Integer> requestedEvents = new HashSet<>(); // Events whose patches wait for the background batch
+    private static final Map<Integer, Boolean> knownLuaEvents = new HashMap<>(); // Whether Avrix has an event class, by event
+    private static final Object applyLock = new Object(); // Serializes the application of demanded patches
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Avrix-DeferredPatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static boolean applyScheduled; // Whether a background batch is queued
+    private static volatile boolean active; // Whether the patches are applied when listeners are added
+
+    /**
+     * Registers the events listed by the condition of a patch, whether the patch is deferred or not.
+     *
+     * @param condition {@link PatchCondition} of the patch
+     */
+    public static synchronized void declareEvents(PatchCondition condition) {
+        for (String eventName : condition.events()) {
+            declaredEvents.add(EventRegistry.getId(eventName));
+        }
+    }
+
+    /**
+     * Defers a patch until one of its events has a listener. If the manager is already active, the patch is applied
+     * immediately when its events have listeners.
+     *
+     * @param patch     patch to apply on demand
+     * @param condition {@link PatchCondition} of the patch
+     */
+    public static void defer(ClassTransformer patch, PatchCondition condition) {
+        int[] eventIds = new int[condition.events().length];
+        for (int i = 0; i < eventIds.length; i++) {
+            eventIds[i] = EventRegistry.getId(condition.events()[i]);
+        }
+
+        synchronized (DeferredPatchManager.class) {
+            declareEvents(condition);
+            pendingPatches.add(new DeferredPatch(patch, eventIds, condition.otherEvents()));
+        }
+
+        if (active) applyDemandedPatches();
+    }
+
+    /**
+     * Applies the deferred patches whose events have listeners, and applies the other deferred patches
+     * from now on as soon as listeners of their events are added. Called once the plugins are initialized.
+     */
+    public static void activate() {
+        active = true;
+        applyDemandedPatches();
+    }
+
+    /**
+     * Requests the deferred patches raising an event that has just received a listener. The patches are applied
+     * on a background thread. Called by the {@link EventManager} when a listener is registered.
+     *
+     * @param eventId event identifier
+     */
+    public static void onListenerAdded(int eventId) {
+        if (!active) return;
+
+        synchronized (DeferredPatchManager.class) {
+            if (!isRaised(eventId)) return;
+
+            requestedEvents.add(eventId);
+            if (applyScheduled) return;
+            applyScheduled = true;
+        }
+
+        executor.execute(DeferredPatchManager::flush);
+    }
+
+    /**
+     * Applies the patches requested by the listeners added so far on the calling thread,
+     * waiting for a background batch in progress.
+     */
+    static void flush() {
+        synchronized (applyLock) {
+            List<DeferredPatch> demandedPatches;
+            synchronized (DeferredPatchManager.class) {
+                applyScheduled = false;
+                demandedPatches = takePatches(deferredPatch -> {
+                    for (int eventId : requestedEvents) {
+                        if (deferredPatch.raises(eventId)) return true;
+                    }
+                    return false;
+                });
+                requestedEvents.clear();
+            }
+
+            applyPatches(demandedPatches);
+        }
+    }
+
+    /**
+     * Returns the number of patches still waiting for a listener of their events.
+     *
+     * @return number of deferred patches
+     */
+    public static synchronized int getPendingCount() {
+        return pendingPatches.size();
+    }
+
+    /**
+     * Removes the deferred patches declared by classes of a class loader, e.g. when a plugin is unloaded.
+     *
+     * @param classLoader {@link ClassLoader} of the patch classes
+     */
+    public static synchronized void removePatches(ClassLoader classLoader) {
+        pendingPatches.removeIf(deferredPatch -> deferredPatch.patch().getClass().getClassLoader() == classLoader);
+    }
+
+    /**
+     * Applies the deferred patches whose events have listeners, in a single batch.
+     */
+    private static void applyDemandedPatches() {
+        synchronized (applyLock) {
+            List<DeferredPatch> demandedPatches;
+            synchronized (DeferredPatchManager.class) {
+                demandedPatches = takePatches(DeferredPatch::hasListeners);
+            }
+
+            applyPatches(demandedPatches);
+        }
+    }
+
+    /**
+     * Removes the pending patches accepted by a filter. Must be called while holding the manager lock.
+     *
+     * @param filter patches to take
+     * @return {@link List} of the removed patches
+     */
+    private static List<DeferredPatch> takePatches(Predicate<DeferredPatch> filter) {
+        List<DeferredPatch> patches = new ArrayList<>();
+
+        Iterator<DeferredPatch> iterator = pendingPatches.iterator();
+        while (iterator.hasNext()) {
+            DeferredPatch deferredPatch = iterator.next();
+            if (filter.test(deferredPatch)) {
+                patches.add(deferredPatch);
+                iterator.remove();
+            }
+        }
+        return patches;
+    }
+
+    /**
+     * Applies patches in a single batch. Must be called while holding {@link #applyLock}.
+     *
+     * @param demandedPatches patches to apply
+     */
+    private static void applyPatches(List<DeferredPatch> demandedPatches) {
+        if (demandedPatches.isEmpty()) return;
+
+        AgentManager.beginBatch();
+        try {
+            for (DeferredPatch deferredPatch : demandedPatches) {
+                ClassTransformer patch = deferredPatch.patch();
+                try {
+                    PatchCache.apply(patch);
+                    System.out.printf("[#] Patch '%s' applied on demand.%n", patch.getClass().getSimpleName());
+                } catch (RuntimeException e) {
+                    System.out.printf("[!] Failed to apply patch '%s' on demand: %s%n", patch.getClass().getSimpleName(), e.getMessage());
+                }
+            }
+        } finally {
+            AgentManager.endBatch();
+            ClassPoolManager.release();
+        }
+    }
+
+    /**
+     * Checks whether a pending patch raises an event. Must be called while holding the manager lock.
+     *
+     * @param eventId event identifier
+     * @return true if the event demands a pending patch
+     */
+    private static boolean isRaised(int eventId) {
+        for (DeferredPatch deferredPatch : pendingPatches) {
+            if (deferredPatch.raises(eventId)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether an event is triggered from Lua by the game: Avrix has an event class for it, or the Lua event
+     * manager of the game has registered it. Must be called while holding the manager lock.
+     *
+     * @param eventId event identifier
+     * @return true if the event is a Lua event
+     */
+    private static boolean isLuaEvent(int eventId) {
+        String eventName = EventRegistry.getName(eventId);
+        if (eventName == null || eventName.isEmpty()) return false;
+
+        boolean hasEventClass = knownLuaEvents.computeIfAbsent(eventId, id -> {
+            String className = Event.class.getPackageName() + "." + Character.toUpperCase(eventName.charAt(0)) + eventName.substring(1) + "Event";
+            try {
+                return Event.class.isAssignableFrom(Class.forName(className, false, Event.class.getClassLoader()));
+            } catch (ClassNotFoundException | LinkageError e) {
+                return false;
+            }
+        });
+        return hasEventClass || isRegisteredInGame(eventName);
+    }
+
+    /**
+     * Checks whether the Lua event manager of the game has registered an event, e.g. an event added by a Lua mod.
+     *
+     * @param eventName event name
+     * @return true if the game knows the event, false if it does not or the game is not available
+     */
+    private static boolean isRegisteredInGame(String eventName) {
+        try {
+            Field eventMapField = Class.forName("zombie.Lua.LuaEventManager", false, ClassLoader.getSystemClassLoader()).getDeclaredField("EventMap");
+            eventMapField.setAccessible(true);
+            return eventMapField.get(null) instanceof Map<?, ?> eventMap && eventMap.containsKey(eventName);
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Patch waiting for a listener of its events
+     *
+     * @param patch       Patch to apply
+     * @param eventIds    Identifiers of the events raised by the patch
+     * @param otherEvents Whether the patch raises every event not listed by another patch
+     */
+    private record DeferredPatch(ClassTransformer patch, int[] eventIds, boolean otherEvents) {
+        /**
+         * Checks whether the patch raises an event. Must be called while holding the manager lock.
+         *
+         * @param eventId event identifier
+         * @return true if the patch raises the event
+         */
+        private boolean raises(int eventId) {
+            for (int id : eventIds) {
+                if (id == eventId) return true;
+            }
+            return otherEvents && !declaredEvents.contains(eventId) && isLuaEvent(eventId);
+        }
+
+        /**
+         * Checks whether one of the events raised by the patch has listeners. Must be called while holding the manager lock.
+         *
+         * @return true if the patch is demanded
+         */
+        private boolean hasListeners() {
+            int eventCount = otherEvents ? EventRegistry.size() : 0;
+            for (int id = 0; id < eventCount; id++) {
+                if (EventManager.hasListeners(id) && raises(id)) return true;
+            }
+            for (int id : eventIds) {
+                if (EventManager.hasListeners(id)) return true;
+            }
+            return false;
+        }
+    }
+}
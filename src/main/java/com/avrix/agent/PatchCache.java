@@ -0,0 +1,357 @@
+package com.avrix.agent;
+
+import com.avrix.events.EventRegistry;
+import com.avrix.utils.Constants;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Persistent cache of the bytecode produced by {@link ClassTransformer} patches, stored under {@code avrix/cache/classes}.
+ * <p>
+ * Each entry is keyed by a hash of the class bytes the patch is applied to, the bytes of the patch class (with its nested
+ * and anonymous classes), the whole jar containing the patch class and the Avrix version. Hashing the jar covers the other
+ * classes of the plugin a patch may call to build its code. A patch loaded from a class directory rather than a jar
+ * (e.g. in a development environment) is keyed by its own classes only, so changing such a helper class requires clearing the cache. A patch whose entry is found is applied directly through
+ * {@link AgentManager#redefineClass(String, byte[])}, without calling {@link ClassTransformer#modifyClass()},
+ * so no Javassist compilation takes place. Several patches of the same class are chained, since the input of each patch
+ * is the output of the previous one. Updating the game, a plugin or Avrix changes the key and the patch is compiled again.
+ * </p>
+ * <p>
+ * Patches embed {@link EventRegistry} identifiers as constants, and identifiers depend on the order in which events are
+ * first used. Each entry therefore stores the event names registered when it was compiled, and is only used if those names
+ * have the same identifiers in the current launch.
+ * </p>
+ * <p>
+ * The cache can be disabled with {@code -Davrix.patchCache=false}.
+ * </p>
+ */
+public class PatchCache {
+    private static final boolean enabled = !"false".equalsIgnoreCase(System.getProperty("avrix.patchCache")); // Whether the cache is used
+    private static Path cacheFolder = Paths.get(Constants.CACHE_DIR_NAME, "classes"); // Folder of the cached class files
+    private static final LongAdder hits = new LongAdder(); // Patches applied from the cache
+    private static final LongAdder misses = new LongAdder(); // Patches compiled with Javassist
+    private static final Map<Path, JarHash> jarHashes = new ConcurrentHashMap<>(); // Hashes of the jars containing patches
+
+    /**
+     * Applies a patch, from the cache if possible, otherwise by compiling it and storing the result in the cache.
+     * Exceptions of {@link ClassTransformer#modifyClass()} and {@link ClassTransformer#applyModifications()} are propagated.
+     *
+     * @param patch patch to apply
+     */
+    public static synchronized void apply(ClassTransformer patch) {
+        String className = patch.getClassName();
+
+        if (!enabled) {
+            patch.modifyClass();
+            patch.applyModifications();
+            return;
+        }
+
+        byte[] inputClass = AgentManager.getCurrentClass(className);
+
+        String key = inputClass != null ? computeKey(patch, inputClass) : null;
+        if (key != null && applyCached(className, key)) {
+            hits.increment();
+            return;
+        }
+
+        misses.increment();
+
+        patch.modifyClass();
+        patch.applyModifications();
+
+        byte[] outputClass = AgentManager.getAppliedClass(className);
+        if (key != null && outputClass != null && outputClass != inputClass) {
+            store(key, outputClass);
+        }
+    }
+
+    /**
+     * Changes the folder of the cached class files, e.g. to a temporary folder in tests.
+     *
+     * @param folder folder of the cached class files
+     */
+    static synchronized void setCacheFolder(Path folder) {
+        cacheFolder = folder;
+    }
+
+    /**
+     * Returns the number of patches applied from the cache since launch.
+     *
+     * @return number of cache hits
+     */
+    public static long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of patches compiled since launch.
+     *
+     * @return number of cache misses
+     */
+    public static long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Applies the cached class file of the key, if there is a valid one.
+     *
+     * @param className name of the patched class
+     * @param key       cache key
+     * @return true if the class was modified from the cache
+     */
+    private static boolean applyCached(String className, String key) {
+        Path file = cacheFolder.resolve(key + ".class");
+        if (!Files.isRegularFile(file)) return false;
+
+        if (!hasSameEventIds(cacheFolder.resolve(key + ".events"))) {
+            System.out.printf("[?] Cached class '%s' was compiled with other event identifiers, it will be compiled again.%n", className);
+            return false;
+        }
+
+        byte[] cachedClass;
+        try {
+            cachedClass = Files.readAllBytes(file);
+        } catch (IOException e) {
+            System.out.printf("[!] Failed to read the cached class '%s': %s%n", className, e.getMessage());
+            return false;
+        }
+
+        if (!isClassFile(cachedClass) || !AgentManager.redefineClass(className, cachedClass)) {
+            System.out.printf("[?] Cached class '%s' is invalid, it will be compiled again.%n", className);
+            deleteQuietly(file);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks that the events registered when an entry was compiled have the same identifiers in this launch.
+     * Events not registered yet are registered in the stored order, which gives them their stored identifiers
+     * if the launches have registered the same events so far.
+     *
+     * @param eventsFile file listing the event names of the entry, one per line in the order of their identifiers
+     * @return true if every stored event has its stored identifier
+     */
+    private static boolean hasSameEventIds(Path eventsFile) {
+        List<String> eventNames;
+        try {
+            eventNames = Files.readAllLines(eventsFile, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return false;
+        }
+
+        for (int eventId = 0; eventId < eventNames.size(); eventId++) {
+            if (EventRegistry.getId(eventNames.get(eventId)) != eventId) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Stores a class file in the cache, along with the event names registered at this point. The files are written under
+     * a temporary name and then moved, so an interrupted launch never leaves a truncated entry. The event names of a previous
+     * entry are deleted first and the new ones are written last, so a class file is never used with names it was not compiled with.
+     *
+     * @param key         cache key
+     * @param outputClass patched class file
+     */
+    private static void store(String key, byte[] outputClass) {
+        StringBuilder eventNames = new StringBuilder();
+        for (String eventName : EventRegistry.getNames()) {
+            eventNames.append(eventName).append('\n');
+        }
+
+        try {
+            Path eventsFile = cacheFolder.resolve(key + ".events");
+            Files.createDirectories(cacheFolder);
+            Files.deleteIfExists(eventsFile);
+            writeAtomically(cacheFolder.resolve(key + ".class"), outputClass);
+            writeAtomically(eventsFile, eventNames.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            System.out.printf("[!] Failed to cache a patched class: %s%n", e.getMessage());
+        }
+    }
+
+    /**
+     * Writes a file under a temporary name and moves it to its final name.
+     *
+     * @param file    file to write
+     * @param content content of the file
+     * @throws IOException if the file cannot be written
+     */
+    private static void writeAtomically(Path file, byte[] content) throws IOException {
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.write(tempFile, content);
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            deleteQuietly(tempFile);
+            throw e;
+        }
+    }
+
+    /**
+     * Computes the cache key of a patch.
+     *
+     * @param patch      patch to apply
+     * @param inputClass class file the patch is applied to
+     * @return hexadecimal SHA-256 hash, or {@code null} if the patch class file cannot be read
+     */
+    static String computeKey(ClassTransformer patch, byte[] inputClass) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        }
+
+        digest.update(Constants.AVRIX_VERSION.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(patch.getClassName().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(inputClass);
+
+        Class<?> patchClass = patch.getClass();
+        byte[] jarHash = getJarHash(patchClass);
+        if (jarHash != null) digest.update(jarHash);
+
+        ClassLoader patchLoader = patchClass.getClassLoader();
+        if (!digestClass(digest, patchLoader, patchClass.getName().replace('.', '/'))) return null;
+
+        for (Class<?> nestedClass : patchClass.getDeclaredClasses()) {
+            digestClass(digest, patchLoader, nestedClass.getName().replace('.', '/'));
+        }
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Returns the hash of the jar a class was loaded from. The hash is computed once per jar
+     * and computed again if the size or the modification time of the jar changes.
+     *
+     * @param clazz class of the patch
+     * @return SHA-256 hash of the jar, or {@code null} if the class was not loaded from a readable jar
+     */
+    private static byte[] getJarHash(Class<?> clazz) {
+        CodeSource codeSource = clazz.getProtectionDomain().getCodeSource();
+        if (codeSource == null || codeSource.getLocation() == null) return null;
+
+        Path jarPath = toPath(codeSource.getLocation());
+        if (jarPath == null || !Files.isRegularFile(jarPath)) return null;
+
+        try {
+            long size = Files.size(jarPath);
+            long modified = Files.getLastModifiedTime(jarPath).toMillis();
+
+            JarHash jarHash = jarHashes.get(jarPath);
+            if (jarHash == null || jarHash.size() != size || jarHash.modified() != modified) {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                try (InputStream input = Files.newInputStream(jarPath)) {
+                    byte[] chunk = new byte[8192];
+                    int read;
+                    while ((read = input.read(chunk)) != -1) {
+                        digest.update(chunk, 0, read);
+                    }
+                }
+
+                jarHash = new JarHash(size, modified, digest.digest());
+                jarHashes.put(jarPath, jarHash);
+            }
+            return jarHash.hash();
+        } catch (IOException | NoSuchAlgorithmException e) {
+            System.out.printf("[?] Failed to hash the jar '%s' of patch '%s', only the patch classes are used as cache key. Reason: %s%n",
+                    jarPath, clazz.getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Converts the URL of a jar to a normalized path.
+     *
+     * @param url file URL
+     * @return absolute normalized path, or {@code null} if the URL is not a local file
+     */
+    private static Path toPath(URL url) {
+        try {
+            return Paths.get(url.toURI()).toAbsolutePath().normalize();
+        } catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Adds a class file and its anonymous classes ({@code Name$1}, {@code Name$2}, ...) to the digest.
+     *
+     * @param digest       digest to update
+     * @param loader       loader of the class
+     * @param internalName class name with '/' separators
+     * @return true if the class file was found
+     */
+    private static boolean digestClass(MessageDigest digest, ClassLoader loader, String internalName) {
+        byte[] classFile = AgentManager.readClassFile(loader, internalName);
+        if (classFile == null) return false;
+
+        digest.update(internalName.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(classFile);
+
+        int index = 1;
+        while (digestClass(digest, loader, internalName + "$" + index)) {
+            index++;
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks that the bytes start with the class file magic number.
+     *
+     * @param classFile bytes to check
+     * @return true if the bytes may be a class file
+     */
+    private static boolean isClassFile(byte[] classFile) {
+        return classFile.length > 4
+                && (classFile[0] & 0xFF) == 0xCA && (classFile[1] & 0xFF) == 0xFE
+                && (classFile[2] & 0xFF) == 0xBA && (classFile[3] & 0xFF) == 0xBE;
+    }
+
+    /**
+     * Deletes a file, ignoring errors.
+     *
+     * @param file file to delete
+     */
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Hash of a jar containing patches
+     *
+     * @param size     Size of the jar when it was hashed
+     * @param modified Modification time of the jar when it was hashed, in milliseconds
+     * @param hash     SHA-256 hash of the jar
+     */
+    private record JarHash(long size, long modified, byte[] hash) {
+    }
+}
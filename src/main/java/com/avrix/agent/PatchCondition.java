@@ -0,0 +1,51 @@
+package com.avrix.agent;
+
+import com.avrix.enums.Environment;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation of a {@link ClassTransformer} describing when the patch is needed.
+ * <p>
+ * A patch whose hooks only raise events is applied on demand by the {@link DeferredPatchManager}: once the plugins are
+ * initialized if one of its events has a listener, otherwise as soon as a listener of one of its events is added.
+ * Until then the game class stays unmodified. Patches without this annotation are always applied.
+ * </p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface PatchCondition {
+    /**
+     * Names of the events raised by the hooks of the patch (case-insensitive).
+     *
+     * @return event names
+     */
+    String[] events() default {};
+
+    /**
+     * Whether the patch raises every Lua event of the game that is not listed by another patch. An event is a Lua event
+     * if Avrix has an event class for it, or if the Lua event manager of the game has registered it.
+     * Custom events of plugins do not demand such a patch.
+     *
+     * @return true if the patch raises the Lua events of no other patch
+     */
+    boolean otherEvents() default false;
+
+    /**
+     * Whether the patch waits for a listener of its events. Patches whose hooks are also needed by other features
+     * set it to false and list their events only so that they are not attributed to {@link #otherEvents()} patches.
+     *
+     * @return true if the patch is applied on demand
+     */
+    boolean onDemand() default true;
+
+    /**
+     * Environment in which the patch is applied.
+     *
+     * @return the {@link Environment} of the patch, {@link Environment#BOTH} by default
+     */
+    Environment environment() default Environment.BOTH;
+}
@@ -0,0 +1,381 @@
+package com.avrix.api.server;
+
+import zombie.characters.IsoPlayer;
+import zombie.core.raknet.UdpConnection;
+import zombie.network.GameServer;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Index of the players connected to the server, used by {@link PlayerUtils} instead of scanning all connections.
+ * <p>
+ * Maps usernames, display names, SteamIDs, OnlineIDs and connections to {@link IsoPlayer} instances in constant time,
+ * and keeps a prefix tree of the display names for partial lookups. The index is updated by the
+ * {@code GameServer.receivePlayerConnect} and {@code GameServer.disconnectPlayer} patches.
+ * Exact lookups read concurrent maps without locking, partial lookups synchronize on the prefix tree.
+ * Both may be done from any thread.
+ * </p>
+ * <p>
+ * Each hit is checked against the current state of the player. When a name lookup misses or finds a stale entry,
+ * the indexed players are scanned for changed names and re-indexed before the lookup is retried, at most once
+ * per {@link #RESCAN_INTERVAL_MILLIS} so that misses stay constant time.
+ * Call {@link #update(IsoPlayer)} after changing indexed fields, or {@link #rebuild()} to re-read all connections.
+ * </p>
+ */
+public class PlayerIndex {
+    private static final Map<IsoPlayer, IndexedPlayer> players = new ConcurrentHashMap<>(); // Index entries by player
+    private static final Map<String, IsoPlayer> usernames = new ConcurrentHashMap<>(); // Players by username
+    private static final Map<String, IsoPlayer> displayNames = new ConcurrentHashMap<>(); // Players by display name
+    private static final Map<Long, IsoPlayer> steamIds = new ConcurrentHashMap<>(); // Players by SteamID
+    private static final Map<Short, IsoPlayer> onlineIds = new ConcurrentHashMap<>(); // Players by OnlineID
+    private static final Map<UdpConnection, IsoPlayer> connections = new ConcurrentHashMap<>(); // Main player of each connection
+    private static final PrefixTrie<IsoPlayer> displayNameTrie = new PrefixTrie<>(); // Players by lower-case display name
+
+    /**
+     * Lock that serializes modifications of the index
+     */
+    private static final Object writeLock = new Object();
+
+    /**
+     * Minimum interval between two scans for changed names, in milliseconds
+     */
+    public static final long RESCAN_INTERVAL_MILLIS = 1000;
+
+    /**
+     * {@link System#nanoTime()} of the last scan for changed names
+     */
+    private static final AtomicLong lastRescan = new AtomicLong(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(RESCAN_INTERVAL_MILLIS));
+
+    /**
+     * Indexes all players of a connection, replacing the players previously indexed for it.
+     * The player of the first occupied slot becomes the main player of the connection.
+     * Called by the {@code GameServer.receivePlayerConnect} patch.
+     *
+     * @param connection player connection
+     */
+    public static void addConnection(UdpConnection connection) {
+        if (connection == null) return;
+
+        synchronized (writeLock) {
+            // Players previously indexed for the connection may have been replaced, e.g. after a respawn
+            for (IndexedPlayer entry : List.copyOf(players.values())) {
+                if (entry.connection() == connection) remove(entry.player());
+            }
+
+            IsoPlayer mainPlayer = null;
+            for (IsoPlayer player : connection.players) {
+                if (player == null) continue;
+
+                add(player, connection);
+                if (mainPlayer == null) mainPlayer = player;
+            }
+
+            if (mainPlayer != null) connections.put(connection, mainPlayer);
+        }
+    }
+
+    /**
+     * Adds a player to the index, replacing its previous entry.
+     *
+     * @param player     player to add
+     * @param connection connection of the player, may be {@code null}
+     */
+    public static void add(IsoPlayer player, UdpConnection connection) {
+        if (player == null) return;
+
+        synchronized (writeLock) {
+            remove(player);
+
+            IndexedPlayer entry = new IndexedPlayer(player, connection, player.getUsername(), player.getDisplayName(), player.getSteamID(), player.OnlineID);
+            players.put(player, entry);
+
+            if (entry.username() != null) usernames.put(entry.username(), player);
+            if (entry.displayName() != null) {
+                displayNames.put(entry.displayName(), player);
+                displayNameTrie.put(toTrieKey(entry.displayName()), player);
+            }
+            if (entry.steamId() != 0) steamIds.put(entry.steamId(), player);
+            onlineIds.put(entry.onlineId(), player);
+            if (connection != null) connections.putIfAbsent(connection, player);
+        }
+    }
+
+    /**
+     * Removes a player from the index. Called by the {@code GameServer.disconnectPlayer} patch after the {@code onPlayerDisconnect} listeners have run.
+     *
+     * @param player player to remove
+     */
+    public static void remove(IsoPlayer player) {
+        if (player == null) return;
+
+        synchronized (writeLock) {
+            IndexedPlayer entry = players.remove(player);
+            if (entry == null) return;
+
+            if (entry.username() != null) usernames.remove(entry.username(), player);
+            if (entry.displayName() != null) {
+                displayNames.remove(entry.displayName(), player);
+                displayNameTrie.remove(toTrieKey(entry.displayName()), player);
+            }
+            steamIds.remove(entry.steamId(), player);
+            onlineIds.remove(entry.onlineId(), player);
+
+            if (entry.connection() != null && connections.remove(entry.connection(), player)) {
+                // Another player of the same connection (split-screen) becomes its main player
+                for (IndexedPlayer other : players.values()) {
+                    if (other.connection() == entry.connection()) {
+                        connections.put(entry.connection(), other.player());
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Re-indexes a player after its username, display name, SteamID or OnlineID has changed.
+     *
+     * @param player player to re-index
+     */
+    public static void update(IsoPlayer player) {
+        IndexedPlayer entry = players.get(player);
+        add(player, entry != null ? entry.connection() : GameServer.getConnectionFromPlayer(player));
+    }
+
+    /**
+     * Clears the index and re-reads all server connections.
+     */
+    public static void rebuild() {
+        synchronized (writeLock) {
+            for (IsoPlayer player : players.keySet()) {
+                remove(player);
+            }
+
+            for (int connectionIndex = 0; connectionIndex < GameServer.udpEngine.connections.size(); ++connectionIndex) {
+                addConnection(GameServer.udpEngine.connections.get(connectionIndex));
+            }
+        }
+    }
+
+    /**
+     * Returns the number of indexed players.
+     *
+     * @return number of players
+     */
+    public static int size() {
+        return players.size();
+    }
+
+    /**
+     * Finds a player by display name or username, the display name takes precedence.
+     *
+     * @param name exact display name or username
+     * @return {@link IsoPlayer} instance, or {@code null} if not found
+     */
+    public static IsoPlayer getPlayerByUsername(String name) {
+        if (name == null) return null;
+
+        IsoPlayer player = findByName(name);
+        if (player == null && reindexChangedNames()) {
+            player = findByName(name);
+        }
+        return player;
+    }
+
+    /**
+     * Finds a player by display name.
+     *
+     * @param displayName exact display name
+     * @return {@link IsoPlayer} instance, or {@code null} if not found
+     */
+    public static IsoPlayer getPlayerByDisplayName(String displayName) {
+        if (displayName == null) return null;
+
+        IsoPlayer player = findByDisplayName(displayName);
+        if (player == null && reindexChangedNames()) {
+            player = findByDisplayName(displayName);
+        }
+        return player;
+    }
+
+    /**
+     * Finds a player by a full or partial display name, case-insensitive.
+     * An exact match takes precedence, otherwise the player with the alphabetically first matching name is returned.
+     *
+     * @param prefix full or partial display name
+     * @return {@link IsoPlayer} instance, or {@code null} if no name starts with the prefix
+     */
+    public static IsoPlayer getPlayerByPartialUsername(String prefix) {
+        if (prefix == null) return null;
+
+        String key = toTrieKey(prefix);
+        IsoPlayer player = displayNameTrie.getFirst(key);
+        if ((player == null || !matchesPrefix(player, key)) && reindexChangedNames()) {
+            player = displayNameTrie.getFirst(key);
+        }
+        return player != null && matchesPrefix(player, key) ? player : null;
+    }
+
+    /**
+     * Finds all players whose display names start with the prefix, case-insensitive. Useful for name completion.
+     * If fewer players than the limit are found, names changed since indexing may be checked,
+     * at most once per {@link #RESCAN_INTERVAL_MILLIS}.
+     *
+     * @param prefix partial display name
+     * @param limit  maximum number of players to return
+     * @return {@link List} of players ordered by display name, empty if the prefix is {@code null} or the limit is not positive
+     */
+    public static List<IsoPlayer> getPlayersByPartialUsername(String prefix, int limit) {
+        if (prefix == null || limit <= 0) return List.of();
+
+        String key = toTrieKey(prefix);
+        List<IsoPlayer> result = displayNameTrie.getAll(key, limit);
+
+        boolean stale = result.size() < limit;
+        for (IsoPlayer player : result) {
+            if (!matchesPrefix(player, key)) stale = true;
+        }
+
+        if (stale && reindexChangedNames()) {
+            result = displayNameTrie.getAll(key, limit);
+        }
+        return result;
+    }
+
+    /**
+     * Finds a player by SteamID.
+     *
+     * @param steamId SteamID of the player
+     * @return {@link IsoPlayer} instance, or {@code null} if not found
+     */
+    public static IsoPlayer getPlayerBySteamID(long steamId) {
+        return steamIds.get(steamId);
+    }
+
+    /**
+     * Finds a player by OnlineID.
+     *
+     * @param onlineId OnlineID of the player
+     * @return {@link IsoPlayer} instance, or {@code null} if not found
+     */
+    public static IsoPlayer getPlayerByOnlineID(short onlineId) {
+        IsoPlayer player = onlineIds.get(onlineId);
+        if (player != null && player.OnlineID != onlineId) {
+            update(player);
+            player = onlineIds.get(onlineId);
+        }
+        return player;
+    }
+
+    /**
+     * Returns the main player of a connection.
+     *
+     * @param connection player connection
+     * @return {@link IsoPlayer} instance, or {@code null} if the connection has no indexed players
+     */
+    public static IsoPlayer getPlayerByConnection(UdpConnection connection) {
+        return connections.get(connection);
+    }
+
+    /**
+     * Returns the connection of an indexed player.
+     *
+     * @param player player instance
+     * @return {@link UdpConnection}, or {@code null} if the player is not indexed
+     */
+    public static UdpConnection getConnection(IsoPlayer player) {
+        IndexedPlayer entry = players.get(player);
+        return entry != null ? entry.connection() : null;
+    }
+
+    /**
+     * Looks up a player by display name, then by username, ignoring entries whose name has changed.
+     *
+     * @param name exact display name or username
+     * @return {@link IsoPlayer} instance, or {@code null} if not found
+     */
+    private static IsoPlayer findByName(String name) {
+        IsoPlayer player = findByDisplayName(name);
+        if (player != null) return player;
+
+        player = usernames.get(name);
+        return player != null && name.equals(player.getUsername()) ? player : null;
+    }
+
+    /**
+     * Looks up a player by display name, ignoring an entry whose name has changed.
+     *
+     * @param displayName exact display name
+     * @return {@link IsoPlayer} instance, or {@code null} if not found
+     */
+    private static IsoPlayer findByDisplayName(String displayName) {
+        IsoPlayer player = displayNames.get(displayName);
+        return player != null && displayName.equals(player.getDisplayName()) ? player : null;
+    }
+
+    /**
+     * Checks whether the current display name of a player starts with a prefix tree key.
+     *
+     * @param player player to check
+     * @param key    lower-case prefix
+     * @return true if the display name starts with the prefix
+     */
+    private static boolean matchesPrefix(IsoPlayer player, String key) {
+        String displayName = player.getDisplayName();
+        return displayName != null && toTrieKey(displayName).startsWith(key);
+    }
+
+    /**
+     * Re-indexes the players whose username or display name differs from the one they were indexed with.
+     * Does nothing if a scan has already been done within the last {@link #RESCAN_INTERVAL_MILLIS}.
+     *
+     * @return true if at least one player was re-indexed
+     */
+    private static boolean reindexChangedNames() {
+        long now = System.nanoTime();
+        long last = lastRescan.get();
+        if (now - last < TimeUnit.MILLISECONDS.toNanos(RESCAN_INTERVAL_MILLIS) || !lastRescan.compareAndSet(last, now)) {
+            return false;
+        }
+
+        boolean changed = false;
+
+        for (IndexedPlayer entry : players.values()) {
+            IsoPlayer player = entry.player();
+            if (!Objects.equals(entry.username(), player.getUsername()) || !Objects.equals(entry.displayName(), player.getDisplayName())) {
+                update(player);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Converts a display name to the key of the prefix tree.
+     *
+     * @param name display name
+     * @return lower-case name
+     */
+    private static String toTrieKey(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Index entry of a player, holding the keys under which the player was indexed
+     *
+     * @param player      Player instance
+     * @param connection  Connection of the player, may be {@code null}
+     * @param username    Username at the time of indexing
+     * @param displayName Display name at the time of indexing
+     * @param steamId     SteamID at the time of indexing, 0 if Steam mode is disabled
+     * @param onlineId    OnlineID at the time of indexing
+     */
+    private record IndexedPlayer(IsoPlayer player, UdpConnection connection, String username, String displayName, long steamId, short onlineId) {
+    }
+}
@@ -130,7 +130,8 @@ public class PlayerUtils {
      * @return {@link IsoPlayer} instance or null if player not found
      */
     public static IsoPlayer getPlayerByUdpConnection(UdpConnection udpConnection) {
-        return getPlayerByUsername(udpConnection.username);
+        IsoPlayer player = PlayerIndex.getPlayerByConnection(udpConnection);
+        return player != null ? player : getPlayerByUsername(udpConnection.username);
     }
 
     /**
@@ -166,6 +167,16 @@ public class PlayerUtils {
         return String.valueOf(player.getSteamID());
     }
 
+    /**
+     * Returns the player by their SteamID.
+     *
+     * @param steamID the SteamID of the player
+     * @return the IsoPlayer instance for the player, or null if not found
+     */
+    public static IsoPlayer getPlayerBySteamID(long steamID) {
+        return PlayerIndex.getPlayerBySteamID(steamID);
+    }
+
     /**
      * Getting a player instance by nickname
      *
@@ -173,46 +184,18 @@ public class PlayerUtils {
      * @return {@link IsoPlayer}  instance, or null if not found
      */
     public static IsoPlayer getPlayerByUsername(String username) {
-        for (int connectionIndex = 0; connectionIndex < GameServer.udpEngine.connections.size(); ++connectionIndex) {
-            UdpConnection connection = GameServer.udpEngine.connections.get(connectionIndex);
-
-            for (int playerIndex = 0; playerIndex < 4; ++playerIndex) {
-                IsoPlayer player = connection.players[playerIndex];
-
-                if (player == null) continue;
-
-                if (player.getDisplayName().equals(username) || player.getUsername().equals(username)) {
-                    return player;
-                }
-            }
-        }
-        return null;
+        return PlayerIndex.getPlayerByUsername(username);
     }
 
     /**
      * Searches for a player by a full or partial username.
+     * An exact match takes precedence, otherwise the player with the alphabetically first matching name is returned.
      *
      * @param userName The full or partial name of the player to search for.
      * @return The first {@link IsoPlayer} object that matches the given username, or null if no match is found.
      */
     public static IsoPlayer getPlayerByPartialUsername(String userName) {
-        for (int connectionIndex = 0; connectionIndex < GameServer.udpEngine.connections.size(); ++connectionIndex) {
-            UdpConnection connection = GameServer.udpEngine.connections.get(connectionIndex);
-
-            for (int playerIndex = 0; playerIndex < 4; ++playerIndex) {
-                IsoPlayer player = connection.players[playerIndex];
-
-                if (player == null) continue;
-
-                String displayNameLower = player.getDisplayName().toLowerCase();
-                String userNameLower = userName.toLowerCase();
-                if (displayNameLower.equals(userNameLower) || displayNameLower.startsWith(userNameLower)) {
-                    return player;
-                }
-            }
-        }
-
-        return null;
+        return PlayerIndex.getPlayerByPartialUsername(userName);
     }
 
     /**
@@ -490,16 +473,8 @@ public class PlayerUtils {
      * @return the UdpConnection for the player, or null if not found
      */
     public static UdpConnection getUdpConnectionByPlayerOnlineID(short onlineID) {
-        for (int i = 0; i < GameServer.udpEngine.connections.size(); ++i) {
-            UdpConnection connection = GameServer.udpEngine.connections.get(i);
-            for (int j = 0; j < connection.players.length; ++j) {
-                IsoPlayer player = connection.players[j];
-                if (player != null && player.OnlineID == onlineID) {
-                    return connection;
-                }
-            }
-        }
-        return null;
+        IsoPlayer player = PlayerIndex.getPlayerByOnlineID(onlineID);
+        return player != null ? PlayerIndex.getConnection(player) : null;
     }
 
     /**
@@ -528,16 +503,7 @@ public class PlayerUtils {
      * @return the IsoPlayer instance for the player, or null if not found
      */
     public static IsoPlayer getPlayerByOnlineID(short onlineID) {
-        for (int i = 0; i < GameServer.udpEngine.connections.size(); ++i) {
-            UdpConnection connection = GameServer.udpEngine.connections.get(i);
-            for (int j = 0; j < connection.players.length; ++j) {
-                IsoPlayer player = connection.players[j];
-                if (player != null && player.OnlineID == onlineID) {
-                    return player;
-                }
-            }
-        }
-        return null;
+        return PlayerIndex.getPlayerByOnlineID(onlineID);
     }
 
     /**
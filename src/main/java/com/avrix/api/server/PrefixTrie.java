@@ -0,0 +1,138 @@
+package com.avrix.api.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Prefix tree mapping string keys to values, used for partial name lookups.
+ * Several values may share the same key. Children are kept sorted, so prefix lookups are deterministic.
+ *
+ * @param <T> type of the values
+ */
+final class PrefixTrie<T> {
+    private final Node<T> root = new Node<>(); // Node of the empty prefix
+
+    /**
+     * Adds a value under the key.
+     *
+     * @param key   key of the value
+     * @param value value to add
+     */
+    synchronized void put(String key, T value) {
+        Node<T> node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.children.computeIfAbsent(key.charAt(i), c -> new Node<>());
+        }
+        if (!node.values.contains(value)) {
+            node.values.add(value);
+        }
+    }
+
+    /**
+     * Removes a value stored under the key, pruning nodes that become empty.
+     *
+     * @param key   key of the value
+     * @param value value to remove
+     * @return true if the value was stored under the key
+     */
+    synchronized boolean remove(String key, T value) {
+        return remove(root, key, 0, value);
+    }
+
+    /**
+     * Returns the value whose key matches the prefix: a value stored exactly under the prefix if there is one,
+     * otherwise the value with the lexicographically smallest key starting with the prefix.
+     *
+     * @param prefix key prefix
+     * @return matching value, or {@code null} if no key starts with the prefix
+     */
+    synchronized T getFirst(String prefix) {
+        Node<T> node = find(prefix);
+        while (node != null) {
+            if (!node.values.isEmpty()) return node.values.get(0);
+            node = node.children.isEmpty() ? null : node.children.firstEntry().getValue();
+        }
+        return null;
+    }
+
+    /**
+     * Returns all values whose keys start with the prefix.
+     *
+     * @param prefix key prefix
+     * @param limit  maximum number of values to return
+     * @return {@link List} of matching values ordered by key
+     */
+    synchronized List<T> getAll(String prefix, int limit) {
+        List<T> result = new ArrayList<>();
+        Node<T> node = find(prefix);
+        if (node != null) {
+            collect(node, result, limit);
+        }
+        return result;
+    }
+
+    /**
+     * Finds the node of the prefix.
+     *
+     * @param prefix key prefix
+     * @return {@link Node}, or {@code null} if no key starts with the prefix
+     */
+    private Node<T> find(String prefix) {
+        Node<T> node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children.get(prefix.charAt(i));
+        }
+        return node;
+    }
+
+    /**
+     * Collects the values of the node and of its descendants in key order.
+     *
+     * @param node   node to collect
+     * @param result collected values
+     * @param limit  maximum number of values to collect
+     */
+    private void collect(Node<T> node, List<T> result, int limit) {
+        for (T value : node.values) {
+            if (result.size() >= limit) return;
+            result.add(value);
+        }
+        for (Node<T> child : node.children.values()) {
+            if (result.size() >= limit) return;
+            collect(child, result, limit);
+        }
+    }
+
+    /**
+     * Removes a value from the subtree of the node.
+     *
+     * @param node  current node
+     * @param key   key of the value
+     * @param depth index of the character of the key matched by the children of the node
+     * @param value value to remove
+     * @return true if the value was removed
+     */
+    private boolean remove(Node<T> node, String key, int depth, T value) {
+        if (depth == key.length()) return node.values.remove(value);
+
+        char character = key.charAt(depth);
+        Node<T> child = node.children.get(character);
+        if (child == null || !remove(child, key, depth + 1, value)) return false;
+
+        if (child.values.isEmpty() && child.children.isEmpty()) {
+            node.children.remove(character);
+        }
+        return true;
+    }
+
+    /**
+     * Node of the prefix tree
+     *
+     * @param <T> type of the values
+     */
+    private static final class Node<T> {
+        private final TreeMap<Character, Node<T>> children = new TreeMap<>(); // Child nodes by the next character
+        private final List<T> values = new ArrayList<>(1); // Values stored under the key ending at this node
+    }
+}
@@ -0,0 +1,118 @@
+package com.avrix.commands;
+
+import com.avrix.api.server.PlayerUtils;
+import zombie.characters.IsoPlayer;
+
+import java.time.Duration;
+
+/**
+ * Parsers of the typed command arguments. Each parser throws an {@link IllegalArgumentException}
+ * with a message suitable for the user when the argument is invalid.
+ */
+final class ArgumentParser {
+    /**
+     * Parses an {@link com.avrix.enums.ArgumentType#INT} argument.
+     *
+     * @param name  argument name
+     * @param value argument text
+     * @return parsed number
+     */
+    static int parseInt(String name, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("Argument '%s' must be a number, got '%s'", name, value));
+        }
+    }
+
+    /**
+     * Parses a {@link com.avrix.enums.ArgumentType#PLAYER} argument by a full or partial username.
+     *
+     * @param name  argument name
+     * @param value argument text
+     * @return {@link IsoPlayer} instance
+     */
+    static IsoPlayer parsePlayer(String name, String value) {
+        IsoPlayer player = PlayerUtils.getPlayerByPartialUsername(value);
+        if (player == null) {
+            throw new IllegalArgumentException(String.format("Player '%s' not found", value));
+        }
+        return player;
+    }
+
+    /**
+     * Parses a {@link com.avrix.enums.ArgumentType#DURATION} argument: a number of seconds, or a sequence of numbers
+     * with the units {@code d}, {@code h}, {@code m} and {@code s}, such as {@code 1h30m}.
+     *
+     * @param name  argument name
+     * @param value argument text
+     * @return parsed {@link Duration}
+     */
+    static Duration parseDuration(String name, String value) {
+        long seconds = 0;
+        long number = -1;
+
+        try {
+            for (int i = 0; i < value.length(); i++) {
+                char character = value.charAt(i);
+
+                if (character >= '0' && character <= '9') {
+                    number = Math.addExact(Math.multiplyExact(Math.max(number, 0), 10), character - '0');
+                    continue;
+                }
+
+                if (number < 0) throw invalidDuration(name, value);
+
+                long unit = switch (Character.toLowerCase(character)) {
+                    case 'd' -> 86400;
+                    case 'h' -> 3600;
+                    case 'm' -> 60;
+                    case 's' -> 1;
+                    default -> throw invalidDuration(name, value);
+                };
+                seconds = Math.addExact(seconds, Math.multiplyExact(number, unit));
+                number = -1;
+            }
+        } catch (ArithmeticException e) {
+            throw invalidDuration(name, value);
+        }
+
+        if (number >= 0) {
+            seconds = number > Long.MAX_VALUE - seconds ? -1 : seconds + number;
+        } else if (value.isEmpty()) {
+            throw invalidDuration(name, value);
+        }
+        if (seconds < 0) throw invalidDuration(name, value);
+
+        return Duration.ofSeconds(seconds);
+    }
+
+    /**
+     * Parses a {@link com.avrix.enums.ArgumentType#COORDINATES} argument.
+     *
+     * @param name   argument name
+     * @param values two or three argument texts: x, y and the optional z
+     * @return parsed {@link Coordinates}
+     */
+    static Coordinates parseCoordinates(String name, String... values) {
+        try {
+            int x = Integer.parseInt(values[0]);
+            int y = Integer.parseInt(values[1]);
+            int z = values.length > 2 ? Integer.parseInt(values[2]) : 0;
+            return new Coordinates(x, y, z);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("Argument '%s' must be coordinates 'x y [z]', got '%s'", name, String.join(" ", values)));
+        }
+    }
+
+    /**
+     * Creates the error of an invalid duration.
+     *
+     * @param name  argument name
+     * @param value argument text
+     * @return {@link IllegalArgumentException} to throw
+     */
+    private static IllegalArgumentException invalidDuration(String name, String value) {
+        return new IllegalArgumentException(String.format("Argument '%s' must be a duration such as 90, 30s, 5m or 1h30m, got '%s'", name, value));
+    }
+}
@@ -0,0 +1,210 @@
+package com.avrix.commands;
+
+import com.avrix.api.server.ChatUtils;
+import com.avrix.api.server.PlayerIndex;
+import com.avrix.scheduler.Scheduler;
+import zombie.core.raknet.UdpConnection;
+
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs commands marked with {@link CommandAsync} on background threads and delivers their results on the game thread.
+ * <p>
+ * Asynchronous commands are expected to block on I/O, so they get their own pool instead of sharing the {@link Scheduler} pool
+ * with computational tasks. The pool size is {@value #DEFAULT_THREADS} threads by default and can be changed with the
+ * {@code -Davrix.commands.asyncThreads=<threads>} system property. Commands beyond the pool size wait in a queue,
+ * the waiting time counts towards their timeout.
+ * </p>
+ */
+final class AsyncCommandExecutor {
+    /**
+     * Default number of threads running asynchronous commands
+     */
+    static final int DEFAULT_THREADS = 16;
+
+    /**
+     * Pool of daemon threads running asynchronous commands
+     */
+    private static final ExecutorService commandExecutor = createExecutor();
+
+    /**
+     * Thread interrupting commands that exceed their timeout
+     */
+    private static final ScheduledExecutorService timeoutExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Avrix-Command-Timeout");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Commands submitted and not yet finished
+     */
+    private static final Set<PendingCommand> pendingCommands = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Starts an asynchronous command.
+     *
+     * @param descriptor       command to run
+     * @param playerConnection player connection (null if the command is executed from console)
+     * @param arguments        parsed arguments of the command
+     */
+    static void submit(CommandDescriptor descriptor, UdpConnection playerConnection, CommandArguments arguments) {
+        PendingCommand pendingCommand = new PendingCommand(descriptor, playerConnection, arguments);
+        pendingCommands.add(pendingCommand);
+
+        if (descriptor.getTimeoutNanos() > 0) {
+            pendingCommand.timeout = timeoutExecutor.schedule(pendingCommand::timeOut, descriptor.getTimeoutNanos(), TimeUnit.NANOSECONDS);
+        }
+
+        commandExecutor.execute(pendingCommand.task);
+    }
+
+    /**
+     * Cancels the pending asynchronous commands of a caller, interrupting those already running.
+     *
+     * @param playerConnection player connection (null for the commands executed from console)
+     * @return number of cancelled commands
+     */
+    static int cancel(UdpConnection playerConnection) {
+        int cancelled = 0;
+        for (PendingCommand pendingCommand : pendingCommands) {
+            if (pendingCommand.playerConnection == playerConnection && pendingCommand.cancel()) {
+                cancelled++;
+            }
+        }
+        return cancelled;
+    }
+
+    /**
+     * Returns the number of asynchronous commands submitted and not yet finished.
+     *
+     * @return number of pending commands
+     */
+    static int getPendingCount() {
+        return pendingCommands.size();
+    }
+
+    /**
+     * Sends the output of a command to its caller on the game thread.
+     * The output is dropped if the player has disconnected in the meantime.
+     *
+     * @param playerConnection player connection (null if the command is executed from console)
+     * @param text             output of the command
+     */
+    private static void deliver(UdpConnection playerConnection, String text) {
+        if (text.isEmpty()) return;
+
+        Scheduler.runSync(() -> {
+            if (playerConnection == null) {
+                System.out.println(text);
+            } else if (PlayerIndex.getPlayerByConnection(playerConnection) != null) {
+                ChatUtils.sendMessageToPlayer(playerConnection, text);
+            }
+        });
+    }
+
+    /**
+     * Creates the pool of daemon threads for asynchronous commands.
+     *
+     * @return {@link ExecutorService} for asynchronous commands
+     */
+    private static ExecutorService createExecutor() {
+        int threads = Math.max(1, Integer.getInteger("avrix.commands.asyncThreads", DEFAULT_THREADS));
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "Avrix-Command-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Asynchronous command submitted and not yet finished.
+     * Exactly one outcome is delivered: the output, the timeout, or the cancellation, whichever happens first.
+     */
+    private static final class PendingCommand {
+        private final CommandDescriptor descriptor; // Command being run
+        private final UdpConnection playerConnection; // Caller, null for the console
+        private final CommandArguments arguments; // Parsed arguments of the command
+        private final FutureTask<Void> task = new FutureTask<>(this::run, null); // Execution of the command on the pool
+        private final AtomicBoolean finished = new AtomicBoolean(); // Whether an outcome has been delivered
+        private volatile ScheduledFuture<?> timeout; // Scheduled timeout, null if the command has no timeout
+
+        /**
+         * Constructs a new {@link PendingCommand}.
+         *
+         * @param descriptor       command to run
+         * @param playerConnection caller, null for the console
+         * @param arguments        parsed arguments of the command
+         */
+        PendingCommand(CommandDescriptor descriptor, UdpConnection playerConnection, CommandArguments arguments) {
+            this.descriptor = descriptor;
+            this.playerConnection = playerConnection;
+            this.arguments = arguments;
+        }
+
+        /**
+         * Runs the command and delivers its output.
+         */
+        private void run() {
+            String response;
+            try {
+                response = descriptor.getCommand().invoke(playerConnection, arguments);
+            } catch (Throwable e) {
+                if (finished.get()) return;
+
+                System.out.printf("[!] An exception occurred in async command '%s'! Reason: %s%n", descriptor.getName(), e.getMessage());
+                response = "[!] An error occurred while executing the command.";
+            }
+
+            if (finish()) {
+                deliver(playerConnection, response == null ? "" : response);
+            }
+        }
+
+        /**
+         * Interrupts the command after its timeout and notifies the caller.
+         */
+        private void timeOut() {
+            if (!finish()) return;
+
+            task.cancel(true);
+            System.out.printf("[!] Async command '%s' timed out%n", descriptor.getName());
+            deliver(playerConnection, String.format("[!] Command '%s' timed out after %d ms.",
+                    descriptor.getName(), TimeUnit.NANOSECONDS.toMillis(descriptor.getTimeoutNanos())));
+        }
+
+        /**
+         * Cancels the command, interrupting it if it is running.
+         *
+         * @return true if the command was pending
+         */
+        private boolean cancel() {
+            if (!finish()) return false;
+
+            task.cancel(true);
+            deliver(playerConnection, String.format("[!] Command '%s' was cancelled.", descriptor.getName()));
+            return true;
+        }
+
+        /**
+         * Marks the command as finished.
+         *
+         * @return true if this call finished the command, false if an outcome was already delivered
+         */
+        private boolean finish() {
+            if (!finished.compareAndSet(false, true)) return false;
+
+            pendingCommands.remove(this);
+            ScheduledFuture<?> scheduledTimeout = timeout;
+            if (scheduledTimeout != null) scheduledTimeout.cancel(false);
+            return true;
+        }
+    }
+}
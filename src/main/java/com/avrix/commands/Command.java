@@ -10,6 +10,10 @@ import zombie.core.raknet.UdpConnection;
  * They may also use the {@link CommandAccessLevel} annotation to specify the required access level for the command.
  * The {@link CommandExecutionScope} annotation should be used to define where the command is available (e.g., in chat, in console, or both).
  * The {@link CommandDescription} annotation can be used to add a description to the command, providing additional information about its functionality.
+ * The optional {@link CommandAliases} annotation lists alternative names, and repeated {@link CommandArgument} annotations declare arguments
+ * that are validated before the command is invoked. Commands reading the arguments as typed values extend {@link TypedCommand}.
+ * A command name of several words, e.g. {@code "zone add"}, registers a subcommand.
+ * Commands that block, e.g. on a database query, should be marked with {@link CommandAsync} to run off the network thread.
  */
 public abstract class Command {
     /**
@@ -21,6 +25,17 @@ public abstract class Command {
      */
     public abstract String onInvoke(UdpConnection playerConnection, String[] args);
 
+    /**
+     * Invokes the command with its validated arguments. Called by the {@link CommandsManager}.
+     *
+     * @param playerConnection {@link UdpConnection}, {@code null} for the console
+     * @param args             arguments parsed according to the {@link CommandArgument} annotations
+     * @return message text that will be displayed to the user (or console) when the command is executed
+     */
+    String invoke(UdpConnection playerConnection, CommandArguments args) {
+        return onInvoke(playerConnection, args.getRaw());
+    }
+
     /**
      * Retrieves the command name from the {@link CommandName} annotation.
      *
@@ -0,0 +1,20 @@
+package com.avrix.commands;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * An annotation that lists alternative names of the command (without slashes or other prefixes).
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface CommandAliases {
+    /**
+     * Alternative names of the command.
+     *
+     * @return The aliases of the command without slashes or prefixes.
+     */
+    String[] value();
+}
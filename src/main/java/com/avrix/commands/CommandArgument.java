@@ -0,0 +1,36 @@
+package com.avrix.commands;
+
+import com.avrix.enums.ArgumentType;
+
+import java.lang.annotation.*;
+
+/**
+ * An annotation that declares an argument of the command. Repeat the annotation to declare several arguments, in order.
+ * Declared arguments are parsed and validated before the command is invoked, and are available as typed values through {@link CommandArguments} to commands extending {@link TypedCommand}.
+ * Commands without declared arguments receive the raw arguments without validation.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Repeatable(CommandArgumentList.class)
+public @interface CommandArgument {
+    /**
+     * The name of the argument.
+     *
+     * @return The name used to get the argument value and shown in the usage of the command.
+     */
+    String name();
+
+    /**
+     * The type of the argument.
+     *
+     * @return The {@link ArgumentType} used to parse the argument.
+     */
+    ArgumentType type() default ArgumentType.STRING;
+
+    /**
+     * Whether the argument may be omitted. Only trailing arguments may be optional.
+     *
+     * @return true if the argument is optional.
+     */
+    boolean optional() default false;
+}
@@ -0,0 +1,20 @@
+package com.avrix.commands;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Container of the repeated {@link CommandArgument} annotations of a command.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface CommandArgumentList {
+    /**
+     * The declared arguments of the command.
+     *
+     * @return The {@link CommandArgument} annotations in declaration order.
+     */
+    CommandArgument[] value();
+}
@@ -0,0 +1,153 @@
+package com.avrix.commands;
+
+import zombie.characters.IsoPlayer;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Arguments of an invoked command, parsed according to the {@link CommandArgument} annotations of the command.
+ * Values are accessed by argument name. Optional arguments that were not provided have no value.
+ */
+public final class CommandArguments {
+    private final String[] raw; // Arguments as received, without the command name
+    private final Map<String, Object> values; // Parsed values by argument name
+
+    /**
+     * Constructs new {@link CommandArguments}.
+     *
+     * @param raw    arguments as received, without the command name
+     * @param values parsed values by argument name
+     */
+    CommandArguments(String[] raw, Map<String, Object> values) {
+        this.raw = raw;
+        this.values = values;
+    }
+
+    /**
+     * Returns the arguments as received, without the command name.
+     *
+     * @return copy of the raw arguments
+     */
+    public String[] getRaw() {
+        return raw.clone();
+    }
+
+    /**
+     * Checks whether the argument has a value.
+     *
+     * @param name argument name
+     * @return true if the argument was provided
+     */
+    public boolean has(String name) {
+        return values.containsKey(name);
+    }
+
+    /**
+     * Returns the value of a {@link com.avrix.enums.ArgumentType#STRING} or {@link com.avrix.enums.ArgumentType#TEXT} argument.
+     *
+     * @param name argument name
+     * @return argument value, or {@code null} if the argument was not provided
+     */
+    public String getString(String name) {
+        return get(name, String.class);
+    }
+
+    /**
+     * Returns the value of an {@link com.avrix.enums.ArgumentType#INT} argument.
+     *
+     * @param name         argument name
+     * @param defaultValue value returned if the argument was not provided
+     * @return argument value
+     */
+    public int getInt(String name, int defaultValue) {
+        Integer value = get(name, Integer.class);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * Returns the value of an {@link com.avrix.enums.ArgumentType#INT} argument.
+     *
+     * @param name argument name
+     * @return argument value
+     * @throws IllegalStateException if the argument was not provided
+     */
+    public int getInt(String name) {
+        return require(name, Integer.class);
+    }
+
+    /**
+     * Returns the value of a {@link com.avrix.enums.ArgumentType#PLAYER} argument.
+     *
+     * @param name argument name
+     * @return {@link IsoPlayer} instance, or {@code null} if the argument was not provided
+     */
+    public IsoPlayer getPlayer(String name) {
+        return get(name, IsoPlayer.class);
+    }
+
+    /**
+     * Returns the value of a {@link com.avrix.enums.ArgumentType#DURATION} argument.
+     *
+     * @param name argument name
+     * @return {@link Duration}, or {@code null} if the argument was not provided
+     */
+    public Duration getDuration(String name) {
+        return get(name, Duration.class);
+    }
+
+    /**
+     * Returns the value of a {@link com.avrix.enums.ArgumentType#COORDINATES} argument.
+     *
+     * @param name argument name
+     * @return {@link Coordinates}, or {@code null} if the argument was not provided
+     */
+    public Coordinates getCoordinates(String name) {
+        return get(name, Coordinates.class);
+    }
+
+    /**
+     * Returns the value of an argument.
+     *
+     * @param name argument name
+     * @param type expected value type
+     * @param <T>  expected value type
+     * @return argument value, or {@code null} if the argument was not provided
+     * @throws IllegalArgumentException if the argument is of another type
+     */
+    private <T> T get(String name, Class<T> type) {
+        Object value = values.get(name);
+        if (value != null && !type.isInstance(value)) {
+            throw new IllegalArgumentException(String.format("Argument '%s' is not of type %s", name, type.getSimpleName()));
+        }
+        return type.cast(value);
+    }
+
+    /**
+     * Returns the value of an argument that must have been provided.
+     *
+     * @param name argument name
+     * @param type expected value type
+     * @param <T>  expected value type
+     * @return argument value
+     * @throws IllegalStateException if the argument was not provided
+     */
+    private <T> T require(String name, Class<T> type) {
+        T value = get(name, type);
+        if (value == null) {
+            throw new IllegalStateException(String.format("Argument '%s' was not provided", name));
+        }
+        return value;
+    }
+
+    /**
+     * Returns a string representation of the raw arguments.
+     *
+     * @return raw arguments
+     */
+    @Override
+    public String toString() {
+        return Arrays.toString(raw);
+    }
+}
@@ -0,0 +1,30 @@
+package com.avrix.commands;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Annotation marking a command that runs on a background thread, for commands that query a database or call an external service.
+ * The patched command handler replies immediately with an empty string, and the result of the command is sent to the player's chat
+ * or printed to the console once it completes. A command that exceeds its timeout is interrupted and the caller is notified.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface CommandAsync {
+    /**
+     * Maximum execution time of the command, 0 for no limit.
+     *
+     * @return the timeout in {@link #unit()}
+     */
+    long timeout() default 30;
+
+    /**
+     * Time unit of the timeout.
+     *
+     * @return the {@link TimeUnit} of {@link #timeout()}
+     */
+    TimeUnit unit() default TimeUnit.SECONDS;
+}
@@ -0,0 +1,288 @@
+package com.avrix.commands;
+
+import com.avrix.enums.AccessLevel;
+import com.avrix.enums.ArgumentType;
+import com.avrix.enums.CommandScope;
+
+import java.util.*;
+
+/**
+ * Immutable description of a registered command, compiled once from its annotations by {@link CommandsManager#addCommand(Command)}.
+ * Holds everything needed to dispatch the command without reflection: names, access level, execution scope and argument schema.
+ */
+public final class CommandDescriptor {
+    private final Command command; // Command instance
+    private final String name; // Command name, lower-case and without prefix
+    private final List<String> aliases; // Alternative names, lower-case and without prefix
+    private final String description; // Command description
+    private final AccessLevel accessLevel; // Required access level
+    private final CommandScope scope; // Where the command may be executed
+    private final List<Parameter> parameters; // Declared arguments in order, empty if the arguments are not validated
+    private final boolean async; // Whether the command runs on a background thread
+    private final long timeoutNanos; // Maximum execution time of an asynchronous command, 0 for no limit
+    private final String usage; // Usage line of the command
+
+    /**
+     * Constructs a new {@link CommandDescriptor}.
+     *
+     * @param command      command instance
+     * @param name         command name, lower-case and without prefix
+     * @param aliases      alternative names, lower-case and without prefix
+     * @param description  command description
+     * @param accessLevel  required access level
+     * @param scope        where the command may be executed
+     * @param parameters   declared arguments in order
+     * @param async        whether the command runs on a background thread
+     * @param timeoutNanos maximum execution time of an asynchronous command, 0 for no limit
+     */
+    CommandDescriptor(Command command, String name, List<String> aliases, String description,
+                      AccessLevel accessLevel, CommandScope scope, List<Parameter> parameters, boolean async, long timeoutNanos) {
+        this.command = command;
+        this.name = name;
+        this.aliases = List.copyOf(aliases);
+        this.description = description;
+        this.accessLevel = accessLevel;
+        this.scope = scope;
+        this.parameters = List.copyOf(parameters);
+        this.async = async;
+        this.timeoutNanos = timeoutNanos;
+
+        StringBuilder usageBuilder = new StringBuilder(name);
+        for (Parameter parameter : this.parameters) {
+            usageBuilder.append(' ').append(parameter.optional() ? '[' : '<')
+                    .append(parameter.name());
+            if (parameter.type() != ArgumentType.STRING) {
+                usageBuilder.append(": ").append(parameter.type().getPlaceholder());
+            }
+            usageBuilder.append(parameter.optional() ? ']' : '>');
+        }
+        this.usage = usageBuilder.toString();
+    }
+
+    /**
+     * Returns the command instance.
+     *
+     * @return {@link Command}
+     */
+    public Command getCommand() {
+        return command;
+    }
+
+    /**
+     * Returns the command name.
+     *
+     * @return lower-case name without prefix, words separated by a space for subcommands
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the alternative names of the command.
+     *
+     * @return unmodifiable {@link List} of aliases
+     */
+    public List<String> getAliases() {
+        return aliases;
+    }
+
+    /**
+     * Returns the command description.
+     *
+     * @return description
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Returns the access level required to execute the command.
+     *
+     * @return {@link AccessLevel}
+     */
+    public AccessLevel getAccessLevel() {
+        return accessLevel;
+    }
+
+    /**
+     * Returns where the command may be executed.
+     *
+     * @return {@link CommandScope}
+     */
+    public CommandScope getScope() {
+        return scope;
+    }
+
+    /**
+     * Returns the declared arguments.
+     *
+     * @return unmodifiable {@link List} of {@link Parameter}, empty if the command receives its arguments without validation
+     */
+    public List<Parameter> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Checks whether the command runs on a background thread, see {@link CommandAsync}.
+     *
+     * @return true if the command is asynchronous
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * Returns the maximum execution time of an asynchronous command.
+     *
+     * @return timeout in nanoseconds, 0 for no limit
+     */
+    public long getTimeoutNanos() {
+        return timeoutNanos;
+    }
+
+    /**
+     * Returns the usage line of the command, e.g. {@code kick <target: player> [reason: text...]}.
+     *
+     * @return usage line
+     */
+    public String getUsage() {
+        return usage;
+    }
+
+    /**
+     * Checks whether the command may be executed in the scope.
+     *
+     * @param scopeType {@link CommandScope#CHAT} or {@link CommandScope#CONSOLE}
+     * @return true if the command is allowed in the scope
+     */
+    public boolean isAllowedIn(CommandScope scopeType) {
+        return scope == scopeType || scope == CommandScope.BOTH;
+    }
+
+    /**
+     * Checks whether a user with the access level may execute the command.
+     *
+     * @param userAccessLevel access level of the user
+     * @return true if the access level is sufficient
+     */
+    public boolean isAccessibleBy(AccessLevel userAccessLevel) {
+        return accessLevel.getPriority() <= userAccessLevel.getPriority();
+    }
+
+    /**
+     * Parses the arguments of the command according to the declared arguments.
+     *
+     * @param args arguments without the command name
+     * @return {@link CommandArguments}
+     * @throws IllegalArgumentException if an argument is missing, invalid or unexpected
+     */
+    public CommandArguments parse(String[] args) {
+        if (parameters.isEmpty()) {
+            return new CommandArguments(args, Map.of());
+        }
+
+        Map<String, Object> values = new HashMap<>();
+        int position = 0;
+
+        for (int index = 0; index < parameters.size(); index++) {
+            Parameter parameter = parameters.get(index);
+            if (position >= args.length) {
+                if (parameter.optional()) break;
+                throw new IllegalArgumentException(String.format("Missing argument '%s'", parameter.name()));
+            }
+
+            int length = switch (parameter.type()) {
+                case TEXT -> args.length - position;
+                case COORDINATES -> getCoordinatesLength(args, position, getRequiredArgsAfter(index));
+                default -> 1;
+            };
+
+            String value = args[position];
+            Object parsedValue = switch (parameter.type()) {
+                case STRING, TEXT -> String.join(" ", Arrays.asList(args).subList(position, position + length));
+                case INT -> ArgumentParser.parseInt(parameter.name(), value);
+                case PLAYER -> ArgumentParser.parsePlayer(parameter.name(), value);
+                case DURATION -> ArgumentParser.parseDuration(parameter.name(), value);
+                case COORDINATES -> {
+                    if (length < 2) {
+                        throw new IllegalArgumentException(String.format("Argument '%s' must be coordinates 'x y [z]'", parameter.name()));
+                    }
+                    yield ArgumentParser.parseCoordinates(parameter.name(), Arrays.copyOfRange(args, position, position + length));
+                }
+            };
+
+            values.put(parameter.name(), parsedValue);
+            position += length;
+        }
+
+        if (position < args.length) {
+            throw new IllegalArgumentException("Too many arguments");
+        }
+
+        return new CommandArguments(args, values);
+    }
+
+    /**
+     * Returns the declared argument that receives the argument at the position. Used for completion.
+     *
+     * @param position index of the argument, without the command name
+     * @return {@link Parameter}, or {@code null} if no argument is declared at the position
+     */
+    Parameter getParameterAt(int position) {
+        int start = 0;
+        for (Parameter parameter : parameters) {
+            if (parameter.type() == ArgumentType.TEXT) return parameter;
+
+            start += parameter.type() == ArgumentType.COORDINATES ? 3 : 1;
+            if (position < start) return parameter;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the minimum number of arguments needed by the required arguments declared after the argument.
+     *
+     * @param index index of the declared argument
+     * @return number of arguments
+     */
+    private int getRequiredArgsAfter(int index) {
+        int count = 0;
+        for (Parameter parameter : parameters.subList(index + 1, parameters.size())) {
+            if (parameter.optional()) break;
+            count += parameter.type() == ArgumentType.COORDINATES ? 2 : 1;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of arguments taken by coordinates: three if a third number follows x and y
+     * and is not needed by the following required arguments, otherwise two.
+     *
+     * @param args         arguments without the command name
+     * @param position     index of the x coordinate
+     * @param requiredArgs number of arguments needed by the following required arguments
+     * @return number of arguments, less than 2 if there are not enough arguments left
+     */
+    private static int getCoordinatesLength(String[] args, int position, int requiredArgs) {
+        int remaining = args.length - position;
+        if (remaining < 3 || remaining - 3 < requiredArgs) return Math.min(remaining, 2);
+
+        String z = args[position + 2];
+        int start = z.startsWith("-") || z.startsWith("+") ? 1 : 0;
+        if (z.length() == start) return 2;
+        for (int i = start; i < z.length(); i++) {
+            if (z.charAt(i) < '0' || z.charAt(i) > '9') return 2;
+        }
+        return 3;
+    }
+
+    /**
+     * Declared argument of a command
+     *
+     * @param name     Argument name
+     * @param type     Argument type
+     * @param optional Whether the argument may be omitted
+     */
+    public record Parameter(String name, ArgumentType type, boolean optional) {
+    }
+}
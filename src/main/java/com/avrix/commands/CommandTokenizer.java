@@ -0,0 +1,103 @@
+package com.avrix.commands;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a chat or console command into arguments.
+ * <p>
+ * Arguments are separated by whitespace. A double quote followed later by another double quote starts an argument
+ * that spans to the closing quote, spaces included. A double quote without a closing quote is kept as a regular character.
+ * </p>
+ */
+final class CommandTokenizer {
+    /**
+     * Splits a command into trimmed arguments, the command name included as typed.
+     *
+     * @param chatCommand the full chat command string
+     * @return {@link List} of arguments, empty if the command contains only whitespace
+     */
+    static List<String> split(String chatCommand) {
+        List<String> tokens = new ArrayList<>();
+        int length = chatCommand.length();
+        int position = 0;
+
+        while (position < length) {
+            char character = chatCommand.charAt(position);
+
+            if (character == '"') {
+                int closingQuote = chatCommand.indexOf('"', position + 1);
+                if (closingQuote != -1) {
+                    tokens.add(chatCommand.substring(position + 1, closingQuote).trim());
+                    position = closingQuote + 1;
+                    continue;
+                }
+            } else if (isSpace(character)) {
+                position++;
+                continue;
+            }
+
+            int end = position + 1;
+            while (end < length && !isSpace(chatCommand.charAt(end))) {
+                end++;
+            }
+            tokens.add(chatCommand.substring(position, end));
+            position = end;
+        }
+
+        return tokens;
+    }
+
+    /**
+     * Splits a command into arguments and normalizes the command name: the prefix is removed and the name is lower-cased.
+     * Empty quoted arguments are dropped.
+     *
+     * @param chatCommand   the full chat command string
+     * @param commandPrefix the prefix of the command, or {@code null} to accept the '!' and '/' prefixes
+     * @return an array of command arguments, or {@code null} if the command is invalid
+     */
+    static String[] tokenize(String chatCommand, String commandPrefix) {
+        if (chatCommand == null) return null;
+
+        List<String> tokens = split(chatCommand);
+        if (tokens.isEmpty()) return null;
+
+        if (!tokens.get(0).isEmpty()) {
+            tokens.removeIf(String::isEmpty);
+        }
+
+        String commandName = stripPrefix(tokens.get(0), commandPrefix);
+        if (commandName.isEmpty()) return null;
+
+        String[] commandArgs = tokens.toArray(new String[0]);
+        commandArgs[0] = commandName.toLowerCase();
+
+        return commandArgs;
+    }
+
+    /**
+     * Checks whether the character separates arguments.
+     *
+     * @param character character to check
+     * @return true for a space, tab, line break, vertical tab or form feed
+     */
+    static boolean isSpace(char character) {
+        return character == ' ' || (character >= '\t' && character <= '\r');
+    }
+
+    /**
+     * Removes the prefix from the command name.
+     *
+     * @param commandName   command name as typed
+     * @param commandPrefix the prefix of the command, or {@code null} to accept the '!' and '/' prefixes
+     * @return command name without the prefix
+     */
+    static String stripPrefix(String commandName, String commandPrefix) {
+        if (commandPrefix != null && commandName.startsWith(commandPrefix)) {
+            return commandName.substring(commandPrefix.length());
+        } else if (commandPrefix == null && (commandName.startsWith("!") || commandName.startsWith("/"))) {
+            return commandName.substring(1);
+        }
+        return commandName;
+    }
+}
@@ -0,0 +1,203 @@
+package com.avrix.commands;
+
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+/**
+ * Dispatch tree of the registered commands. Each word of a command name is a node, so {@code zone add} and {@code zone remove}
+ * are subcommands of {@code zone}. Aliases are separate paths to the same {@link CommandDescriptor}.
+ * Children are kept sorted, so the same tree serves dispatch and prefix completion.
+ * The tree is not thread-safe: {@link CommandsManager} modifies a {@link #copy()} and publishes it once complete,
+ * so a published tree is only read.
+ */
+final class CommandTree {
+    private final Node root = new Node(); // Node of the empty path
+
+    /**
+     * Creates a copy of the tree that can be modified without affecting this one.
+     *
+     * @return copy of the tree
+     */
+    CommandTree copy() {
+        CommandTree copy = new CommandTree();
+        copy(root, copy.root);
+        return copy;
+    }
+
+    /**
+     * Copies a node and its descendants.
+     *
+     * @param source node to copy
+     * @param target empty node receiving the copy
+     */
+    private static void copy(Node source, Node target) {
+        target.descriptor = source.descriptor;
+        for (Map.Entry<String, Node> child : source.children.entrySet()) {
+            Node childCopy = new Node();
+            copy(child.getValue(), childCopy);
+            target.children.put(child.getKey(), childCopy);
+        }
+    }
+
+    /**
+     * Checks whether a command is registered under the path.
+     *
+     * @param path lower-case command name, words separated by spaces
+     * @return true if the path is taken
+     */
+    boolean contains(String path) {
+        Node node = root;
+        for (String word : splitPath(path)) {
+            node = node.children.get(word);
+            if (node == null) return false;
+        }
+        return node.descriptor != null;
+    }
+
+    /**
+     * Registers a command under the path.
+     *
+     * @param path       lower-case command name, words separated by spaces
+     * @param descriptor command to register
+     */
+    void add(String path, CommandDescriptor descriptor) {
+        Node node = root;
+        for (String word : splitPath(path)) {
+            node = node.children.computeIfAbsent(word, w -> new Node());
+        }
+        node.descriptor = descriptor;
+    }
+
+    /**
+     * Removes the command registered under the path, along with the words that no longer lead to a command.
+     *
+     * @param path lower-case command name, words separated by spaces
+     */
+    void remove(String path) {
+        remove(root, splitPath(path), 0);
+    }
+
+    /**
+     * Removes the command registered under the remaining words of a path.
+     *
+     * @param node  node of the words already visited
+     * @param words words of the path
+     * @param depth index of the next word
+     * @return true if the node no longer holds a command or subcommands
+     */
+    private static boolean remove(Node node, String[] words, int depth) {
+        if (depth == words.length) {
+            node.descriptor = null;
+        } else {
+            Node child = node.children.get(words[depth]);
+            if (child != null && remove(child, words, depth + 1)) {
+                node.children.remove(words[depth]);
+            }
+        }
+        return node.descriptor == null && node.children.isEmpty();
+    }
+
+    /**
+     * Finds the command with the longest name matching the leading arguments.
+     *
+     * @param commandArgs tokenized command, the lower-case command name first
+     * @return {@link Match}, or {@code null} if no command matches
+     */
+    Match find(String[] commandArgs) {
+        Node node = root;
+        Match match = null;
+
+        for (int depth = 0; depth < commandArgs.length; depth++) {
+            node = node.children.get(depth == 0 ? commandArgs[0] : commandArgs[depth].toLowerCase());
+            if (node == null) break;
+            if (node.descriptor != null) match = new Match(node.descriptor, depth + 1);
+        }
+
+        return match;
+    }
+
+    /**
+     * Returns the completions of the last argument of a partially typed command: command and subcommand names,
+     * or the values suggested for the declared argument at that position.
+     *
+     * @param words       arguments typed before the completed one, the command name without prefix first
+     * @param partial     beginning of the completed argument, may be empty
+     * @param filter      commands that may be suggested
+     * @param suggestions values suggested for a declared argument, by argument and typed beginning
+     * @param limit       maximum number of completions
+     * @return {@link List} of completions in alphabetical order
+     */
+    List<String> complete(List<String> words, String partial, Predicate<CommandDescriptor> filter,
+                          BiFunction<CommandDescriptor.Parameter, String, List<String>> suggestions, int limit) {
+        List<String> completions = new ArrayList<>();
+        String lowerPartial = partial.toLowerCase();
+
+        Node node = root;
+        Match match = null;
+        for (int depth = 0; depth < words.size() && node != null; depth++) {
+            node = node.children.get(words.get(depth).toLowerCase());
+            if (node != null && node.descriptor != null) match = new Match(node.descriptor, depth + 1);
+        }
+
+        if (node != null) {
+            for (Map.Entry<String, Node> child : node.children.tailMap(lowerPartial).entrySet()) {
+                if (!child.getKey().startsWith(lowerPartial) || completions.size() >= limit) break;
+                if (child.getValue().isVisible(filter)) completions.add(child.getKey());
+            }
+        }
+
+        if (match != null && filter.test(match.descriptor())) {
+            CommandDescriptor.Parameter parameter = match.descriptor().getParameterAt(words.size() - match.depth());
+            if (parameter != null) {
+                for (String suggestion : suggestions.apply(parameter, partial)) {
+                    if (completions.size() >= limit) break;
+                    completions.add(suggestion);
+                }
+            }
+        }
+
+        return completions;
+    }
+
+    /**
+     * Splits a command name into the words of its path.
+     *
+     * @param path command name
+     * @return words of the name
+     */
+    private static String[] splitPath(String path) {
+        return path.trim().split("\\s+");
+    }
+
+    /**
+     * Command found by {@link #find(String[])}
+     *
+     * @param descriptor Matched command
+     * @param depth      Number of leading arguments forming the command name
+     */
+    record Match(CommandDescriptor descriptor, int depth) {
+    }
+
+    /**
+     * Node of the dispatch tree
+     */
+    private static final class Node {
+        private final TreeMap<String, Node> children = new TreeMap<>(); // Subcommands by the next word
+        private CommandDescriptor descriptor; // Command ending at this node, null for intermediate words
+
+        /**
+         * Checks whether the node or one of its descendants holds a command accepted by the filter.
+         *
+         * @param filter commands that may be suggested
+         * @return true if the node leads to a suggested command
+         */
+        boolean isVisible(Predicate<CommandDescriptor> filter) {
+            if (descriptor != null && filter.test(descriptor)) return true;
+            for (Node child : children.values()) {
+                if (child.isVisible(filter)) return true;
+            }
+            return false;
+        }
+    }
+}
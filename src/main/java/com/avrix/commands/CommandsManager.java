@@ -1,45 +1,73 @@
 package com.avrix.commands;
 
+import com.avrix.api.server.PlayerIndex;
 import com.avrix.api.server.PlayerUtils;
 import com.avrix.enums.AccessLevel;
+import com.avrix.enums.ArgumentType;
 import com.avrix.enums.CommandScope;
 import zombie.characters.IsoPlayer;
 import zombie.core.raknet.UdpConnection;
 
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * A set of tools for handling custom commands
  */
 public class CommandsManager {
     /**
-     * Repository of all custom commands
+     * Maximum number of completions returned by {@link #complete(UdpConnection, String)}
      */
-    private static final Map<String, Command> commandsMap = new HashMap<>();
+    private static final int MAX_COMPLETIONS = 20;
+
+    /**
+     * Repository of all custom commands. Like the descriptors and the dispatch tree, it is never modified once published:
+     * registration builds new copies under the class lock and replaces the fields, so commands are dispatched without locking.
+     */
+    private static volatile Map<String, Command> commandsMap = Collections.emptyMap();
+
+    /**
+     * Compiled descriptors of the custom commands by command name
+     */
+    private static volatile Map<String, CommandDescriptor> descriptorsMap = Collections.emptyMap();
+
+    /**
+     * Dispatch tree of command names and aliases
+     */
+    private static volatile CommandTree commandTree = new CommandTree();
 
     /**
      * Getting a map of registered user commands
      *
-     * @return {@link Map} of registered commands. Key - command name, value - command instance
+     * @return unmodifiable {@link Map} of registered commands. Key - command name, value - command instance
      */
     public static Map<String, Command> getRegisteredCommands() {
         return commandsMap;
     }
 
     /**
-     * Adding a command to the system
+     * Getting the compiled descriptor of a registered command
+     *
+     * @param commandName command name, without prefix
+     * @return {@link CommandDescriptor}, or {@code null} if the command is not registered
+     */
+    public static CommandDescriptor getCommandDescriptor(String commandName) {
+        return descriptorsMap.get(commandName.toLowerCase());
+    }
+
+    /**
+     * Adding a command to the system. Safe to call from plugins initialized in parallel.
      *
      * @param command chat command instance
      */
-    public static void addCommand(Command command) {
+    public static synchronized void addCommand(Command command) {
         Class<? extends Command> commandClass = command.getClass();
 
         CommandName commandNameAnnotation = commandClass.getAnnotation(CommandName.class);
         CommandAccessLevel accessLevelAnnotation = commandClass.getAnnotation(CommandAccessLevel.class);
         CommandExecutionScope executionScopeAnnotation = commandClass.getAnnotation(CommandExecutionScope.class);
         CommandDescription commandDescription = commandClass.getAnnotation(CommandDescription.class);
+        CommandAliases aliasesAnnotation = commandClass.getAnnotation(CommandAliases.class);
+        CommandAsync asyncAnnotation = commandClass.getAnnotation(CommandAsync.class);
 
         if (commandNameAnnotation == null || commandNameAnnotation.value().isEmpty()) {
             System.out.printf("[!] Command '%s' is missing the @CommandName annotation or does not contain a value!%n", commandClass);
@@ -61,38 +89,150 @@ public class CommandsManager {
             return;
         }
 
-        String commandName = commandNameAnnotation.value().toLowerCase();
+        String commandName = normalizeName(commandNameAnnotation.value());
+        if (commandName.isEmpty()) {
+            System.out.printf("[!] Command '%s' is missing the @CommandName annotation or does not contain a value!%n", commandClass);
+            return;
+        }
 
-        if (commandName.startsWith("!") || commandName.startsWith("/")) {
-            commandName = commandName.substring(1);
+        List<String> aliases = new ArrayList<>();
+        if (aliasesAnnotation != null) {
+            for (String alias : aliasesAnnotation.value()) {
+                String aliasName = normalizeName(alias);
+                if (!aliasName.isEmpty() && !aliasName.equals(commandName) && !aliases.contains(aliasName)) {
+                    aliases.add(aliasName);
+                }
+            }
+        }
+
+        List<CommandDescriptor.Parameter> parameters = compileParameters(commandClass);
+        if (parameters == null) return;
+
+        if (asyncAnnotation != null && asyncAnnotation.timeout() < 0) {
+            System.out.printf("[!] Command '%s' has a negative @CommandAsync timeout!%n", commandClass);
+            return;
         }
+        long timeoutNanos = asyncAnnotation != null ? asyncAnnotation.unit().toNanos(asyncAnnotation.timeout()) : 0;
 
-        if (commandsMap.containsKey(commandName)) {
+        if (commandsMap.containsKey(commandName) || commandTree.contains(commandName)) {
             System.out.printf("[!] The '%s' command is already registered in the system!%n", commandName);
             return;
         }
 
+        for (String alias : aliases) {
+            if (commandTree.contains(alias)) {
+                System.out.printf("[!] The '%s' alias of the '%s' command is already registered in the system!%n", alias, commandName);
+                return;
+            }
+        }
+
+        CommandDescriptor descriptor = new CommandDescriptor(command, commandName, aliases, commandDescription.value(),
+                accessLevelAnnotation.value(), executionScopeAnnotation.value(), parameters, asyncAnnotation != null, timeoutNanos);
+
+        CommandTree tree = commandTree.copy();
+        tree.add(commandName, descriptor);
+        for (String alias : aliases) {
+            tree.add(alias, descriptor);
+        }
+
+        Map<String, Command> commands = new HashMap<>(commandsMap);
+        commands.put(commandName, command);
+        Map<String, CommandDescriptor> descriptors = new HashMap<>(descriptorsMap);
+        descriptors.put(commandName, descriptor);
+
+        commandsMap = Collections.unmodifiableMap(commands);
+        descriptorsMap = Collections.unmodifiableMap(descriptors);
+        commandTree = tree;
+
         System.out.printf("[#] Added new custom command: '%s'%n", commandName);
-        commandsMap.put(commandName, command);
     }
 
     /**
-     * Checks if the execution of a specified command is allowed in a given scope.
+     * Removes all commands whose class was loaded by the specified class loader, e.g. when a plugin is unloaded.
      *
-     * @param commandName The name of the command to be checked.
-     * @param scopeType   The scope (CHAT, CONSOLE, or BOTH) in which to check the command's allowance.
-     * @return true if the command is allowed in the specified scope, false otherwise.
+     * @param classLoader {@link ClassLoader} of the plugin
+     * @return number of removed commands
      */
-    private static boolean isCommandAllowed(String commandName, CommandScope scopeType) {
-        Command command = commandsMap.get(commandName);
+    public static synchronized int removeCommands(ClassLoader classLoader) {
+        int removed = 0;
+        Map<String, Command> commands = new HashMap<>(commandsMap);
+        Map<String, CommandDescriptor> descriptors = new HashMap<>(descriptorsMap);
+        CommandTree tree = commandTree.copy();
+
+        Iterator<Map.Entry<String, Command>> iterator = commands.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Command> entry = iterator.next();
+            if (entry.getValue().getClass().getClassLoader() != classLoader) continue;
+
+            String commandName = entry.getKey();
+            CommandDescriptor descriptor = descriptors.remove(commandName);
+            tree.remove(commandName);
+            if (descriptor != null) {
+                for (String alias : descriptor.getAliases()) {
+                    tree.remove(alias);
+                }
+            }
+
+            iterator.remove();
+            removed++;
+        }
+
+        if (removed > 0) {
+            commandsMap = Collections.unmodifiableMap(commands);
+            descriptorsMap = Collections.unmodifiableMap(descriptors);
+            commandTree = tree;
+        }
+        return removed;
+    }
+
+    /**
+     * Compiles the {@link CommandArgument} annotations of a command.
+     *
+     * @param commandClass command class
+     * @return {@link List} of declared arguments, or {@code null} if the declaration is invalid
+     */
+    private static List<CommandDescriptor.Parameter> compileParameters(Class<? extends Command> commandClass) {
+        List<CommandDescriptor.Parameter> parameters = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+
+        for (CommandArgument argument : commandClass.getAnnotationsByType(CommandArgument.class)) {
+            if (argument.name().isEmpty() || !names.add(argument.name())) {
+                System.out.printf("[!] Command '%s' declares an argument with an empty or duplicate name!%n", commandClass);
+                return null;
+            }
+
+            if (!parameters.isEmpty()) {
+                CommandDescriptor.Parameter previous = parameters.get(parameters.size() - 1);
+                if (previous.type() == ArgumentType.TEXT) {
+                    System.out.printf("[!] Command '%s' declares arguments after the text argument '%s'!%n", commandClass, previous.name());
+                    return null;
+                }
+                if (previous.optional() && !argument.optional()) {
+                    System.out.printf("[!] Command '%s' declares the required argument '%s' after an optional one!%n", commandClass, argument.name());
+                    return null;
+                }
+            }
+
+            parameters.add(new CommandDescriptor.Parameter(argument.name(), argument.type(), argument.optional()));
+        }
 
-        if (command == null) return false;
+        return parameters;
+    }
 
-        CommandExecutionScope executionScope = command.getClass().getAnnotation(CommandExecutionScope.class);
+    /**
+     * Normalizes a command name or alias: lower-case, without prefix, words separated by a single space.
+     *
+     * @param name command name or alias
+     * @return normalized name, empty if the name is blank
+     */
+    private static String normalizeName(String name) {
+        String commandName = name.trim().toLowerCase();
 
-        CommandScope scope = executionScope.value();
+        if (commandName.startsWith("!") || commandName.startsWith("/")) {
+            commandName = commandName.substring(1).trim();
+        }
 
-        return scope == scopeType || scope == CommandScope.BOTH;
+        return String.join(" ", CommandTokenizer.split(commandName));
     }
 
     /**
@@ -106,97 +246,138 @@ public class CommandsManager {
         String[] commandArgs = getCommandArgs(chatCommand);
         if (commandArgs == null) return null;
 
-        Command command = commandsMap.get(commandArgs[0].toLowerCase());
-        if (command == null) return null;
+        CommandTree.Match match = commandTree.find(commandArgs);
+        if (match == null) return null;
 
+        CommandDescriptor descriptor = match.descriptor();
         boolean isConsole = playerConnection == null;
 
-        if (!isCommandAllowed(commandArgs[0], isConsole ? CommandScope.CONSOLE : CommandScope.CHAT)) {
+        if (!descriptor.isAllowedIn(isConsole ? CommandScope.CONSOLE : CommandScope.CHAT)) {
             return "[!] This command is not allowed here.";
         }
 
         if (!isConsole) {
-            IsoPlayer player = PlayerUtils.getPlayerByUsername(playerConnection.username);
+            IsoPlayer player = PlayerUtils.getPlayerByUdpConnection(playerConnection);
             if (player == null) return "[!] Could not check your access level! Please try later...";
 
-            CommandAccessLevel accessLevelAnnotation = command.getClass().getAnnotation(CommandAccessLevel.class);
-
-            AccessLevel requiredAccessLevel = accessLevelAnnotation.value();
             AccessLevel userAccessLevel = AccessLevel.fromString(player.accessLevel.toLowerCase());
-            if (requiredAccessLevel.getPriority() > userAccessLevel.getPriority()) {
+            if (!descriptor.isAccessibleBy(userAccessLevel)) {
                 return "[!] You do not have permission to execute this command.";
             }
+        }
+
+        String[] commandArgsToInvoke = Arrays.copyOfRange(commandArgs, match.depth(), commandArgs.length);
 
+        CommandArguments arguments;
+        try {
+            arguments = descriptor.parse(commandArgsToInvoke);
+        } catch (IllegalArgumentException e) {
+            return String.format("[!] %s. Usage: %s", e.getMessage(), descriptor.getUsage());
         }
 
-        String[] commandArgsToInvoke = Arrays.copyOfRange(commandArgs, 1, commandArgs.length);
         String playerName = playerConnection == null ? "Console" : playerConnection.username;
-        System.out.printf("[#] Player '%s' called command '%s' with arguments: '%s'%n", playerName, commandArgs[0], Arrays.toString(commandArgsToInvoke));
+        System.out.printf("[#] Player '%s' called command '%s' with arguments: '%s'%n", playerName, descriptor.getName(), Arrays.toString(commandArgsToInvoke));
 
-        String response = command.onInvoke(playerConnection, commandArgsToInvoke);
+        if (descriptor.isAsync()) {
+            AsyncCommandExecutor.submit(descriptor, playerConnection, arguments);
+            return "";
+        }
+
+        String response = descriptor.getCommand().invoke(playerConnection, arguments);
         return response == null ? "" : response;
     }
 
     /**
-     * Extracts command arguments from the given chat command with a specified prefix.
+     * Cancels the pending asynchronous commands of a caller, interrupting those already running.
+     * Called by the {@code GameServer.disconnectPlayer} patch.
      *
-     * @param commandPrefix the prefix of the command (e.g., '!', '/', etc.)
-     * @param chatCommand   the full chat command string
-     * @return an array of command arguments, or {@code null} if the command is invalid
+     * @param playerConnection player connection (null for the commands executed from console)
+     * @return number of cancelled commands
      */
-    public static String[] getCommandArgs(String commandPrefix, String chatCommand) {
-        return extractCommandArgs(chatCommand, commandPrefix);
+    public static int cancelAsyncCommands(UdpConnection playerConnection) {
+        return AsyncCommandExecutor.cancel(playerConnection);
     }
 
     /**
-     * Extracts command arguments from the given chat command.
+     * Getting the number of asynchronous commands submitted and not yet finished
      *
-     * @param chatCommand the full chat command string
-     * @return an array of command arguments, or {@code null} if the command is invalid
+     * @return number of pending asynchronous commands
      */
-    public static String[] getCommandArgs(String chatCommand) {
-        return extractCommandArgs(chatCommand, null);
+    public static int getPendingAsyncCommandCount() {
+        return AsyncCommandExecutor.getPendingCount();
     }
 
     /**
-     * Extracts command arguments from the given chat command with an optional prefix.
+     * Completes the last argument of a partially typed command. Only commands available to the caller are suggested.
+     * Arguments declared as {@link ArgumentType#PLAYER} are completed with the names of online players.
      *
-     * @param chatCommand   the full chat command string
-     * @param commandPrefix the prefix of the command, or {@code null} if no prefix is used
-     * @return an array of command arguments, or {@code null} if the command is invalid
+     * @param playerConnection player connection (null if the command is typed in the console).
+     * @param partialCommand   partially typed command, with or without the '!' or '/' prefix
+     * @return {@link List} of candidates for the last argument, empty if there are none
      */
-    private static String[] extractCommandArgs(String chatCommand, String commandPrefix) {
-        if (chatCommand == null || chatCommand.trim().isEmpty()) return null;
+    public static List<String> complete(UdpConnection playerConnection, String partialCommand) {
+        if (partialCommand == null) return Collections.emptyList();
 
-        List<String> commandArgsList = new ArrayList<>();
-        Matcher matcher = Pattern.compile("\"([^\"]*)\"|\\S+").matcher(chatCommand.trim());
-        while (matcher.find()) {
-            String arg = matcher.group(1);
-            if (arg == null) {
-                arg = matcher.group();
-            }
+        List<String> words = CommandTokenizer.split(partialCommand);
+        boolean newWord = words.isEmpty() || CommandTokenizer.isSpace(partialCommand.charAt(partialCommand.length() - 1));
+        String partial = newWord ? "" : words.remove(words.size() - 1);
 
-            commandArgsList.add(arg.trim());
+        if (words.isEmpty()) {
+            partial = CommandTokenizer.stripPrefix(partial, null);
+        } else {
+            words.set(0, CommandTokenizer.stripPrefix(words.get(0), null));
         }
 
-        if (commandArgsList.isEmpty()) return null;
+        CommandScope scopeType = playerConnection == null ? CommandScope.CONSOLE : CommandScope.CHAT;
+        AccessLevel userAccessLevel = null;
+        if (playerConnection != null) {
+            IsoPlayer player = PlayerUtils.getPlayerByUdpConnection(playerConnection);
+            if (player == null) return Collections.emptyList();
+            userAccessLevel = AccessLevel.fromString(player.accessLevel.toLowerCase());
+        }
 
-        commandArgsList.removeIf(arg -> arg.isEmpty() && !arg.equals(commandArgsList.get(0)));
+        AccessLevel accessLevel = userAccessLevel;
+        return commandTree.complete(words, partial,
+                descriptor -> descriptor.isAllowedIn(scopeType) && (accessLevel == null || descriptor.isAccessibleBy(accessLevel)),
+                CommandsManager::suggestArgument,
+                MAX_COMPLETIONS);
+    }
 
-        String[] commandArgs = new String[commandArgsList.size()];
-        commandArgs = commandArgsList.toArray(commandArgs);
+    /**
+     * Suggests values for a declared argument.
+     *
+     * @param parameter declared argument
+     * @param partial   typed beginning of the argument
+     * @return {@link List} of suggested values
+     */
+    private static List<String> suggestArgument(CommandDescriptor.Parameter parameter, String partial) {
+        if (parameter.type() != ArgumentType.PLAYER) return Collections.emptyList();
 
-        String commandName = commandArgs[0];
-        if (commandPrefix != null && commandName.startsWith(commandPrefix)) {
-            commandName = commandName.substring(commandPrefix.length());
-        } else if (commandPrefix == null && (commandName.startsWith("!") || commandName.startsWith("/"))) {
-            commandName = commandName.substring(1);
+        List<String> names = new ArrayList<>();
+        for (IsoPlayer player : PlayerIndex.getPlayersByPartialUsername(partial, MAX_COMPLETIONS)) {
+            names.add(player.getDisplayName());
         }
+        return names;
+    }
 
-        if (commandName.isEmpty()) return null;
-
-        commandArgs[0] = commandName.toLowerCase();
+    /**
+     * Extracts command arguments from the given chat command with a specified prefix.
+     *
+     * @param commandPrefix the prefix of the command (e.g., '!', '/', etc.)
+     * @param chatCommand   the full chat command string
+     * @return an array of command arguments, or {@code null} if the command is invalid
+     */
+    public static String[] getCommandArgs(String commandPrefix, String chatCommand) {
+        return CommandTokenizer.tokenize(chatCommand, commandPrefix);
+    }
 
-        return commandArgs;
+    /**
+     * Extracts command arguments from the given chat command.
+     *
+     * @param chatCommand the full chat command string
+     * @return an array of command arguments, or {@code null} if the command is invalid
+     */
+    public static String[] getCommandArgs(String chatCommand) {
+        return CommandTokenizer.tokenize(chatCommand, null);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,11 @@
+package com.avrix.commands;
+
+/**
+ * Integer world coordinates parsed from a {@link com.avrix.enums.ArgumentType#COORDINATES} command argument.
+ *
+ * @param x X coordinate
+ * @param y Y coordinate
+ * @param z Z level, 0 if omitted
+ */
+public record Coordinates(int x, int y, int z) {
+}
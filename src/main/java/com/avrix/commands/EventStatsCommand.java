@@ -0,0 +1,107 @@
+package com.avrix.commands;
+
+import com.avrix.enums.AccessLevel;
+import com.avrix.enums.CommandScope;
+import com.avrix.events.EventMetrics;
+import zombie.core.raknet.UdpConnection;
+
+import java.util.List;
+
+/**
+ * Built-in console command reporting the slowest event listeners collected by {@link EventMetrics}.
+ * <p>
+ * Usage: {@code eventstats [on|off|reset|top N]}. Without arguments, the 10 slowest listeners are shown.
+ * </p>
+ */
+@CommandName("eventstats")
+@CommandAccessLevel(AccessLevel.ADMIN)
+@CommandExecutionScope(CommandScope.CONSOLE)
+@CommandDescription("Shows the slowest event listeners. Usage: eventstats [on|off|reset|top N]")
+public class EventStatsCommand extends Command {
+    /**
+     * Number of listeners shown by default
+     */
+    private static final int DEFAULT_TOP = 10;
+
+    /**
+     * Performing a console command action
+     *
+     * @param playerConnection {@link UdpConnection}, if called from the console, the connection will return as {@code null}
+     * @param args             arguments of the received command
+     * @return report of the slowest listeners, or the result of the requested action
+     */
+    @Override
+    public String onInvoke(UdpConnection playerConnection, String[] args) {
+        String action = args.length > 0 ? args[0].toLowerCase() : "top";
+
+        switch (action) {
+            case "on" -> {
+                EventMetrics.setEnabled(true);
+                return "[#] Event profiling enabled.";
+            }
+            case "off" -> {
+                EventMetrics.setEnabled(false);
+                return "[#] Event profiling disabled.";
+            }
+            case "reset" -> {
+                EventMetrics.reset();
+                return "[#] Event profiling data cleared.";
+            }
+            case "top" -> {
+                int top = DEFAULT_TOP;
+                if (args.length > 1) {
+                    try {
+                        top = Integer.parseInt(args[1]);
+                    } catch (NumberFormatException e) {
+                        return "[!] Invalid number of listeners: " + args[1];
+                    }
+                }
+                return formatReport(top);
+            }
+            default -> {
+                return "[!] Unknown action '" + action + "'. Usage: eventstats [on|off|reset|top N]";
+            }
+        }
+    }
+
+    /**
+     * Formats the report of the slowest listeners.
+     *
+     * @param top maximum number of listeners to show
+     * @return report text
+     */
+    private static String formatReport(int top) {
+        if (!EventMetrics.isEnabled() && EventMetrics.getPeriodNanos() == 0) {
+            return "[#] Event profiling is disabled. Enable it with 'eventstats on'.";
+        }
+
+        List<EventMetrics.ListenerStats> stats = EventMetrics.getSlowestListeners(top);
+        if (stats.isEmpty()) {
+            return "[#] No listener calls recorded yet.";
+        }
+
+        long ticks = EventMetrics.getTickCount();
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("[#] Slowest event listeners over %.1f s (%d ticks, profiling %s):%n",
+                EventMetrics.getPeriodNanos() / 1e9,
+                ticks,
+                EventMetrics.isEnabled() ? "enabled" : "disabled"));
+
+        for (EventMetrics.ListenerStats stat : stats) {
+            report.append(String.format("  %s [%s] %s%s: calls=%d p50=%.3fms p99=%.3fms max=%.3fms total=%.1fms per-tick=%.3fms share=%.2f%%%n",
+                    stat.eventName(),
+                    stat.pluginId(),
+                    stat.listenerClass(),
+                    stat.async() ? " (async)" : "",
+                    stat.invocations(),
+                    stat.p50Nanos() / 1e6,
+                    stat.p99Nanos() / 1e6,
+                    stat.maxNanos() / 1e6,
+                    stat.totalNanos() / 1e6,
+                    ticks > 0 ? stat.totalNanos() / 1e6 / ticks : 0.0,
+                    stat.timeShare() * 100));
+        }
+
+        return report.toString().stripTrailing();
+    }
+}
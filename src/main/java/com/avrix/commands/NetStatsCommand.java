@@ -0,0 +1,118 @@
+package com.avrix.commands;
+
+import com.avrix.enums.AccessLevel;
+import com.avrix.enums.CommandScope;
+import com.avrix.network.PacketTelemetry;
+import zombie.core.raknet.UdpConnection;
+
+import java.util.List;
+
+/**
+ * Built-in console command reporting the inbound traffic collected by {@link PacketTelemetry}.
+ * <p>
+ * Usage: {@code netstats [players|opcodes|reset|on|off] [N]}. Without arguments, the 10 top talkers and the 10 heaviest opcodes are shown.
+ * Telemetry is disabled by default, {@code on} and {@code off} start and stop collecting data.
+ * </p>
+ */
+@CommandName("netstats")
+@CommandAccessLevel(AccessLevel.ADMIN)
+@CommandExecutionScope(CommandScope.CONSOLE)
+@CommandDescription("Shows the top talkers and the heaviest packet types. Usage: netstats [players|opcodes|reset|on|off] [N]")
+public class NetStatsCommand extends Command {
+    /**
+     * Number of entries shown by default
+     */
+    private static final int DEFAULT_TOP = 10;
+
+    /**
+     * Performing a console command action
+     *
+     * @param playerConnection {@link UdpConnection}, if called from the console, the connection will return as {@code null}
+     * @param args             arguments of the received command
+     * @return traffic report, or the result of the requested action
+     */
+    @Override
+    public String onInvoke(UdpConnection playerConnection, String[] args) {
+        String action = args.length > 0 ? args[0].toLowerCase() : "all";
+
+        if (action.equals("reset")) {
+            PacketTelemetry.reset();
+            return "[#] Network telemetry cleared.";
+        }
+
+        if (action.equals("on") || action.equals("off")) {
+            PacketTelemetry.setEnabled(action.equals("on"));
+            return "[#] Network telemetry " + (action.equals("on") ? "enabled." : "disabled.");
+        }
+
+        int top = DEFAULT_TOP;
+        if (args.length > 1) {
+            try {
+                top = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                return "[!] Invalid number of entries: " + args[1];
+            }
+        }
+
+        StringBuilder report = new StringBuilder();
+        if (!PacketTelemetry.isEnabled()) {
+            report.append(String.format("[#] Network telemetry is disabled, showing previously collected data. Use 'netstats on' or -Davrix.packetTelemetry=true to collect.%n"));
+        }
+
+        switch (action) {
+            case "players" -> appendTopTalkers(report, top);
+            case "opcodes" -> appendHeaviestOpcodes(report, top);
+            case "all" -> {
+                appendTopTalkers(report, top);
+                appendHeaviestOpcodes(report, top);
+            }
+            default -> {
+                return "[!] Unknown action '" + action + "'. Usage: netstats [players|opcodes|reset|on|off] [N]";
+            }
+        }
+
+        return report.toString().stripTrailing();
+    }
+
+    /**
+     * Appends the connections with the highest inbound byte rate to the report.
+     *
+     * @param report report being built
+     * @param top    maximum number of connections to show
+     */
+    private static void appendTopTalkers(StringBuilder report, int top) {
+        List<PacketTelemetry.ConnectionTraffic> talkers = PacketTelemetry.getTopTalkers(top);
+
+        report.append(String.format("[#] Top talkers (inbound, per second over the last window):%n"));
+        for (PacketTelemetry.ConnectionTraffic traffic : talkers) {
+            report.append(String.format("  %s (%d): %.1f packets/s, %.1f KB/s, total %d packets, %.1f KB%n",
+                    traffic.username(),
+                    traffic.connectionId(),
+                    traffic.packetsPerSecond(),
+                    traffic.bytesPerSecond() / 1024,
+                    traffic.packets(),
+                    traffic.bytes() / 1024.0));
+        }
+    }
+
+    /**
+     * Appends the opcodes with the highest inbound byte rate to the report.
+     *
+     * @param report report being built
+     * @param top    maximum number of opcodes to show
+     */
+    private static void appendHeaviestOpcodes(StringBuilder report, int top) {
+        List<PacketTelemetry.OpcodeTraffic> opcodes = PacketTelemetry.getHeaviestOpcodes(top);
+
+        report.append(String.format("[#] Heaviest packet types (inbound, per second over the last window):%n"));
+        for (PacketTelemetry.OpcodeTraffic traffic : opcodes) {
+            report.append(String.format("  %s (%d): %.1f packets/s, %.1f KB/s, total %d packets, %.1f KB%n",
+                    traffic.name(),
+                    traffic.opcode(),
+                    traffic.packetsPerSecond(),
+                    traffic.bytesPerSecond() / 1024,
+                    traffic.packets(),
+                    traffic.bytes() / 1024.0));
+        }
+    }
+}
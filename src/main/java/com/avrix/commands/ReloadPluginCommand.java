@@ -0,0 +1,46 @@
+package com.avrix.commands;
+
+import com.avrix.enums.AccessLevel;
+import com.avrix.enums.CommandScope;
+import com.avrix.plugin.PluginManager;
+import zombie.core.raknet.UdpConnection;
+
+/**
+ * Built-in console command reloading or unloading a plugin at runtime through the {@link PluginManager}.
+ * <p>
+ * Usage: {@code reloadplugin <id> [unload]}. Only plugins declaring {@code hotReload: true} can be reloaded.
+ * </p>
+ */
+@CommandName("reloadplugin")
+@CommandAccessLevel(AccessLevel.ADMIN)
+@CommandExecutionScope(CommandScope.CONSOLE)
+@CommandDescription("Reloads or unloads a plugin. Usage: reloadplugin <id> [unload]")
+public class ReloadPluginCommand extends Command {
+    /**
+     * Performing a console command action
+     *
+     * @param playerConnection {@link UdpConnection}, if called from the console, the connection will return as {@code null}
+     * @param args             arguments of the received command
+     * @return result of the reload
+     */
+    @Override
+    public String onInvoke(UdpConnection playerConnection, String[] args) {
+        if (args.length == 0) {
+            return "[!] Missing plugin ID. Usage: reloadplugin <id> [unload]";
+        }
+
+        String pluginId = args[0];
+        if (args.length > 1) {
+            if (!args[1].equalsIgnoreCase("unload")) {
+                return "[!] Unknown action '" + args[1] + "'. Usage: reloadplugin <id> [unload]";
+            }
+            return PluginManager.unloadPlugin(pluginId)
+                    ? "[#] Plugin '" + pluginId + "' unloaded."
+                    : "[!] Plugin '" + pluginId + "' was not unloaded, see the log for details.";
+        }
+
+        return PluginManager.reloadPlugin(pluginId)
+                ? "[#] Plugin '" + pluginId + "' reloaded."
+                : "[!] Plugin '" + pluginId + "' was not reloaded, see the log for details.";
+    }
+}
@@ -0,0 +1,56 @@
+package com.avrix.commands;
+
+import zombie.core.raknet.UdpConnection;
+
+import java.util.Map;
+
+/**
+ * Base class of the commands reading their arguments as typed values.
+ * The arguments declared with {@link CommandArgument} annotations are parsed and validated before
+ * {@link #onInvoke(UdpConnection, CommandArguments)} is called, so the command only handles valid input.
+ */
+public abstract class TypedCommand extends Command {
+    /**
+     * Performing a chat command action with the arguments parsed according to the {@link CommandArgument} annotations.
+     *
+     * @param playerConnection {@link UdpConnection}, if called from the console, the connection will return as {@code null}
+     * @param args             parsed arguments of the received command
+     * @return message text that will be displayed to the user (or console) when the command is executed
+     */
+    public abstract String onInvoke(UdpConnection playerConnection, CommandArguments args);
+
+    /**
+     * Parses the raw arguments and performs the command action, for callers invoking the command directly.
+     * If the command is not registered, its arguments are passed without typed values.
+     *
+     * @param playerConnection {@link UdpConnection}, if called from the console, the connection will return as {@code null}
+     * @param args             arguments of the received command
+     * @return message text that will be displayed to the user (or console), or the usage if the arguments are invalid
+     */
+    @Override
+    public final String onInvoke(UdpConnection playerConnection, String[] args) {
+        String commandName = getCommandName();
+        CommandDescriptor descriptor = commandName != null ? CommandsManager.getCommandDescriptor(commandName) : null;
+        if (descriptor == null) {
+            return onInvoke(playerConnection, new CommandArguments(args, Map.of()));
+        }
+
+        try {
+            return onInvoke(playerConnection, descriptor.parse(args));
+        } catch (IllegalArgumentException e) {
+            return String.format("[!] %s. Usage: %s", e.getMessage(), descriptor.getUsage());
+        }
+    }
+
+    /**
+     * Invokes the command with the arguments already parsed by the {@link CommandsManager}.
+     *
+     * @param playerConnection {@link UdpConnection}, {@code null} for the console
+     * @param args             parsed arguments of the received command
+     * @return message text that will be displayed to the user (or console) when the command is executed
+     */
+    @Override
+    String invoke(UdpConnection playerConnection, CommandArguments args) {
+        return onInvoke(playerConnection, args);
+    }
+}
@@ -0,0 +1,60 @@
+package com.avrix.enums;
+
+/**
+ * Enumerates the types of command arguments, used by {@link com.avrix.commands.CommandArgument} to parse and validate
+ * arguments before the command is invoked.
+ */
+public enum ArgumentType {
+    /**
+     * A single word, or a phrase in double quotes.
+     */
+    STRING("text"),
+
+    /**
+     * All remaining arguments joined with spaces. Must be the last argument of the command.
+     */
+    TEXT("text..."),
+
+    /**
+     * A 32-bit integer.
+     */
+    INT("number"),
+
+    /**
+     * An online player, matched by a full or partial username.
+     */
+    PLAYER("player"),
+
+    /**
+     * A duration such as {@code 90}, {@code 30s}, {@code 5m}, {@code 1h30m} or {@code 2d}. A plain number is a number of seconds.
+     */
+    DURATION("duration"),
+
+    /**
+     * Integer coordinates: three arguments {@code x y z}, or two arguments {@code x y} when the Z level is omitted.
+     */
+    COORDINATES("x y [z]");
+
+    /**
+     * Placeholder shown in the usage of the command
+     */
+    private final String placeholder;
+
+    /**
+     * Constructs an ArgumentType enum with the specified placeholder.
+     *
+     * @param placeholder placeholder shown in the usage of the command
+     */
+    ArgumentType(String placeholder) {
+        this.placeholder = placeholder;
+    }
+
+    /**
+     * Returns the placeholder shown in the usage of the command.
+     *
+     * @return placeholder of the argument type
+     */
+    public String getPlaceholder() {
+        return placeholder;
+    }
+}
@@ -0,0 +1,25 @@
+package com.avrix.enums;
+
+/**
+ * Enumerates the policies applied when the queue of an asynchronous event listener is full.
+ */
+public enum BackpressurePolicy {
+    /**
+     * The oldest pending event is discarded to make room for the new one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * The thread raising the event waits until there is room in the queue.
+     * An event raised from an asynchronous listener while the queue is full is discarded, as waiting could occupy
+     * the shared threads that empty the queues.
+     */
+    BLOCK,
+
+    /**
+     * A pending event with the same first argument (e.g. the same player or zombie) is replaced by the new one,
+     * so only the latest state of each object is delivered. If there is no such event and the queue is full,
+     * the oldest pending event is discarded.
+     */
+    COALESCE;
+}
@@ -0,0 +1,35 @@
+package com.avrix.events;
+
+import com.avrix.enums.BackpressurePolicy;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * An annotation that marks an {@link Event} listener for asynchronous delivery.
+ * Events for such a listener are put into its own bounded queue and handled on a background thread,
+ * so slow handlers (file or network I/O) do not stall the thread that raised the event.
+ * <p>
+ * Arguments are passed to the handler as they were raised. Game objects may change or be removed
+ * by the time the handler runs, so the handler should copy the data it needs as early as possible.
+ * </p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface AsyncEvent {
+    /**
+     * The maximum number of pending events of the listener.
+     *
+     * @return queue capacity
+     */
+    int queueCapacity() default 1024;
+
+    /**
+     * The policy applied when the queue is full.
+     *
+     * @return the specified {@link BackpressurePolicy}
+     */
+    BackpressurePolicy backpressure() default BackpressurePolicy.DROP_OLDEST;
+}
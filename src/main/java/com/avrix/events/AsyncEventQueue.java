@@ -0,0 +1,235 @@
+package com.avrix.events;
+
+import com.avrix.enums.BackpressurePolicy;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Bounded queue of pending events of a single asynchronous listener.
+ * Events are delivered one at a time, in the order they were raised, on the threads of a small shared pool.
+ * <p>
+ * A thread of the pool never waits for room in a {@link BackpressurePolicy#BLOCK} queue: the events offered by
+ * asynchronous listeners to a full queue are dropped instead, since the pool thread that would empty the queue
+ * may be the waiting one, and a few such waits would park the whole pool.
+ * </p>
+ */
+final class AsyncEventQueue {
+    /**
+     * Maximum number of events delivered in one pass before the queue yields the pool thread to other listeners
+     */
+    private static final int DRAIN_BATCH_SIZE = 64;
+
+    /**
+     * Shared pool of daemon threads on which asynchronous listeners are called
+     */
+    private static final ExecutorService executor = createExecutor();
+
+    private final String listenerName; // Listener name, used in logs
+    private final BackpressurePolicy policy; // Policy applied when the queue is full
+    private final Consumer<Object[]> consumer; // Delivers the event arguments to the listener
+    private final Object[][] buffer; // Ring buffer of the pending event arguments
+    private final Map<Object, Integer> pendingIndexes; // Buffer index of the pending event by first argument, for COALESCE only
+    private int head; // Index of the oldest pending event
+    private int size; // Number of pending events
+    private boolean scheduled; // Whether a drain task is queued or running
+    private boolean cancelled; // Whether the listener was removed, new events are then ignored
+    private long droppedEvents; // Number of events discarded because the queue was full
+
+    /**
+     * Constructs a new {@link AsyncEventQueue}.
+     *
+     * @param listenerName  Listener name, used in logs
+     * @param queueCapacity Maximum number of pending events
+     * @param policy        {@link BackpressurePolicy} applied when the queue is full
+     * @param consumer      Delivers the event arguments to the listener
+     */
+    AsyncEventQueue(String listenerName, int queueCapacity, BackpressurePolicy policy, Consumer<Object[]> consumer) {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("[!] Queue capacity of an asynchronous listener must be positive, got: " + queueCapacity);
+        }
+
+        this.listenerName = listenerName;
+        this.policy = policy;
+        this.consumer = consumer;
+        this.buffer = new Object[queueCapacity][];
+        this.pendingIndexes = policy == BackpressurePolicy.COALESCE ? new IdentityHashMap<>() : null;
+    }
+
+    /**
+     * Adds an event to the queue, applying the {@link BackpressurePolicy} if the queue is full,
+     * and schedules its delivery. With {@link BackpressurePolicy#BLOCK}, an event offered from a thread of the pool
+     * while the queue is full is dropped, since waiting could occupy the threads that empty the queues.
+     *
+     * @param args Event arguments
+     */
+    void offer(Object[] args) {
+        synchronized (this) {
+            if (cancelled) return;
+            if (policy == BackpressurePolicy.COALESCE && replacePending(args)) return;
+
+            while (size == buffer.length) {
+                if (policy == BackpressurePolicy.BLOCK && Thread.currentThread() instanceof PoolThread) {
+                    recordDropped();
+                    return;
+                }
+                if (policy == BackpressurePolicy.BLOCK) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        recordDropped();
+                        return;
+                    }
+                    if (cancelled) return;
+                    continue;
+                }
+
+                poll();
+                recordDropped();
+            }
+
+            int index = (head + size) % buffer.length;
+            buffer[index] = args;
+            size++;
+            if (pendingIndexes != null && args.length > 0 && args[0] != null) {
+                pendingIndexes.put(args[0], index);
+            }
+
+            if (scheduled) return;
+            scheduled = true;
+        }
+
+        executor.execute(this::drain);
+    }
+
+    /**
+     * Discards the pending events and ignores the events offered afterwards, when the listener is removed.
+     * Threads waiting for space in the queue are released.
+     *
+     * @return number of discarded pending events
+     */
+    synchronized int cancel() {
+        int discarded = size;
+        while (size > 0) {
+            poll();
+        }
+        cancelled = true;
+        notifyAll();
+        return discarded;
+    }
+
+    /**
+     * Returns the number of events discarded because the queue was full.
+     *
+     * @return number of dropped events
+     */
+    synchronized long getDroppedEvents() {
+        return droppedEvents;
+    }
+
+    /**
+     * Delivers pending events to the listener. Reschedules itself after {@link #DRAIN_BATCH_SIZE} events
+     * so that one busy listener does not occupy a pool thread indefinitely.
+     */
+    private void drain() {
+        for (int delivered = 0; delivered < DRAIN_BATCH_SIZE; delivered++) {
+            Object[] args;
+
+            synchronized (this) {
+                if (size == 0) {
+                    scheduled = false;
+                    return;
+                }
+
+                args = poll();
+                notifyAll();
+            }
+
+            consumer.accept(args);
+        }
+
+        executor.execute(this::drain);
+    }
+
+    /**
+     * Replaces a pending event whose first argument is the same object as the first argument of the new event.
+     * Must be called while holding the monitor of this queue.
+     *
+     * @param args Arguments of the new event
+     * @return true if a pending event has been replaced
+     */
+    private boolean replacePending(Object[] args) {
+        if (args.length == 0 || args[0] == null) return false;
+
+        Integer index = pendingIndexes.get(args[0]);
+        if (index == null) return false;
+
+        buffer[index] = args;
+        return true;
+    }
+
+    /**
+     * Removes the oldest pending event. Must be called while holding the monitor of this queue.
+     *
+     * @return arguments of the removed event
+     */
+    private Object[] poll() {
+        Object[] args = buffer[head];
+        buffer[head] = null;
+        if (pendingIndexes != null && args.length > 0 && args[0] != null) {
+            Integer index = pendingIndexes.get(args[0]);
+            if (index != null && index == head) pendingIndexes.remove(args[0]);
+        }
+        head = (head + 1) % buffer.length;
+        size--;
+        return args;
+    }
+
+    /**
+     * Counts a discarded event and reports it on the first occurrence and then on every power of two,
+     * so a constantly overloaded listener does not flood the console.
+     * Must be called while holding the monitor of this queue.
+     */
+    private void recordDropped() {
+        droppedEvents++;
+        if ((droppedEvents & (droppedEvents - 1)) == 0) {
+            System.out.printf("[!] The queue of asynchronous listener '%s' is full, %d event(s) dropped so far.%n", listenerName, droppedEvents);
+        }
+    }
+
+    /**
+     * Creates the shared pool of daemon threads for asynchronous listeners.
+     *
+     * @return {@link ExecutorService} for asynchronous listeners
+     */
+    private static ExecutorService createExecutor() {
+        int threads = Math.min(4, Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new PoolThread(runnable, "Avrix-AsyncEvent-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Thread of the shared pool, recognized so that it never waits for room in a queue
+     */
+    private static final class PoolThread extends Thread {
+        /**
+         * Constructs a new {@link PoolThread}.
+         *
+         * @param task task run by the thread
+         * @param name thread name
+         */
+        PoolThread(Runnable task, String name) {
+            super(task, name);
+        }
+    }
+}
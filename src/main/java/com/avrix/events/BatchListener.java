@@ -0,0 +1,17 @@
+package com.avrix.events;
+
+/**
+ * Listener receiving the objects of an event collected during one game tick, see {@link EventBatcher}.
+ *
+ * @param <T> type of the collected objects (the first argument of the event)
+ */
+@FunctionalInterface
+public interface BatchListener<T> {
+    /**
+     * Called once per game tick with all objects collected during that tick.
+     * The batch is reused after this method returns and must not be retained.
+     *
+     * @param batch collected objects
+     */
+    void handleBatch(EventBatch<T> batch);
+}
@@ -4,10 +4,29 @@ package com.avrix.events;
  * Template class for all in-game events
  */
 public abstract class Event {
+    /**
+     * Cached identifier of the event in the {@link EventRegistry}, -1 until resolved
+     */
+    private int eventId = -1;
+
     /**
      * Getting the event name
      *
      * @return name of the event being implemented
      */
     public abstract String getEventName();
-}
\ No newline at end of file
+
+    /**
+     * Getting the event identifier assigned by the {@link EventRegistry}
+     *
+     * @return identifier of the event being implemented
+     */
+    public final int getEventId() {
+        int id = eventId;
+        if (id < 0) {
+            id = EventRegistry.getId(getEventName());
+            eventId = id;
+        }
+        return id;
+    }
+}
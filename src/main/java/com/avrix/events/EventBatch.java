@@ -0,0 +1,97 @@
+package com.avrix.events;
+
+import java.util.Arrays;
+
+/**
+ * A reusable batch of objects collected from an event during one game tick, see {@link EventBatcher}.
+ * <p>
+ * Batches are pooled: the same instance is cleared and refilled on later ticks, so a {@link BatchListener}
+ * must not keep a reference to the batch (or copy only what it needs) after {@link BatchListener#handleBatch(EventBatch)} returns.
+ * The batch may be read from several threads inside the handler, e.g. to process it in parallel.
+ * </p>
+ *
+ * @param <T> type of the collected objects (the first argument of the event)
+ */
+public final class EventBatch<T> {
+    private Object[] elements = new Object[64]; // Collected objects, grows as needed and is never shrunk
+    private int size; // Number of collected objects
+    private long tick; // Number of the tick during which the objects were collected
+
+    /**
+     * Constructs an empty {@link EventBatch}. Batches are created by {@link EventBatcher}.
+     */
+    EventBatch() {
+    }
+
+    /**
+     * Returns the number of objects in the batch.
+     *
+     * @return batch size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the batch is empty.
+     *
+     * @return true if no objects were collected
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the object at the specified position.
+     *
+     * @param index position of the object, from 0 to {@link #size()} - 1
+     * @return collected object
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return (T) elements[index];
+    }
+
+    /**
+     * Returns the number of the tick during which the objects were collected.
+     * Ticks are counted by {@link EventBatcher} from the moment it was first used.
+     *
+     * @return tick number
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Adds an object to the batch.
+     *
+     * @param element object to add
+     */
+    void add(Object element) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+        }
+        elements[size++] = element;
+    }
+
+    /**
+     * Sets the number of the tick of the batch.
+     *
+     * @param tick tick number
+     */
+    void setTick(long tick) {
+        this.tick = tick;
+    }
+
+    /**
+     * Removes all objects from the batch, keeping the allocated storage.
+     */
+    void clear() {
+        Arrays.fill(elements, 0, size, null);
+        size = 0;
+    }
+}
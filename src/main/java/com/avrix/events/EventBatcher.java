@@ -0,0 +1,252 @@
+package com.avrix.events;
+
+import com.avrix.enums.Priority;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Delivers high-frequency entity events (e.g. {@code OnZombieUpdate}, {@code OnPlayerUpdate}, {@code OnObjectAdded})
+ * as batches: instead of one handler call per entity, a {@link BatchListener} is called once per game tick
+ * with all entities collected during that tick.
+ * <p>
+ * The first argument of each event is collected, whatever the number of arguments of the event.
+ * Batches are flushed when the {@value #TICK_EVENT_NAME} event is raised.
+ * Each event uses two pooled {@link EventBatch} buffers that are swapped on every flush, so the steady state does not allocate.
+ * </p>
+ * <pre>{@code
+ * EventBatcher.addBatchListener("OnZombieUpdate", (EventBatch<IsoZombie> zombies) -> {
+ *     for (int i = 0; i < zombies.size(); i++) {
+ *         heatmap.add(zombies.get(i).getX(), zombies.get(i).getY());
+ *     }
+ * });
+ * }</pre>
+ */
+public class EventBatcher {
+    /**
+     * The name of the event on which the collected batches are delivered
+     */
+    public static final String TICK_EVENT_NAME = "OnTick";
+
+    /**
+     * Batch collectors by event identifier
+     */
+    private static final Map<Integer, BatchCollector> collectors = new ConcurrentHashMap<>();
+
+    /**
+     * Listener of the tick event that flushes all collectors
+     */
+    private static final TickFlusher tickFlusher = new TickFlusher();
+
+    /**
+     * Number of the current tick, only incremented by the thread raising the tick event
+     */
+    private static volatile long tick;
+
+    /**
+     * Registers a listener that receives the objects of the event collected during each game tick.
+     *
+     * @param eventName The name of the event whose first argument is collected (case-insensitive).
+     * @param listener  {@link BatchListener} called once per tick
+     * @param <T>       type of the collected objects
+     */
+    public static synchronized <T> void addBatchListener(String eventName, BatchListener<T> listener) {
+        int eventId = EventRegistry.getId(eventName);
+
+        BatchCollector collector = collectors.computeIfAbsent(eventId, id -> new BatchCollector(EventRegistry.getName(id)));
+        collector.listeners.add(listener);
+
+        // Listeners may have been removed from the EventManager directly (e.g. by clearing all listeners)
+        if (!isRegistered(collector)) {
+            EventManager.addListener(collector, Priority.LOWEST);
+        }
+        if (!isRegistered(tickFlusher)) {
+            EventManager.addListener(tickFlusher, Priority.HIGHEST);
+        }
+    }
+
+    /**
+     * Removes a previously registered batch listener.
+     * When the last listener of an event is removed, the event is no longer collected.
+     *
+     * @param listener {@link BatchListener} to remove
+     */
+    public static synchronized void removeBatchListener(BatchListener<?> listener) {
+        collectors.values().removeIf(collector -> {
+            collector.listeners.remove(listener);
+            if (!collector.listeners.isEmpty()) return false;
+
+            EventManager.removeListener(collector);
+            return true;
+        });
+
+        if (collectors.isEmpty()) {
+            EventManager.removeListener(tickFlusher);
+        }
+    }
+
+    /**
+     * Removes all batch listeners whose class was loaded by the specified class loader, e.g. when a plugin is unloaded.
+     * Events left without batch listeners are no longer collected.
+     *
+     * @param classLoader {@link ClassLoader} of the plugin
+     * @return number of removed batch listeners
+     */
+    public static synchronized int removeBatchListeners(ClassLoader classLoader) {
+        int removed = 0;
+
+        for (BatchCollector collector : collectors.values()) {
+            for (BatchListener<?> listener : collector.listeners) {
+                if (listener.getClass().getClassLoader() == classLoader && collector.listeners.remove(listener)) removed++;
+            }
+        }
+
+        collectors.values().removeIf(collector -> {
+            if (!collector.listeners.isEmpty()) return false;
+
+            EventManager.removeListener(collector);
+            return true;
+        });
+
+        if (collectors.isEmpty()) {
+            EventManager.removeListener(tickFlusher);
+        }
+        return removed;
+    }
+
+    /**
+     * Delivers the objects collected since the previous flush to the batch listeners.
+     * Called automatically on every {@value #TICK_EVENT_NAME} event.
+     */
+    public static void flush() {
+        long currentTick = tick++;
+        for (BatchCollector collector : collectors.values()) {
+            collector.flush(currentTick);
+        }
+    }
+
+    /**
+     * Checks whether the internal listener is currently registered in the {@link EventManager}.
+     *
+     * @param event internal listener
+     * @return true if the listener is registered
+     */
+    private static boolean isRegistered(Event event) {
+        List<EventManager.EventListener> listeners = EventManager.getListenersForEvent(event.getEventName());
+        if (listeners == null) return false;
+
+        for (EventManager.EventListener listener : listeners) {
+            if (listener.handler() == event) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Listener collecting the first argument of an event into a pooled batch.
+     */
+    private static final class BatchCollector extends Event {
+        private final String eventName; // Name of the collected event
+        private final List<BatchListener<?>> listeners = new CopyOnWriteArrayList<>(); // Batch listeners of the event
+        private EventBatch<Object> filling = new EventBatch<>(); // Batch receiving the objects of the current tick
+        private EventBatch<Object> spare = new EventBatch<>(); // Batch delivered on the previous flush, reused on the next one
+
+        /**
+         * Constructs a new {@link BatchCollector}.
+         *
+         * @param eventName Name of the collected event
+         */
+        BatchCollector(String eventName) {
+            this.eventName = eventName;
+        }
+
+        /**
+         * Getting the event name
+         *
+         * @return name of the collected event
+         */
+        @Override
+        public String getEventName() {
+            return eventName;
+        }
+
+        /**
+         * Called Event Handling Method, collects the first argument of the event.
+         * Events raised without arguments are ignored.
+         *
+         * @param args all arguments of the event
+         */
+        public void handleEvent(Object... args) {
+            if (args.length == 0) return;
+
+            synchronized (this) {
+                filling.add(args[0]);
+            }
+        }
+
+        /**
+         * Swaps the buffers and delivers the collected objects to the listeners.
+         *
+         * @param currentTick number of the tick during which the objects were collected
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        void flush(long currentTick) {
+            EventBatch<Object> batch;
+
+            synchronized (this) {
+                if (filling.isEmpty()) return;
+
+                batch = filling;
+                filling = spare;
+                spare = batch;
+            }
+
+            batch.setTick(currentTick);
+
+            for (BatchListener listener : listeners) {
+                try {
+                    listener.handleBatch(batch);
+                } catch (Exception e) {
+                    System.out.printf("[!] An exception occurred when trying to deliver a batch of event '%s' to listener '%s'! Reason: %s%n",
+                            eventName,
+                            listener.getClass(),
+                            e.getMessage());
+                }
+            }
+
+            batch.clear();
+        }
+    }
+
+    /**
+     * Listener of the tick event that flushes all collected batches.
+     */
+    private static final class TickFlusher extends Event {
+        /**
+         * Getting the event name
+         *
+         * @return name of the tick event
+         */
+        @Override
+        public String getEventName() {
+            return TICK_EVENT_NAME;
+        }
+
+        /**
+         * Called Event Handling Method
+         *
+         * @param numberTicks The number of ticks.
+         */
+        public void handleEvent(Object numberTicks) {
+            flush();
+        }
+
+        /**
+         * Called Event Handling Method, for the tick event raised without arguments
+         */
+        public void handleEvent() {
+            flush();
+        }
+    }
+}
@@ -1,159 +1,578 @@
 package com.avrix.events;
 
+import com.avrix.agent.DeferredPatchManager;
+import com.avrix.enums.BackpressurePolicy;
 import com.avrix.enums.Priority;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Manages {@link Event} subscriptions and their raising.
  * Allows objects to register themselves as listeners for specific events and raise those events dynamically.
+ * <p>
+ * Listeners of each event are stored as an immutable array sorted by {@link Priority}, indexed by the event
+ * identifier from {@link EventRegistry}. Registration replaces the array with a new copy (copy-on-write),
+ * so raising an event never takes a lock and may be done from any thread, including from within another event handler.
+ * </p>
+ * <p>
+ * Listeners marked with {@link AsyncEvent} (or registered with a {@link BackpressurePolicy}) are not called
+ * on the thread that raised the event: their events are put into a per-listener bounded queue and delivered on a background thread.
+ * Listeners registered with {@link SubscriptionOptions} filters receive only the events that pass those filters.
+ * </p>
+ * <p>
+ * When {@link EventMetrics} profiling is enabled, the time spent in each event and in each listener is recorded.
+ * </p>
  */
 public class EventManager {
     /**
-     * List of all listeners for specific events, where the key is the {@link String} event name,
-     * and the value is a {@link List} of all event handlers (listeners)
+     * Lookup used to convert the handleEvent methods of listeners into {@link MethodHandle}s
      */
-    private static final Map<String, List<EventListener>> listeners = new HashMap<>();
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /**
+     * The type to which all compiled handleEvent invokers are adapted: (Event, Object[]) -> void
+     */
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(void.class, Event.class, Object[].class);
+
+    /**
+     * Snapshots of all listeners indexed by the event identifier from {@link EventRegistry}.
+     * Each element is an array of all event handlers (listeners) sorted by priority, or {@code null} if the event has no listeners.
+     * Neither the table nor its elements are modified after being published, writers replace them with a new copy.
+     */
+    private static volatile RegisteredListener[][] listeners = new RegisteredListener[0][];
+
+    /**
+     * Lock that serializes modifications of the listener snapshots
+     */
+    private static final Object writeLock = new Object();
+
+    /**
+     * Checks whether at least one listener is registered for the event with the specified identifier.
+     * Intended for patch sites on hot paths: the check is a single array read, so the arguments of
+     * events nobody listens to do not have to be prepared at all.
+     *
+     * @param eventId The event identifier obtained from {@link EventRegistry#getId(String)}.
+     * @return true if the event has listeners
+     */
+    public static boolean hasListeners(int eventId) {
+        return getListeners(eventId) != null;
+    }
+
+    /**
+     * Checks whether at least one listener is registered for the event with the specified name.
+     *
+     * @param eventName The name of the event (case-insensitive).
+     * @return true if the event has listeners
+     */
+    public static boolean hasListeners(String eventName) {
+        return hasListeners(EventRegistry.getId(eventName));
+    }
+
+    /**
+     * Returns the current listener snapshot of the event.
+     *
+     * @param eventId event identifier
+     * @return listeners sorted by priority, or {@code null} if the event has no listeners
+     */
+    private static RegisteredListener[] getListeners(int eventId) {
+        RegisteredListener[][] table = listeners;
+        return eventId >= 0 && eventId < table.length ? table[eventId] : null;
+    }
+
+    /**
+     * Publishes a new listener snapshot of the event. Must be called under {@link #writeLock}.
+     *
+     * @param eventId        event identifier
+     * @param eventListeners new listener snapshot, or {@code null} to remove all listeners of the event
+     */
+    private static void setListeners(int eventId, RegisteredListener[] eventListeners) {
+        RegisteredListener[][] table = Arrays.copyOf(listeners, Math.max(listeners.length, eventId + 1));
+        table[eventId] = eventListeners;
+        listeners = table;
+    }
 
     /**
      * Returns a copy of all registered listeners for all events.
      *
      * @return A copy of the listener {@link HashMap}, where the key is the event name and the value is the {@link List} of listeners for that event.
      */
-    public static synchronized Map<String, List<EventListener>> getAllListeners() {
-        return new HashMap<>(listeners);
+    public static Map<String, List<EventListener>> getAllListeners() {
+        Map<String, List<EventListener>> result = new HashMap<>();
+        for (RegisteredListener[] eventListeners : listeners) {
+            if (eventListeners == null) continue;
+            result.put(eventListeners[0].listener().handler().getEventName(), toEventListeners(eventListeners));
+        }
+        return result;
     }
 
     /**
      * Returns a {@link List} of listeners for the specified event.
      *
-     * @param eventName The name of the event for which you want to get a {@link List} of listeners.
+     * @param eventName The name of the event for which you want to get a {@link List} of listeners (case-insensitive).
      * @return A {@link List} of listeners for the specified event, or null if no listeners are registered for the given event.
      */
-    public static synchronized List<EventListener> getListenersForEvent(String eventName) {
-        return listeners.get(eventName);
+    public static List<EventListener> getListenersForEvent(String eventName) {
+        RegisteredListener[] eventListeners = getListeners(EventRegistry.getId(eventName));
+        return eventListeners == null ? null : toEventListeners(eventListeners);
+    }
+
+    /**
+     * Returns the measurements of all registered listeners.
+     *
+     * @return {@link List} of {@link EventMetrics.ListenerMetrics}
+     */
+    static List<EventMetrics.ListenerMetrics> getListenerMetrics() {
+        List<EventMetrics.ListenerMetrics> result = new ArrayList<>();
+        for (RegisteredListener[] eventListeners : listeners) {
+            if (eventListeners == null) continue;
+            for (RegisteredListener registeredListener : eventListeners) {
+                result.add(registeredListener.metrics());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Converts the internal listener entries to the public {@link EventListener} representation.
+     *
+     * @param registeredListeners Internal listener entries
+     * @return {@link List} of {@link EventListener}
+     */
+    private static List<EventListener> toEventListeners(RegisteredListener[] registeredListeners) {
+        List<EventListener> result = new ArrayList<>(registeredListeners.length);
+        for (RegisteredListener registeredListener : registeredListeners) {
+            result.add(registeredListener.listener());
+        }
+        return result;
     }
 
     /**
      * Clears all registered event listeners.
      */
-    public static synchronized void clearAllListeners() {
-        listeners.clear();
+    public static void clearAllListeners() {
+        synchronized (writeLock) {
+            listeners = new RegisteredListener[0][];
+        }
     }
 
     /**
      * Clears all registered event listeners for a specific event.
      *
-     * @param eventName The name of the event to clear listeners for.
+     * @param eventName The name of the event to clear listeners for (case-insensitive).
+     */
+    public static void clearListenersForEvent(String eventName) {
+        int eventId = EventRegistry.getId(eventName);
+
+        synchronized (writeLock) {
+            if (getListeners(eventId) != null) {
+                setListeners(eventId, null);
+            }
+        }
+    }
+
+    /**
+     * Cancels the asynchronous queues of the listeners whose class was loaded by the specified class loader,
+     * discarding their pending events. Called before the listeners of an unloaded plugin are removed,
+     * so that no event is delivered to the plugin afterwards.
+     *
+     * @param classLoader {@link ClassLoader} of the plugin
+     * @return number of discarded pending events
      */
-    public static synchronized void clearListenersForEvent(String eventName) {
-        listeners.remove(eventName);
+    public static int cancelAsyncQueues(ClassLoader classLoader) {
+        int discarded = 0;
+
+        for (RegisteredListener[] eventListeners : listeners) {
+            if (eventListeners == null) continue;
+
+            for (RegisteredListener registeredListener : eventListeners) {
+                if (registeredListener.asyncQueue() != null
+                        && registeredListener.listener().handler().getClass().getClassLoader() == classLoader) {
+                    discarded += registeredListener.asyncQueue().cancel();
+                }
+            }
+        }
+        return discarded;
+    }
+
+    /**
+     * Removes all listeners whose class was loaded by the specified class loader, e.g. when a plugin is unloaded.
+     *
+     * @param classLoader {@link ClassLoader} of the plugin
+     * @return number of removed listeners
+     */
+    public static int removeListeners(ClassLoader classLoader) {
+        int removed = 0;
+
+        synchronized (writeLock) {
+            for (int eventId = 0; eventId < listeners.length; eventId++) {
+                RegisteredListener[] eventListeners = listeners[eventId];
+                if (eventListeners == null) continue;
+
+                RegisteredListener[] result = Arrays.stream(eventListeners)
+                        .filter(registeredListener -> registeredListener.listener().handler().getClass().getClassLoader() != classLoader)
+                        .toArray(RegisteredListener[]::new);
+                if (result.length == eventListeners.length) continue;
+
+                removed += eventListeners.length - result.length;
+                setListeners(eventId, result.length == 0 ? null : result);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Removes a previously registered listener object.
+     *
+     * @param listener {@link Event} listener to remove
+     * @return true if the listener was registered
+     */
+    public static boolean removeListener(Event listener) {
+        int eventId = listener.getEventId();
+
+        synchronized (writeLock) {
+            RegisteredListener[] eventListeners = getListeners(eventId);
+            if (eventListeners == null) return false;
+
+            RegisteredListener[] result = Arrays.stream(eventListeners)
+                    .filter(registeredListener -> registeredListener.listener().handler() != listener)
+                    .toArray(RegisteredListener[]::new);
+            if (result.length == eventListeners.length) return false;
+
+            for (RegisteredListener registeredListener : eventListeners) {
+                if (registeredListener.listener().handler() == listener && registeredListener.asyncQueue() != null) {
+                    registeredListener.asyncQueue().cancel();
+                }
+            }
+
+            setListeners(eventId, result.length == 0 ? null : result);
+            return true;
+        }
     }
 
     /**
      * Registers a listener object for a specific event.
+     * If the listener class is marked with {@link AsyncEvent}, its events are delivered asynchronously.
+     *
+     * @param listener {@link Event} listener. Must have a handleEvent method with a signature corresponding to the event.
+     * @param priority {@link Priority}, events with lower priority are called last
+     */
+    public static void addListener(Event listener, Priority priority) {
+        addListener(listener, priority, SubscriptionOptions.DEFAULT);
+    }
+
+    /**
+     * Registers a listener object for a specific event with asynchronous delivery.
+     * Events are put into a bounded queue of the listener and handled on a background thread,
+     * the thread raising the event only waits if the queue is full and the policy is {@link BackpressurePolicy#BLOCK},
+     * unless it is itself an asynchronous listener thread, in which case the event is dropped.
+     * The priority defines the order in which listeners receive the event, not the order in which the handlers complete.
+     *
+     * @param listener      {@link Event} listener. Must have a handleEvent method with a signature corresponding to the event.
+     * @param priority      {@link Priority}, events with lower priority are called last
+     * @param queueCapacity maximum number of pending events of the listener
+     * @param policy        {@link BackpressurePolicy} applied when the queue is full
+     */
+    public static void addListener(Event listener, Priority priority, int queueCapacity, BackpressurePolicy policy) {
+        addListener(listener, priority, new SubscriptionOptions.SubscriptionOptionsBuilder().async(queueCapacity, policy).build());
+    }
+
+    /**
+     * Registers a listener object for a specific event with the specified {@link SubscriptionOptions}.
+     * Filters of the options (rate limits, sampling, value change thresholds) are checked before the handler is called.
+     * If the options do not enable asynchronous delivery, but the listener class is marked with {@link AsyncEvent},
+     * the annotation settings are used.
+     * <p>
+     * Game methods raising an event may only be patched once the event has a listener. When the first listener is added
+     * at runtime, after the plugins are initialized, the {@link DeferredPatchManager} applies the patch on a background thread,
+     * and events raised before the patch is applied are not delivered to the listener.
+     * </p>
      *
      * @param listener {@link Event} listener. Must have a handleEvent method with a signature corresponding to the event.
      * @param priority {@link Priority}, events with lower priority are called last
+     * @param options  {@link SubscriptionOptions} of the subscription
      */
-    public static synchronized void addListener(Event listener, Priority priority) {
-        String eventName = listener.getEventName();
-        listeners.computeIfAbsent(eventName, k -> new ArrayList<>()).add(new EventListener(listener, priority));
+    public static void addListener(Event listener, Priority priority, SubscriptionOptions options) {
+        int eventId = listener.getEventId();
+        HandlerMethod[] handlerMethods = compileHandlerMethods(listener);
+        EventThrottle throttle = options.hasFilters() ? new EventThrottle(options) : null;
+
+        int queueCapacity = options.getQueueCapacity();
+        BackpressurePolicy policy = options.getBackpressurePolicy();
+        AsyncEvent asyncEvent = listener.getClass().getAnnotation(AsyncEvent.class);
+        if (!options.isAsync() && asyncEvent != null) {
+            queueCapacity = asyncEvent.queueCapacity();
+            policy = asyncEvent.backpressure();
+        }
+
+        EventMetrics.ListenerMetrics metrics = EventMetrics.createListenerMetrics(listener, queueCapacity > 0);
+        AsyncEventQueue asyncQueue = queueCapacity > 0
+                ? new AsyncEventQueue(listener.getClass().getName(), queueCapacity, policy, args -> invokeListener(eventId, listener, handlerMethods, metrics, args))
+                : null;
+
+        registerListener(new RegisteredListener(new EventListener(listener, priority), handlerMethods, throttle, asyncQueue, metrics));
     }
 
     /**
-     * Registers a listener object for a specific event. Handler priority is set to NORMAL
+     * Adds the listener to the snapshot of its event.
+     * Patches raising the event that were deferred until it has listeners are applied by the {@link DeferredPatchManager}.
+     *
+     * @param registeredListener Listener entry to add
+     */
+    private static void registerListener(RegisteredListener registeredListener) {
+        int eventId = registeredListener.listener().handler().getEventId();
+
+        synchronized (writeLock) {
+            setListeners(eventId, insertSorted(getListeners(eventId), registeredListener));
+        }
+
+        DeferredPatchManager.onListenerAdded(eventId);
+    }
+
+    /**
+     * Registers a listener object for a specific event. Handler priority is set to NORMAL.
+     * See {@link #addListener(Event, Priority, SubscriptionOptions)} for listeners added at runtime.
      *
      * @param listener {@link Event} listener. Must have a handleEvent method with a signature corresponding to the event.
      */
-    public static synchronized void addListener(Event listener) {
-        String eventName = listener.getEventName();
-        listeners.computeIfAbsent(eventName, k -> new ArrayList<>()).add(new EventListener(listener, Priority.NORMAL));
+    public static void addListener(Event listener) {
+        addListener(listener, Priority.NORMAL);
     }
 
     /**
      * Raises an event by its name, passing arguments to listeners registered for that event.
-     * The method dynamically looks up and calls the handleEvent method on each event listener, passing the specified arguments.
+     * The handleEvent overload of each listener is selected by the types of the passed arguments
+     * and called through the invoker compiled when the listener was registered.
+     * A {@code handleEvent(Object...)} overload receives the arguments of any event that no other overload accepts.
      * If an error occurs during a call, it is logged and the process continues for the remaining listeners.
      *
      * @param eventName The name of the event to raise. The event name is case insensitive.
      * @param args      Arguments to be passed to the event listener's handleEvent method. The type and number of arguments must match the expected parameters of the handleEvent method.
      */
-    public static synchronized void invokeEvent(String eventName, Object... args) {
-        List<EventListener> eventListeners = getListenersForEvent(eventName);
+    public static void invokeEvent(String eventName, Object... args) {
+        invokeEvent(EventRegistry.getId(eventName), args);
+    }
+
+    /**
+     * Raises an event by its identifier, passing arguments to listeners registered for that event.
+     * Same as {@link #invokeEvent(String, Object...)}, but skips resolving the event name.
+     *
+     * @param eventId The identifier of the event to raise, obtained from {@link EventRegistry#getId(String)}.
+     * @param args    Arguments to be passed to the event listener's handleEvent method. The type and number of arguments must match the expected parameters of the handleEvent method.
+     */
+    public static void invokeEvent(int eventId, Object... args) {
+        RegisteredListener[] eventListeners = getListeners(eventId);
 
-        if (eventListeners == null || eventListeners.isEmpty()) return;
+        if (eventListeners == null) return;
 
-        eventListeners.sort(Comparator.comparingInt(l -> l.priority().ordinal()));
+        boolean measured = EventMetrics.isEnabled();
+        long startTime = measured ? System.nanoTime() : 0L;
 
-        for (EventListener listener : eventListeners) {
-            Event eventHandler = listener.handler();
-            String argTypes = Arrays.stream(args)
-                    .map(Object::getClass)
-                    .map(Class::getSimpleName)
-                    .collect(Collectors.joining(", "));
+        for (RegisteredListener listener : eventListeners) {
+            if (listener.throttle() != null && !listener.throttle().test(args)) continue;
 
-            try {
-                invokeHandleEvent(eventHandler, args);
-            } catch (NoSuchMethodException e) {
-                System.out.printf("[!] Compatible 'handleEvent' method not found for event '%s' in listener '%s'. Argument types: '%s'%n",
-                        eventName,
-                        listener.handler.getClass(),
-                        argTypes);
-            } catch (IllegalAccessException | InvocationTargetException e) {
-                System.out.printf("[!] An exception occurred when trying to invoke event '%s' with arguments '%s' in listener '%s'! Reason: %s%n",
-                        eventName,
-                        argTypes,
-                        listener.handler.getClass(),
-                        e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            if (listener.asyncQueue() != null) {
+                listener.asyncQueue().offer(args);
+                continue;
             }
+
+            invokeListener(eventId, listener.listener().handler(), listener.handlerMethods(), listener.metrics(), args);
+        }
+
+        if (measured) {
+            EventMetrics.recordEvent(eventId, System.nanoTime() - startTime);
         }
     }
 
     /**
-     * Calls the handleEvent method on all registered event listeners.
-     * Each listener's handleEvent method must be compatible with the arguments passed.
+     * Calls a single listener, recording the time spent in its handler if {@link EventMetrics} profiling is enabled.
      *
-     * @param listener The event listener to be called.
-     * @param args     Arguments passed to the listener's handleEvent method.
-     * @throws NoSuchMethodException if a handleEvent method with matching arguments is not found.
+     * @param eventId        The identifier of the event being raised.
+     * @param eventHandler   Event listener
+     * @param handlerMethods Compiled handleEvent methods of the listener
+     * @param metrics        Measurements of the listener
+     * @param args           Arguments to be passed to the event listener's handleEvent method.
      */
-    private static synchronized void invokeHandleEvent(Event listener, Object... args) throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
-        Method[] methods = listener.getClass().getMethods();
+    private static void invokeListener(int eventId, Event eventHandler, HandlerMethod[] handlerMethods, EventMetrics.ListenerMetrics metrics, Object[] args) {
+        if (!EventMetrics.isEnabled()) {
+            invokeHandler(eventId, eventHandler, handlerMethods, args);
+            return;
+        }
 
-        for (Method method : methods) {
-            if (!isCompatibleMethod(method, args)) continue;
+        long startTime = System.nanoTime();
+        invokeHandler(eventId, eventHandler, handlerMethods, args);
+        metrics.histogram().record(System.nanoTime() - startTime);
+    }
 
-            method.invoke(listener, args);
+    /**
+     * Calls the compatible handleEvent method of a single listener.
+     * If an error occurs during a call, it is logged.
+     *
+     * @param eventId        The identifier of the event being raised.
+     * @param eventHandler   Event listener
+     * @param handlerMethods Compiled handleEvent methods of the listener
+     * @param args           Arguments to be passed to the event listener's handleEvent method.
+     */
+    private static void invokeHandler(int eventId, Event eventHandler, HandlerMethod[] handlerMethods, Object[] args) {
+        HandlerMethod handlerMethod = findHandlerMethod(handlerMethods, args);
 
+        if (handlerMethod == null) {
+            System.out.printf("[!] Compatible 'handleEvent' method not found for event '%s' in listener '%s'. Argument types: '%s'%n",
+                    EventRegistry.getName(eventId),
+                    eventHandler.getClass(),
+                    getArgumentTypes(args));
             return;
         }
 
-        throw new NoSuchMethodException();
+        try {
+            handlerMethod.invoker().invokeExact(eventHandler, args);
+        } catch (Throwable e) {
+            System.out.printf("[!] An exception occurred when trying to invoke event '%s' with arguments '%s' in listener '%s'! Reason: %s%n",
+                    EventRegistry.getName(eventId),
+                    getArgumentTypes(args),
+                    eventHandler.getClass(),
+                    e);
+        }
+    }
+
+    /**
+     * Creates a copy of the listener array with a new listener inserted according to its priority.
+     * Listeners with the same priority keep the order in which they were registered.
+     *
+     * @param eventListeners     Current listener snapshot, may be {@code null}
+     * @param registeredListener Listener to insert
+     * @return new sorted listener snapshot
+     */
+    private static RegisteredListener[] insertSorted(RegisteredListener[] eventListeners, RegisteredListener registeredListener) {
+        if (eventListeners == null) return new RegisteredListener[]{registeredListener};
+
+        int ordinal = registeredListener.listener().priority().ordinal();
+        int index = eventListeners.length;
+        while (index > 0 && eventListeners[index - 1].listener().priority().ordinal() > ordinal) {
+            index--;
+        }
+
+        RegisteredListener[] result = new RegisteredListener[eventListeners.length + 1];
+        System.arraycopy(eventListeners, 0, result, 0, index);
+        result[index] = registeredListener;
+        System.arraycopy(eventListeners, index, result, index + 1, eventListeners.length - index);
+        return result;
     }
 
     /**
-     * Checks whether the method meets the requirements to be called.
-     * The method must be named "handleEvent" and have parameter types compatible with the arguments passed.
+     * Compiles all public handleEvent methods of the listener into invokers of the form (Event, Object[]) -> void.
+     * The order of the methods is the same as returned by {@link Class#getMethods()}, except that a
+     * {@code handleEvent(Object...)} method receiving all arguments of any event is placed last,
+     * so that the methods with explicit parameters are preferred.
      *
-     * @param method Method to check.
-     * @param args   Arguments to be passed to the method.
-     * @return true if the method meets the requirements to be called.
+     * @param listener Event listener
+     * @return array of compiled handleEvent methods
      */
-    private static boolean isCompatibleMethod(Method method, Object[] args) {
-        if (!method.getName().equals("handleEvent") || method.getParameterTypes().length != args.length) {
-            return false;
+    private static HandlerMethod[] compileHandlerMethods(Event listener) {
+        List<HandlerMethod> handlerMethods = new ArrayList<>();
+        List<HandlerMethod> allArgumentsMethods = new ArrayList<>();
+
+        for (Method method : listener.getClass().getMethods()) {
+            if (!method.getName().equals("handleEvent")) continue;
+
+            try {
+                // Listeners are often declared as non-public (e.g. anonymous) classes inside plugins
+                method.trySetAccessible();
+
+                MethodHandle handle = LOOKUP.unreflect(method).asFixedArity();
+                handle = handle.asType(handle.type().changeParameterType(0, Event.class).changeReturnType(void.class));
+
+                if (method.isVarArgs() && method.getParameterTypes()[0] == Object[].class && method.getParameterCount() == 1) {
+                    allArgumentsMethods.add(new HandlerMethod(method.getParameterTypes(), handle.asType(INVOKER_TYPE), true));
+                    continue;
+                }
+
+                handle = handle.asSpreader(Object[].class, method.getParameterCount())
+                        .asType(INVOKER_TYPE);
+
+                handlerMethods.add(new HandlerMethod(method.getParameterTypes(), handle, false));
+            } catch (IllegalAccessException e) {
+                System.out.printf("[!] Method '%s' of listener '%s' is not accessible and will be ignored. Reason: %s%n",
+                        method,
+                        listener.getClass(),
+                        e.getMessage());
+            }
         }
 
-        for (int i = 0; i < method.getParameterTypes().length; i++) {
-            if (!method.getParameterTypes()[i].isAssignableFrom(args[i].getClass())) {
-                return false;
+        handlerMethods.addAll(allArgumentsMethods);
+        return handlerMethods.toArray(new HandlerMethod[0]);
+    }
+
+    /**
+     * Finds the first compiled handleEvent method whose parameter types are compatible with the arguments passed.
+     *
+     * @param handlerMethods Compiled handleEvent methods of the listener
+     * @param args           Arguments to be passed to the method.
+     * @return compatible {@link HandlerMethod}, or {@code null} if there is no such method
+     */
+    private static HandlerMethod findHandlerMethod(HandlerMethod[] handlerMethods, Object[] args) {
+        for (HandlerMethod handlerMethod : handlerMethods) {
+            if (handlerMethod.isCompatible(args)) return handlerMethod;
+        }
+        return null;
+    }
+
+    /**
+     * Builds a human-readable list of argument types. Used only to report errors.
+     *
+     * @param args Event arguments
+     * @return comma separated simple names of the argument types
+     */
+    private static String getArgumentTypes(Object[] args) {
+        StringJoiner joiner = new StringJoiner(", ");
+        for (Object arg : args) {
+            joiner.add(arg == null ? "null" : arg.getClass().getSimpleName());
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * A compiled handleEvent method of a listener
+     *
+     * @param parameterTypes Parameter types of the original method
+     * @param invoker        {@link MethodHandle} of type (Event, Object[]) -> void that calls the original method
+     * @param allArguments   Whether the original method is {@code handleEvent(Object...)} and receives the argument array as is
+     */
+    private record HandlerMethod(Class<?>[] parameterTypes, MethodHandle invoker, boolean allArguments) {
+        /**
+         * Checks whether the method can be called with the arguments passed.
+         *
+         * @param args Arguments to be passed to the method.
+         * @return true if the number and types of the arguments match the method parameters
+         */
+        boolean isCompatible(Object[] args) {
+            if (allArguments) return true;
+            if (parameterTypes.length != args.length) return false;
+
+            for (int i = 0; i < parameterTypes.length; i++) {
+                Object arg = args[i];
+                if (arg == null ? parameterTypes[i].isPrimitive() : !parameterTypes[i].isInstance(arg)) {
+                    return false;
+                }
             }
+            return true;
         }
-        return true;
+    }
+
+    /**
+     * Internal listener entry holding the public {@link EventListener} and its compiled handleEvent methods
+     *
+     * @param listener       Registered listener
+     * @param handlerMethods Compiled handleEvent methods of the listener
+     * @param throttle       Filter of the subscription, {@code null} if every event is passed to the listener
+     * @param asyncQueue     Queue of pending events for asynchronous listeners, {@code null} for synchronous ones
+     * @param metrics        Measurements of the listener, updated only while {@link EventMetrics} profiling is enabled
+     */
+    private record RegisteredListener(EventListener listener, HandlerMethod[] handlerMethods, EventThrottle throttle, AsyncEventQueue asyncQueue,
+                                      EventMetrics.ListenerMetrics metrics) {
     }
 
     /**
@@ -0,0 +1,285 @@
+package com.avrix.events;
+
+import com.avrix.plugin.PluginClassLoader;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Optional profiling of the event bus: invocation counts and latency histograms per event and per listener.
+ * <p>
+ * Profiling is disabled by default and costs a single volatile read per event when disabled.
+ * It can be enabled at startup with the {@code -Davrix.eventMetrics=true} system property,
+ * at runtime with {@link #setEnabled(boolean)} or with the {@code eventstats} console command.
+ * Listeners are attributed to the plugin whose jar contains their class, see {@link PluginClassLoader#getPluginId(Class)}.
+ * </p>
+ * <p>
+ * The share of tick time of a listener is its total handler time divided by the wall-clock time during which profiling was enabled.
+ * It is only meaningful for synchronous listeners, asynchronous ones are measured on background threads.
+ * </p>
+ */
+public class EventMetrics {
+    /**
+     * Plugin ID reported for listeners that were not loaded by a plugin (e.g. built into Avrix)
+     */
+    public static final String CORE_PLUGIN_ID = "avrix";
+
+    /**
+     * Identifier of the tick event, used to count game ticks
+     */
+    private static final int TICK_EVENT_ID = EventRegistry.getId(EventBatcher.TICK_EVENT_NAME);
+
+    /**
+     * Whether the invocations are measured
+     */
+    private static volatile boolean enabled = Boolean.getBoolean("avrix.eventMetrics");
+
+    /**
+     * Latency histograms of whole events (all synchronous listeners) indexed by the event identifier, elements are created on demand
+     */
+    private static volatile LatencyHistogram[] eventHistograms = new LatencyHistogram[0];
+
+    /**
+     * Lock that serializes the growth of {@link #eventHistograms} and the changes of the profiling state
+     */
+    private static final Object lock = new Object();
+
+    /**
+     * Time at which the current measurement period started
+     */
+    private static volatile long periodStart = System.nanoTime();
+
+    /**
+     * Time at which profiling was disabled, 0 while it is enabled
+     */
+    private static volatile long periodEnd = enabled ? 0L : periodStart;
+
+    /**
+     * Checks whether profiling is enabled.
+     *
+     * @return true if event and listener invocations are measured
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables profiling. Enabling profiling starts a new measurement period and discards previously collected data.
+     *
+     * @param enable true to enable profiling
+     */
+    public static void setEnabled(boolean enable) {
+        synchronized (lock) {
+            if (enabled == enable) return;
+
+            if (enable) {
+                reset();
+                periodEnd = 0L;
+            } else {
+                periodEnd = System.nanoTime();
+            }
+            enabled = enable;
+        }
+    }
+
+    /**
+     * Discards all collected data and starts a new measurement period.
+     */
+    public static void reset() {
+        synchronized (lock) {
+            for (LatencyHistogram histogram : eventHistograms) {
+                if (histogram != null) histogram.reset();
+            }
+            for (ListenerMetrics metrics : EventManager.getListenerMetrics()) {
+                metrics.histogram().reset();
+            }
+
+            periodStart = System.nanoTime();
+            if (!enabled) periodEnd = periodStart;
+        }
+    }
+
+    /**
+     * Returns the duration of the current measurement period.
+     *
+     * @return time in nanoseconds during which profiling was enabled since the last reset
+     */
+    public static long getPeriodNanos() {
+        long end = periodEnd;
+        return (end == 0L ? System.nanoTime() : end) - periodStart;
+    }
+
+    /**
+     * Returns the number of game ticks raised during the current measurement period.
+     * Ticks are only counted while the tick event has listeners.
+     *
+     * @return number of {@value EventBatcher#TICK_EVENT_NAME} events
+     */
+    public static long getTickCount() {
+        LatencyHistogram histogram = getEventHistogram(TICK_EVENT_ID);
+        return histogram == null ? 0L : histogram.getCount();
+    }
+
+    /**
+     * Returns the statistics of all events raised during the current measurement period.
+     *
+     * @return {@link List} of {@link EventStats} sorted by total time, the slowest first
+     */
+    public static List<EventStats> getEventStats() {
+        List<EventStats> result = new ArrayList<>();
+        LatencyHistogram[] histograms = eventHistograms;
+
+        for (int eventId = 0; eventId < histograms.length; eventId++) {
+            LatencyHistogram histogram = histograms[eventId];
+            if (histogram == null || histogram.getCount() == 0) continue;
+
+            result.add(new EventStats(EventRegistry.getName(eventId),
+                    histogram.getCount(),
+                    histogram.getPercentile(50),
+                    histogram.getPercentile(99),
+                    histogram.getMax(),
+                    histogram.getTotal()));
+        }
+
+        result.sort(Comparator.comparingLong(EventStats::totalNanos).reversed());
+        return result;
+    }
+
+    /**
+     * Returns the statistics of all currently registered listeners that were called during the current measurement period.
+     *
+     * @return {@link List} of {@link ListenerStats} sorted by total time, the slowest first
+     */
+    public static List<ListenerStats> getListenerStats() {
+        List<ListenerStats> result = new ArrayList<>();
+        long periodNanos = getPeriodNanos();
+
+        for (ListenerMetrics metrics : EventManager.getListenerMetrics()) {
+            LatencyHistogram histogram = metrics.histogram();
+            if (histogram.getCount() == 0) continue;
+
+            result.add(new ListenerStats(EventRegistry.getName(metrics.eventId()),
+                    metrics.listenerClass().getName(),
+                    metrics.pluginId(),
+                    metrics.async(),
+                    histogram.getCount(),
+                    histogram.getPercentile(50),
+                    histogram.getPercentile(99),
+                    histogram.getMax(),
+                    histogram.getTotal(),
+                    periodNanos > 0 ? (double) histogram.getTotal() / periodNanos : 0.0));
+        }
+
+        result.sort(Comparator.comparingLong(ListenerStats::totalNanos).reversed());
+        return result;
+    }
+
+    /**
+     * Returns the statistics of the slowest listeners.
+     *
+     * @param limit maximum number of listeners to return
+     * @return {@link List} of at most {@code limit} {@link ListenerStats}, the slowest first
+     */
+    public static List<ListenerStats> getSlowestListeners(int limit) {
+        List<ListenerStats> stats = getListenerStats();
+        return stats.subList(0, Math.min(Math.max(0, limit), stats.size()));
+    }
+
+    /**
+     * Records the time spent by all synchronous listeners of an event.
+     *
+     * @param eventId event identifier
+     * @param nanos   elapsed time in nanoseconds
+     */
+    static void recordEvent(int eventId, long nanos) {
+        LatencyHistogram histogram = getEventHistogram(eventId);
+
+        if (histogram == null) {
+            synchronized (lock) {
+                LatencyHistogram[] histograms = eventHistograms;
+                if (eventId >= histograms.length) {
+                    histograms = Arrays.copyOf(histograms, eventId + 1);
+                }
+                histogram = histograms[eventId];
+                if (histogram == null) {
+                    histogram = new LatencyHistogram();
+                    histograms[eventId] = histogram;
+                }
+                eventHistograms = histograms;
+            }
+        }
+
+        histogram.record(nanos);
+    }
+
+    /**
+     * Creates the metrics of a listener being registered.
+     *
+     * @param listener {@link Event} listener
+     * @param async    whether the events of the listener are delivered asynchronously
+     * @return new {@link ListenerMetrics}
+     */
+    static ListenerMetrics createListenerMetrics(Event listener, boolean async) {
+        Class<?> listenerClass = listener.getClass();
+        String pluginId = PluginClassLoader.getPluginId(listenerClass);
+        if (pluginId == null) pluginId = CORE_PLUGIN_ID;
+
+        return new ListenerMetrics(listener.getEventId(), listenerClass, pluginId, async, new LatencyHistogram());
+    }
+
+    /**
+     * Returns the histogram of the event.
+     *
+     * @param eventId event identifier
+     * @return {@link LatencyHistogram}, or {@code null} if the event has not been measured yet
+     */
+    private static LatencyHistogram getEventHistogram(int eventId) {
+        LatencyHistogram[] histograms = eventHistograms;
+        return eventId >= 0 && eventId < histograms.length ? histograms[eventId] : null;
+    }
+
+    /**
+     * Measurements of a single registered listener
+     *
+     * @param eventId       Identifier of the event the listener is registered for
+     * @param listenerClass Class of the listener
+     * @param pluginId      ID of the plugin that registered the listener
+     * @param async         Whether the events of the listener are delivered asynchronously
+     * @param histogram     Latency histogram of the handler calls
+     */
+    record ListenerMetrics(int eventId, Class<?> listenerClass, String pluginId, boolean async, LatencyHistogram histogram) {
+    }
+
+    /**
+     * Statistics of an event
+     *
+     * @param eventName   Name of the event
+     * @param invocations Number of times the event was raised
+     * @param p50Nanos    Median time spent by the synchronous listeners, in nanoseconds
+     * @param p99Nanos    99th percentile of the time spent by the synchronous listeners, in nanoseconds
+     * @param maxNanos    Maximum time spent by the synchronous listeners, in nanoseconds
+     * @param totalNanos  Total time spent by the synchronous listeners, in nanoseconds
+     */
+    public record EventStats(String eventName, long invocations, long p50Nanos, long p99Nanos, long maxNanos, long totalNanos) {
+    }
+
+    /**
+     * Statistics of a listener
+     *
+     * @param eventName     Name of the event
+     * @param listenerClass Fully qualified class name of the listener
+     * @param pluginId      ID of the plugin that registered the listener, {@value #CORE_PLUGIN_ID} for built-in listeners
+     * @param async         Whether the events of the listener are delivered asynchronously
+     * @param invocations   Number of handler calls
+     * @param p50Nanos      Median handler time, in nanoseconds
+     * @param p99Nanos      99th percentile of the handler time, in nanoseconds
+     * @param maxNanos      Maximum handler time, in nanoseconds
+     * @param totalNanos    Total handler time, in nanoseconds
+     * @param timeShare     Total handler time divided by the duration of the measurement period
+     */
+    public record ListenerStats(String eventName, String listenerClass, String pluginId, boolean async, long invocations,
+                                long p50Nanos, long p99Nanos, long maxNanos, long totalNanos, double timeShare) {
+    }
+}
@@ -0,0 +1,132 @@
+package com.avrix.events;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Central registry of event types.
+ * Assigns each event an integer identifier, which is used by {@link EventManager} as an index
+ * into its listener table instead of looking up listeners by the event name.
+ * <p>
+ * Event names are case-insensitive: names are normalized once, when they are seen for the first time,
+ * so {@code "OnTick"} raised from Lua and {@code "onTick"} returned by {@link Event#getEventName()} refer to the same event.
+ * Identifiers do not change during the lifetime of the process, so patches may resolve them once
+ * and embed them into the injected code as constants. They are assigned in the order in which names are first used,
+ * so they may differ between launches: code embedding them must not be reused across launches without checking
+ * {@link #getNames()}, as the patch cache does.
+ * </p>
+ */
+public class EventRegistry {
+    /**
+     * Identifiers by event names exactly as they were requested. Allows the hot path to
+     * resolve already known names without normalizing (and allocating) them again.
+     */
+    private static final Map<String, Integer> aliases = new ConcurrentHashMap<>();
+
+    /**
+     * Identifiers by normalized event names. Guarded by {@link #lock}.
+     */
+    private static final Map<String, Integer> normalizedIds = new HashMap<>();
+
+    /**
+     * Event names indexed by identifier, as they were first registered.
+     * The array is never modified after being published, writers replace it with a new copy.
+     */
+    private static volatile String[] names = new String[0];
+
+    /**
+     * Lock that serializes the registration of new event names
+     */
+    private static final Object lock = new Object();
+
+    /**
+     * Returns the identifier of the event with the specified name, registering the event if necessary.
+     *
+     * @param eventName The name of the event (case-insensitive).
+     * @return event identifier
+     */
+    public static int getId(String eventName) {
+        Integer eventId = aliases.get(eventName);
+        return eventId != null ? eventId : register(eventName);
+    }
+
+    /**
+     * Returns the identifier of the event implemented by the specified listener.
+     *
+     * @param event {@link Event} listener
+     * @return event identifier
+     */
+    public static int getId(Event event) {
+        return event.getEventId();
+    }
+
+    /**
+     * Returns the name of the event as it was first registered.
+     *
+     * @param eventId event identifier
+     * @return event name, or {@code null} if there is no event with this identifier
+     */
+    public static String getName(int eventId) {
+        String[] eventNames = names;
+        return eventId >= 0 && eventId < eventNames.length ? eventNames[eventId] : null;
+    }
+
+    /**
+     * Returns the number of registered events. Identifiers are assigned sequentially starting at zero,
+     * so this is also the upper bound (exclusive) of the identifiers currently in use.
+     *
+     * @return number of registered events
+     */
+    public static int size() {
+        return names.length;
+    }
+
+    /**
+     * Returns the registered event names, the name of each event at the index of its identifier.
+     *
+     * @return unmodifiable {@link List} of event names
+     */
+    public static List<String> getNames() {
+        return List.of(names);
+    }
+
+    /**
+     * Normalizes the event name to the form used for comparison.
+     *
+     * @param eventName The name of the event.
+     * @return normalized name of the event
+     */
+    public static String normalize(String eventName) {
+        return eventName.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Registers an event name, reusing the identifier of an already registered event
+     * whose name differs only in case.
+     *
+     * @param eventName The name of the event.
+     * @return event identifier
+     */
+    private static int register(String eventName) {
+        synchronized (lock) {
+            String normalizedName = normalize(eventName);
+            Integer eventId = normalizedIds.get(normalizedName);
+
+            if (eventId == null) {
+                eventId = names.length;
+                normalizedIds.put(normalizedName, eventId);
+
+                String[] eventNames = Arrays.copyOf(names, eventId + 1);
+                eventNames[eventId] = eventName;
+                names = eventNames;
+            }
+
+            aliases.put(eventName, eventId);
+            return eventId;
+        }
+    }
+}
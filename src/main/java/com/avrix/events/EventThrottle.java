@@ -0,0 +1,221 @@
+package com.avrix.events;
+
+import java.util.Arrays;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Filter of a listener subscription that decides whether an event should reach the handler,
+ * according to the {@link SubscriptionOptions}.
+ * <p>
+ * The per-key state is kept in an open-addressing hash table over primitive arrays,
+ * so checking an event does not allocate once the keys have been seen.
+ * When the table grows, keys whose state is equivalent to an unseen key (e.g. the minimum interval has elapsed)
+ * are dropped, so keys of entities that are gone do not accumulate. If the table still reaches {@value #MAX_CAPACITY} slots,
+ * e.g. because the last observed values of many keys must be kept, it is cleared and all keys start over.
+ * </p>
+ */
+final class EventThrottle {
+    private static final long EMPTY_KEY = Long.MIN_VALUE; // Marker of an empty slot
+    private static final int INITIAL_CAPACITY = 64; // Initial number of slots, must be a power of two
+    private static final int MAX_CAPACITY = 1 << 16; // Maximum number of slots, must be a power of two
+
+    private final ToLongFunction<Object[]> keyExtractor; // Extracts the entity key, null - one shared state
+    private final long minIntervalNanos; // Minimum time between two handled events per key
+    private final int sampleRate; // Only every Nth event per key is handled
+    private final ToDoubleFunction<Object[]> valueExtractor; // Extracts the observed value, null - not used
+    private final double valueThreshold; // Minimum change of the observed value per key
+
+    private long[] keys; // Slot keys
+    private int[] counters; // Number of events seen per key
+    private long[] lastTimes; // Time of the last handled event per key
+    private double[] lastValues; // Observed value of the last handled event per key
+    private boolean[] handled; // Whether at least one event of the key was handled
+    private int size; // Number of occupied slots
+
+    /**
+     * Constructs a new {@link EventThrottle}.
+     *
+     * @param options Subscription options with the filters to apply
+     */
+    EventThrottle(SubscriptionOptions options) {
+        this.keyExtractor = options.getKeyExtractor();
+        this.minIntervalNanos = options.getMinIntervalNanos();
+        this.sampleRate = options.getSampleRate();
+        this.valueExtractor = options.getValueExtractor();
+        this.valueThreshold = options.getValueThreshold();
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Checks whether the event should be passed to the handler and updates the state of its key.
+     *
+     * @param args Event arguments
+     * @return true if the handler should be called
+     */
+    synchronized boolean test(Object[] args) {
+        long key = keyExtractor != null ? keyExtractor.applyAsLong(args) : 0L;
+        int slot = findSlot(key);
+
+        if (sampleRate > 1) {
+            int counter = counters[slot];
+            counters[slot] = counter + 1 == sampleRate ? 0 : counter + 1;
+            if (counter != 0) return false;
+        }
+
+        long now = 0L;
+        if (minIntervalNanos > 0) {
+            now = System.nanoTime();
+            if (handled[slot] && now - lastTimes[slot] < minIntervalNanos) return false;
+        }
+
+        double value = 0.0;
+        if (valueExtractor != null) {
+            value = valueExtractor.applyAsDouble(args);
+            if (handled[slot] && Math.abs(value - lastValues[slot]) < valueThreshold) return false;
+        }
+
+        handled[slot] = true;
+        lastTimes[slot] = now;
+        lastValues[slot] = value;
+        return true;
+    }
+
+    /**
+     * Returns the number of keys held.
+     *
+     * @return number of occupied slots, the reserved slot excluded
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the slot of the key, inserting the key if it is not present yet.
+     *
+     * @param key entity key
+     * @return slot index
+     */
+    private int findSlot(long key) {
+        int capacity = keys.length - 1;
+
+        if (key == EMPTY_KEY) return capacity;
+
+        int mask = capacity - 1;
+        int slot = mix(key) & mask;
+
+        while (keys[slot] != EMPTY_KEY) {
+            if (keys[slot] == key) return slot;
+            slot = (slot + 1) & mask;
+        }
+
+        if ((size + 1) * 2 > capacity) {
+            rehash();
+            return findSlot(key);
+        }
+
+        keys[slot] = key;
+        size++;
+        return slot;
+    }
+
+    /**
+     * Moves the keys that are not stale to new tables, doubling the capacity if they are still half full.
+     * The tables are cleared instead if they would exceed {@link #MAX_CAPACITY}.
+     */
+    private void rehash() {
+        long now = System.nanoTime();
+        long[] oldKeys = keys;
+        int[] oldCounters = counters;
+        long[] oldLastTimes = lastTimes;
+        double[] oldLastValues = lastValues;
+        boolean[] oldHandled = handled;
+        int oldCapacity = oldKeys.length - 1;
+
+        int live = 0;
+        for (int i = 0; i < oldCapacity; i++) {
+            if (oldKeys[i] != EMPTY_KEY && !isStale(oldCounters[i], oldLastTimes[i], oldHandled[i], now)) live++;
+        }
+
+        int newCapacity = live * 4 >= oldCapacity ? oldCapacity * 2 : oldCapacity;
+        boolean cleared = newCapacity > MAX_CAPACITY;
+        allocate(cleared ? INITIAL_CAPACITY : newCapacity);
+        newCapacity = keys.length - 1;
+
+        int mask = newCapacity - 1;
+        for (int i = 0; i < oldCapacity && !cleared; i++) {
+            if (oldKeys[i] == EMPTY_KEY || isStale(oldCounters[i], oldLastTimes[i], oldHandled[i], now)) continue;
+
+            int slot = mix(oldKeys[i]) & mask;
+            while (keys[slot] != EMPTY_KEY) {
+                slot = (slot + 1) & mask;
+            }
+            copySlot(oldKeys, oldCounters, oldLastTimes, oldLastValues, oldHandled, i, slot);
+            size++;
+        }
+
+        copySlot(oldKeys, oldCounters, oldLastTimes, oldLastValues, oldHandled, oldCapacity, newCapacity);
+    }
+
+    /**
+     * Checks whether the state of a key is equivalent to the state of a key that has not been seen yet,
+     * i.e. whether dropping the key changes no future decision.
+     *
+     * @param counter    number of events seen by the key
+     * @param lastTime   time of the last handled event of the key
+     * @param wasHandled whether at least one event of the key was handled
+     * @param now        current time, in nanoseconds
+     * @return true if the key can be dropped
+     */
+    private boolean isStale(int counter, long lastTime, boolean wasHandled, long now) {
+        // The last observed value of a key cannot be restored once dropped
+        if (valueExtractor != null || counter != 0) return false;
+
+        return !wasHandled || minIntervalNanos <= 0 || now - lastTime >= minIntervalNanos;
+    }
+
+    /**
+     * Copies the state of one slot from the old tables.
+     *
+     * @param oldKeys       old slot keys
+     * @param oldCounters   old event counters
+     * @param oldLastTimes  old times of the last handled events
+     * @param oldLastValues old observed values of the last handled events
+     * @param oldHandled    old handled flags
+     * @param from          slot index in the old tables
+     * @param to            slot index in the new tables
+     */
+    private void copySlot(long[] oldKeys, int[] oldCounters, long[] oldLastTimes, double[] oldLastValues, boolean[] oldHandled, int from, int to) {
+        keys[to] = oldKeys[from];
+        counters[to] = oldCounters[from];
+        lastTimes[to] = oldLastTimes[from];
+        lastValues[to] = oldLastValues[from];
+        handled[to] = oldHandled[from];
+    }
+
+    /**
+     * Allocates empty tables. One extra slot at the end is reserved for the {@link #EMPTY_KEY} key.
+     *
+     * @param capacity number of slots, must be a power of two
+     */
+    private void allocate(int capacity) {
+        keys = new long[capacity + 1];
+        Arrays.fill(keys, EMPTY_KEY);
+        counters = new int[capacity + 1];
+        lastTimes = new long[capacity + 1];
+        lastValues = new double[capacity + 1];
+        handled = new boolean[capacity + 1];
+        size = 0;
+    }
+
+    /**
+     * Spreads the bits of the key so that sequential IDs do not cluster in the table.
+     *
+     * @param key entity key
+     * @return hash of the key
+     */
+    private static int mix(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
@@ -0,0 +1,143 @@
+package com.avrix.events;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency histogram with fixed log-linear buckets, in the spirit of HdrHistogram.
+ * <p>
+ * Each power of two is split into {@value #SUB_BUCKETS} sub-buckets, which bounds the relative error of
+ * reported percentiles to about 12.5%. Values are recorded in nanoseconds, lock-free and without allocation,
+ * so the histogram can be updated from several threads on hot paths.
+ * </p>
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3; // log2 of the number of sub-buckets per power of two
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS; // Number of sub-buckets per power of two
+    private static final int LINEAR_LIMIT = SUB_BUCKETS * 2; // Values below this limit get their own bucket
+    private static final int BUCKET_COUNT = LINEAR_LIMIT + (63 - SUB_BUCKET_BITS - 1) * SUB_BUCKETS; // Covers all positive long values
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT); // Number of values per bucket
+    private final AtomicLong count = new AtomicLong(); // Number of recorded values
+    private final AtomicLong total = new AtomicLong(); // Sum of recorded values
+    private final AtomicLong max = new AtomicLong(); // Maximum recorded value
+
+    /**
+     * Records a value.
+     *
+     * @param nanos recorded latency in nanoseconds, negative values are recorded as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(0L, nanos);
+
+        buckets.incrementAndGet(bucketIndex(value));
+        count.incrementAndGet();
+        total.addAndGet(value);
+
+        long currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return number of recorded values
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Returns the sum of all recorded values.
+     *
+     * @return total latency in nanoseconds
+     */
+    public long getTotal() {
+        return total.get();
+    }
+
+    /**
+     * Returns the maximum recorded value.
+     *
+     * @return maximum latency in nanoseconds
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     *
+     * @return mean latency in nanoseconds, 0 if nothing was recorded
+     */
+    public double getMean() {
+        long recorded = count.get();
+        return recorded == 0 ? 0.0 : (double) total.get() / recorded;
+    }
+
+    /**
+     * Returns the value at the specified percentile. The result is the upper bound of the bucket
+     * containing the percentile, capped by the maximum recorded value.
+     *
+     * @param percentile percentile from 0 to 100
+     * @return latency in nanoseconds, 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile) {
+        long recorded = count.get();
+        if (recorded == 0) return 0L;
+
+        long target = Math.max(1L, (long) Math.ceil(recorded * Math.min(100.0, Math.max(0.0, percentile)) / 100.0));
+        long seen = 0L;
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets.get(i);
+            if (seen >= target) {
+                return Math.min(bucketUpperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Clears all recorded values.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0L);
+        }
+        count.set(0L);
+        total.set(0L);
+        max.set(0L);
+    }
+
+    /**
+     * Returns the index of the bucket containing the value.
+     *
+     * @param value non-negative value
+     * @return bucket index
+     */
+    private static int bucketIndex(long value) {
+        if (value < LINEAR_LIMIT) return (int) value;
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_LIMIT + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Returns the largest value belonging to the bucket.
+     *
+     * @param index bucket index
+     * @return upper bound of the bucket
+     */
+    private static long bucketUpperBound(int index) {
+        if (index < LINEAR_LIMIT) return index;
+
+        int exponent = (index - LINEAR_LIMIT) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+        long subBucket = (index - LINEAR_LIMIT) % SUB_BUCKETS;
+        long lowerBound = (1L << exponent) + (subBucket << (exponent - SUB_BUCKET_BITS));
+        return lowerBound + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
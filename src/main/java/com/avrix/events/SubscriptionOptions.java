@@ -0,0 +1,230 @@
+package com.avrix.events;
+
+import com.avrix.enums.BackpressurePolicy;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Options of an {@link Event} listener subscription, passed to {@link EventManager#addListener(Event, com.avrix.enums.Priority, SubscriptionOptions)}.
+ * <p>
+ * Filters reduce the number of handler calls for high-frequency events such as zombie or player updates.
+ * They are checked before the handler is called (and before an asynchronous event is queued). When a key extractor is set,
+ * each filter keeps its state per key (e.g. per zombie online ID), otherwise the state is shared by all events.
+ * All configured filters must pass for the handler to be called.
+ * </p>
+ * <pre>{@code
+ * EventManager.addListener(new MyZombieUpdateListener(), Priority.NORMAL, new SubscriptionOptions.SubscriptionOptionsBuilder()
+ *         .key(args -> ((IsoZombie) args[0]).getOnlineID())
+ *         .minInterval(1, TimeUnit.SECONDS)
+ *         .build());
+ * }</pre>
+ */
+public final class SubscriptionOptions {
+    /**
+     * Options without filters and with synchronous delivery
+     */
+    public static final SubscriptionOptions DEFAULT = new SubscriptionOptionsBuilder().build();
+
+    private ToLongFunction<Object[]> keyExtractor; // Extracts the entity key from the event arguments
+    private long minIntervalNanos; // Minimum time between two handler calls per key, 0 - not limited
+    private int sampleRate = 1; // Only every Nth event per key is handled
+    private ToDoubleFunction<Object[]> valueExtractor; // Extracts the observed value from the event arguments
+    private double valueThreshold; // Minimum change of the observed value per key
+    private int queueCapacity; // Capacity of the asynchronous queue, 0 - synchronous delivery
+    private BackpressurePolicy backpressurePolicy = BackpressurePolicy.DROP_OLDEST; // Policy of the asynchronous queue
+
+    /**
+     * Private constructor, use {@link SubscriptionOptionsBuilder}
+     */
+    private SubscriptionOptions() {
+    }
+
+    /**
+     * Copy constructor, used by {@link SubscriptionOptionsBuilder#build()} so that built options are not changed by the builder
+     *
+     * @param other options to copy
+     */
+    private SubscriptionOptions(SubscriptionOptions other) {
+        this.keyExtractor = other.keyExtractor;
+        this.minIntervalNanos = other.minIntervalNanos;
+        this.sampleRate = other.sampleRate;
+        this.valueExtractor = other.valueExtractor;
+        this.valueThreshold = other.valueThreshold;
+        this.queueCapacity = other.queueCapacity;
+        this.backpressurePolicy = other.backpressurePolicy;
+    }
+
+    /**
+     * Returns the function extracting the entity key from the event arguments.
+     *
+     * @return key extractor, or {@code null} if the filter state is shared by all events
+     */
+    public ToLongFunction<Object[]> getKeyExtractor() {
+        return keyExtractor;
+    }
+
+    /**
+     * Returns the minimum time between two handler calls per key.
+     *
+     * @return minimum interval in nanoseconds, 0 if not limited
+     */
+    public long getMinIntervalNanos() {
+        return minIntervalNanos;
+    }
+
+    /**
+     * Returns the sampling rate: only every Nth event per key is handled.
+     *
+     * @return sampling rate, 1 if every event is handled
+     */
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Returns the function extracting the observed value from the event arguments.
+     *
+     * @return value extractor, or {@code null} if the change threshold is not used
+     */
+    public ToDoubleFunction<Object[]> getValueExtractor() {
+        return valueExtractor;
+    }
+
+    /**
+     * Returns the minimum change of the observed value since the last handled event of the same key.
+     *
+     * @return value change threshold
+     */
+    public double getValueThreshold() {
+        return valueThreshold;
+    }
+
+    /**
+     * Returns the capacity of the asynchronous queue.
+     *
+     * @return queue capacity, 0 if events are delivered synchronously
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Returns the policy applied when the asynchronous queue is full.
+     *
+     * @return {@link BackpressurePolicy}
+     */
+    public BackpressurePolicy getBackpressurePolicy() {
+        return backpressurePolicy;
+    }
+
+    /**
+     * Checks whether the events of the subscription are delivered asynchronously.
+     *
+     * @return true if asynchronous delivery is enabled
+     */
+    public boolean isAsync() {
+        return queueCapacity > 0;
+    }
+
+    /**
+     * Checks whether any filter is configured.
+     *
+     * @return true if at least one filter is configured
+     */
+    public boolean hasFilters() {
+        return minIntervalNanos > 0 || sampleRate > 1 || valueExtractor != null;
+    }
+
+    /**
+     * Builder for {@link SubscriptionOptions}
+     */
+    public final static class SubscriptionOptionsBuilder {
+        private final SubscriptionOptions options;
+
+        /**
+         * Creates a new builder instance.
+         */
+        public SubscriptionOptionsBuilder() {
+            options = new SubscriptionOptions();
+        }
+
+        /**
+         * Sets the function extracting the entity key from the event arguments, e.g. the online ID of a zombie.
+         * The state of all filters is then kept per key.
+         *
+         * @param keyExtractor key extractor
+         * @return the builder instance
+         */
+        public SubscriptionOptionsBuilder key(ToLongFunction<Object[]> keyExtractor) {
+            options.keyExtractor = keyExtractor;
+            return this;
+        }
+
+        /**
+         * Limits the handler to at most one call per interval (per key, if a key extractor is set).
+         *
+         * @param interval minimum time between two handler calls
+         * @param unit     time unit of the interval
+         * @return the builder instance
+         */
+        public SubscriptionOptionsBuilder minInterval(long interval, TimeUnit unit) {
+            if (interval < 0) throw new IllegalArgumentException("[!] Minimum interval must not be negative, got: " + interval);
+
+            options.minIntervalNanos = unit.toNanos(interval);
+            return this;
+        }
+
+        /**
+         * Only every Nth event (per key, if a key extractor is set) is handled.
+         *
+         * @param sampleRate sampling rate, 1 to handle every event
+         * @return the builder instance
+         */
+        public SubscriptionOptionsBuilder sampleEvery(int sampleRate) {
+            if (sampleRate < 1) throw new IllegalArgumentException("[!] Sampling rate must be at least 1, got: " + sampleRate);
+
+            options.sampleRate = sampleRate;
+            return this;
+        }
+
+        /**
+         * Only events whose observed value has changed by at least the threshold since the last handled event
+         * (of the same key, if a key extractor is set) are handled. The first event of each key is always handled.
+         *
+         * @param valueExtractor extracts the observed value from the event arguments
+         * @param threshold      minimum absolute change of the value
+         * @return the builder instance
+         */
+        public SubscriptionOptionsBuilder valueChange(ToDoubleFunction<Object[]> valueExtractor, double threshold) {
+            options.valueExtractor = valueExtractor;
+            options.valueThreshold = threshold;
+            return this;
+        }
+
+        /**
+         * Enables asynchronous delivery, see {@link AsyncEvent}.
+         *
+         * @param queueCapacity maximum number of pending events of the listener
+         * @param policy        {@link BackpressurePolicy} applied when the queue is full
+         * @return the builder instance
+         */
+        public SubscriptionOptionsBuilder async(int queueCapacity, BackpressurePolicy policy) {
+            if (queueCapacity <= 0) throw new IllegalArgumentException("[!] Queue capacity must be positive, got: " + queueCapacity);
+
+            options.queueCapacity = queueCapacity;
+            options.backpressurePolicy = policy;
+            return this;
+        }
+
+        /**
+         * Builds the {@link SubscriptionOptions}. The builder can be reused afterwards without affecting the built options.
+         *
+         * @return new {@link SubscriptionOptions} object
+         */
+        public SubscriptionOptions build() {
+            return new SubscriptionOptions(options);
+        }
+    }
+}
@@ -71,4 +71,18 @@ public class LuaExposer {
     public static synchronized void removeExposedGlobalObject(Object globalObject) {
         exposedGlobalObjects.remove(globalObject);
     }
-}
\ No newline at end of file
+
+    /**
+     * Method for removing the exposed classes and global objects loaded by the specified class loader, e.g. when a plugin is unloaded.
+     * The Lua environment keeps the already exposed values until Lua is reloaded.
+     *
+     * @param classLoader The {@link ClassLoader} of the plugin.
+     * @return number of removed classes and objects
+     */
+    public static synchronized int removeExposed(ClassLoader classLoader) {
+        int size = exposedClasses.size() + exposedGlobalObjects.size();
+        exposedClasses.removeIf(clazz -> clazz.getClassLoader() == classLoader);
+        exposedGlobalObjects.removeIf(globalObject -> globalObject.getClass().getClassLoader() == classLoader);
+        return size - exposedClasses.size() - exposedGlobalObjects.size();
+    }
+}
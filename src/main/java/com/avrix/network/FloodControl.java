@@ -0,0 +1,353 @@
+package com.avrix.network;
+
+import zombie.core.raknet.UdpConnection;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-connection flood control of chat commands and chat messages, based on token buckets.
+ * <p>
+ * Every command and chat message of a player takes a token from the default bucket of the connection
+ * ({@value #DEFAULT_COMMANDS_PER_SECOND} commands per second with a burst of {@value #DEFAULT_COMMAND_BURST},
+ * {@value #DEFAULT_MESSAGES_PER_SECOND} chat messages per second with a burst of {@value #DEFAULT_CHAT_BURST}).
+ * Limits set for a specific command or chat channel add a second bucket, so expensive commands can be limited further.
+ * Messages without a token are rejected before the command is parsed or the chat message is unpacked.
+ * Console commands are never limited.
+ * </p>
+ * <p>
+ * Buckets are stored in primitive tables keyed by the connection GUID, so checking a message does not allocate.
+ * Flood control is disabled by default, so the game keeps its own behaviour, and can be enabled with the
+ * {@code -Davrix.floodControl=true} system property or {@link #setEnabled(boolean)}. Once enabled, the default limits
+ * above apply to every player command, including admin commands, until they are changed.
+ * </p>
+ */
+public class FloodControl {
+    /**
+     * Default number of commands allowed per second
+     */
+    public static final double DEFAULT_COMMANDS_PER_SECOND = 2;
+
+    /**
+     * Default number of commands allowed at once
+     */
+    public static final int DEFAULT_COMMAND_BURST = 5;
+
+    /**
+     * Default number of chat messages allowed per second
+     */
+    public static final double DEFAULT_MESSAGES_PER_SECOND = 3;
+
+    /**
+     * Default number of chat messages allowed at once
+     */
+    public static final int DEFAULT_CHAT_BURST = 8;
+
+    /**
+     * Whether commands and chat messages are limited
+     */
+    private static volatile boolean enabled = "true".equalsIgnoreCase(System.getProperty("avrix.floodControl"));
+
+    /**
+     * Buckets shared by all commands
+     */
+    private static volatile TokenBucketTable commandBuckets = new TokenBucketTable(DEFAULT_COMMANDS_PER_SECOND, DEFAULT_COMMAND_BURST);
+
+    /**
+     * Buckets shared by all chat channels
+     */
+    private static volatile TokenBucketTable chatBuckets = new TokenBucketTable(DEFAULT_MESSAGES_PER_SECOND, DEFAULT_CHAT_BURST);
+
+    /**
+     * Additional limits of specific commands, replaced on every change
+     */
+    private static volatile Limit[] commandLimits = new Limit[0];
+
+    /**
+     * Additional limits of specific chat channels, replaced on every change
+     */
+    private static volatile Limit[] channelLimits = new Limit[0];
+
+    /**
+     * Connection whose chat message is being processed on the current thread, set by the {@code GameServer} patch
+     */
+    private static final ThreadLocal<UdpConnection> chatSender = new ThreadLocal<>();
+
+    /**
+     * Lock that serializes changes of the limits
+     */
+    private static final Object writeLock = new Object();
+
+    private static final LongAdder rejectedCommands = new LongAdder(); // Number of rejected commands
+    private static final LongAdder rejectedMessages = new LongAdder(); // Number of rejected chat messages
+
+    /**
+     * Checks whether flood control is enabled.
+     *
+     * @return true if commands and chat messages are limited
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables flood control.
+     *
+     * @param enable true to limit commands and chat messages
+     */
+    public static void setEnabled(boolean enable) {
+        enabled = enable;
+    }
+
+    /**
+     * Sets the limit shared by all commands. Resets the buckets of all connections.
+     *
+     * @param perSecond number of commands allowed per second on average
+     * @param burst     number of commands allowed at once
+     */
+    public static void setDefaultCommandLimit(double perSecond, int burst) {
+        commandBuckets = new TokenBucketTable(checkRate(perSecond), checkBurst(burst));
+    }
+
+    /**
+     * Sets the limit shared by all chat channels. Resets the buckets of all connections.
+     *
+     * @param perSecond number of messages allowed per second on average
+     * @param burst     number of messages allowed at once
+     */
+    public static void setDefaultChatLimit(double perSecond, int burst) {
+        chatBuckets = new TokenBucketTable(checkRate(perSecond), checkBurst(burst));
+    }
+
+    /**
+     * Sets an additional limit for a command, applied on top of the default command limit.
+     * The limit is matched against the first word of the command, so it covers all subcommands.
+     *
+     * @param commandName name of the command, without prefix
+     * @param perSecond   number of calls allowed per second on average
+     * @param burst       number of calls allowed at once
+     */
+    public static void setCommandLimit(String commandName, double perSecond, int burst) {
+        synchronized (writeLock) {
+            commandLimits = putLimit(commandLimits, stripPrefix(commandName), new TokenBucketTable(checkRate(perSecond), checkBurst(burst)));
+        }
+    }
+
+    /**
+     * Removes the additional limit of a command.
+     *
+     * @param commandName name of the command, without prefix
+     */
+    public static void removeCommandLimit(String commandName) {
+        synchronized (writeLock) {
+            commandLimits = putLimit(commandLimits, stripPrefix(commandName), null);
+        }
+    }
+
+    /**
+     * Sets an additional limit for a chat channel, applied on top of the default chat limit.
+     *
+     * @param channel   name of the chat type, e.g. {@code general}, {@code say}, {@code shout}, {@code whisper} or {@code faction}
+     * @param perSecond number of messages allowed per second on average
+     * @param burst     number of messages allowed at once
+     */
+    public static void setChannelLimit(String channel, double perSecond, int burst) {
+        synchronized (writeLock) {
+            channelLimits = putLimit(channelLimits, channel, new TokenBucketTable(checkRate(perSecond), checkBurst(burst)));
+        }
+    }
+
+    /**
+     * Removes the additional limit of a chat channel.
+     *
+     * @param channel name of the chat type
+     */
+    public static void removeChannelLimit(String channel) {
+        synchronized (writeLock) {
+            channelLimits = putLimit(channelLimits, channel, null);
+        }
+    }
+
+    /**
+     * Checks whether a player may run a command, taking a token from the buckets of the connection.
+     * Called by the {@code GameServer.receiveReceiveCommand} patch before the command is parsed by
+     * {@link com.avrix.commands.CommandsManager#handleCustomCommand} or by the game.
+     *
+     * @param playerConnection player connection, {@code null} for the console
+     * @param chatCommand      command entered by the player
+     * @return true if the command may run
+     */
+    public static boolean tryAcquireCommand(UdpConnection playerConnection, String chatCommand) {
+        if (!enabled || playerConnection == null) return true;
+
+        long connectionId = playerConnection.getConnectedGUID();
+        long now = System.nanoTime();
+
+        if (!commandBuckets.tryAcquire(connectionId, now) || !tryAcquireLimit(commandLimits, connectionId, now, chatCommand, true)) {
+            rejectedCommands.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Remembers the connection whose chat message is being processed on the current thread.
+     * Called by the {@code GameServer.receiveChatMessageFromPlayer} patch before and after the message is processed.
+     *
+     * @param playerConnection player connection, or {@code null} once the message has been processed
+     */
+    public static void setChatSender(UdpConnection playerConnection) {
+        chatSender.set(playerConnection);
+    }
+
+    /**
+     * Checks whether the player whose message is being processed may send a message to the channel, taking a token from the buckets
+     * of the connection. Called by the {@code ChatServer.processMessageFromPlayerPacket} patch before the message is unpacked.
+     *
+     * @param channel name of the chat type
+     * @return true if the message may be processed
+     */
+    public static boolean tryAcquireChat(String channel) {
+        if (!enabled) return true;
+
+        UdpConnection playerConnection = chatSender.get();
+        if (playerConnection == null) return true;
+
+        long connectionId = playerConnection.getConnectedGUID();
+        long now = System.nanoTime();
+
+        if (!chatBuckets.tryAcquire(connectionId, now) || !tryAcquireLimit(channelLimits, connectionId, now, channel, false)) {
+            rejectedMessages.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Removes the buckets of a closed connection. Called by the {@code GameServer.disconnectPlayer} patch.
+     *
+     * @param playerConnection closed player connection
+     */
+    public static void removeConnection(UdpConnection playerConnection) {
+        if (playerConnection == null) return;
+
+        long connectionId = playerConnection.getConnectedGUID();
+        commandBuckets.remove(connectionId);
+        chatBuckets.remove(connectionId);
+        for (Limit limit : commandLimits) limit.buckets().remove(connectionId);
+        for (Limit limit : channelLimits) limit.buckets().remove(connectionId);
+    }
+
+    /**
+     * Returns the number of commands rejected since startup.
+     *
+     * @return number of rejected commands
+     */
+    public static long getRejectedCommands() {
+        return rejectedCommands.sum();
+    }
+
+    /**
+     * Returns the number of chat messages rejected since startup.
+     *
+     * @return number of rejected chat messages
+     */
+    public static long getRejectedMessages() {
+        return rejectedMessages.sum();
+    }
+
+    /**
+     * Takes a token from the additional limit matching the command or channel, if there is one.
+     *
+     * @param limits       additional limits
+     * @param connectionId connection GUID
+     * @param now          current time, in nanoseconds
+     * @param text         command entered by the player, or channel name
+     * @param command      true if the text is a command, whose first word is matched
+     * @return true if there is no matching limit or a token was available
+     */
+    private static boolean tryAcquireLimit(Limit[] limits, long connectionId, long now, String text, boolean command) {
+        if (limits.length == 0 || text == null) return true;
+
+        int start = 0;
+        int end = text.length();
+        if (command) {
+            while (start < end && Character.isWhitespace(text.charAt(start))) start++;
+            if (start < end && (text.charAt(start) == '!' || text.charAt(start) == '/')) start++;
+            int wordEnd = start;
+            while (wordEnd < end && !Character.isWhitespace(text.charAt(wordEnd))) wordEnd++;
+            end = wordEnd;
+        }
+
+        for (Limit limit : limits) {
+            String name = limit.name();
+            if (name.length() == end - start && text.regionMatches(true, start, name, 0, name.length())) {
+                return limit.buckets().tryAcquire(connectionId, now);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a copy of the limits with the limit of the name replaced, added or removed.
+     *
+     * @param limits  current limits
+     * @param name    command or channel name
+     * @param buckets buckets of the new limit, {@code null} to remove the limit
+     * @return new limits
+     */
+    private static Limit[] putLimit(Limit[] limits, String name, TokenBucketTable buckets) {
+        String key = name.trim().toLowerCase();
+        Limit[] result = new Limit[limits.length + 1];
+        int size = 0;
+
+        for (Limit limit : limits) {
+            if (!limit.name().equals(key)) result[size++] = limit;
+        }
+        if (buckets != null) result[size++] = new Limit(key, buckets);
+
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Removes the '!' or '/' prefix from a command name.
+     *
+     * @param commandName command name
+     * @return command name without prefix
+     */
+    private static String stripPrefix(String commandName) {
+        String name = commandName.trim();
+        return name.startsWith("!") || name.startsWith("/") ? name.substring(1) : name;
+    }
+
+    /**
+     * Validates a refill rate.
+     *
+     * @param perSecond number of messages allowed per second
+     * @return the rate
+     */
+    private static double checkRate(double perSecond) {
+        if (!(perSecond > 0)) throw new IllegalArgumentException("[!] Flood control rate must be positive, got: " + perSecond);
+        return perSecond;
+    }
+
+    /**
+     * Validates a burst size.
+     *
+     * @param burst number of messages allowed at once
+     * @return the burst size
+     */
+    private static int checkBurst(int burst) {
+        if (burst < 1) throw new IllegalArgumentException("[!] Flood control burst must be at least 1, got: " + burst);
+        return burst;
+    }
+
+    /**
+     * Additional limit of a command or a chat channel
+     *
+     * @param name    Lower-case command or channel name
+     * @param buckets Buckets of the connections
+     */
+    private record Limit(String name, TokenBucketTable buckets) {
+    }
+}
@@ -0,0 +1,252 @@
+package com.avrix.network;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
+
+/**
+ * Map from connection GUIDs to values, read on every packet or chat message.
+ * <p>
+ * Entries are kept in an open-addressing hash table over primitive keys, so a lookup neither boxes the key nor allocates.
+ * The table is copied on every insertion or removal and published through a volatile field, so lookups take no lock.
+ * Modifications happen once per connection, which keeps the copies cheap.
+ * </p>
+ *
+ * @param <V> type of the values
+ */
+final class LongKeyTable<V> {
+    private static final long EMPTY_KEY = Long.MIN_VALUE; // Marker of an empty slot
+    private static final int MIN_CAPACITY = 16; // Minimum number of slots, must be a power of two
+
+    private volatile Table table = new Table(MIN_CAPACITY); // Current table, never modified once published
+
+    /**
+     * Returns the value of a key.
+     *
+     * @param key connection GUID
+     * @return value, or {@code null} if the key is absent
+     */
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        Table current = table;
+        int slot = current.findSlot(key);
+        return slot < 0 ? null : (V) current.values[slot];
+    }
+
+    /**
+     * Returns the value of a key, creating it if the key is absent.
+     *
+     * @param key     connection GUID
+     * @param factory creates the value of an absent key
+     * @return existing or created value
+     */
+    V computeIfAbsent(long key, LongFunction<? extends V> factory) {
+        V value = get(key);
+        if (value != null) return value;
+
+        synchronized (this) {
+            value = get(key);
+            if (value != null) return value;
+
+            value = factory.apply(key);
+            Table current = table;
+            Table copy = new Table(capacityFor(current.size + 1));
+            copy.copyFrom(current, EMPTY_KEY, null);
+            copy.put(key, value);
+            table = copy;
+            return value;
+        }
+    }
+
+    /**
+     * Removes a key if it is mapped to the given value.
+     *
+     * @param key   connection GUID
+     * @param value expected value, or {@code null} to remove any value
+     * @return true if the key was removed
+     */
+    synchronized boolean remove(long key, V value) {
+        Table current = table;
+        int slot = current.findSlot(key);
+        if (slot < 0 || (value != null && current.values[slot] != value)) return false;
+
+        Table copy = new Table(capacityFor(current.size - 1));
+        copy.copyFrom(current, key, current.values[slot]);
+        table = copy;
+        return true;
+    }
+
+    /**
+     * Removes the entries whose value is accepted by a filter, in a single copy of the table.
+     *
+     * @param filter values to remove
+     * @return number of removed entries
+     */
+    @SuppressWarnings("unchecked")
+    synchronized int removeIf(Predicate<? super V> filter) {
+        Table current = table;
+        boolean[] removed = new boolean[current.keys.length];
+        int count = 0;
+
+        for (int slot = 0; slot < current.keys.length; slot++) {
+            Object value = current.values[slot];
+            if (value != null && filter.test((V) value)) {
+                removed[slot] = true;
+                count++;
+            }
+        }
+        if (count == 0) return 0;
+
+        Table copy = new Table(capacityFor(current.size - count));
+        for (int slot = 0; slot < current.keys.length; slot++) {
+            if (current.values[slot] != null && !removed[slot]) copy.put(current.keys[slot], current.values[slot]);
+        }
+        table = copy;
+        return count;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    synchronized void clear() {
+        table = new Table(MIN_CAPACITY);
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return number of keys
+     */
+    int size() {
+        return table.size;
+    }
+
+    /**
+     * Returns a snapshot of the entries.
+     *
+     * @return {@link List} of the entries, in no particular order
+     */
+    @SuppressWarnings("unchecked")
+    List<Entry<V>> entries() {
+        Table current = table;
+        List<Entry<V>> result = new ArrayList<>(current.size);
+        for (int slot = 0; slot < current.keys.length; slot++) {
+            if (current.values[slot] != null) result.add(new Entry<>(current.keys[slot], (V) current.values[slot]));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of slots keeping the table at most half full.
+     *
+     * @param size number of entries
+     * @return power of two number of slots
+     */
+    private static int capacityFor(int size) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < size * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Spreads the bits of the key so that sequential GUIDs do not cluster in the table.
+     *
+     * @param key connection GUID
+     * @return hash of the key
+     */
+    private static int mix(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * Entry of the table
+     *
+     * @param key   connection GUID
+     * @param value value of the key
+     * @param <V>   type of the value
+     */
+    record Entry<V>(long key, V value) {
+    }
+
+    /**
+     * Slots of the table. One extra slot at the end is reserved for the {@link #EMPTY_KEY} key.
+     */
+    private static final class Table {
+        private final long[] keys; // Slot keys
+        private final Object[] values; // Slot values, null for empty slots
+        private int size; // Number of entries
+
+        /**
+         * Allocates an empty table.
+         *
+         * @param capacity number of slots, must be a power of two
+         */
+        Table(int capacity) {
+            keys = new long[capacity + 1];
+            Arrays.fill(keys, EMPTY_KEY);
+            values = new Object[capacity + 1];
+        }
+
+        /**
+         * Finds the slot of the key.
+         *
+         * @param key connection GUID
+         * @return slot index, or -1 if the key is absent
+         */
+        int findSlot(long key) {
+            int reserved = keys.length - 1;
+            if (key == EMPTY_KEY) return values[reserved] != null ? reserved : -1;
+
+            int mask = reserved - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != EMPTY_KEY) {
+                if (keys[slot] == key) return slot;
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        /**
+         * Inserts an absent key. The table must have a free slot.
+         *
+         * @param key   connection GUID
+         * @param value value of the key
+         */
+        void put(long key, Object value) {
+            int reserved = keys.length - 1;
+            int slot = reserved;
+
+            if (key != EMPTY_KEY) {
+                int mask = reserved - 1;
+                slot = mix(key) & mask;
+                while (keys[slot] != EMPTY_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+            }
+
+            values[slot] = value;
+            size++;
+        }
+
+        /**
+         * Inserts the entries of another table, except one.
+         *
+         * @param source       table to copy
+         * @param skippedKey   key not to copy
+         * @param skippedValue value of the key not to copy, or {@code null} to copy all entries
+         */
+        void copyFrom(Table source, long skippedKey, Object skippedValue) {
+            for (int slot = 0; slot < source.keys.length; slot++) {
+                Object value = source.values[slot];
+                if (value == null || (value == skippedValue && source.keys[slot] == skippedKey)) continue;
+                put(source.keys[slot], value);
+            }
+        }
+    }
+}
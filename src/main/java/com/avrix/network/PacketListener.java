@@ -0,0 +1,21 @@
+package com.avrix.network;
+
+import zombie.core.raknet.UdpConnection;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Listener of inbound packets with specific opcodes, registered with {@link PacketManager#addPacketListener(short, PacketListener)}.
+ */
+@FunctionalInterface
+public interface PacketListener {
+    /**
+     * Called on the network thread for each inbound packet with an opcode the listener is registered for.
+     *
+     * @param opcode           packet opcode
+     * @param data             read-only view of the packet payload, positioned at its start. Only valid during the call,
+     *                         use {@link ByteBuffer#duplicate()} and copy the data if it is needed later.
+     * @param playerConnection player connection the packet was received from
+     */
+    void handlePacket(short opcode, ByteBuffer data, UdpConnection playerConnection);
+}
@@ -0,0 +1,207 @@
+package com.avrix.network;
+
+import zombie.core.raknet.UdpConnection;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Registry of inbound packet listeners keyed by opcode.
+ * <p>
+ * Listeners are stored in a plain array indexed by the opcode, each element is an immutable array of the listeners of that opcode
+ * (copy-on-write, like the listeners of the {@link com.avrix.events.EventManager}). The {@code GameServer.addIncoming} patch
+ * checks {@link #hasListeners(short)} before doing any work, so packets nobody listens to cost a single array load.
+ * </p>
+ * <p>
+ * Unlike the {@code onAddIncoming} event, the opcode is not boxed and the payload is not copied:
+ * listeners receive a read-only view of the original buffer.
+ * </p>
+ * <pre>{@code
+ * PacketManager.addPacketListener(PacketTypes.PacketType.PlayerUpdate.getId(), (opcode, data, connection) -> {
+ *     float x = data.getFloat();
+ *     ...
+ * });
+ * }</pre>
+ */
+public class PacketManager {
+    /**
+     * Listeners indexed by the unsigned value of the opcode, {@code null} if the opcode has no listeners.
+     * Neither the table nor its elements are modified after being published, writers replace them with a new copy.
+     */
+    private static volatile PacketListener[][] listeners = new PacketListener[0][];
+
+    /**
+     * Lock that serializes modifications of the listener table
+     */
+    private static final Object writeLock = new Object();
+
+    /**
+     * Checks whether at least one listener is registered for the opcode.
+     *
+     * @param opcode packet opcode
+     * @return true if the packet has listeners
+     */
+    public static boolean hasListeners(short opcode) {
+        return getListeners(opcode) != null;
+    }
+
+    /**
+     * Registers a listener for packets with the specified opcode.
+     *
+     * @param opcode   packet opcode
+     * @param listener {@link PacketListener} to register
+     */
+    public static void addPacketListener(short opcode, PacketListener listener) {
+        int index = Short.toUnsignedInt(opcode);
+
+        synchronized (writeLock) {
+            PacketListener[] opcodeListeners = getListeners(opcode);
+            PacketListener[] result = opcodeListeners == null
+                    ? new PacketListener[]{listener}
+                    : Arrays.copyOf(opcodeListeners, opcodeListeners.length + 1);
+            result[result.length - 1] = listener;
+
+            setListeners(index, result);
+        }
+    }
+
+    /**
+     * Removes a listener of the specified opcode.
+     *
+     * @param opcode   packet opcode
+     * @param listener {@link PacketListener} to remove
+     * @return true if the listener was registered for the opcode
+     */
+    public static boolean removePacketListener(short opcode, PacketListener listener) {
+        synchronized (writeLock) {
+            return removeFromOpcode(Short.toUnsignedInt(opcode), listener);
+        }
+    }
+
+    /**
+     * Removes a listener from all opcodes it is registered for.
+     *
+     * @param listener {@link PacketListener} to remove
+     * @return true if the listener was registered for at least one opcode
+     */
+    public static boolean removePacketListener(PacketListener listener) {
+        boolean removed = false;
+
+        synchronized (writeLock) {
+            for (int index = 0; index < listeners.length; index++) {
+                removed |= removeFromOpcode(index, listener);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Removes all listeners whose class was loaded by the specified class loader, e.g. when a plugin is unloaded.
+     *
+     * @param classLoader {@link ClassLoader} of the plugin
+     * @return number of removed listeners
+     */
+    public static int removePacketListeners(ClassLoader classLoader) {
+        int removed = 0;
+
+        synchronized (writeLock) {
+            for (int index = 0; index < listeners.length; index++) {
+                PacketListener[] opcodeListeners = listeners[index];
+                if (opcodeListeners == null) continue;
+
+                PacketListener[] result = Arrays.stream(opcodeListeners)
+                        .filter(listener -> listener.getClass().getClassLoader() != classLoader)
+                        .toArray(PacketListener[]::new);
+                if (result.length == opcodeListeners.length) continue;
+
+                removed += opcodeListeners.length - result.length;
+                setListeners(index, result.length == 0 ? null : result);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Clears all registered packet listeners.
+     */
+    public static void clearPacketListeners() {
+        synchronized (writeLock) {
+            listeners = new PacketListener[0][];
+        }
+    }
+
+    /**
+     * Passes an inbound packet to the listeners of its opcode.
+     * Each listener receives the same read-only view, rewound to the original position and limit before each call.
+     * If an error occurs in a listener, it is logged and the process continues for the remaining listeners.
+     *
+     * @param opcode           packet opcode
+     * @param data             packet payload, its position and limit are not changed
+     * @param playerConnection player connection the packet was received from
+     */
+    public static void dispatch(short opcode, ByteBuffer data, UdpConnection playerConnection) {
+        PacketListener[] opcodeListeners = getListeners(opcode);
+        if (opcodeListeners == null) return;
+
+        int position = data.position();
+        int limit = data.limit();
+        ByteBuffer view = data.asReadOnlyBuffer().order(data.order());
+
+        for (PacketListener listener : opcodeListeners) {
+            view.limit(limit).position(position);
+
+            try {
+                listener.handlePacket(opcode, view, playerConnection);
+            } catch (Exception e) {
+                System.out.printf("[!] An exception occurred when trying to handle packet with opcode '%d' in listener '%s'! Reason: %s%n",
+                        opcode,
+                        listener.getClass(),
+                        e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Returns the current listeners of the opcode.
+     *
+     * @param opcode packet opcode
+     * @return listeners in registration order, or {@code null} if the opcode has no listeners
+     */
+    private static PacketListener[] getListeners(short opcode) {
+        PacketListener[][] table = listeners;
+        int index = Short.toUnsignedInt(opcode);
+        return index < table.length ? table[index] : null;
+    }
+
+    /**
+     * Publishes new listeners of the opcode. Must be called under {@link #writeLock}.
+     *
+     * @param index           unsigned value of the opcode
+     * @param opcodeListeners new listeners, or {@code null} to remove all listeners of the opcode
+     */
+    private static void setListeners(int index, PacketListener[] opcodeListeners) {
+        PacketListener[][] table = Arrays.copyOf(listeners, Math.max(listeners.length, index + 1));
+        table[index] = opcodeListeners;
+        listeners = table;
+    }
+
+    /**
+     * Removes a listener of a single opcode. Must be called under {@link #writeLock}.
+     *
+     * @param index    unsigned value of the opcode
+     * @param listener {@link PacketListener} to remove
+     * @return true if the listener was registered for the opcode
+     */
+    private static boolean removeFromOpcode(int index, PacketListener listener) {
+        PacketListener[] opcodeListeners = getListeners((short) index);
+        if (opcodeListeners == null) return false;
+
+        PacketListener[] result = Arrays.stream(opcodeListeners)
+                .filter(opcodeListener -> opcodeListener != listener)
+                .toArray(PacketListener[]::new);
+        if (result.length == opcodeListeners.length) return false;
+
+        setListeners(index, result.length == 0 ? null : result);
+        return true;
+    }
+}
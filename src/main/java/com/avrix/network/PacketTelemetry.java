@@ -0,0 +1,307 @@
+package com.avrix.network;
+
+import zombie.core.raknet.UdpConnection;
+import zombie.network.PacketTypes;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Inbound network telemetry: packet counts, bytes and rates per opcode and per connection.
+ * <p>
+ * Every packet passing through {@code GameServer.addIncoming} is recorded into lock-free striped counters with a sliding window
+ * of {@value SlidingWindowCounter#WINDOW_SECONDS} seconds, so recording from several network threads does not contend.
+ * Connection counters are looked up by GUID without boxing or allocation.
+ * Telemetry is disabled by default and can be enabled with the {@code -Davrix.packetTelemetry=true} system property,
+ * {@link #setEnabled(boolean)} or {@code netstats on}. The {@code netstats} console command shows the top talkers and the heaviest opcodes.
+ * </p>
+ */
+public class PacketTelemetry {
+    /**
+     * Time without packets after which the counters of a connection are discarded, in seconds.
+     * Covers connections closed without a player being disconnected, e.g. on a failed login.
+     */
+    private static final long STALE_CONNECTION_SECONDS = 300;
+
+    /**
+     * Interval between two sweeps of the stale connection counters while packets are recorded, in seconds
+     */
+    private static final long SWEEP_INTERVAL_SECONDS = 60;
+
+    /**
+     * Whether inbound packets are recorded
+     */
+    private static volatile boolean enabled = "true".equalsIgnoreCase(System.getProperty("avrix.packetTelemetry"));
+
+    /**
+     * Counters indexed by the unsigned value of the opcode, created on the first packet of each opcode
+     */
+    private static final AtomicReferenceArray<TrafficCounters> opcodeCounters = new AtomicReferenceArray<>(1 << Short.SIZE);
+
+    /**
+     * Counters by connection GUID
+     */
+    private static final LongKeyTable<TrafficCounters> connectionCounters = new LongKeyTable<>();
+
+    /**
+     * Second from which the next packet triggers a sweep of the stale connection counters
+     */
+    private static final AtomicLong nextSweepSecond = new AtomicLong(SWEEP_INTERVAL_SECONDS);
+
+    /**
+     * Checks whether telemetry is enabled.
+     *
+     * @return true if inbound packets are recorded
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables telemetry. Collected data is kept.
+     *
+     * @param enable true to record inbound packets
+     */
+    public static void setEnabled(boolean enable) {
+        enabled = enable;
+    }
+
+    /**
+     * Records an inbound packet. Called by the {@code GameServer.addIncoming} patch when telemetry is enabled.
+     *
+     * @param opcode           packet opcode
+     * @param size             payload size in bytes
+     * @param playerConnection player connection the packet was received from
+     */
+    public static void record(short opcode, int size, UdpConnection playerConnection) {
+        if (!enabled) return;
+
+        long second = SlidingWindowCounter.currentSecond();
+        int index = Short.toUnsignedInt(opcode);
+        TrafficCounters counters = opcodeCounters.get(index);
+        if (counters == null) {
+            opcodeCounters.compareAndSet(index, null, new TrafficCounters(null));
+            counters = opcodeCounters.get(index);
+        }
+        counters.record(size, second);
+
+        if (playerConnection == null) return;
+
+        long connectionId = playerConnection.getConnectedGUID();
+        TrafficCounters connection = connectionCounters.get(connectionId);
+        if (connection == null) {
+            connection = connectionCounters.computeIfAbsent(connectionId, id -> new TrafficCounters(playerConnection.username));
+        }
+        connection.record(size, second);
+
+        long sweepSecond = nextSweepSecond.get();
+        if (second >= sweepSecond && nextSweepSecond.compareAndSet(sweepSecond, second + SWEEP_INTERVAL_SECONDS)) {
+            removeStaleConnections(second);
+        }
+    }
+
+    /**
+     * Removes the counters of a closed connection. Called by the {@code GameServer.disconnectPlayer} patch.
+     *
+     * @param playerConnection closed player connection
+     */
+    public static void removeConnection(UdpConnection playerConnection) {
+        if (playerConnection == null) return;
+        connectionCounters.remove(playerConnection.getConnectedGUID(), null);
+    }
+
+    /**
+     * Returns the traffic of all opcodes received since startup or the last reset.
+     *
+     * @return {@link List} of {@link OpcodeTraffic} sorted by byte rate, the heaviest first
+     */
+    public static List<OpcodeTraffic> getOpcodeTraffic() {
+        List<OpcodeTraffic> result = new ArrayList<>();
+
+        for (int index = 0; index < opcodeCounters.length(); index++) {
+            TrafficCounters counters = opcodeCounters.get(index);
+            if (counters == null || counters.packets.getTotal() == 0) continue;
+
+            short opcode = (short) index;
+            result.add(new OpcodeTraffic(opcode,
+                    getOpcodeName(opcode),
+                    counters.packets.getTotal(),
+                    counters.bytes.getTotal(),
+                    counters.packets.getRate(),
+                    counters.bytes.getRate()));
+        }
+
+        result.sort(Comparator.comparingDouble(OpcodeTraffic::bytesPerSecond).reversed()
+                .thenComparing(Comparator.comparingLong(OpcodeTraffic::bytes).reversed()));
+        return result;
+    }
+
+    /**
+     * Returns the opcodes with the highest byte rate.
+     *
+     * @param limit maximum number of opcodes to return
+     * @return {@link List} of at most {@code limit} {@link OpcodeTraffic}, the heaviest first
+     */
+    public static List<OpcodeTraffic> getHeaviestOpcodes(int limit) {
+        List<OpcodeTraffic> traffic = getOpcodeTraffic();
+        return traffic.subList(0, Math.min(Math.max(0, limit), traffic.size()));
+    }
+
+    /**
+     * Returns the traffic of all open connections.
+     *
+     * @return {@link List} of {@link ConnectionTraffic} sorted by byte rate, the heaviest first
+     */
+    public static List<ConnectionTraffic> getConnectionTraffic() {
+        removeStaleConnections(SlidingWindowCounter.currentSecond());
+
+        List<ConnectionTraffic> result = new ArrayList<>();
+        for (LongKeyTable.Entry<TrafficCounters> entry : connectionCounters.entries()) {
+            result.add(toConnectionTraffic(entry.key(), entry.value()));
+        }
+
+        result.sort(Comparator.comparingDouble(ConnectionTraffic::bytesPerSecond).reversed()
+                .thenComparing(Comparator.comparingLong(ConnectionTraffic::bytes).reversed()));
+        return result;
+    }
+
+    /**
+     * Returns the connections with the highest byte rate.
+     *
+     * @param limit maximum number of connections to return
+     * @return {@link List} of at most {@code limit} {@link ConnectionTraffic}, the heaviest first
+     */
+    public static List<ConnectionTraffic> getTopTalkers(int limit) {
+        List<ConnectionTraffic> traffic = getConnectionTraffic();
+        return traffic.subList(0, Math.min(Math.max(0, limit), traffic.size()));
+    }
+
+    /**
+     * Returns the traffic of a single connection.
+     *
+     * @param playerConnection player connection
+     * @return {@link ConnectionTraffic}, or {@code null} if no packets were recorded for the connection
+     */
+    public static ConnectionTraffic getConnectionTraffic(UdpConnection playerConnection) {
+        long connectionId = playerConnection.getConnectedGUID();
+        TrafficCounters counters = connectionCounters.get(connectionId);
+        return counters == null ? null : toConnectionTraffic(connectionId, counters);
+    }
+
+    /**
+     * Clears all collected data.
+     */
+    public static void reset() {
+        for (int index = 0; index < opcodeCounters.length(); index++) {
+            TrafficCounters counters = opcodeCounters.get(index);
+            if (counters != null) counters.reset();
+        }
+        connectionCounters.clear();
+    }
+
+    /**
+     * Removes the counters of the connections that have not sent packets for {@value #STALE_CONNECTION_SECONDS} seconds.
+     *
+     * @param currentSecond current second, as returned by {@link SlidingWindowCounter#currentSecond()}
+     */
+    private static void removeStaleConnections(long currentSecond) {
+        for (LongKeyTable.Entry<TrafficCounters> entry : connectionCounters.entries()) {
+            if (currentSecond - entry.value().packets.getLastActiveSecond() > STALE_CONNECTION_SECONDS) {
+                connectionCounters.remove(entry.key(), entry.value());
+            }
+        }
+    }
+
+    /**
+     * Returns the name of the packet type of the opcode.
+     *
+     * @param opcode packet opcode
+     * @return packet type name, or the opcode number if the packet type is unknown
+     */
+    public static String getOpcodeName(short opcode) {
+        PacketTypes.PacketType packetType = PacketTypes.packetTypes.get(opcode);
+        return packetType != null ? packetType.name() : String.valueOf(opcode);
+    }
+
+    /**
+     * Converts the counters of a connection to the public representation.
+     *
+     * @param connectionId connection GUID
+     * @param counters     counters of the connection
+     * @return {@link ConnectionTraffic}
+     */
+    private static ConnectionTraffic toConnectionTraffic(long connectionId, TrafficCounters counters) {
+        return new ConnectionTraffic(connectionId,
+                counters.username,
+                counters.packets.getTotal(),
+                counters.bytes.getTotal(),
+                counters.packets.getRate(),
+                counters.bytes.getRate());
+    }
+
+    /**
+     * Packet and byte counters of an opcode or a connection
+     */
+    private static final class TrafficCounters {
+        private final String username; // Username of the connection, null for opcodes
+        private final SlidingWindowCounter packets = new SlidingWindowCounter(); // Number of packets
+        private final SlidingWindowCounter bytes = new SlidingWindowCounter(); // Number of payload bytes
+
+        /**
+         * Constructs new {@link TrafficCounters}.
+         *
+         * @param username Username of the connection, null for opcodes
+         */
+        TrafficCounters(String username) {
+            this.username = username;
+        }
+
+        /**
+         * Records a packet.
+         *
+         * @param size   payload size in bytes
+         * @param second current second, as returned by {@link SlidingWindowCounter#currentSecond()}
+         */
+        void record(int size, long second) {
+            packets.add(1, second);
+            bytes.add(size, second);
+        }
+
+        /**
+         * Clears the counters.
+         */
+        void reset() {
+            packets.reset();
+            bytes.reset();
+        }
+    }
+
+    /**
+     * Inbound traffic of an opcode
+     *
+     * @param opcode            Packet opcode
+     * @param name              Packet type name
+     * @param packets           Number of packets received
+     * @param bytes             Number of payload bytes received
+     * @param packetsPerSecond  Packet rate over the sliding window
+     * @param bytesPerSecond    Byte rate over the sliding window
+     */
+    public record OpcodeTraffic(short opcode, String name, long packets, long bytes, double packetsPerSecond, double bytesPerSecond) {
+    }
+
+    /**
+     * Inbound traffic of a connection
+     *
+     * @param connectionId     Connection GUID
+     * @param username         Username of the connection at the time of its first packet
+     * @param packets          Number of packets received
+     * @param bytes            Number of payload bytes received
+     * @param packetsPerSecond Packet rate over the sliding window
+     * @param bytesPerSecond   Byte rate over the sliding window
+     */
+    public record ConnectionTraffic(long connectionId, String username, long packets, long bytes, double packetsPerSecond, double bytesPerSecond) {
+    }
+}
@@ -0,0 +1,126 @@
+package com.avrix.network;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free counter of a total and of a rate over a sliding window of one-second slots.
+ * <p>
+ * Each slot is a striped {@link LongAdder}, so concurrent network threads do not contend on a single counter.
+ * A slot is cleared when it is reused for a new second. Values added concurrently with the clearing may be lost,
+ * which is acceptable for telemetry.
+ * </p>
+ */
+final class SlidingWindowCounter {
+    /**
+     * Number of one-second slots in the window
+     */
+    static final int WINDOW_SECONDS = 10;
+
+    /**
+     * Origin of the monotonic clock, so that second numbers are never negative
+     */
+    private static final long CLOCK_ORIGIN = System.nanoTime();
+
+    private final LongAdder total = new LongAdder(); // Sum of all added values
+    private final LongAdder[] slots = new LongAdder[WINDOW_SECONDS]; // Sum of the values added during each second of the window
+    private final AtomicLongArray slotSeconds = new AtomicLongArray(WINDOW_SECONDS); // Second to which each slot currently belongs
+
+    /**
+     * Constructs a new {@link SlidingWindowCounter}.
+     */
+    SlidingWindowCounter() {
+        for (int i = 0; i < WINDOW_SECONDS; i++) {
+            slots[i] = new LongAdder();
+            slotSeconds.set(i, -1L);
+        }
+    }
+
+    /**
+     * Adds a value to the counter.
+     *
+     * @param value value to add
+     */
+    void add(long value) {
+        add(value, currentSecond());
+    }
+
+    /**
+     * Adds a value to the counter, with the current second already read by the caller.
+     *
+     * @param value  value to add
+     * @param second current second, as returned by {@link #currentSecond()}
+     */
+    void add(long value, long second) {
+        int index = (int) (second % WINDOW_SECONDS);
+
+        long slotSecond = slotSeconds.get(index);
+        if (slotSecond != second && slotSeconds.compareAndSet(index, slotSecond, second)) {
+            slots[index].reset();
+        }
+
+        slots[index].add(value);
+        total.add(value);
+    }
+
+    /**
+     * Returns the sum of all values added to the counter.
+     *
+     * @return total value
+     */
+    long getTotal() {
+        return total.sum();
+    }
+
+    /**
+     * Returns the average rate over the completed seconds of the window.
+     *
+     * @return value per second
+     */
+    double getRate() {
+        long second = currentSecond();
+        long sum = 0L;
+
+        for (int i = 0; i < WINDOW_SECONDS; i++) {
+            long slotSecond = slotSeconds.get(i);
+            if (slotSecond < second && second - slotSecond < WINDOW_SECONDS) {
+                sum += slots[i].sum();
+            }
+        }
+        return (double) sum / (WINDOW_SECONDS - 1);
+    }
+
+    /**
+     * Returns the last second in which a value was added.
+     *
+     * @return second number, -1 if no value was added
+     */
+    long getLastActiveSecond() {
+        long last = -1L;
+        for (int i = 0; i < WINDOW_SECONDS; i++) {
+            last = Math.max(last, slotSeconds.get(i));
+        }
+        return last;
+    }
+
+    /**
+     * Clears the counter.
+     */
+    void reset() {
+        for (int i = 0; i < WINDOW_SECONDS; i++) {
+            slotSeconds.set(i, -1L);
+            slots[i].reset();
+        }
+        total.reset();
+    }
+
+    /**
+     * Returns the number of seconds elapsed since the counters were first used.
+     *
+     * @return current second
+     */
+    static long currentSecond() {
+        return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - CLOCK_ORIGIN);
+    }
+}
@@ -0,0 +1,107 @@
+package com.avrix.network;
+
+/**
+ * Token buckets of a single limit, one per connection.
+ * <p>
+ * The buckets are kept in a {@link LongKeyTable} keyed by the connection GUID, so checking a message does not allocate
+ * once the connection has been seen. A bucket starts full, and a bucket that has refilled completely is equivalent to
+ * an absent one, so such buckets are dropped whenever the number of buckets has doubled since the last check.
+ * </p>
+ */
+final class TokenBucketTable {
+    private static final int INITIAL_PRUNE_SIZE = 32; // Number of buckets at which refilled buckets are first dropped
+
+    private final double tokensPerNano; // Refill rate of the buckets
+    private final double capacity; // Maximum number of tokens, i.e. the allowed burst
+    private final LongKeyTable<Bucket> buckets = new LongKeyTable<>(); // Buckets by connection GUID
+    private int pruneSize = INITIAL_PRUNE_SIZE; // Number of buckets at which refilled buckets are dropped next
+
+    /**
+     * Constructs a new {@link TokenBucketTable}.
+     *
+     * @param perSecond number of messages allowed per second on average
+     * @param burst     number of messages allowed at once
+     */
+    TokenBucketTable(double perSecond, int burst) {
+        this.tokensPerNano = perSecond / 1_000_000_000.0;
+        this.capacity = burst;
+    }
+
+    /**
+     * Takes a token from the bucket of the connection.
+     *
+     * @param key connection GUID
+     * @param now current time, in nanoseconds
+     * @return true if a token was available
+     */
+    synchronized boolean tryAcquire(long key, long now) {
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= pruneSize) {
+                buckets.removeIf(existing -> refill(existing, now) >= capacity);
+                pruneSize = Math.max(INITIAL_PRUNE_SIZE, buckets.size() * 2);
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new Bucket(capacity, now));
+        }
+
+        double available = refill(bucket, now);
+        bucket.updateTime = now;
+
+        if (available < 1.0) {
+            bucket.tokens = available;
+            return false;
+        }
+
+        bucket.tokens = available - 1.0;
+        return true;
+    }
+
+    /**
+     * Removes the bucket of a connection.
+     *
+     * @param key connection GUID
+     */
+    synchronized void remove(long key) {
+        buckets.remove(key, null);
+    }
+
+    /**
+     * Returns the number of buckets in the table.
+     *
+     * @return number of connections with a bucket
+     */
+    synchronized int size() {
+        return buckets.size();
+    }
+
+    /**
+     * Returns the tokens of a bucket refilled up to the given time.
+     *
+     * @param bucket bucket to refill
+     * @param now    current time, in nanoseconds
+     * @return number of available tokens
+     */
+    private double refill(Bucket bucket, long now) {
+        double elapsed = Math.max(0L, now - bucket.updateTime);
+        return Math.min(capacity, bucket.tokens + elapsed * tokensPerNano);
+    }
+
+    /**
+     * Token bucket of a connection, guarded by the lock of the table
+     */
+    private static final class Bucket {
+        private double tokens; // Tokens left at the time of the last update
+        private long updateTime; // Time of the last update
+
+        /**
+         * Creates a bucket.
+         *
+         * @param tokens     initial number of tokens
+         * @param updateTime current time, in nanoseconds
+         */
+        private Bucket(double tokens, long updateTime) {
+            this.tokens = tokens;
+            this.updateTime = updateTime;
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.avrix.patches;
 
 import com.avrix.agent.ClassTransformer;
+import com.avrix.agent.PatchCondition;
 import com.avrix.events.EventManager;
+import com.avrix.events.EventRegistry;
 import javassist.CannotCompileException;
 import javassist.expr.ExprEditor;
 import javassist.expr.MethodCall;
@@ -9,6 +11,7 @@ import javassist.expr.MethodCall;
 /**
  * BanUserCommand patcher
  */
+@PatchCondition(events = "onPlayerBan")
 public class PatchBanUserCommand extends ClassTransformer {
     /**
      * Constructor for creating a {@link ClassTransformer} object.
@@ -30,7 +33,7 @@ public class PatchBanUserCommand extends ClassTransformer {
                         if (m.getClassName().equals("zombie.core.raknet.UdpConnection") && m.getMethodName().equals("forceDisconnect")) {
                             String code = "{ "
                                     + "java.lang.String adminName = this.getExecutorUsername().isEmpty() ? \"Console\" : this.getExecutorUsername();"
-                                    + EventManager.class.getName() + ".invokeEvent(\"onPlayerBan\", new Object[]{$0, adminName, this.reason});"
+                                    + EventManager.class.getName() + ".invokeEvent(" + EventRegistry.getId("onPlayerBan") + ", new Object[]{$0, adminName, this.reason});"
                                     + "$proceed($$);"
                                     + "}";
                             m.replace(code);
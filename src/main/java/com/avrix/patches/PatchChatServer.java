@@ -1,7 +1,10 @@
 package com.avrix.patches;
 
 import com.avrix.agent.ClassTransformer;
+import com.avrix.agent.PatchCondition;
 import com.avrix.events.EventManager;
+import com.avrix.events.EventRegistry;
+import com.avrix.network.FloodControl;
 import javassist.CannotCompileException;
 import javassist.expr.ExprEditor;
 import javassist.expr.MethodCall;
@@ -9,6 +12,7 @@ import javassist.expr.MethodCall;
 /**
  * ChatServer patcher
  */
+@PatchCondition(events = "onChatMessageProcessed", onDemand = false)
 public class PatchChatServer extends ClassTransformer {
     /**
      * Constructor for creating a {@link ClassTransformer} object.
@@ -25,12 +29,17 @@ public class PatchChatServer extends ClassTransformer {
     public void modifyClass() {
         getModifierBuilder().modifyMethod("processMessageFromPlayerPacket", (ctClass, ctMethod) -> {
             try {
+                ctMethod.insertBefore("if (" + FloodControl.class.getName() + ".isEnabled()) { " +
+                        "zombie.chat.ChatBase floodChat = (zombie.chat.ChatBase)this.chats.get(java.lang.Integer.valueOf($1.getInt($1.position())));" +
+                        "if (floodChat != null && !" + FloodControl.class.getName() + ".tryAcquireChat(floodChat.getType().name())) return;" +
+                        "}");
                 ctMethod.instrument(new ExprEditor() {
                     public void edit(MethodCall m) throws CannotCompileException {
                         if (m.getMethodName().equals("unpackMessage")) {
                             m.replace("{ $_ = $proceed($$); " +
+                                    "if (" + EventManager.class.getName() + ".hasListeners(" + EventRegistry.getId("onChatMessageProcessed") + ")) { " +
                                     "zombie.chat.ChatBase base = (zombie.chat.ChatBase)this.chats.get(new Integer($1.rewind().getInt()));"
-                                    + EventManager.class.getName() + ".invokeEvent(\"onChatMessageProcessed\", new Object[]{base, $_}); }");
+                                    + EventManager.class.getName() + ".invokeEvent(" + EventRegistry.getId("onChatMessageProcessed") + ", new Object[]{base, $_}); } }");
                         }
                     }
                 });
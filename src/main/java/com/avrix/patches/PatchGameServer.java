@@ -1,8 +1,15 @@
 package com.avrix.patches;
 
 import com.avrix.agent.ClassTransformer;
+import com.avrix.agent.PatchCondition;
+import com.avrix.api.server.PlayerIndex;
 import com.avrix.commands.CommandsManager;
 import com.avrix.events.EventManager;
+import com.avrix.events.EventRegistry;
+import com.avrix.network.FloodControl;
+import com.avrix.network.PacketManager;
+import com.avrix.network.PacketTelemetry;
+import com.avrix.scheduler.Scheduler;
 import javassist.CannotCompileException;
 import javassist.expr.ExprEditor;
 import javassist.expr.MethodCall;
@@ -10,6 +17,8 @@ import javassist.expr.MethodCall;
 /**
  * Game Server patcher
  */
+@PatchCondition(events = {"onServerInitialize", "onAddIncoming", "onSendConsoleCommand", "onPlayerConnect",
+        "onPlayerFullyConnected", "onPlayerDisconnect", "onSendChatCommand"}, onDemand = false)
 public class PatchGameServer extends ClassTransformer {
     /**
      * Constructor for creating a {@link ClassTransformer} object.
@@ -30,7 +39,12 @@ public class PatchGameServer extends ClassTransformer {
                     public void edit(MethodCall m) throws CannotCompileException {
                         if (m.getClassName().contains("GlobalObject") && m.getMethodName().equals("refreshAnimSets")) {
                             m.replace("{ $proceed($$);" +
-                                    EventManager.class.getName() + ".invokeEvent(\"onServerInitialize\", new Object[0]); }");
+                                    EventManager.class.getName() + ".invokeEvent(" + EventRegistry.getId("onServerInitialize") + ", new Object[0]); }");
+                        }
+
+                        // End of a server tick: run the scheduled tasks within the tick budget
+                        if (m.getClassName().endsWith("ServerMap") && m.getMethodName().equals("postupdate")) {
+                            m.replace("{ $proceed($$);" + Scheduler.class.getName() + ".tick(); }");
                         }
                     }
                 });
@@ -40,8 +54,14 @@ public class PatchGameServer extends ClassTransformer {
         }).modifyMethod("addIncoming", (ctClass, ctMethod) -> {
             try {
                 ctMethod.insertBefore("{ " +
+                        "if (" + PacketTelemetry.class.getName() + ".isEnabled()) " +
+                        PacketTelemetry.class.getName() + ".record($1, $2.remaining(), $3);" +
+                        "if (" + PacketManager.class.getName() + ".hasListeners($1)) " +
+                        PacketManager.class.getName() + ".dispatch($1, $2, $3);" +
+                        "if (" + hasListeners("onAddIncoming") + ") { " +
                         "java.nio.ByteBuffer bb = $2.duplicate();" +
-                        EventManager.class.getName() + ".invokeEvent(\"onAddIncoming\", new Object[]{new java.lang.Short($1), bb, $3}); " +
+                        EventManager.class.getName() + ".invokeEvent(" + EventRegistry.getId("onAddIncoming") + ", new Object[]{new java.lang.Short($1), bb, $3}); " +
+                        "}" +
                         "}");
             } catch (CannotCompileException e) {
                 throw new RuntimeException(e);
@@ -50,7 +70,8 @@ public class PatchGameServer extends ClassTransformer {
             try {
                 ctMethod.insertBefore("{ " +
                         "if($1 != null) {" +
-                        EventManager.class.getName() + ".invokeEvent(\"onSendConsoleCommand\", new Object[]{$1}); " +
+                        "if (" + hasListeners("onSendConsoleCommand") + ") " +
+                        EventManager.class.getName() + ".invokeEvent(" + EventRegistry.getId("onSendConsoleCommand") + ", new Object[]{$1}); " +
                         "java.lang.String customResult = " + CommandsManager.class.getName() + ".handleCustomCommand($2, $1);" +
                         "if (customResult != null) return customResult;" +
                         "}" +
@@ -60,13 +81,16 @@ public class PatchGameServer extends ClassTransformer {
             }
         }).modifyMethod("receivePlayerConnect", "java.nio.ByteBuffer, zombie.core.raknet.UdpConnection, java.lang.String", (ctClass, ctMethod) -> {
             try {
-                ctMethod.insertBefore("{ " +
+                ctMethod.insertBefore("if (" + hasListeners("onPlayerConnect") + ") { " +
                         "java.nio.ByteBuffer bb = $1.duplicate();" +
-                        EventManager.class.getName() + ".invokeEvent(\"onPlayerConnect\", new Object[]{bb, $2, $3}); " +
+                        EventManager.class.getName() + ".invokeEvent(" + EventRegistry.getId("onPlayerConnect") + ", new Object[]{bb, $2, $3}); " +
                         "}");
                 ctMethod.insertAfter("{ " +
+                        PlayerIndex.class.getName() + ".addConnection($2);" +
+                        "if (" + hasListeners("onPlayerFullyConnected") + ") { " +
                         "java.nio.ByteBuffer bb = $1.rewind().duplicate();" +
-                        EventManager.class.getName() + ".invokeEvent(\"onPlayerFullyConnected\", new Object[]{bb, $2, $3}); " +
+                        EventManager.class.getName() + ".invokeEvent(" + EventRegistry.getId("onPlayerFullyConnected") + ", new Object[]{bb, $2, $3}); " +
+                        "}" +
                         "}");
             } catch (CannotCompileException e) {
                 throw new RuntimeException(e);
@@ -74,15 +98,34 @@ public class PatchGameServer extends ClassTransformer {
         }).modifyMethod("disconnectPlayer", "zombie.characters.IsoPlayer, zombie.core.raknet.UdpConnection", (ctClass, ctMethod) -> {
             try {
                 ctMethod.insertBefore("{ " +
-                        EventManager.class.getName() + ".invokeEvent(\"onPlayerDisconnect\", $args); " +
+                        PacketTelemetry.class.getName() + ".removeConnection($2);" +
+                        CommandsManager.class.getName() + ".cancelAsyncCommands($2);" +
+                        FloodControl.class.getName() + ".removeConnection($2);" +
+                        "if (" + hasListeners("onPlayerDisconnect") + ") { " +
+                        EventManager.class.getName() + ".invokeEvent(" + EventRegistry.getId("onPlayerDisconnect") + ", $args); " +
+                        "}" +
                         "}");
+                // Removed only once the disconnect listeners, which may still look up the leaving player, have run
+                ctMethod.insertAfter(PlayerIndex.class.getName() + ".remove($1);", true);
+            } catch (CannotCompileException e) {
+                throw new RuntimeException(e);
+            }
+        }).modifyMethod("receiveChatMessageFromPlayer", (ctClass, ctMethod) -> {
+            try {
+                ctMethod.insertBefore(FloodControl.class.getName() + ".setChatSender($2);");
+                ctMethod.insertAfter(FloodControl.class.getName() + ".setChatSender(null);", true);
             } catch (CannotCompileException e) {
                 throw new RuntimeException(e);
             }
         }).modifyMethod("receiveReceiveCommand", (ctClass, ctMethod) -> {
             try {
                 String code = "{ java.lang.String readString = zombie.GameWindow.ReadString($1);" +
-                        EventManager.class.getName() + ".invokeEvent(\"onSendChatCommand\", new Object[]{$2, readString});" +
+                        "if (!" + FloodControl.class.getName() + ".tryAcquireCommand($2, readString)) {" +
+                        "    zombie.network.chat.ChatServer.getInstance().sendMessageToServerChat($2, \"[!] You are sending commands too fast, please wait a moment.\");" +
+                        "    return;" +
+                        "}" +
+                        "if (" + hasListeners("onSendChatCommand") + ") " +
+                        EventManager.class.getName() + ".invokeEvent(" + EventRegistry.getId("onSendChatCommand") + ", new Object[]{$2, readString});" +
                         "java.lang.String handleCommand = " + CommandsManager.class.getName() + ".handleCustomCommand($2, readString);" +
                         "if (handleCommand == null) {" +
                         "    handleCommand = handleClientCommand(readString.substring(1), $2);" +
@@ -102,4 +145,15 @@ public class PatchGameServer extends ClassTransformer {
             }
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Generates a check for the presence of listeners of the event to be inserted into the patched code.
+     * The event identifier is resolved once and embedded into the code as a constant.
+     *
+     * @param eventName The name of the event.
+     * @return source code of the condition
+     */
+    private static String hasListeners(String eventName) {
+        return EventManager.class.getName() + ".hasListeners(" + EventRegistry.getId(eventName) + ")";
+    }
+}
@@ -1,7 +1,9 @@
 package com.avrix.patches;
 
 import com.avrix.agent.ClassTransformer;
+import com.avrix.agent.PatchCondition;
 import com.avrix.events.EventManager;
+import com.avrix.events.EventRegistry;
 import com.avrix.ui.WidgetManager;
 import com.avrix.utils.Constants;
 
@@ -12,6 +14,7 @@ import javassist.expr.MethodCall;
 /**
  * Game window patcher
  */
+@PatchCondition(events = {"onGameWindowInitialized", "onWidgetManagerInitialized"}, onDemand = false)
 public class PatchGameWindow extends ClassTransformer {
     /**
      * Constructor for creating a {@link ClassTransformer} object.
@@ -28,7 +31,7 @@ public class PatchGameWindow extends ClassTransformer {
     public void modifyClass() {
         getModifierBuilder().modifyMethod("init", (ctClass, ctMethod) -> {
             try {
-                ctMethod.insertAfter(EventManager.class.getName() + ".invokeEvent(\"onGameWindowInitialized\", new Object[0]);");
+                ctMethod.insertAfter(EventManager.class.getName() + ".invokeEvent(" + EventRegistry.getId("onGameWindowInitialized") + ", new Object[0]);");
             } catch (CannotCompileException e) {
                 throw new RuntimeException(e);
             }
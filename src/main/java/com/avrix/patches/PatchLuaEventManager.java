@@ -1,13 +1,16 @@
 package com.avrix.patches;
 
 import com.avrix.agent.ClassTransformer;
+import com.avrix.agent.PatchCondition;
 import com.avrix.events.EventManager;
+import com.avrix.events.EventRegistry;
 import javassist.CannotCompileException;
 import javassist.NotFoundException;
 
 /**
  * Lua Event Manager patcher
  */
+@PatchCondition(otherEvents = true)
 public class PatchLuaEventManager extends ClassTransformer {
     /**
      * Constructor for creating a {@link ClassTransformer} object.
@@ -30,11 +33,13 @@ public class PatchLuaEventManager extends ClassTransformer {
             getModifierBuilder().modifyMethod("triggerEvent", signature, (ctClass, ctMethod) -> {
                 try {
                     StringBuilder code = new StringBuilder("{ ");
+                    code.append("int eventId = ").append(EventRegistry.class.getName()).append(".getId($1); ");
+                    code.append("if (").append(EventManager.class.getName()).append(".hasListeners(eventId)) { ");
                     code.append("Object[] args = new Object[").append(ctMethod.getParameterTypes().length - 1).append("]; ");
                     for (int i = 2; i <= ctMethod.getParameterTypes().length; i++) {
                         code.append("args[").append(i - 2).append("] = $").append(i).append("; ");
                     }
-                    code.append(EventManager.class.getName()).append(".invokeEvent($1, args); }");
+                    code.append(EventManager.class.getName()).append(".invokeEvent(eventId, args); } }");
 
                     ctMethod.insertBefore(code.toString());
                 } catch (CannotCompileException | NotFoundException e) {
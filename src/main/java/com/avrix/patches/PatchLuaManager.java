@@ -1,13 +1,16 @@
 package com.avrix.patches;
 
 import com.avrix.agent.ClassTransformer;
+import com.avrix.agent.PatchCondition;
 import com.avrix.events.EventManager;
+import com.avrix.events.EventRegistry;
 import com.avrix.lua.LuaManager;
 import javassist.CannotCompileException;
 
 /**
  * LuaManager patcher
  */
+@PatchCondition(events = {"onLuaFilesLoaded", "onLuaScriptExecute"}, onDemand = false)
 public class PatchLuaManager extends ClassTransformer {
     /**
      * Constructor for creating a {@link ClassTransformer} object.
@@ -25,7 +28,7 @@ public class PatchLuaManager extends ClassTransformer {
         getModifierBuilder().modifyMethod("LoadDirBase", "java.lang.String", (ctClass, ctMethod) -> {
             try {
                 String classCode = "{" +
-                        EventManager.class.getName() + ".invokeEvent(\"onLuaFilesLoaded\", new Object[]{$1});" +
+                        EventManager.class.getName() + ".invokeEvent(" + EventRegistry.getId("onLuaFilesLoaded") + ", new Object[]{$1});" +
                         "}";
                 ctMethod.insertAfter(classCode);
             } catch (CannotCompileException e) {
@@ -33,7 +36,8 @@ public class PatchLuaManager extends ClassTransformer {
             }
         }).modifyMethod("RunLuaInternal", (ctClass, ctMethod) -> {
             try {
-                ctMethod.insertBefore(EventManager.class.getName() + ".invokeEvent(\"onLuaScriptExecute\", $args);");
+                ctMethod.insertBefore("if (" + EventManager.class.getName() + ".hasListeners(" + EventRegistry.getId("onLuaScriptExecute") + ")) "
+                        + EventManager.class.getName() + ".invokeEvent(" + EventRegistry.getId("onLuaScriptExecute") + ", $args);");
                 ctMethod.insertBefore("if (" + LuaManager.class.getName() + ".isLuaBlocked($1)) return null;");
             } catch (CannotCompileException e) {
                 throw new RuntimeException(e);
@@ -1,12 +1,15 @@
 package com.avrix.patches;
 
 import com.avrix.agent.ClassTransformer;
+import com.avrix.agent.PatchCondition;
 import com.avrix.events.EventManager;
+import com.avrix.events.EventRegistry;
 import javassist.CannotCompileException;
 
 /**
  * QuitCommand patcher
  */
+@PatchCondition(events = "onServerShutdown")
 public class PatchQuitCommand extends ClassTransformer {
     /**
      * Constructor for creating a {@link ClassTransformer} object.
@@ -23,7 +26,7 @@ public class PatchQuitCommand extends ClassTransformer {
     public void modifyClass() {
         getModifierBuilder().modifyMethod("Command", (ctClass, ctMethod) -> {
             try {
-                ctMethod.insertBefore(EventManager.class.getName() + ".invokeEvent(\"onServerShutdown\", new Object[0]);");
+                ctMethod.insertBefore(EventManager.class.getName() + ".invokeEvent(" + EventRegistry.getId("onServerShutdown") + ", new Object[0]);");
             } catch (CannotCompileException e) {
                 throw new RuntimeException(e);
             }
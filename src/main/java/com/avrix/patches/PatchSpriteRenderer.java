@@ -1,13 +1,15 @@
 package com.avrix.patches;
 
 import com.avrix.agent.ClassTransformer;
-import com.avrix.events.EventManager;
+import com.avrix.agent.PatchCondition;
+import com.avrix.enums.Environment;
 import com.avrix.ui.WidgetManager;
 import javassist.CannotCompileException;
 
 /**
- * SpriteRenderer patcher
+ * SpriteRenderer patcher, renders the widgets. The render events are raised by {@link PatchSpriteRendererEvents}
  */
+@PatchCondition(events = {"onPreWidgetRender", "onPostWidgetRender"}, onDemand = false, environment = Environment.CLIENT)
 public class PatchSpriteRenderer extends ClassTransformer {
     /**
      * Constructor for creating a {@link ClassTransformer} object.
@@ -25,7 +27,6 @@ public class PatchSpriteRenderer extends ClassTransformer {
         getModifierBuilder().modifyMethod("postRender", (ctClass, ctMethod) -> {
             try {
                 ctMethod.insertAfter(WidgetManager.class.getName() + ".onRender();");
-                ctMethod.insertAfter(EventManager.class.getName() + ".invokeEvent(\"onTickRenderThread\", new Object[0]);");
             } catch (CannotCompileException e) {
                 throw new RuntimeException(e);
             }
@@ -0,0 +1,36 @@
+package com.avrix.patches;
+
+import com.avrix.agent.ClassTransformer;
+import com.avrix.agent.PatchCondition;
+import com.avrix.events.EventManager;
+import com.avrix.events.EventRegistry;
+import javassist.CannotCompileException;
+
+/**
+ * SpriteRenderer patcher, raises the render thread tick event
+ */
+@PatchCondition(events = "onTickRenderThread")
+public class PatchSpriteRendererEvents extends ClassTransformer {
+    /**
+     * Constructor for creating a {@link ClassTransformer} object.
+     */
+    public PatchSpriteRendererEvents() {
+        super("zombie.core.SpriteRenderer");
+    }
+
+    /**
+     * Method for performing class modification.
+     * The implementing method must contain the logic for modifying the target class.
+     */
+    @Override
+    public void modifyClass() {
+        getModifierBuilder().modifyMethod("postRender", (ctClass, ctMethod) -> {
+            try {
+                ctMethod.insertAfter("if (" + EventManager.class.getName() + ".hasListeners(" + EventRegistry.getId("onTickRenderThread") + ")) "
+                        + EventManager.class.getName() + ".invokeEvent(" + EventRegistry.getId("onTickRenderThread") + ", new Object[0]);");
+            } catch (CannotCompileException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+}
\ No newline at end of file
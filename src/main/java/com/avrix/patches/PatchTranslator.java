@@ -1,12 +1,15 @@
 package com.avrix.patches;
 
 import com.avrix.agent.ClassTransformer;
+import com.avrix.agent.PatchCondition;
 import com.avrix.events.EventManager;
+import com.avrix.events.EventRegistry;
 import javassist.CannotCompileException;
 
 /**
  * Translator patcher
  */
+@PatchCondition(events = "onChangeLanguage")
 public class PatchTranslator extends ClassTransformer {
     /**
      * Constructor for creating a {@link ClassTransformer} object.
@@ -24,7 +27,7 @@ public class PatchTranslator extends ClassTransformer {
         getModifierBuilder().modifyMethod("setLanguage", "zombie.core.Language", (ctClass, ctMethod) -> {
             try {
                 String classCode = "{" +
-                        EventManager.class.getName() + ".invokeEvent(\"onChangeLanguage\", new Object[]{$1});" +
+                        EventManager.class.getName() + ".invokeEvent(" + EventRegistry.getId("onChangeLanguage") + ", new Object[]{$1});" +
                         "}";
                 ctMethod.insertAfter(classCode);
             } catch (CannotCompileException e) {
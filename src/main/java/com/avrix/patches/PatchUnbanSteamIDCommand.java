@@ -1,7 +1,9 @@
 package com.avrix.patches;
 
 import com.avrix.agent.ClassTransformer;
+import com.avrix.agent.PatchCondition;
 import com.avrix.events.EventManager;
+import com.avrix.events.EventRegistry;
 import javassist.CannotCompileException;
 import javassist.expr.ExprEditor;
 import javassist.expr.MethodCall;
@@ -9,6 +11,7 @@ import javassist.expr.MethodCall;
 /**
  * UnbanSteamIDCommand patcher
  */
+@PatchCondition(events = "onPlayerUnban")
 public class PatchUnbanSteamIDCommand extends ClassTransformer {
     /**
      * Constructor for creating a {@link ClassTransformer} object.
@@ -31,7 +34,7 @@ public class PatchUnbanSteamIDCommand extends ClassTransformer {
                             String code = "{ "
                                     + "$_ = $proceed($$);"
                                     + "java.lang.String adminName = this.getExecutorUsername().isEmpty() ? \"Console\" : this.getExecutorUsername();"
-                                    + EventManager.class.getName() + ".invokeEvent(\"onPlayerUnban\", new Object[]{$1, adminName});"
+                                    + EventManager.class.getName() + ".invokeEvent(" + EventRegistry.getId("onPlayerUnban") + ", new Object[]{$1, adminName});"
                                     + "}";
                             m.replace(code);
                         }
@@ -1,6 +1,7 @@
 package com.avrix.plugin;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -9,6 +10,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
 
 import com.avrix.enums.Environment;
 import com.avrix.utils.Constants;
@@ -35,6 +38,8 @@ public final class Metadata {
     private String imageUrl; // Remote image URL fallback
     private boolean internal; // True if this metadata represents an internal (bundled) logical module without its own jar
     private String parentId; // If internal, id of its parent (e.g. avrix-core)
+    private boolean concurrentInit; // True if the entry points may be initialized in parallel with other plugins of the same dependency level
+    private boolean hotReload; // True if the plugin may be unloaded and reloaded at runtime
 
     /**
      * Private constructor to prevent direct instantiation.
@@ -63,7 +68,18 @@ public final class Metadata {
      * @return if creation is successful - {@link Metadata} object, if an error occurs - null
      */
     public static Metadata createFromJar(File jarFile, String metadataFileName) {
-        YamlFile yamlFile = new YamlFile(jarFile.getAbsolutePath(), metadataFileName);
+        YamlFile yamlFile;
+
+        // The archive is opened directly rather than through a 'jar:' URL, so it is not kept open by the URL cache
+        try (JarFile jar = new JarFile(jarFile)) {
+            JarEntry entry = jar.getJarEntry(metadataFileName);
+            if (entry == null) return null;
+
+            yamlFile = new YamlFile(jar.getInputStream(entry), jarFile.toPath().resolve(metadataFileName), metadataFileName);
+        } catch (IOException e) {
+            System.out.printf("[!] Error reading the metadata of '%s': %s%n", jarFile.getName(), e.getMessage());
+            return null;
+        }
 
         if (yamlFile.isEmpty()) return null;
 
@@ -83,6 +99,8 @@ public final class Metadata {
                 .imageUrl(yamlFile.getString("imageUrl"))
                 .internal(yamlFile.getBoolean("internal"))
                 .parent(yamlFile.getString("parent"))
+                .concurrentInit(yamlFile.getBoolean("concurrentInit"))
+                .hotReload(yamlFile.getBoolean("hotReload"))
                 .pluginFile(jarFile)
                 .build();
     }
@@ -119,6 +137,39 @@ public final class Metadata {
         return sortedList;
     }
 
+    /**
+     * Groups a list of {@link Metadata} objects into dependency levels.
+     * Level 0 contains the plugins without dependencies, and every plugin is placed one level after its deepest dependency,
+     * so the plugins of the same level do not depend on each other.
+     *
+     * @param metadataList the list of {@link Metadata} objects to be grouped
+     * @return a list of levels, each level in the order of {@link #sortMetadata(List)}
+     * @throws IllegalStateException    if a cyclic dependency is detected
+     * @throws IllegalArgumentException if a dependency is missing from the metadata list
+     */
+    public static List<List<Metadata>> groupByDependencyLevel(List<Metadata> metadataList) {
+        Map<String, Integer> levels = new HashMap<>();
+        List<List<Metadata>> result = new ArrayList<>();
+
+        for (Metadata metadata : sortMetadata(metadataList)) {
+            int level = 0;
+            if (metadata.getDependencies() != null) {
+                for (String depId : metadata.getDependencies().keySet()) {
+                    Integer depLevel = levels.get(depId);
+                    if (depLevel != null) level = Math.max(level, depLevel + 1);
+                }
+            }
+            levels.put(metadata.getId(), level);
+
+            while (result.size() <= level) {
+                result.add(new ArrayList<>());
+            }
+            result.get(level).add(metadata);
+        }
+
+        return result;
+    }
+
     /**
      * Helper method for performing a topological sort on the {@link Metadata} objects.
      *
@@ -308,6 +359,26 @@ public final class Metadata {
      */
     public String getParentId() { return parentId; }
 
+    /**
+     * Indicates whether the entry points of the plugin may be initialized in parallel with other plugins of the same dependency level.
+     * Declared with the {@code concurrentInit: true} key of the metadata.
+     *
+     * @return true if the plugin is safe to initialize concurrently
+     */
+    public boolean isConcurrentInit() {
+        return concurrentInit;
+    }
+
+    /**
+     * Indicates whether the plugin may be unloaded and reloaded at runtime by {@link PluginManager#reloadPlugin(String)}.
+     * Declared with the {@code hotReload: true} key of the metadata.
+     *
+     * @return true if the plugin supports hot reloading
+     */
+    public boolean isHotReload() {
+        return hotReload;
+    }
+
     /**
      * Builder class for constructing {@link Metadata} instances.
      */
@@ -486,6 +557,28 @@ public final class Metadata {
             return this;
         }
 
+        /**
+         * Sets whether the entry points may be initialized in parallel with other plugins of the same dependency level.
+         *
+         * @param concurrentInit true if the plugin is safe to initialize concurrently
+         * @return the builder instance
+         */
+        public MetadataBuilder concurrentInit(boolean concurrentInit) {
+            metadata.concurrentInit = concurrentInit;
+            return this;
+        }
+
+        /**
+         * Sets whether the plugin may be unloaded and reloaded at runtime.
+         *
+         * @param hotReload true if the plugin supports hot reloading
+         * @return the builder instance
+         */
+        public MetadataBuilder hotReload(boolean hotReload) {
+            metadata.hotReload = hotReload;
+            return this;
+        }
+
         /**
          * Builds and returns the {@link Metadata} instance.
          * Ensures that all required fields are set.
@@ -1,5 +1,6 @@
 package com.avrix.plugin;
 
+import com.avrix.utils.ConfigSnapshot;
 import com.avrix.utils.Constants;
 import com.avrix.utils.YamlFile;
 
@@ -36,6 +37,27 @@ public abstract class Plugin {
         return config;
     }
 
+    /**
+     * Binds the default configuration file to a record or class and reloads it whenever the file is modified.
+     * The default configuration is loaded first if needed. Reading {@link ConfigSnapshot#get()} takes no lock,
+     * so the snapshot can be kept and read from event handlers.
+     *
+     * @param <T>  type of the configuration
+     * @param type record or class with a no-argument constructor
+     * @return watched {@link ConfigSnapshot} of the default configuration
+     * @throws IllegalStateException if the default configuration cannot be loaded
+     */
+    public final synchronized <T> ConfigSnapshot<T> bindConfig(Class<T> type) {
+        if (config == null) {
+            loadDefaultConfig();
+        }
+        if (config == null) {
+            throw new IllegalStateException("Default config of plugin '" + metadata.getId() + "' could not be loaded");
+        }
+
+        return new ConfigSnapshot<>(config, type).watch();
+    }
+
     /**
      * Returns a {@link File} object representing the configuration directory for this plugin.
      * The directory path is normalized to prevent problems with various file systems.
@@ -147,4 +169,14 @@ public abstract class Plugin {
      * Implementing classes should override this method to provide the initialization logic.
      */
     public abstract void onInitialize();
+
+    /**
+     * Called when the plugin is unloaded at runtime, see {@link Metadata#isHotReload()}.
+     * <p>
+     * Listeners, commands, services, Lua objects, packet listeners, widgets and scheduled tasks registered by the plugin are removed
+     * by the loader. Implementing classes should override this method to stop their own threads and release other resources,
+     * so that the classes of the plugin can be unloaded.
+     */
+    public void onDisable() {
+    }
 }
\ No newline at end of file
@@ -1,11 +1,28 @@
 package com.avrix.plugin;
 
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
-import java.util.HashMap;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.security.ProtectionDomain;
+import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
 
 /**
  * A custom class loader for loading plugin classes.
@@ -13,11 +30,23 @@ import java.util.Set;
  * <p>This class loader is specifically designed to work with plugins, allowing classes to be dynamically loaded
  * and accessed during runtime. It also includes a method to check if a class has already been loaded, which helps
  * prevent duplicate loading of the same class.</p>
+ * <p>Each loader publishes the packages of its jar when it is created, so a class of another plugin is looked up
+ * only in the loaders owning its package. The loaders are parallel capable: classes are loaded under a lock per class name.</p>
  */
 public class PluginClassLoader extends URLClassLoader {
-    private static final Map<String, Class<?>> classCache = new HashMap<>(); // Storage of all cached classes
+    private static final Map<String, Class<?>> classCache = new ConcurrentHashMap<>(); // Storage of all cached classes, shared by plugins initialized in parallel
     private static final Map<String, PluginClassLoader> pluginLoaders = new LinkedHashMap<>(); // Storage of all created loaders
-    private final Map<String, Class<?>> classes = new HashMap<>(); // Map of loaded classes
+    private static final Map<String, List<PluginClassLoader>> packageIndex = new ConcurrentHashMap<>(); // Loaders owning each package
+    private static final Map<Path, String> pluginSources = new ConcurrentHashMap<>(); // Plugin IDs by jar or class directory
+    private static final Set<String> missingClasses = ConcurrentHashMap.newKeySet(); // Classes of indexed packages found in no loader
+    private static final AtomicLong indexVersion = new AtomicLong(); // Incremented each time a loader publishes its packages
+    private final Map<String, Class<?>> classes = new ConcurrentHashMap<>(); // Map of loaded classes
+    private final Set<String> packages; // Packages of the classes in the plugin jar
+    private final String pluginId; // ID of the plugin loaded by this loader
+
+    static {
+        ClassLoader.registerAsParallelCapable();
+    }
 
     /**
      * Constructs a new {@link PluginClassLoader} for the specified {@link URL}s using the specified parent class loader.
@@ -28,7 +57,123 @@ public class PluginClassLoader extends URLClassLoader {
      */
     public PluginClassLoader(String pluginId, URL[] urls, ClassLoader classLoader) {
         super(urls, classLoader);
-        pluginLoaders.put(pluginId, this);
+        this.pluginId = pluginId;
+        this.packages = Set.copyOf(scanPackages(urls));
+
+        synchronized (pluginLoaders) {
+            pluginLoaders.put(pluginId, this);
+        }
+
+        for (URL url : urls) {
+            Path sourcePath = toPath(url);
+            if (sourcePath != null) pluginSources.put(sourcePath, pluginId);
+        }
+
+        for (String packageName : packages) {
+            packageIndex.computeIfAbsent(packageName, key -> new CopyOnWriteArrayList<>()).add(this);
+        }
+        indexVersion.incrementAndGet();
+        // Classes of these packages may have been looked up before this loader existed
+        missingClasses.removeIf(name -> packages.contains(getPackageName(name)));
+    }
+
+    /**
+     * Returns the class loader of a plugin.
+     *
+     * @param pluginId ID of the plugin, according to data from {@link Metadata}
+     * @return {@link PluginClassLoader} of the plugin, or {@code null} if the plugin has no class loader
+     */
+    public static PluginClassLoader getPluginLoader(String pluginId) {
+        synchronized (pluginLoaders) {
+            return pluginLoaders.get(pluginId);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the class loaders of all plugins, in creation order.
+     *
+     * @return {@link List} of plugin class loaders
+     */
+    private static List<PluginClassLoader> getPluginLoaders() {
+        synchronized (pluginLoaders) {
+            return List.copyOf(pluginLoaders.values());
+        }
+    }
+
+    /**
+     * Closes the class loader and forgets the classes it has loaded, so that the loader and its classes can be collected
+     * once the plugin is unloaded. Classes of the plugin cached by other loaders are evicted as well.
+     *
+     * @throws IOException if closing the plugin jar fails
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (pluginLoaders) {
+            pluginLoaders.remove(pluginId, this);
+        }
+
+        for (URL url : getURLs()) {
+            Path sourcePath = toPath(url);
+            if (sourcePath != null) pluginSources.remove(sourcePath, pluginId);
+        }
+
+        for (String packageName : packages) {
+            packageIndex.computeIfPresent(packageName, (key, loaders) -> {
+                loaders.remove(this);
+                return loaders.isEmpty() ? null : loaders;
+            });
+        }
+
+        classCache.values().removeIf(clazz -> clazz.getClassLoader() == this);
+        for (PluginClassLoader loader : getPluginLoaders()) {
+            loader.classes.values().removeIf(clazz -> clazz.getClassLoader() == this);
+        }
+        classes.clear();
+
+        super.close();
+    }
+
+    /**
+     * Returns the plugin a class belongs to. Classes of most plugins are defined by the system class loader, because
+     * plugin jars are added to the system class path, so the plugin is found from the jar the class was loaded from.
+     *
+     * @param clazz class to check
+     * @return ID of the plugin, or {@code null} if the class does not come from a plugin
+     */
+    public static String getPluginId(Class<?> clazz) {
+        if (clazz.getClassLoader() instanceof PluginClassLoader pluginClassLoader) {
+            return pluginClassLoader.getPluginId();
+        }
+
+        ProtectionDomain protectionDomain = clazz.getProtectionDomain();
+        CodeSource codeSource = protectionDomain == null ? null : protectionDomain.getCodeSource();
+        if (codeSource == null || codeSource.getLocation() == null) return null;
+
+        Path sourcePath = toPath(codeSource.getLocation());
+        return sourcePath == null ? null : pluginSources.get(sourcePath);
+    }
+
+    /**
+     * Converts the URL of a jar or class directory to a normalized path.
+     *
+     * @param url file URL
+     * @return absolute normalized path, or {@code null} if the URL is not a local file
+     */
+    private static Path toPath(URL url) {
+        try {
+            return Paths.get(url.toURI()).toAbsolutePath().normalize();
+        } catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the ID of the plugin loaded by this class loader.
+     *
+     * @return plugin ID, according to data from {@link Metadata}
+     */
+    public String getPluginId() {
+        return pluginId;
     }
 
     /**
@@ -60,28 +205,28 @@ public class PluginClassLoader extends URLClassLoader {
 
     /**
      * Retrieves the {@link Class} object for a given class name from the cache or loaders.
-     * If the class is not found in the cache, searches through all loaders to find the class.
+     * If the class is not found in the cache, searches the loaders owning the package of the class.
+     * Classes found in none of them are remembered, so repeated lookups of a missing class are cheap.
      *
      * @param name The fully qualified name of the desired class.
      * @return The {@link Class} object corresponding to the specified name, or {@code null} if the class could not be found.
      */
     public static Class<?> getClassByName(final String name) {
         Class<?> cachedClass = classCache.get(name);
+        if (cachedClass != null) return cachedClass;
 
-        if (cachedClass != null) {
-            return cachedClass;
-        } else {
-            for (PluginClassLoader loader : pluginLoaders.values()) {
-                try {
-                    cachedClass = loader.findClass(name, false);
-                } catch (ClassNotFoundException ignored) {
-                }
-                if (cachedClass != null) {
-                    classCache.put(name, cachedClass);
-                    return cachedClass;
-                }
-            }
+        long version = indexVersion.get();
+        List<PluginClassLoader> owners = packageIndex.get(getPackageName(name));
+        if (owners == null || missingClasses.contains(name)) return null;
+
+        for (PluginClassLoader loader : owners) {
+            cachedClass = loader.findOwnClass(name);
+            if (cachedClass != null) return cachedClass;
         }
+
+        missingClasses.add(name);
+        // A loader created during the search may contain the class
+        if (indexVersion.get() != version) missingClasses.remove(name);
         return null;
     }
 
@@ -99,20 +244,113 @@ public class PluginClassLoader extends URLClassLoader {
 
         if (result == null) {
             if (isGlobalSearch) {
-                result = getClassByName(name);
+                result = classCache.get(name);
             }
 
             if (result == null) {
-                result = super.findClass(name);
-                classCache.putIfAbsent(name, result);
+                result = findOwnClass(name);
+            }
+
+            if (result == null && isGlobalSearch) {
+                result = getClassByName(name);
             }
 
+            if (result == null) throw new ClassNotFoundException(name);
+
             classes.put(name, result);
         }
 
         return result;
     }
 
+    /**
+     * Finds a class in the jar of this plugin. Takes the class loading lock of the class, so a class requested
+     * by several plugins at once is defined only once. The lock is only taken if the jar contains the class,
+     * a loader searching other plugins never waits for a class they do not have.
+     *
+     * @param name The fully qualified name of the desired class.
+     * @return The {@link Class} object, or {@code null} if the jar does not contain the class.
+     */
+    private Class<?> findOwnClass(String name) {
+        if (!packages.contains(getPackageName(name))) return null;
+        if (findResource(name.replace('.', '/') + ".class") == null) return null;
+
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> result = findLoadedClass(name);
+
+            if (result == null) {
+                try {
+                    result = super.findClass(name);
+                } catch (ClassNotFoundException e) {
+                    return null;
+                }
+            }
+
+            classes.put(name, result);
+            classCache.putIfAbsent(name, result);
+            return result;
+        }
+    }
+
+    /**
+     * Returns the package of a class.
+     *
+     * @param className fully qualified class name
+     * @return package name, or an empty string for the default package
+     */
+    private static String getPackageName(String className) {
+        int lastDot = className.lastIndexOf('.');
+        return lastDot < 0 ? "" : className.substring(0, lastDot);
+    }
+
+    /**
+     * Collects the packages of the classes found at the specified {@link URL}s, which may be jar files or directories.
+     *
+     * @param urls The {@link URL}s of the plugin
+     * @return package names
+     */
+    private static Set<String> scanPackages(URL[] urls) {
+        Set<String> packages = new HashSet<>();
+
+        for (URL url : urls) {
+            try {
+                File file = new File(url.toURI());
+
+                if (file.isDirectory()) {
+                    Path root = file.toPath();
+                    try (Stream<Path> paths = Files.walk(root)) {
+                        paths.filter(path -> path.toString().endsWith(".class"))
+                                .forEach(path -> addPackage(packages, root.relativize(path).toString().replace(File.separatorChar, '/')));
+                    }
+                } else if (file.isFile()) {
+                    try (JarFile jarFile = new JarFile(file)) {
+                        Enumeration<JarEntry> entries = jarFile.entries();
+                        while (entries.hasMoreElements()) {
+                            addPackage(packages, entries.nextElement().getName());
+                        }
+                    }
+                }
+            } catch (IOException | URISyntaxException | IllegalArgumentException e) {
+                System.out.printf("[!] Failed to index the classes of '%s': %s%n", url, e.getMessage());
+            }
+        }
+
+        return packages;
+    }
+
+    /**
+     * Adds the package of a class file to a set of packages.
+     *
+     * @param packages set receiving the package
+     * @param path     path of the entry, separated by '/'
+     */
+    private static void addPackage(Set<String> packages, String path) {
+        if (!path.endsWith(".class") || path.startsWith("META-INF/")) return;
+
+        int lastSlash = path.lastIndexOf('/');
+        packages.add(lastSlash < 0 ? "" : path.substring(0, lastSlash).replace('/', '.'));
+    }
+
     /**
      * Retrieves the set of loaded class names.
      *
@@ -2,21 +2,45 @@ package com.avrix.plugin;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URL;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
 import com.avrix.agent.Agent;
+import com.avrix.agent.AgentManager;
+import com.avrix.agent.ClassPoolManager;
+import com.avrix.agent.DeferredPatchManager;
+import com.avrix.commands.CommandsManager;
 import com.avrix.enums.Environment;
+import com.avrix.events.EventBatcher;
+import com.avrix.events.EventManager;
+import com.avrix.lua.LuaExposer;
+import com.avrix.network.PacketManager;
+import com.avrix.scheduler.Scheduler;
+import com.avrix.ui.WidgetManager;
+import com.avrix.utils.ConfigWatcher;
 import com.avrix.utils.Constants;
 import com.avrix.utils.PatchUtils;
 
-import javassist.ClassPool;
-import javassist.LoaderClassPath;
 import zombie.core.Core;
 
 /**
@@ -24,6 +48,19 @@ import zombie.core.Core;
  */
 public class PluginManager {
     private static final List<Metadata> pluginsList = new ArrayList<>(); // A list containing metadata for loaded plugins.
+    private static final Map<String, StartupTiming> startupTimings = new LinkedHashMap<>(); // Startup timing of each plugin by ID
+    private static final Map<String, List<Plugin>> pluginInstances = new ConcurrentHashMap<>(); // Entry points of each plugin by ID
+    private static final Set<String> pinnedPlugins = ConcurrentHashMap.newKeySet(); // Hot reload plugins kept on the class path for their dependents
+
+    /**
+     * Number of garbage collections requested while checking that the class loader of an unloaded plugin is collected
+     */
+    private static final int LEAK_CHECK_ATTEMPTS = 10;
+
+    /**
+     * Number of threads scanning plugin jars and initializing concurrent plugins, set by {@code -Davrix.plugins.parallelism}
+     */
+    private static final int PARALLELISM = Math.max(1, Integer.getInteger("avrix.plugins.parallelism", Runtime.getRuntime().availableProcessors()));
 
     /**
      * Prints information about loaded plugins to the console.
@@ -135,11 +172,40 @@ public class PluginManager {
     }
 
     /**
-     * Loading plugins into the game context
+     * Prints the startup timing of each plugin to the console: jar scanning, class loading with patches and initialization.
+     *
+     * @param totalNanos total duration of {@link #loadPlugins()} in nanoseconds
+     */
+    private static void printStartupTimings(long totalNanos) {
+        StringBuilder sb = new StringBuilder(String.format("[#] Plugin startup timing (total: %d ms):%n", TimeUnit.NANOSECONDS.toMillis(totalNanos)));
+        for (Metadata plugin : pluginsList) {
+            StartupTiming timing = startupTimings.get(plugin.getId());
+            if (timing == null) continue;
+
+            sb.append(String.format("    - %s (ID: %s): scan %d ms, load %d ms, init %d ms%s%n",
+                    plugin.getName(),
+                    plugin.getId(),
+                    TimeUnit.NANOSECONDS.toMillis(timing.scanNanos),
+                    TimeUnit.NANOSECONDS.toMillis(timing.loadNanos),
+                    TimeUnit.NANOSECONDS.toMillis(timing.initNanos),
+                    timing.concurrent ? " (concurrent)" : ""));
+        }
+        System.out.print(sb);
+    }
+
+    /**
+     * Loading plugins into the game context.
+     * <p>
+     * Plugin jars are opened and their metadata parsed in parallel. Plugins are then loaded level by level of the dependency graph:
+     * class loaders and patches are applied sequentially, since the Javassist class pool is not thread-safe, after which plugins
+     * declaring {@code concurrentInit: true} are initialized in parallel with each other, and the others one by one.
+     * </p>
      *
      * @throws Exception in case of any problems
      */
     public static void loadPlugins() throws Exception {
+        long startTime = System.nanoTime();
+
         // Plugin loading mode (client, server)
         Environment loaderEnvironment = Environment.fromString(System.getProperty("avrix.mode"));
 
@@ -159,43 +225,160 @@ public class PluginManager {
         // Fallback: add internal logical modules programmatically if not provided by jar
         loadFallbackInternalModulesIfMissing();
 
-        // Getting valid plugins from plugins folder
-        for (File plugin : getPluginFiles()) {
-            Metadata metadata = Metadata.createFromJar(plugin, Constants.PLUGINS_METADATA_NAME);
+        ExecutorService executor = createExecutor();
+        try {
+            // Getting valid plugins from plugins folder
+            for (ScannedPlugin scannedPlugin : scanPluginFiles(getPluginFiles(), executor)) {
+                File plugin = scannedPlugin.file();
+                Metadata metadata = scannedPlugin.metadata();
+
+                if (metadata == null) {
+                    System.out.printf("[?] No metadata found for the potential plugin '%s'. Skipping...%n", plugin.getName());
+                    continue;
+                }
 
-            if (metadata == null) {
-                System.out.printf("[?] No metadata found for the potential plugin '%s'. Skipping...%n", plugin.getName());
-                continue;
+                if (!metadata.getPluginFile().exists()) {
+                    System.out.printf("[!] Could not access the plugin file for '%s'. Skipping...%n", plugin.getName());
+                    continue;
+                }
+
+                if (metadata.getEnvironment() != loaderEnvironment && metadata.getEnvironment() != Environment.BOTH) {
+                    System.out.printf("[?] Plugin '%s' found with inappropriate environment (Loader: '%s', Plugin: '%s'). Skipping...%n",
+                            plugin.getName(),
+                            loaderEnvironment.getValue(),
+                            metadata.getEnvironment().getValue());
+                    continue;
+                }
+
+                // creating a folder for configs
+                File configFolder = metadata.getConfigFolder();
+                if (!configFolder.exists()) {
+                    try {
+                        configFolder.mkdir();
+                    } catch (Exception e) {
+                        System.out.printf("[!] An error occurred while creating the config folder for plugin '%s': %s%n", metadata.getId(), e.getMessage());
+                    }
+                }
+
+                pluginsList.add(metadata);
+                getStartupTiming(metadata).scanNanos = scannedPlugin.scanNanos();
             }
 
-            if (!metadata.getPluginFile().exists()) {
-                System.out.printf("[!] Could not access the plugin file for '%s'. Skipping...%n", plugin.getName());
-                continue;
+            pinDependencies(pluginsList);
+
+            // Loading the plugins, level by level of the dependency graph
+            for (List<Metadata> level : Metadata.groupByDependencyLevel(pluginsList)) {
+                loadPluginLevel(level, loaderEnvironment, executor);
             }
+        } finally {
+            executor.shutdownNow();
+
+            // Patches are compiled, the classes read by the ClassPool are no longer needed
+            ClassPoolManager.release();
+        }
 
-            if (metadata.getEnvironment() != loaderEnvironment && metadata.getEnvironment() != Environment.BOTH) {
-                System.out.printf("[?] Plugin '%s' found with inappropriate environment (Loader: '%s', Plugin: '%s'). Skipping...%n",
-                        plugin.getName(),
-                        loaderEnvironment.getValue(),
-                        metadata.getEnvironment().getValue());
-                continue;
+        // Displaying information about loaded plugins
+        printLoadedPluginsInfo();
+        printStartupTimings(System.nanoTime() - startTime);
+    }
+
+    /**
+     * Opens the plugin jars and parses their metadata in parallel.
+     *
+     * @param pluginFiles plugin jar files
+     * @param executor    {@link ExecutorService} to scan the jars on
+     * @return {@link List} of scanned plugins, in the order of the files
+     * @throws Exception if the metadata of a plugin is invalid
+     */
+    private static List<ScannedPlugin> scanPluginFiles(List<File> pluginFiles, ExecutorService executor) throws Exception {
+        List<Future<ScannedPlugin>> futures = new ArrayList<>(pluginFiles.size());
+        for (File plugin : pluginFiles) {
+            futures.add(executor.submit(() -> {
+                long scanStart = System.nanoTime();
+                Metadata metadata = Metadata.createFromJar(plugin, Constants.PLUGINS_METADATA_NAME);
+                return new ScannedPlugin(plugin, metadata, System.nanoTime() - scanStart);
+            }));
+        }
+
+        List<ScannedPlugin> scannedPlugins = new ArrayList<>(futures.size());
+        Exception failure = null;
+        for (Future<ScannedPlugin> future : futures) {
+            try {
+                scannedPlugins.add(future.get());
+            } catch (ExecutionException e) {
+                if (failure == null) failure = unwrap(e);
             }
+        }
 
-            // creating a folder for configs
-            File configFolder = metadata.getConfigFolder();
-            if (!configFolder.exists()) {
-                try {
-                    configFolder.mkdir();
-                } catch (Exception e) {
-                    System.out.printf("[!] An error occurred while creating the config folder for plugin '%s': %s%n", metadata.getId(), e.getMessage());
-                }
+        if (failure != null) throw failure;
+        return scannedPlugins;
+    }
+
+    /**
+     * Loads the plugins of one dependency level. The plugins of a level do not depend on each other,
+     * so all their patches are applied before any of them is initialized.
+     *
+     * @param level             plugins of the level, in the order of {@link Metadata#sortMetadata(List)}
+     * @param loaderEnvironment plugin loading mode
+     * @param executor          {@link ExecutorService} to initialize concurrent plugins on
+     * @throws Exception in case of any problems
+     */
+    private static void loadPluginLevel(List<Metadata> level, Environment loaderEnvironment, ExecutorService executor) throws Exception {
+        Map<Metadata, ClassLoader> classLoaders = new LinkedHashMap<>();
+
+        // Game classes already loaded and patched by the plugins of the level are retransformed in a single call
+        AgentManager.beginBatch();
+        try {
+            prepareLevel(level, loaderEnvironment, classLoaders);
+        } finally {
+            AgentManager.endBatch();
+        }
+
+        // Plugins that are not declared safe are initialized one by one, before the concurrent ones
+        List<Future<?>> futures = new ArrayList<>();
+        for (Map.Entry<Metadata, ClassLoader> entry : classLoaders.entrySet()) {
+            Metadata metadata = entry.getKey();
+
+            if (!metadata.isConcurrentInit()) {
+                initializePlugin(metadata, entry.getValue(), getStartupTiming(metadata));
             }
+        }
 
-            pluginsList.add(metadata);
+        for (Map.Entry<Metadata, ClassLoader> entry : classLoaders.entrySet()) {
+            Metadata metadata = entry.getKey();
+
+            if (metadata.isConcurrentInit()) {
+                StartupTiming timing = getStartupTiming(metadata);
+                futures.add(executor.submit(() -> {
+                    initializePlugin(metadata, entry.getValue(), timing);
+                    return null;
+                }));
+            }
         }
 
-        // Loading the plugin
-        for (Metadata metadata : Metadata.sortMetadata(pluginsList)) {
+        // Waiting for the whole level, so that the dependents of a plugin are never initialized before it
+        Exception failure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (failure == null) failure = unwrap(e);
+            }
+        }
+
+        if (failure != null) throw failure;
+    }
+
+    /**
+     * Creates the class loaders of the plugins of a level and applies their patches.
+     *
+     * @param level             plugins of the level
+     * @param loaderEnvironment plugin loading mode
+     * @param classLoaders      map receiving the class loader of each prepared plugin
+     * @throws Exception in case of any problems
+     */
+    private static void prepareLevel(List<Metadata> level, Environment loaderEnvironment, Map<Metadata, ClassLoader> classLoaders) throws Exception {
+        for (Metadata metadata : level) {
             File pluginFile = metadata.getPluginFile();
 
             if (pluginFile == null) continue;
@@ -205,28 +388,87 @@ public class PluginManager {
             // Checking the environment
             if (environment != loaderEnvironment && environment != Environment.BOTH) continue;
 
+            long loadStart = System.nanoTime();
+
             // Creating a URL for the plugin
             URL pluginUrl = pluginFile.toURI().toURL();
 
-            // Adding jar file to classpath
-            Agent.addClassPath(pluginFile);
+            // Adding jar file to classpath, so that patched game classes can reach the plugin. Reloadable plugins are only
+            // visible to their own class loader, otherwise their classes would be defined by the system class loader and never unloaded
+            if (metadata.isHotReload() && !isReloadable(metadata) && !pinnedPlugins.contains(metadata.getId())) {
+                System.out.printf("[?] Plugin '%s' declares patches, it cannot be reloaded at runtime.%n", metadata.getId());
+            }
+            if (!isReloadable(metadata)) {
+                Agent.addClassPath(pluginFile);
+            }
 
             ClassLoader classLoader = new PluginClassLoader(metadata.getId(), new URL[]{pluginUrl}, ClassLoader.getSystemClassLoader());
 
-            // Extending ClassPoll with a new ClassLoader
-            ClassPool classPool = ClassPool.getDefault();
-            classPool.appendClassPath(new LoaderClassPath(classLoader));
+            // Extending the patch ClassPool with a new ClassLoader
+            ClassPoolManager.appendClassLoader(classLoader);
 
             // Applying patches
             PatchUtils.applyPluginPatches(metadata, classLoader);
 
-            // Loading the plugin
-            System.out.printf("[#] Loading plugin '%s' (ID: %s, Version: %s)...%n", metadata.getName(), metadata.getId(), metadata.getVersion());
-            loadPlugin(metadata, classLoader);
+            getStartupTiming(metadata).loadNanos = System.nanoTime() - loadStart;
+            classLoaders.put(metadata, classLoader);
         }
+    }
 
-        // Displaying information about loaded plugins
-        printLoadedPluginsInfo();
+    /**
+     * Initializes a plugin and records the duration of its initialization.
+     *
+     * @param metadata    The {@link Metadata} of the plugin.
+     * @param classLoader The {@link PluginClassLoader} to use for loading the plugin classes.
+     * @param timing      {@link StartupTiming} of the plugin
+     * @throws Exception in case of any problems
+     */
+    private static void initializePlugin(Metadata metadata, ClassLoader classLoader, StartupTiming timing) throws Exception {
+        timing.concurrent = metadata.isConcurrentInit();
+
+        // Loading the plugin
+        System.out.printf("[#] Loading plugin '%s' (ID: %s, Version: %s)...%n", metadata.getName(), metadata.getId(), metadata.getVersion());
+        long initStart = System.nanoTime();
+        loadPlugin(metadata, classLoader);
+        timing.initNanos = System.nanoTime() - initStart;
+    }
+
+    /**
+     * Returns the startup timing of a plugin, creating it if needed. Must be called on the loading thread only,
+     * concurrent plugins receive their timing before being handed to another thread.
+     *
+     * @param metadata The {@link Metadata} of the plugin.
+     * @return {@link StartupTiming} of the plugin
+     */
+    private static StartupTiming getStartupTiming(Metadata metadata) {
+        return startupTimings.computeIfAbsent(metadata.getId(), id -> new StartupTiming());
+    }
+
+    /**
+     * Creates the executor used to scan plugin jars and initialize concurrent plugins.
+     *
+     * @return {@link ExecutorService} with {@link #PARALLELISM} daemon threads
+     */
+    private static ExecutorService createExecutor() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(PARALLELISM, runnable -> {
+            Thread thread = new Thread(runnable, "Avrix-PluginLoader-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Extracts the exception thrown by a task.
+     *
+     * @param e {@link ExecutionException} of the task
+     * @return cause of the exception, wrapped if it is not an {@link Exception}
+     */
+    private static Exception unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof Exception exception) return exception;
+        if (cause instanceof Error error) throw error;
+        return e;
     }
 
     /**
@@ -248,10 +490,299 @@ public class PluginManager {
         for (String entryPoint : metadata.getEntryPoints()) {
             Class<?> pluginClass = Class.forName(entryPoint, true, classLoader);
             Plugin pluginInstance = (Plugin) pluginClass.getDeclaredConstructor(Metadata.class).newInstance(metadata);
+            pluginInstances.computeIfAbsent(metadata.getId(), id -> new CopyOnWriteArrayList<>()).add(pluginInstance);
             pluginInstance.onInitialize();
         }
     }
 
+    /**
+     * Unloads a plugin at runtime. The plugin must declare {@code hotReload: true} in its metadata, must not declare patches,
+     * and no other loaded plugin may depend on it.
+     * <p>
+     * {@link Plugin#onDisable()} is called on the entry points. The loader then removes everything the plugin registered:
+     * event listeners, commands, services, Lua objects, packet listeners and scheduled tasks. Finally its class loader is closed.
+     * A background check reports whether the class loader was collected afterwards.
+     * </p>
+     *
+     * @param pluginId ID of the plugin, according to data from {@link Metadata}
+     * @return true if the plugin was unloaded
+     */
+    public static synchronized boolean unloadPlugin(String pluginId) {
+        WeakReference<ClassLoader> classLoaderReference = unload(pluginId);
+        if (classLoaderReference == null) return false;
+
+        checkCollected(pluginId, classLoaderReference);
+        return true;
+    }
+
+    /**
+     * Reloads a plugin at runtime: unloads it as {@link #unloadPlugin(String)} does, reads the plugin jar again and initializes
+     * the new version. If the jar has been replaced by a file with another name, the plugins folder is searched for the plugin ID.
+     *
+     * @param pluginId ID of the plugin, according to data from {@link Metadata}
+     * @return true if the new version of the plugin was initialized
+     */
+    public static synchronized boolean reloadPlugin(String pluginId) {
+        Metadata oldMetadata = getLoadedPlugin(pluginId);
+        if (oldMetadata == null) {
+            System.out.printf("[!] Plugin '%s' is not loaded.%n", pluginId);
+            return false;
+        }
+
+        WeakReference<ClassLoader> classLoaderReference = unload(pluginId);
+        if (classLoaderReference == null) return false;
+
+        checkCollected(pluginId, classLoaderReference);
+
+        Metadata metadata = findPluginMetadata(pluginId, oldMetadata.getPluginFile());
+        if (metadata == null) {
+            System.out.printf("[!] No plugin jar with ID '%s' found in the '%s' folder, the plugin stays unloaded.%n", pluginId, Constants.PLUGINS_FOLDER_NAME);
+            return false;
+        }
+
+        return loadAtRuntime(metadata);
+    }
+
+    /**
+     * Returns the metadata of a loaded plugin.
+     *
+     * @param pluginId ID of the plugin
+     * @return {@link Metadata} of the plugin, or {@code null} if it is not loaded
+     */
+    private static Metadata getLoadedPlugin(String pluginId) {
+        for (Metadata metadata : pluginsList) {
+            if (metadata.getId().equals(pluginId)) return metadata;
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a plugin may be unloaded at runtime.
+     *
+     * @param metadata The {@link Metadata} of the plugin.
+     * @return true if the plugin declares hot reloading, is not internal, has no patches and no plugin on the class path depends on it
+     */
+    private static boolean isReloadable(Metadata metadata) {
+        return metadata.isHotReload()
+                && !metadata.isInternal()
+                && (metadata.getPatchList() == null || metadata.getPatchList().isEmpty())
+                && !pinnedPlugins.contains(metadata.getId());
+    }
+
+    /**
+     * Marks as not reloadable the hot reload plugins that a plugin on the class path depends on, directly or not.
+     * Classes on the system class path cannot see the classes of a plugin class loader, so such dependencies
+     * have to be added to the class path as well, and can then no longer be unloaded.
+     *
+     * @param plugins metadata of all the plugins to load
+     */
+    private static void pinDependencies(List<Metadata> plugins) {
+        Map<String, Metadata> pluginsById = new HashMap<>();
+        Deque<Metadata> classPathPlugins = new ArrayDeque<>();
+        for (Metadata metadata : plugins) {
+            pluginsById.put(metadata.getId(), metadata);
+            if (!isReloadable(metadata)) classPathPlugins.add(metadata);
+        }
+
+        while (!classPathPlugins.isEmpty()) {
+            Metadata metadata = classPathPlugins.poll();
+            if (metadata.getDependencies() == null) continue;
+
+            for (String dependencyId : metadata.getDependencies().keySet()) {
+                Metadata dependency = pluginsById.get(dependencyId);
+                if (dependency == null || !isReloadable(dependency)) continue;
+
+                pinnedPlugins.add(dependencyId);
+                classPathPlugins.add(dependency);
+                System.out.printf("[?] Plugin '%s' cannot be reloaded at runtime, plugin '%s' depends on it and is not reloadable.%n",
+                        dependencyId, metadata.getId());
+            }
+        }
+    }
+
+    /**
+     * Unloads a plugin and releases everything it has registered.
+     *
+     * @param pluginId ID of the plugin
+     * @return weak reference to the closed class loader, or {@code null} if the plugin was not unloaded
+     */
+    static WeakReference<ClassLoader> unload(String pluginId) {
+        Metadata metadata = getLoadedPlugin(pluginId);
+        if (metadata == null) {
+            System.out.printf("[!] Plugin '%s' is not loaded.%n", pluginId);
+            return null;
+        }
+
+        if (pinnedPlugins.contains(pluginId)) {
+            System.out.printf("[!] Plugin '%s' cannot be unloaded, a plugin that is not reloadable depends on it.%n", pluginId);
+            return null;
+        }
+
+        if (!isReloadable(metadata)) {
+            System.out.printf("[!] Plugin '%s' cannot be unloaded, it must declare 'hotReload: true' and no patches.%n", pluginId);
+            return null;
+        }
+
+        for (Metadata plugin : pluginsList) {
+            if (plugin.getDependencies() != null && plugin.getDependencies().containsKey(pluginId)) {
+                System.out.printf("[!] Plugin '%s' cannot be unloaded, plugin '%s' depends on it.%n", pluginId, plugin.getId());
+                return null;
+            }
+        }
+
+        System.out.printf("[#] Unloading plugin '%s' (ID: %s, Version: %s)...%n", metadata.getName(), metadata.getId(), metadata.getVersion());
+
+        List<Plugin> instances = pluginInstances.remove(pluginId);
+        if (instances != null) {
+            for (Plugin instance : instances) {
+                try {
+                    instance.onDisable();
+                } catch (Exception e) {
+                    System.out.printf("[!] An error occurred while disabling plugin '%s': %s%n", pluginId, e.getMessage());
+                }
+            }
+        }
+
+        PluginClassLoader classLoader = PluginClassLoader.getPluginLoader(pluginId);
+        if (classLoader != null) {
+            releasePluginResources(pluginId, classLoader);
+
+            try {
+                classLoader.close();
+            } catch (IOException e) {
+                System.out.printf("[!] Failed to close the class loader of plugin '%s': %s%n", pluginId, e.getMessage());
+            }
+        }
+
+        pluginsList.remove(metadata);
+        startupTimings.remove(pluginId);
+
+        return new WeakReference<>(classLoader);
+    }
+
+    /**
+     * Removes the listeners, batch listeners, pending asynchronous events, commands, services, Lua objects, packet listeners,
+     * scheduled tasks, config watches and deferred patches whose classes were loaded by the class loader of a plugin.
+     *
+     * @param pluginId    ID of the plugin
+     * @param classLoader {@link ClassLoader} of the plugin
+     */
+    private static void releasePluginResources(String pluginId, ClassLoader classLoader) {
+        int pendingEvents = EventManager.cancelAsyncQueues(classLoader);
+        int listeners = EventManager.removeListeners(classLoader);
+        int batchListeners = EventBatcher.removeBatchListeners(classLoader);
+        int commands = CommandsManager.removeCommands(classLoader);
+        int services = ServiceManager.unregisterAll(classLoader);
+        int luaObjects = LuaExposer.removeExposed(classLoader);
+        int packetListeners = PacketManager.removePacketListeners(classLoader);
+        // Widgets only exist on the client, the UI classes are not loaded on a dedicated server
+        int widgets = Environment.fromString(System.getProperty("avrix.mode")) != Environment.SERVER
+                ? WidgetManager.removeWidgets(classLoader) : 0;
+        Scheduler.cancelTasks(classLoader);
+        ConfigWatcher.unwatchAll(classLoader);
+        DeferredPatchManager.removePatches(classLoader);
+        ClassPoolManager.removeClassLoader(classLoader);
+
+        System.out.printf("[#] Released plugin '%s': %d listeners, %d batch listeners, %d pending async events, %d commands, %d services, %d Lua objects, %d packet listeners, %d widgets.%n",
+                pluginId, listeners, batchListeners, pendingEvents, commands, services, luaObjects, packetListeners, widgets);
+    }
+
+    /**
+     * Reads the metadata of a plugin from its jar. If the jar no longer exists or now contains another plugin,
+     * the plugins folder is searched for a jar with the plugin ID.
+     *
+     * @param pluginId   ID of the plugin
+     * @param pluginFile jar the plugin was loaded from
+     * @return {@link Metadata} of the plugin, or {@code null} if no jar contains the plugin
+     */
+    private static Metadata findPluginMetadata(String pluginId, File pluginFile) {
+        if (pluginFile != null && pluginFile.isFile()) {
+            Metadata metadata = Metadata.createFromJar(pluginFile, Constants.PLUGINS_METADATA_NAME);
+            if (metadata != null && pluginId.equals(metadata.getId())) return metadata;
+        }
+
+        try {
+            for (File file : getPluginFiles()) {
+                Metadata metadata = Metadata.createFromJar(file, Constants.PLUGINS_METADATA_NAME);
+                if (metadata != null && pluginId.equals(metadata.getId())) return metadata;
+            }
+        } catch (IOException e) {
+            System.out.printf("[!] Failed to list the plugins folder: %s%n", e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Loads and initializes a reloadable plugin after the game has started.
+     *
+     * @param metadata The {@link Metadata} of the plugin.
+     * @return true if the plugin was initialized
+     */
+    private static boolean loadAtRuntime(Metadata metadata) {
+        String pluginId = metadata.getId();
+
+        if (!isReloadable(metadata)) {
+            System.out.printf("[!] Plugin '%s' cannot be loaded at runtime, it must declare 'hotReload: true' and no patches.%n", pluginId);
+            return false;
+        }
+
+        Environment loaderEnvironment = Environment.fromString(System.getProperty("avrix.mode"));
+        if (metadata.getEnvironment() != loaderEnvironment && metadata.getEnvironment() != Environment.BOTH) {
+            System.out.printf("[!] Plugin '%s' does not support the '%s' environment.%n", pluginId, loaderEnvironment.getValue());
+            return false;
+        }
+
+        if (metadata.getDependencies() != null) {
+            for (String dependencyId : metadata.getDependencies().keySet()) {
+                if (getLoadedPlugin(dependencyId) == null) {
+                    System.out.printf("[!] Plugin '%s' depends on '%s', which is not loaded.%n", pluginId, dependencyId);
+                    return false;
+                }
+            }
+        }
+
+        pluginsList.add(metadata);
+        try {
+            URL pluginUrl = metadata.getPluginFile().toURI().toURL();
+            ClassLoader classLoader = new PluginClassLoader(pluginId, new URL[]{pluginUrl}, ClassLoader.getSystemClassLoader());
+            initializePlugin(metadata, classLoader, getStartupTiming(metadata));
+            return true;
+        } catch (Exception e) {
+            System.out.printf("[!] An error occurred while loading plugin '%s': %s%n", pluginId, e.getMessage());
+            WeakReference<ClassLoader> classLoaderReference = unload(pluginId);
+            if (classLoaderReference != null) checkCollected(pluginId, classLoaderReference);
+            return false;
+        }
+    }
+
+    /**
+     * Checks on a background thread that the class loader of an unloaded plugin is collected, requesting a few garbage collections.
+     * A loader that stays reachable means that the game, Avrix or another plugin still references an object of the plugin.
+     *
+     * @param pluginId             ID of the plugin
+     * @param classLoaderReference weak reference to the class loader of the plugin
+     */
+    private static void checkCollected(String pluginId, WeakReference<ClassLoader> classLoaderReference) {
+        Thread thread = new Thread(() -> {
+            for (int attempt = 0; attempt < LEAK_CHECK_ATTEMPTS; attempt++) {
+                System.gc();
+                if (classLoaderReference.get() == null) {
+                    System.out.printf("[#] Class loader of plugin '%s' was collected.%n", pluginId);
+                    return;
+                }
+
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            System.out.printf("[?] Class loader of plugin '%s' is still reachable after unloading, an object of the plugin is still referenced.%n", pluginId);
+        }, "Avrix-LeakCheck-" + pluginId);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
     /**
      * Finds all JAR plugins in the specified directory. Also checks for the presence of a folder and
      * creates it if it is missing.
@@ -280,4 +811,24 @@ public class PluginManager {
 
         return jarFiles;
     }
-}
\ No newline at end of file
+
+    /**
+     * Result of scanning a plugin jar
+     *
+     * @param file      Plugin jar file
+     * @param metadata  Parsed metadata, or {@code null} if the jar has none
+     * @param scanNanos Time spent opening the jar and parsing the metadata
+     */
+    private record ScannedPlugin(File file, Metadata metadata, long scanNanos) {
+    }
+
+    /**
+     * Startup timing of a plugin, in nanoseconds
+     */
+    private static final class StartupTiming {
+        private long scanNanos; // Opening the jar and parsing the metadata
+        private long loadNanos; // Creating the class loader and applying the patches
+        private long initNanos; // Initializing the entry points
+        private boolean concurrent; // Whether the plugin was initialized in parallel with others
+    }
+}
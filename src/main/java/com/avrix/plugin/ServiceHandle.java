@@ -0,0 +1,50 @@
+package com.avrix.plugin;
+
+/**
+ * Handle of a service registered in the {@link ServiceManager}.
+ * <p>
+ * A handle can be kept in a field and queried on every call: it caches the implementation with the highest priority
+ * and is invalidated whenever an implementation of the service is registered or removed.
+ * </p>
+ *
+ * @param <T> service type
+ */
+public final class ServiceHandle<T> {
+    private final ServiceManager.ServiceEntry<T> entry; // Implementations of the service
+
+    /**
+     * Constructs a handle of a service.
+     *
+     * @param entry implementations of the service
+     */
+    ServiceHandle(ServiceManager.ServiceEntry<T> entry) {
+        this.entry = entry;
+    }
+
+    /**
+     * Returns the current implementation of the service.
+     *
+     * @return the implementation with the highest priority, or {@code null} if the service is not registered
+     */
+    public T get() {
+        return entry.getPrimary();
+    }
+
+    /**
+     * Checks whether an implementation of the service is registered.
+     *
+     * @return true if {@link #get()} returns an implementation
+     */
+    public boolean isAvailable() {
+        return entry.isAvailable();
+    }
+
+    /**
+     * Returns the interface of the service.
+     *
+     * @return service interface
+     */
+    public Class<T> getServiceInterface() {
+        return entry.getServiceInterface();
+    }
+}
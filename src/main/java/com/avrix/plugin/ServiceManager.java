@@ -1,37 +1,120 @@
 package com.avrix.plugin;
 
-import java.util.HashMap;
+import com.avrix.enums.Priority;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * The service manager allows you to register services by their interfaces and access them
+ * <p>
+ * Several implementations can be registered for one interface, {@link #getService(Class)} returns the one with the highest
+ * {@link Priority}. Implementations can be provided lazily through a {@link Supplier}, they are created on first use.
+ * Lookups do not take any lock, callers on hot paths can also keep a {@link ServiceHandle}, which always returns
+ * the current implementation.
+ * </p>
  */
 public class ServiceManager {
     /**
      * Stores registered services by associating interfaces with their implementations.
      */
-    private static final Map<Class<?>, Object> services = new HashMap<>();
+    private static final Map<Class<?>, ServiceEntry<?>> services = new ConcurrentHashMap<>();
 
     /**
-     * Registers a service by its interface.
+     * Registers a service by its interface with {@link Priority#NORMAL}.
      *
      * @param <T>                   service type
      * @param serviceInterface      service interface
      * @param serviceImplementation service implementation
      */
-    public static synchronized <T> void register(Class<T> serviceInterface, T serviceImplementation) {
-        services.put(serviceInterface, serviceImplementation);
+    public static <T> void register(Class<T> serviceInterface, T serviceImplementation) {
+        register(serviceInterface, serviceImplementation, Priority.NORMAL);
     }
 
     /**
-     * Removes a service from the list of registered ones
+     * Registers a service implementation by its interface. Among implementations of the same priority,
+     * the last registered one is returned by {@link #getService(Class)}. A previously registered implementation
+     * that is the same instance or of the same class is replaced, so registering again swaps the implementation.
+     *
+     * @param <T>                   service type
+     * @param serviceInterface      service interface
+     * @param serviceImplementation service implementation
+     * @param priority              {@link Priority} of the implementation
+     */
+    public static <T> void register(Class<T> serviceInterface, T serviceImplementation, Priority priority) {
+        Objects.requireNonNull(serviceImplementation, "serviceImplementation");
+        Class<?> implementationClass = serviceImplementation.getClass();
+        getEntry(serviceInterface).replace(new ServiceProvider<>(serviceImplementation, priority), provider -> {
+            Object instance = provider.instance;
+            return instance != null && (instance == serviceImplementation || instance.getClass() == implementationClass);
+        });
+    }
+
+    /**
+     * Registers a service implementation created on first use. The supplier is called at most once.
+     * Unlike {@link #register(Class, Object, Priority)}, no implementation is replaced, since the class of the future
+     * implementation is not known.
+     *
+     * @param <T>              service type
+     * @param serviceInterface service interface
+     * @param supplier         creates the service implementation, must not return {@code null}
+     * @param priority         {@link Priority} of the implementation
+     */
+    public static <T> void registerProvider(Class<T> serviceInterface, Supplier<? extends T> supplier, Priority priority) {
+        Objects.requireNonNull(supplier, "supplier");
+        getEntry(serviceInterface).add(new ServiceProvider<>(supplier, priority));
+    }
+
+    /**
+     * Removes a service from the list of registered ones, with all its implementations
      *
      * @param serviceInterface service interface
      * @param <T>              service type
      */
-    public static synchronized <T> void unregister(Class<T> serviceInterface) {
-        if (services.get(serviceInterface) == null) return;
-        services.remove(serviceInterface);
+    public static <T> void unregister(Class<T> serviceInterface) {
+        ServiceEntry<?> entry = services.get(serviceInterface);
+        if (entry == null) return;
+        entry.removeIf(provider -> true);
+    }
+
+    /**
+     * Removes one implementation of a service
+     *
+     * @param serviceInterface      service interface
+     * @param serviceImplementation service implementation to remove
+     * @param <T>                   service type
+     */
+    public static <T> void unregister(Class<T> serviceInterface, T serviceImplementation) {
+        ServiceEntry<?> entry = services.get(serviceInterface);
+        if (entry == null) return;
+        entry.removeIf(provider -> provider.instance == serviceImplementation);
+    }
+
+    /**
+     * Removes all services whose interface or implementation was loaded by the specified class loader, e.g. when a plugin is unloaded.
+     *
+     * @param classLoader {@link ClassLoader} of the plugin
+     * @return number of removed implementations
+     */
+    public static int unregisterAll(ClassLoader classLoader) {
+        int removed = 0;
+
+        for (ServiceEntry<?> entry : services.values()) {
+            if (entry.serviceInterface.getClassLoader() == classLoader) {
+                services.remove(entry.serviceInterface, entry);
+                removed += entry.removeIf(provider -> true);
+            } else {
+                removed += entry.removeIf(provider -> provider.isOwnedBy(classLoader));
+            }
+        }
+
+        return removed;
     }
 
     /**
@@ -39,9 +122,251 @@ public class ServiceManager {
      *
      * @param <T>              service type
      * @param serviceInterface service interface
-     * @return an instance of the service corresponding to the specified interface, or {@code null} if the service is not found
+     * @return the implementation with the highest priority, or {@code null} if the service is not found
+     */
+    public static <T> T getService(Class<T> serviceInterface) {
+        @SuppressWarnings("unchecked")
+        ServiceEntry<T> entry = (ServiceEntry<T>) services.get(serviceInterface);
+        return entry == null ? null : entry.getPrimary();
+    }
+
+    /**
+     * Returns all implementations of a service, creating the lazily provided ones.
+     *
+     * @param <T>              service type
+     * @param serviceInterface service interface
+     * @return implementations sorted by priority, empty if the service is not found
      */
-    public static synchronized <T> T getService(Class<T> serviceInterface) {
-        return serviceInterface.cast(services.get(serviceInterface));
+    public static <T> List<T> getServices(Class<T> serviceInterface) {
+        @SuppressWarnings("unchecked")
+        ServiceEntry<T> entry = (ServiceEntry<T>) services.get(serviceInterface);
+        if (entry == null) return Collections.emptyList();
+
+        List<T> implementations = new ArrayList<>();
+        for (ServiceProvider<? extends T> provider : entry.providers) {
+            implementations.add(provider.get());
+        }
+        return implementations;
+    }
+
+    /**
+     * Returns a handle of a service, which can be stored and queried on hot paths.
+     * The handle follows registrations made after its creation.
+     *
+     * @param <T>              service type
+     * @param serviceInterface service interface
+     * @return {@link ServiceHandle} of the service
+     */
+    public static <T> ServiceHandle<T> getHandle(Class<T> serviceInterface) {
+        return new ServiceHandle<>(getEntry(serviceInterface));
+    }
+
+    /**
+     * Returns the entry of a service interface, creating it if needed.
+     *
+     * @param <T>              service type
+     * @param serviceInterface service interface
+     * @return {@link ServiceEntry} of the interface
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> ServiceEntry<T> getEntry(Class<T> serviceInterface) {
+        Objects.requireNonNull(serviceInterface, "serviceInterface");
+        return (ServiceEntry<T>) services.computeIfAbsent(serviceInterface, ServiceEntry::new);
+    }
+
+    /**
+     * Implementations registered for a service interface
+     *
+     * @param <T> service type
+     */
+    static final class ServiceEntry<T> {
+        private final Class<T> serviceInterface; // Service interface
+        private volatile ServiceProvider<? extends T>[] providers = newArray(0); // Implementations sorted by priority, replaced on each change
+        private volatile T primary; // Implementation with the highest priority, or null until resolved
+
+        /**
+         * Constructs the entry of a service interface.
+         *
+         * @param serviceInterface service interface
+         */
+        private ServiceEntry(Class<T> serviceInterface) {
+            this.serviceInterface = serviceInterface;
+        }
+
+        /**
+         * Returns the interface of the service.
+         *
+         * @return service interface
+         */
+        Class<T> getServiceInterface() {
+            return serviceInterface;
+        }
+
+        /**
+         * Checks whether an implementation is registered.
+         *
+         * @return true if the service has at least one implementation
+         */
+        boolean isAvailable() {
+            return providers.length > 0;
+        }
+
+        /**
+         * Returns the implementation with the highest priority.
+         *
+         * @return implementation, or {@code null} if none is registered
+         */
+        T getPrimary() {
+            T instance = primary;
+            return instance != null ? instance : resolvePrimary();
+        }
+
+        /**
+         * Resolves the implementation with the highest priority and caches it, unless the providers changed meanwhile.
+         *
+         * @return implementation, or {@code null} if none is registered
+         */
+        private T resolvePrimary() {
+            ServiceProvider<? extends T>[] snapshot = providers;
+            if (snapshot.length == 0) return null;
+
+            T instance = snapshot[0].get();
+            synchronized (this) {
+                if (providers == snapshot) primary = instance;
+            }
+            return instance;
+        }
+
+        /**
+         * Adds an implementation before the implementations of the same or a lower priority.
+         *
+         * @param provider implementation to add
+         */
+        private synchronized void add(ServiceProvider<? extends T> provider) {
+            replace(provider, existing -> false);
+        }
+
+        /**
+         * Removes the implementations matching a condition and adds a new one in a single change.
+         *
+         * @param provider implementation to add
+         * @param replaced condition of the implementations to remove
+         */
+        private synchronized void replace(ServiceProvider<? extends T> provider, Predicate<ServiceProvider<?>> replaced) {
+            removeIf(replaced);
+
+            ServiceProvider<? extends T>[] current = providers;
+            int ordinal = provider.priority.ordinal();
+            int index = 0;
+            while (index < current.length && current[index].priority.ordinal() < ordinal) {
+                index++;
+            }
+
+            ServiceProvider<? extends T>[] result = newArray(current.length + 1);
+            System.arraycopy(current, 0, result, 0, index);
+            result[index] = provider;
+            System.arraycopy(current, index, result, index + 1, current.length - index);
+
+            providers = result;
+            primary = null;
+        }
+
+        /**
+         * Removes the implementations matching a condition.
+         *
+         * @param filter condition of the implementations to remove
+         * @return number of removed implementations
+         */
+        private synchronized int removeIf(Predicate<ServiceProvider<?>> filter) {
+            ServiceProvider<? extends T>[] current = providers;
+            List<ServiceProvider<? extends T>> kept = new ArrayList<>(current.length);
+            for (ServiceProvider<? extends T> provider : current) {
+                if (!filter.test(provider)) kept.add(provider);
+            }
+
+            int removed = current.length - kept.size();
+            if (removed > 0) {
+                providers = kept.toArray(newArray(0));
+                primary = null;
+            }
+            return removed;
+        }
+
+        /**
+         * Creates an array of providers.
+         *
+         * @param <T>    service type
+         * @param length array length
+         * @return new array
+         */
+        @SuppressWarnings("unchecked")
+        private static <T> ServiceProvider<? extends T>[] newArray(int length) {
+            return (ServiceProvider<? extends T>[]) new ServiceProvider<?>[length];
+        }
+    }
+
+    /**
+     * Implementation of a service, given directly or created on first use
+     *
+     * @param <T> implementation type
+     */
+    private static final class ServiceProvider<T> {
+        private final Priority priority; // Priority of the implementation
+        private final ClassLoader owner; // Class loader of the registered implementation or supplier
+        private Supplier<? extends T> supplier; // Creates the implementation, null once it is created
+        private volatile T instance; // Implementation, null until created
+
+        /**
+         * Constructs a provider of an existing implementation.
+         *
+         * @param instance implementation
+         * @param priority {@link Priority} of the implementation
+         */
+        private ServiceProvider(T instance, Priority priority) {
+            this.instance = instance;
+            this.priority = Objects.requireNonNull(priority, "priority");
+            this.owner = instance.getClass().getClassLoader();
+        }
+
+        /**
+         * Constructs a provider creating the implementation on first use.
+         *
+         * @param supplier creates the implementation
+         * @param priority {@link Priority} of the implementation
+         */
+        private ServiceProvider(Supplier<? extends T> supplier, Priority priority) {
+            this.supplier = supplier;
+            this.priority = Objects.requireNonNull(priority, "priority");
+            this.owner = supplier.getClass().getClassLoader();
+        }
+
+        /**
+         * Returns the implementation, creating it if needed.
+         *
+         * @return implementation
+         */
+        private T get() {
+            T result = instance;
+            if (result != null) return result;
+
+            synchronized (this) {
+                if (instance == null) {
+                    instance = Objects.requireNonNull(supplier.get(), "Service supplier returned null");
+                    supplier = null;
+                }
+                return instance;
+            }
+        }
+
+        /**
+         * Checks whether the implementation belongs to a class loader.
+         *
+         * @param classLoader {@link ClassLoader} of a plugin
+         * @return true if the implementation or its supplier was loaded by the class loader
+         */
+        private boolean isOwnedBy(ClassLoader classLoader) {
+            T result = instance;
+            return owner == classLoader || (result != null && result.getClass().getClassLoader() == classLoader);
+        }
     }
-}
\ No newline at end of file
+}
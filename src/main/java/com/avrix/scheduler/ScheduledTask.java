@@ -0,0 +1,147 @@
+package com.avrix.scheduler;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Handle of a task submitted to the {@link Scheduler}.
+ * Allows the task to be cancelled before it runs, or between the runs of a repeating task.
+ */
+public final class ScheduledTask implements Comparable<ScheduledTask> {
+    private final long id; // Sequence number, keeps tasks due on the same tick in submission order
+    private final String name; // Task name, used in logs
+    private final ClassLoader owner; // Class loader of the submitted task
+    private final BooleanSupplier step; // Work of the task, returns true when the task is complete
+    private final long period; // Number of ticks between two runs, 0 - not repeated
+    private final boolean incremental; // Whether the step is repeated until complete, as long as the tick budget allows
+    private long dueTick; // Tick on which the task should run next, only accessed from the game thread
+    private volatile boolean cancelled; // Whether the task was cancelled
+    private volatile boolean done; // Whether the task has completed
+
+    /**
+     * Constructs a new {@link ScheduledTask}.
+     *
+     * @param id          Sequence number of the task
+     * @param name        Task name, used in logs
+     * @param owner       Class loader of the submitted task
+     * @param step        Work of the task, returns true when the task is complete
+     * @param delay       Number of ticks before the first run
+     * @param period      Number of ticks between two runs, 0 if the task is not repeated
+     * @param incremental Whether the step is repeated until complete, as long as the tick budget allows
+     */
+    ScheduledTask(long id, String name, ClassLoader owner, BooleanSupplier step, long delay, long period, boolean incremental) {
+        this.id = id;
+        this.name = name;
+        this.owner = owner;
+        this.step = step;
+        this.dueTick = delay;
+        this.period = period;
+        this.incremental = incremental;
+    }
+
+    /**
+     * Cancels the task. A running task finishes its current step, but is not run again.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Checks whether the task was cancelled.
+     *
+     * @return true if the task was cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Checks whether the task has completed. Repeating tasks only complete when cancelled.
+     *
+     * @return true if the task has completed or was cancelled
+     */
+    public boolean isDone() {
+        return done || cancelled;
+    }
+
+    /**
+     * Returns the name of the task.
+     *
+     * @return class name of the submitted task
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of ticks between two runs of the task.
+     *
+     * @return period in ticks, 0 if the task is not repeated
+     */
+    public long getPeriod() {
+        return period;
+    }
+
+    /**
+     * Returns the class loader of the submitted task, used to cancel the tasks of an unloaded plugin.
+     *
+     * @return {@link ClassLoader} of the task class
+     */
+    ClassLoader getOwner() {
+        return owner;
+    }
+
+    /**
+     * Runs one step of the task.
+     *
+     * @return true if the task is complete and should not be run again during this cycle
+     */
+    boolean runStep() {
+        return step.getAsBoolean();
+    }
+
+    /**
+     * Checks whether the step of the task is repeated until complete.
+     *
+     * @return true for incremental tasks
+     */
+    boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     * Marks the task as completed.
+     */
+    void markDone() {
+        done = true;
+    }
+
+    /**
+     * Returns the tick on which the task should run next.
+     *
+     * @return tick number
+     */
+    long getDueTick() {
+        return dueTick;
+    }
+
+    /**
+     * Sets the tick on which the task should run next.
+     *
+     * @param dueTick tick number
+     */
+    void setDueTick(long dueTick) {
+        this.dueTick = dueTick;
+    }
+
+    /**
+     * Orders the tasks by due tick, then by submission order.
+     *
+     * @param other the task to be compared
+     * @return comparison result
+     */
+    @Override
+    public int compareTo(ScheduledTask other) {
+        int result = Long.compare(dueTick, other.dueTick);
+        return result != 0 ? result : Long.compare(id, other.id);
+    }
+}
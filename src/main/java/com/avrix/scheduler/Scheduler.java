@@ -0,0 +1,381 @@
+package com.avrix.scheduler;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Task scheduler driven by the game server tick.
+ * <p>
+ * Synchronous tasks ({@link #runSync}, {@link #runLater}, {@link #runTimer}, {@link #runIncremental}) are run on the game thread
+ * at the end of each server tick. The time spent on them per tick is limited by a budget ({@value #DEFAULT_TICK_BUDGET_MS} ms by default,
+ * configurable with the {@code -Davrix.scheduler.tickBudget=<ms>} system property or {@link #setTickBudget(long, TimeUnit)}):
+ * tasks that do not fit into the budget are left for the next tick, so large jobs are spread across ticks instead of causing a hitch.
+ * At least one task step is run on every tick, so the queue always makes progress.
+ * After each step of an unfinished incremental job, the job moves behind the other ready tasks,
+ * so a long job shares the budget with them instead of delaying them until it completes.
+ * </p>
+ * <p>
+ * Asynchronous tasks ({@link #runAsync}, {@link #supplyAsync}) are run on a shared pool of background threads,
+ * their results can be handed back to the game thread with {@link #getSyncExecutor()}.
+ * </p>
+ * <pre>{@code
+ * Scheduler.supplyAsync(() -> loadStatistics())
+ *         .thenAcceptAsync(stats -> ChatUtils.sendMessageToServerChat(stats.toString()), Scheduler.getSyncExecutor());
+ *
+ * Scheduler.runIncremental(safehouses.iterator(), safehouse -> audit(safehouse));
+ * }</pre>
+ */
+public class Scheduler {
+    /**
+     * Default time budget of synchronous tasks per tick, in milliseconds
+     */
+    public static final long DEFAULT_TICK_BUDGET_MS = 5;
+
+    /**
+     * Tasks submitted since the last tick, their due tick holds the delay relative to the tick on which they are accepted
+     */
+    private static final Queue<ScheduledTask> submittedTasks = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Tasks waiting for their due tick, only accessed from the game thread
+     */
+    private static final PriorityQueue<ScheduledTask> delayedTasks = new PriorityQueue<>();
+
+    /**
+     * Tasks due to run, in order, only accessed from the game thread
+     */
+    private static final Queue<ScheduledTask> readyTasks = new ArrayDeque<>();
+
+    /**
+     * Source of task sequence numbers
+     */
+    private static final AtomicLong taskSequence = new AtomicLong();
+
+    /**
+     * Class loaders whose tasks are cancelled, removed from the queues on the next tick
+     */
+    private static final Queue<ClassLoader> cancelledOwners = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Shared pool of daemon threads for asynchronous tasks
+     */
+    private static final ExecutorService asyncExecutor = createExecutor();
+
+    /**
+     * Executor running its tasks on the game thread on the next tick
+     */
+    private static final Executor syncExecutor = Scheduler::runSync;
+
+    /**
+     * Time budget of synchronous tasks per tick, in nanoseconds
+     */
+    private static volatile long tickBudgetNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("avrix.scheduler.tickBudget", DEFAULT_TICK_BUDGET_MS));
+
+    /**
+     * Number of the current tick
+     */
+    private static volatile long currentTick;
+
+    /**
+     * Thread on which the ticks are run
+     */
+    private static volatile Thread gameThread;
+
+    /**
+     * Runs the task on the game thread on the next tick.
+     *
+     * @param task the task to run
+     * @return {@link ScheduledTask} handle
+     */
+    public static ScheduledTask runSync(Runnable task) {
+        return runLater(task, 0);
+    }
+
+    /**
+     * Runs the task on the game thread after the specified number of ticks.
+     *
+     * @param task  the task to run
+     * @param ticks number of ticks to wait, 0 or 1 - the next tick
+     * @return {@link ScheduledTask} handle
+     */
+    public static ScheduledTask runLater(Runnable task, long ticks) {
+        return submit(task.getClass(), toStep(task), ticks, 0, false);
+    }
+
+    /**
+     * Runs the task on the game thread repeatedly until it is cancelled.
+     *
+     * @param task        the task to run
+     * @param delayTicks  number of ticks before the first run, 0 or 1 - the next tick
+     * @param periodTicks number of ticks between two runs, must be positive
+     * @return {@link ScheduledTask} handle, used to cancel the timer
+     */
+    public static ScheduledTask runTimer(Runnable task, long delayTicks, long periodTicks) {
+        if (periodTicks <= 0) throw new IllegalArgumentException("[!] Timer period must be positive, got: " + periodTicks);
+
+        return submit(task.getClass(), toStep(task), delayTicks, periodTicks, false);
+    }
+
+    /**
+     * Runs a large job on the game thread in small steps, starting on the next tick.
+     * The step is called repeatedly as long as the tick budget allows, and the job continues on the following ticks until the step reports completion.
+     *
+     * @param step one step of the job, returns true when the job is complete
+     * @return {@link ScheduledTask} handle
+     */
+    public static ScheduledTask runIncremental(BooleanSupplier step) {
+        return submit(step.getClass(), step, 0, 0, true);
+    }
+
+    /**
+     * Processes the elements on the game thread, as many per tick as the tick budget allows, starting on the next tick.
+     * The iterator must not be modified by other threads while the job is running.
+     *
+     * @param iterator  elements to process
+     * @param processor action performed for each element
+     * @param <T>       type of the elements
+     * @return {@link ScheduledTask} handle
+     */
+    public static <T> ScheduledTask runIncremental(Iterator<T> iterator, Consumer<? super T> processor) {
+        return submit(processor.getClass(), () -> {
+            if (iterator.hasNext()) {
+                processor.accept(iterator.next());
+            }
+            return !iterator.hasNext();
+        }, 0, 0, true);
+    }
+
+    /**
+     * Runs the task on a background thread.
+     *
+     * @param task the task to run
+     * @return {@link CompletableFuture} completed when the task finishes
+     */
+    public static CompletableFuture<Void> runAsync(Runnable task) {
+        return CompletableFuture.runAsync(task, asyncExecutor);
+    }
+
+    /**
+     * Computes a value on a background thread.
+     * Use {@link #getSyncExecutor()} with the {@code *Async} methods of the returned future to continue on the game thread.
+     *
+     * @param supplier computes the value
+     * @param <T>      type of the value
+     * @return {@link CompletableFuture} completed with the computed value
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, asyncExecutor);
+    }
+
+    /**
+     * Computes a value on a background thread and passes it to the callback on the game thread.
+     *
+     * @param supplier computes the value
+     * @param callback receives the value on the game thread
+     * @param <T>      type of the value
+     * @return {@link CompletableFuture} completed after the callback has run
+     */
+    public static <T> CompletableFuture<Void> supplyAsync(Supplier<T> supplier, Consumer<? super T> callback) {
+        return supplyAsync(supplier).thenAcceptAsync(callback, syncExecutor);
+    }
+
+    /**
+     * Returns the executor running its tasks on the game thread on the next tick.
+     *
+     * @return {@link Executor} of the game thread
+     */
+    public static Executor getSyncExecutor() {
+        return syncExecutor;
+    }
+
+    /**
+     * Sets the time budget of synchronous tasks per tick.
+     *
+     * @param budget time budget, must be positive
+     * @param unit   time unit of the budget
+     */
+    public static void setTickBudget(long budget, TimeUnit unit) {
+        if (budget <= 0) throw new IllegalArgumentException("[!] Tick budget must be positive, got: " + budget);
+
+        tickBudgetNanos = unit.toNanos(budget);
+    }
+
+    /**
+     * Returns the time budget of synchronous tasks per tick.
+     *
+     * @return time budget in nanoseconds
+     */
+    public static long getTickBudgetNanos() {
+        return tickBudgetNanos;
+    }
+
+    /**
+     * Returns the number of the current tick.
+     *
+     * @return number of ticks run since startup
+     */
+    public static long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Checks whether the calling thread is the game thread running the ticks.
+     *
+     * @return true if called from the game thread
+     */
+    public static boolean isGameThread() {
+        return Thread.currentThread() == gameThread;
+    }
+
+    /**
+     * Cancels all synchronous tasks submitted by classes of the specified class loader, e.g. when a plugin is unloaded.
+     * The tasks are removed from the scheduler on the next tick.
+     *
+     * @param classLoader {@link ClassLoader} of the plugin
+     */
+    public static void cancelTasks(ClassLoader classLoader) {
+        cancelledOwners.add(classLoader);
+    }
+
+    /**
+     * Runs the synchronous tasks due on this tick, within the tick budget.
+     * Called by the server tick patch at the end of each tick, must always be called from the same thread.
+     */
+    public static void tick() {
+        long startTime = System.nanoTime();
+        long tick = ++currentTick;
+        gameThread = Thread.currentThread();
+
+        ClassLoader owner;
+        while ((owner = cancelledOwners.poll()) != null) {
+            removeTasks(owner);
+        }
+
+        ScheduledTask task;
+        while ((task = submittedTasks.poll()) != null) {
+            if (task.isCancelled()) continue;
+
+            task.setDueTick(tick + task.getDueTick());
+            delayedTasks.add(task);
+        }
+
+        while (!delayedTasks.isEmpty() && delayedTasks.peek().getDueTick() <= tick) {
+            readyTasks.add(delayedTasks.poll());
+        }
+
+        long deadline = startTime + tickBudgetNanos;
+        while ((task = readyTasks.poll()) != null) {
+            if (task.isCancelled()) continue;
+
+            boolean complete = runStep(task);
+            if (complete || !task.isIncremental()) {
+                reschedule(task, tick);
+            } else {
+                readyTasks.add(task);
+            }
+
+            if (System.nanoTime() - deadline >= 0) break;
+        }
+    }
+
+    /**
+     * Cancels and removes the waiting tasks of a class loader. Only called from the game thread.
+     *
+     * @param classLoader {@link ClassLoader} of the cancelled tasks
+     */
+    private static void removeTasks(ClassLoader classLoader) {
+        for (Queue<ScheduledTask> queue : List.of(submittedTasks, delayedTasks, readyTasks)) {
+            for (ScheduledTask task : queue) {
+                if (task.getOwner() == classLoader) task.cancel();
+            }
+        }
+
+        delayedTasks.removeIf(ScheduledTask::isCancelled);
+        readyTasks.removeIf(ScheduledTask::isCancelled);
+    }
+
+    /**
+     * Adds a new task to the scheduler.
+     *
+     * @param taskClass   class of the submitted task, used in logs and to find the tasks of a plugin
+     * @param step        work of the task
+     * @param delay       number of ticks before the first run
+     * @param period      number of ticks between two runs, 0 if the task is not repeated
+     * @param incremental whether the step is repeated until complete
+     * @return {@link ScheduledTask} handle
+     */
+    private static ScheduledTask submit(Class<?> taskClass, BooleanSupplier step, long delay, long period, boolean incremental) {
+        ScheduledTask task = new ScheduledTask(taskSequence.getAndIncrement(), taskClass.getName(), taskClass.getClassLoader(),
+                step, Math.max(0, delay - 1), period, incremental);
+        submittedTasks.add(task);
+        return task;
+    }
+
+    /**
+     * Runs one step of the task. If an error occurs, it is logged and the step is considered complete.
+     *
+     * @param task the task to run
+     * @return true if the task is complete
+     */
+    private static boolean runStep(ScheduledTask task) {
+        try {
+            return task.runStep();
+        } catch (Exception e) {
+            System.out.printf("[!] An exception occurred in scheduled task '%s'! Reason: %s%n", task.getName(), e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * Schedules the next run of a repeating task, or marks the task as completed.
+     *
+     * @param task the task that has just run
+     * @param tick number of the current tick
+     */
+    private static void reschedule(ScheduledTask task, long tick) {
+        if (task.getPeriod() > 0 && !task.isCancelled()) {
+            task.setDueTick(tick + task.getPeriod());
+            delayedTasks.add(task);
+        } else {
+            task.markDone();
+        }
+    }
+
+    /**
+     * Adapts a {@link Runnable} to a task step that completes after one run.
+     *
+     * @param task the task to run
+     * @return task step
+     */
+    private static BooleanSupplier toStep(Runnable task) {
+        return () -> {
+            task.run();
+            return true;
+        };
+    }
+
+    /**
+     * Creates the shared pool of daemon threads for asynchronous tasks.
+     *
+     * @return {@link ExecutorService} for asynchronous tasks
+     */
+    private static ExecutorService createExecutor() {
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors() - 1);
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "Avrix-Scheduler-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -2,6 +2,7 @@ package com.avrix.ui;
 
 import com.avrix.api.client.WindowUtils;
 import com.avrix.events.EventManager;
+import com.avrix.events.EventRegistry;
 import com.avrix.ui.notify.Notify;
 import com.avrix.ui.widgets.Widget;
 import zombie.core.opengl.RenderThread;
@@ -15,6 +16,12 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * Manages a collection of {@link Widget} instances, handling rendering and updates.
  */
 public class WidgetManager {
+    /**
+     * Identifiers of the per-frame widget render events, used to skip raising them when nobody listens.
+     */
+    private static final int PRE_RENDER_EVENT_ID = EventRegistry.getId("onPreWidgetRender");
+    private static final int POST_RENDER_EVENT_ID = EventRegistry.getId("onPostWidgetRender");
+
     /**
      * A static link to a {@link NanoContext} instance that is used for the global application context.
      */
@@ -60,7 +67,9 @@ public class WidgetManager {
 
         NanoContext.beginFrame(WindowUtils.getWindowWidth(), WindowUtils.getWindowHeight(), 1);
 
-        EventManager.invokeEvent("onPreWidgetRender", NanoContext);
+        if (EventManager.hasListeners(PRE_RENDER_EVENT_ID)) {
+            EventManager.invokeEvent(PRE_RENDER_EVENT_ID, NanoContext);
+        }
 
         for (Widget widget : widgetList) {
             if (!widget.isVisible()) continue;
@@ -81,7 +90,9 @@ public class WidgetManager {
             NanoDrawer.restoreRenderState();
         }
 
-        EventManager.invokeEvent("onPostWidgetRender", NanoContext);
+        if (EventManager.hasListeners(POST_RENDER_EVENT_ID)) {
+            EventManager.invokeEvent(POST_RENDER_EVENT_ID, NanoContext);
+        }
 
         Notify.render();
 
@@ -172,4 +183,43 @@ public class WidgetManager {
     public static void removeWidget(Widget widget) {
         widgetList.remove(widget);
     }
-}
\ No newline at end of file
+
+    /**
+     * Removes the {@link Widget}s whose class was loaded by the specified class loader, e.g. when a plugin is unloaded.
+     * Such widgets are also removed from the children of the remaining widgets.
+     *
+     * @param classLoader the {@link ClassLoader} of the plugin
+     * @return number of removed {@link Widget}s, children included
+     */
+    public static int removeWidgets(ClassLoader classLoader) {
+        int removed = 0;
+        for (Widget widget : widgetList) {
+            if (widget.getClass().getClassLoader() == classLoader) {
+                if (widgetList.remove(widget)) removed++;
+            } else {
+                removed += removeChildren(widget, classLoader);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Removes the children of a {@link Widget} whose class was loaded by the specified class loader, at any depth.
+     *
+     * @param widget      the parent {@link Widget}
+     * @param classLoader the {@link ClassLoader} of the plugin
+     * @return number of removed {@link Widget}s
+     */
+    private static int removeChildren(Widget widget, ClassLoader classLoader) {
+        int removed = 0;
+        for (Widget child : widget.getChildren()) {
+            if (child.getClass().getClassLoader() == classLoader) {
+                widget.removeChild(child);
+                removed++;
+            } else {
+                removed += removeChildren(child, classLoader);
+            }
+        }
+        return removed;
+    }
+}
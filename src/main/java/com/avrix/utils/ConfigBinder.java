@@ -0,0 +1,302 @@
+package com.avrix.utils;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maps the content of a {@link YamlFile} onto records and plain objects.
+ * <p>
+ * Record components and non-static, non-transient fields are read from the key of the same name.
+ * Nested records and objects are read from nested sections, lists and maps are copied into unmodifiable collections.
+ * Keys missing from the file leave object fields at their initial value, and record components at zero, false or {@code null}.
+ * </p>
+ */
+final class ConfigBinder {
+    /**
+     * Private constructor, static methods only
+     */
+    private ConfigBinder() {
+    }
+
+    /**
+     * Creates an instance of a type from a YAML section.
+     *
+     * @param <T>  type of the created object
+     * @param data YAML section
+     * @param type record or class with a no-argument constructor
+     * @return created object
+     * @throws IllegalArgumentException if the type cannot be created or a value cannot be converted
+     */
+    static <T> T bind(Map<?, ?> data, Class<T> type) {
+        try {
+            return type.isRecord() ? bindRecord(data, type) : bindObject(data, type);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot create " + type.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Creates a record from a YAML section through its canonical constructor.
+     *
+     * @param <T>  record type
+     * @param data YAML section
+     * @param type record class
+     * @return created record
+     * @throws ReflectiveOperationException if the constructor cannot be called
+     */
+    private static <T> T bindRecord(Map<?, ?> data, Class<T> type) throws ReflectiveOperationException {
+        RecordComponent[] components = type.getRecordComponents();
+        Class<?>[] parameterTypes = new Class<?>[components.length];
+        Object[] arguments = new Object[components.length];
+
+        for (int i = 0; i < components.length; i++) {
+            RecordComponent component = components[i];
+            parameterTypes[i] = component.getType();
+
+            Object value = data.get(component.getName());
+            arguments[i] = value != null
+                    ? convert(value, component.getGenericType(), component.getName())
+                    : defaultValue(component.getType());
+        }
+
+        Constructor<T> constructor = type.getDeclaredConstructor(parameterTypes);
+        constructor.setAccessible(true);
+        return constructor.newInstance(arguments);
+    }
+
+    /**
+     * Creates an object through its no-argument constructor and sets the fields present in a YAML section.
+     *
+     * @param <T>  object type
+     * @param data YAML section
+     * @param type object class
+     * @return created object
+     * @throws ReflectiveOperationException if the object cannot be created or a field cannot be set
+     */
+    private static <T> T bindObject(Map<?, ?> data, Class<T> type) throws ReflectiveOperationException {
+        Constructor<T> constructor = type.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        T instance = constructor.newInstance();
+
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) continue;
+
+                Object value = data.get(field.getName());
+                if (value == null) continue;
+
+                field.setAccessible(true);
+                field.set(instance, convert(value, field.getGenericType(), field.getName()));
+            }
+        }
+
+        return instance;
+    }
+
+    /**
+     * Converts a YAML value to the type of a record component or field.
+     *
+     * @param value YAML value, not {@code null}
+     * @param type  target type
+     * @param key   name of the value, used in error messages
+     * @return converted value
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object convert(Object value, Type type, String key) {
+        Class<?> rawType = getRawType(type);
+
+        if (rawType == Object.class) return value;
+        if (rawType == String.class) return String.valueOf(value);
+
+        if (rawType.isPrimitive() || Number.class.isAssignableFrom(rawType) || rawType == Boolean.class || rawType == Character.class) {
+            return convertScalar(value, rawType, key);
+        }
+
+        if (rawType.isEnum()) {
+            String name = String.valueOf(value);
+            for (Object constant : rawType.getEnumConstants()) {
+                if (((Enum<?>) constant).name().equalsIgnoreCase(name)) return constant;
+            }
+            throw new IllegalArgumentException("Invalid value '" + name + "' for '" + key + "', expected one of " + List.of(rawType.getEnumConstants()));
+        }
+
+        if (List.class.isAssignableFrom(rawType) || Set.class.isAssignableFrom(rawType) || rawType == Collection.class) {
+            if (!(value instanceof Collection<?> collection)) throw mismatch(value, rawType, key);
+
+            Type elementType = getTypeArgument(type, 0);
+            List<Object> elements = new ArrayList<>(collection.size());
+            for (Object element : collection) {
+                elements.add(element == null ? null : convert(element, elementType, key));
+            }
+            return Set.class.isAssignableFrom(rawType)
+                    ? Collections.unmodifiableSet(new LinkedHashSet<>(elements))
+                    : Collections.unmodifiableList(elements);
+        }
+
+        if (rawType.isArray()) {
+            if (!(value instanceof Collection<?> collection)) throw mismatch(value, rawType, key);
+
+            Object array = Array.newInstance(rawType.getComponentType(), collection.size());
+            int index = 0;
+            for (Object element : collection) {
+                Array.set(array, index++, element == null ? null : convert(element, rawType.getComponentType(), key));
+            }
+            return array;
+        }
+
+        if (Map.class.isAssignableFrom(rawType)) {
+            if (!(value instanceof Map<?, ?> map)) throw mismatch(value, rawType, key);
+
+            Type valueType = getTypeArgument(type, 1);
+            Map<String, Object> entries = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                Object entryValue = entry.getValue();
+                entries.put(String.valueOf(entry.getKey()), entryValue == null ? null : convert(entryValue, valueType, key + "." + entry.getKey()));
+            }
+            return Collections.unmodifiableMap(entries);
+        }
+
+        if (rawType.isInstance(value)) return value;
+
+        if (value instanceof Map<?, ?> section) return bind(section, (Class) rawType);
+
+        throw mismatch(value, rawType, key);
+    }
+
+    /**
+     * Converts a YAML scalar to a primitive or boxed type.
+     *
+     * @param value   YAML value
+     * @param rawType target type
+     * @param key     name of the value, used in error messages
+     * @return converted value
+     */
+    private static Object convertScalar(Object value, Class<?> rawType, String key) {
+        if (rawType == boolean.class || rawType == Boolean.class) {
+            if (value instanceof Boolean) return value;
+            return Boolean.parseBoolean(String.valueOf(value));
+        }
+
+        if (rawType == char.class || rawType == Character.class) {
+            String text = String.valueOf(value);
+            if (text.length() != 1) throw mismatch(value, rawType, key);
+            return text.charAt(0);
+        }
+
+        if (rawType == int.class || rawType == Integer.class
+                || rawType == long.class || rawType == Long.class
+                || rawType == short.class || rawType == Short.class
+                || rawType == byte.class || rawType == Byte.class) {
+            try {
+                long longValue = toLongExact(value);
+                if (rawType == long.class || rawType == Long.class) return longValue;
+                if (rawType == int.class || rawType == Integer.class) return Math.toIntExact(longValue);
+                if (rawType == short.class || rawType == Short.class) {
+                    if (longValue != (short) longValue) throw mismatch(value, rawType, key);
+                    return (short) longValue;
+                }
+                if (longValue != (byte) longValue) throw mismatch(value, rawType, key);
+                return (byte) longValue;
+            } catch (NumberFormatException | ArithmeticException e) {
+                throw mismatch(value, rawType, key);
+            }
+        }
+
+        Number number;
+        if (value instanceof Number numberValue) {
+            number = numberValue;
+        } else {
+            try {
+                number = Double.parseDouble(String.valueOf(value).trim());
+            } catch (NumberFormatException e) {
+                throw mismatch(value, rawType, key);
+            }
+        }
+
+        if (rawType == double.class || rawType == Double.class) return number.doubleValue();
+        if (rawType == float.class || rawType == Float.class) return number.floatValue();
+        if (rawType.isInstance(number)) return number;
+        throw mismatch(value, rawType, key);
+    }
+
+    /**
+     * Converts a YAML scalar to a long without losing its value.
+     *
+     * @param value YAML value
+     * @return value as a long
+     * @throws NumberFormatException if the value is not a number
+     * @throws ArithmeticException   if the value has a fractional part or does not fit in a long
+     */
+    private static long toLongExact(Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        return new BigDecimal(String.valueOf(value).trim()).longValueExact();
+    }
+
+    /**
+     * Returns the value of a record component missing from the file.
+     *
+     * @param type type of the component
+     * @return zero or false for primitives, {@code null} otherwise
+     */
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive()) return null;
+        if (type == boolean.class) return false;
+        if (type == char.class) return '\0';
+        return convertScalar(0, type, "");
+    }
+
+    /**
+     * Returns the class of a type.
+     *
+     * @param type class or parameterized type
+     * @return raw class, {@link Object} for type variables and wildcards
+     */
+    private static Class<?> getRawType(Type type) {
+        if (type instanceof Class<?> clazz) return clazz;
+        if (type instanceof ParameterizedType parameterizedType) return (Class<?>) parameterizedType.getRawType();
+        return Object.class;
+    }
+
+    /**
+     * Returns a type argument of a parameterized type.
+     *
+     * @param type  parameterized type
+     * @param index index of the argument
+     * @return type argument, {@link Object} if the type is not parameterized
+     */
+    private static Type getTypeArgument(Type type, int index) {
+        if (type instanceof ParameterizedType parameterizedType && parameterizedType.getActualTypeArguments().length > index) {
+            return parameterizedType.getActualTypeArguments()[index];
+        }
+        return Object.class;
+    }
+
+    /**
+     * Creates the exception thrown when a value does not match its target type.
+     *
+     * @param value   YAML value
+     * @param rawType target type
+     * @param key     name of the value
+     * @return exception to throw
+     */
+    private static IllegalArgumentException mismatch(Object value, Class<?> rawType, String key) {
+        return new IllegalArgumentException("Cannot convert '" + value + "' of '" + key + "' to " + rawType.getSimpleName());
+    }
+}
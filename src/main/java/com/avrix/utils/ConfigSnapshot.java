@@ -0,0 +1,126 @@
+package com.avrix.utils;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable view of a {@link YamlFile}, bound to a record or plain object.
+ * <p>
+ * The bound object is built once and published through a volatile field, so {@link #get()} costs a field read and takes
+ * no lock. When the file changes, {@link #reload()} builds a new object and swaps it atomically: readers see either the old
+ * or the new configuration, never a mix of both. A watched snapshot is reloaded automatically by the {@link ConfigWatcher}.
+ * The bound object should be treated as read-only, lists and maps it contains are unmodifiable.
+ * </p>
+ *
+ * @param <T> type of the bound configuration
+ */
+public final class ConfigSnapshot<T> {
+    private final YamlFile yamlFile; // Source configuration file
+    private final Class<T> type; // Record or class the file is bound to
+    private final List<BiConsumer<? super T, ? super T>> changeListeners = new CopyOnWriteArrayList<>(); // Called after each reload
+    private volatile T value; // Current bound configuration
+
+    /**
+     * Binds a configuration file to a type.
+     *
+     * @param yamlFile source {@link YamlFile}
+     * @param type     record or class with a no-argument constructor
+     * @throws IllegalArgumentException if the file cannot be bound to the type
+     */
+    public ConfigSnapshot(YamlFile yamlFile, Class<T> type) {
+        this.yamlFile = yamlFile;
+        this.type = type;
+        this.value = yamlFile.bind(type);
+    }
+
+    /**
+     * Returns the current configuration.
+     *
+     * @return bound configuration
+     */
+    public T get() {
+        return value;
+    }
+
+    /**
+     * Returns the type the configuration is bound to.
+     *
+     * @return record or class of the configuration
+     */
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * Returns the source configuration file.
+     *
+     * @return {@link YamlFile} of the snapshot
+     */
+    public YamlFile getYamlFile() {
+        return yamlFile;
+    }
+
+    /**
+     * Adds a callback called after each reload, with the previous and the new configuration.
+     * Called on the thread performing the reload, the watcher thread for watched snapshots.
+     *
+     * @param listener change callback
+     * @return this snapshot
+     */
+    public ConfigSnapshot<T> onChange(BiConsumer<? super T, ? super T> listener) {
+        changeListeners.add(listener);
+        return this;
+    }
+
+    /**
+     * Watches the configuration file and reloads the snapshot when it is modified.
+     *
+     * @return this snapshot
+     */
+    public ConfigSnapshot<T> watch() {
+        ConfigWatcher.watch(this);
+        return this;
+    }
+
+    /**
+     * Stops watching the configuration file.
+     */
+    public void unwatch() {
+        ConfigWatcher.unwatch(this);
+    }
+
+    /**
+     * Reads the file again, binds it and publishes the new configuration. If the file cannot be read or bound,
+     * or still contains what was last saved from the {@link YamlFile}, the current configuration is kept.
+     *
+     * @return true if a new configuration was published
+     */
+    public boolean reload() {
+        T previous;
+        T current;
+        synchronized (this) {
+            Path filePath = yamlFile.getFilePath();
+            try {
+                if (!yamlFile.reload()) return false;
+                current = yamlFile.bind(type);
+            } catch (Exception e) {
+                System.out.printf("[!] Failed to reload config '%s', keeping the previous values: %s%n", filePath, e.getMessage());
+                return false;
+            }
+
+            previous = value;
+            value = current;
+        }
+
+        for (BiConsumer<? super T, ? super T> listener : changeListeners) {
+            try {
+                listener.accept(previous, current);
+            } catch (Exception e) {
+                System.out.printf("[!] An exception occurred in the change callback of config '%s': %s%n", yamlFile.getFileName(), e.getMessage());
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,213 @@
+package com.avrix.utils;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Watches configuration files and reloads their {@link ConfigSnapshot} when they are modified.
+ * <p>
+ * A single daemon thread waits for changes in the folders of the watched files. Editors often write a file in several
+ * steps, so changes are collected for {@link #RELOAD_DELAY_MS} milliseconds before the snapshots are reloaded, once per file.
+ * </p>
+ */
+public class ConfigWatcher {
+    /**
+     * Time in milliseconds during which changes are collected before reloading, {@code -Davrix.config.reloadDelay}
+     */
+    public static final long RELOAD_DELAY_MS = Long.getLong("avrix.config.reloadDelay", 200);
+
+    private static final Map<Path, List<ConfigSnapshot<?>>> snapshots = new HashMap<>(); // Watched snapshots by file
+    private static final Map<Path, WatchKey> watchKeys = new HashMap<>(); // Watch keys by folder
+    private static WatchService watchService; // Watch service, created with the first watched file
+
+    /**
+     * Starts watching the file of a snapshot.
+     *
+     * @param snapshot {@link ConfigSnapshot} to reload when its file is modified
+     */
+    public static synchronized void watch(ConfigSnapshot<?> snapshot) {
+        Path filePath = getWatchedPath(snapshot);
+        Path folder = filePath == null ? null : filePath.getParent();
+        if (folder == null || !Files.isDirectory(folder)) {
+            System.out.printf("[!] Cannot watch config '%s', it is not a file on disk.%n", snapshot.getYamlFile().getFileName());
+            return;
+        }
+
+        try {
+            if (!watchKeys.containsKey(folder)) {
+                watchKeys.put(folder, folder.register(getWatchService(),
+                        StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY));
+            }
+        } catch (IOException e) {
+            System.out.printf("[!] Cannot watch config '%s': %s%n", filePath, e.getMessage());
+            return;
+        }
+
+        List<ConfigSnapshot<?>> fileSnapshots = snapshots.computeIfAbsent(filePath, path -> new ArrayList<>());
+        if (!fileSnapshots.contains(snapshot)) fileSnapshots.add(snapshot);
+    }
+
+    /**
+     * Stops watching the file of a snapshot.
+     *
+     * @param snapshot watched {@link ConfigSnapshot}
+     */
+    public static synchronized void unwatch(ConfigSnapshot<?> snapshot) {
+        Path filePath = getWatchedPath(snapshot);
+        List<ConfigSnapshot<?>> fileSnapshots = filePath == null ? null : snapshots.get(filePath);
+        if (fileSnapshots == null) return;
+
+        fileSnapshots.remove(snapshot);
+        if (fileSnapshots.isEmpty()) {
+            snapshots.remove(filePath);
+            cancelUnusedKey(filePath.getParent());
+        }
+    }
+
+    /**
+     * Stops watching the snapshots bound to types of a class loader, e.g. when a plugin is unloaded.
+     *
+     * @param classLoader {@link ClassLoader} of the plugin
+     * @return number of snapshots no longer watched
+     */
+    public static synchronized int unwatchAll(ClassLoader classLoader) {
+        int removed = 0;
+        for (ConfigSnapshot<?> snapshot : getWatchedSnapshots()) {
+            if (snapshot.getType().getClassLoader() == classLoader) {
+                unwatch(snapshot);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Returns all watched snapshots.
+     *
+     * @return copy of the watched snapshots
+     */
+    private static synchronized List<ConfigSnapshot<?>> getWatchedSnapshots() {
+        List<ConfigSnapshot<?>> result = new ArrayList<>();
+        snapshots.values().forEach(result::addAll);
+        return result;
+    }
+
+    /**
+     * Returns the watch service, starting the watcher thread on first use.
+     *
+     * @return {@link WatchService} of the default file system
+     * @throws IOException if the watch service cannot be created
+     */
+    private static WatchService getWatchService() throws IOException {
+        if (watchService == null) {
+            watchService = FileSystems.getDefault().newWatchService();
+
+            Thread thread = new Thread(() -> watchLoop(watchService), "Avrix-ConfigWatcher");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return watchService;
+    }
+
+    /**
+     * Waits for changes of the watched folders and reloads the snapshots of the modified files.
+     *
+     * @param service {@link WatchService} to listen to
+     */
+    private static void watchLoop(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                Thread.sleep(RELOAD_DELAY_MS);
+
+                Set<Path> changedFiles = new LinkedHashSet<>();
+                while (key != null) {
+                    collectChanges(key, changedFiles);
+                    key = service.poll();
+                }
+
+                for (Path changedFile : changedFiles) {
+                    for (ConfigSnapshot<?> snapshot : getSnapshots(changedFile)) {
+                        if (snapshot.reload()) {
+                            System.out.printf("[#] Config '%s' reloaded.%n", changedFile.getFileName());
+                        }
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {
+        }
+    }
+
+    /**
+     * Collects the files changed in a watched folder and resets its key.
+     *
+     * @param key          signalled {@link WatchKey}
+     * @param changedFiles set receiving the changed files
+     */
+    private static void collectChanges(WatchKey key, Set<Path> changedFiles) {
+        Path folder = (Path) key.watchable();
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Events were lost, every watched file of the folder may have changed
+                synchronized (ConfigWatcher.class) {
+                    for (Path filePath : snapshots.keySet()) {
+                        if (folder.equals(filePath.getParent())) changedFiles.add(filePath);
+                    }
+                }
+            } else if (event.context() instanceof Path fileName) {
+                changedFiles.add(folder.resolve(fileName));
+            }
+        }
+        key.reset();
+    }
+
+    /**
+     * Returns the snapshots of a file.
+     *
+     * @param filePath absolute path of the file
+     * @return copy of the snapshots watching the file
+     */
+    private static synchronized List<ConfigSnapshot<?>> getSnapshots(Path filePath) {
+        List<ConfigSnapshot<?>> fileSnapshots = snapshots.get(filePath);
+        return fileSnapshots == null ? List.of() : List.copyOf(fileSnapshots);
+    }
+
+    /**
+     * Cancels the watch key of a folder if none of its files is watched anymore.
+     *
+     * @param folder watched folder
+     */
+    private static void cancelUnusedKey(Path folder) {
+        for (Path filePath : snapshots.keySet()) {
+            if (folder.equals(filePath.getParent())) return;
+        }
+
+        WatchKey key = watchKeys.remove(folder);
+        if (key != null) key.cancel();
+    }
+
+    /**
+     * Returns the normalized path of the file of a snapshot.
+     *
+     * @param snapshot {@link ConfigSnapshot}
+     * @return absolute path of the file, or {@code null} if the file has no path
+     */
+    private static Path getWatchedPath(ConfigSnapshot<?> snapshot) {
+        Path filePath = snapshot.getYamlFile().getFilePath();
+        return filePath == null ? null : filePath.toAbsolutePath().normalize();
+    }
+}
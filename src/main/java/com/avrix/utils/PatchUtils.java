@@ -12,7 +12,12 @@ import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
 import com.avrix.Launcher;
+import com.avrix.agent.AgentManager;
 import com.avrix.agent.ClassTransformer;
+import com.avrix.agent.DeferredPatchManager;
+import com.avrix.agent.PatchCache;
+import com.avrix.agent.PatchCondition;
+import com.avrix.enums.Environment;
 import com.avrix.plugin.Metadata;
 
 /**
@@ -21,6 +26,8 @@ import com.avrix.plugin.Metadata;
 public class PatchUtils {
     /**
      * Applies a list of patches to classes specified by their fully qualified names.
+     * Patches compiled on a previous launch are applied from the {@link PatchCache}, patches marked with
+     * {@link PatchCondition} are applied according to their condition.
      *
      * @param metadata    Plugin {@link Metadata}
      * @param classLoader The {@link ClassLoader} to use for loading the patch classes.
@@ -35,19 +42,26 @@ public class PatchUtils {
 
         System.out.printf("[#] Applying patches from the '%s' (ID: %s, Version: %s)...%n", metadata.getName(), metadata.getId(), metadata.getVersion());
 
-        for (String classPath : metadata.getPatchList()) {
-            Class<?> patchClass = Class.forName(classPath, true, classLoader);
-            ClassTransformer patchInstance = (ClassTransformer) patchClass.getDeclaredConstructor().newInstance();
+        // Classes already loaded by the game are retransformed together once all patches of the plugin are compiled
+        AgentManager.beginBatch();
+        try {
+            for (String classPath : metadata.getPatchList()) {
+                Class<?> patchClass = Class.forName(classPath, true, classLoader);
+                ClassTransformer patchInstance = (ClassTransformer) patchClass.getDeclaredConstructor().newInstance();
 
-            patchInstance.modifyClass();
-            patchInstance.applyModifications();
+                applyPatch(patchInstance);
+            }
+        } finally {
+            AgentManager.endBatch();
         }
     }
 
     /**
      * Applying default patches to game files.
      * Searches for patches in the {@link com.avrix.patches} package as descendants of {@link ClassTransformer},
-     * calls class modification methods and applies them at runtime.
+     * calls class modification methods and applies them at runtime. Patches compiled on a previous launch are applied from the {@link PatchCache}.
+     * Patched classes are transformed when the game first loads them, classes that are already loaded are retransformed in a single batch.
+     * Patches marked with {@link PatchCondition} that only raise events are deferred until their events have listeners.
      *
      * @throws IOException        if an I/O error occurs when reading the JAR file.
      * @throws URISyntaxException if a string could not be parsed as a URI reference.
@@ -58,6 +72,7 @@ public class PatchUtils {
         File jarFile = new File(Launcher.class.getProtectionDomain().getCodeSource().getLocation().toURI());
         URL jarUrl = jarFile.toURI().toURL();
 
+        AgentManager.beginBatch();
         try (URLClassLoader classLoader = new URLClassLoader(new URL[]{jarUrl}, Launcher.class.getClassLoader())) {
             JarURLConnection jarConnection = (JarURLConnection) new URL("jar:file:" + jarFile + "!/").openConnection();
             JarFile jar = jarConnection.getJarFile();
@@ -73,12 +88,11 @@ public class PatchUtils {
                         if (ClassTransformer.class.isAssignableFrom(clazz)) {
                             ClassTransformer patchInstance = (ClassTransformer) clazz.getDeclaredConstructor().newInstance();
                             try {
-                                patchInstance.modifyClass();
-                                patchInstance.applyModifications();
+                                applyPatch(patchInstance);
                             } catch (RuntimeException re) {
                                 Throwable cause = re.getCause();
                                 // Skip patch if target game class is missing (common when client launching server-only patches)
-                                if (cause != null && cause.getClass().getName().contains("javassist.NotFoundException")) {
+                                if (cause != null && (cause instanceof ClassNotFoundException || cause.getClass().getName().contains("javassist.NotFoundException"))) {
                                     System.out.printf("[!] Skipping patch '%s' because target class '%s' not found.%n", clazz.getSimpleName(), patchInstance.getClassName());
                                 } else {
                                     throw re;
@@ -103,12 +117,41 @@ public class PatchUtils {
                     }
                 }
             }
+            System.out.printf("[#] Default patches applied (cached: %d, compiled: %d, on demand: %d).%n",
+                    PatchCache.getHits(), PatchCache.getMisses(), DeferredPatchManager.getPendingCount());
         } catch (IOException e) {
             System.err.println("[!] IO exception occurred while accessing the JAR file: " + e.getMessage());
             throw e;
         } catch (Exception e) {
             System.err.println("[!] Critical error when trying to apply patches to the game! Reason: " + e.getMessage());
             throw new RuntimeException(e);
+        } finally {
+            AgentManager.endBatch();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Applies a patch according to its {@link PatchCondition}: patches of another environment are skipped,
+     * patches applied on demand are passed to the {@link DeferredPatchManager}, the others are applied immediately.
+     *
+     * @param patch patch to apply
+     */
+    private static void applyPatch(ClassTransformer patch) {
+        PatchCondition condition = patch.getClass().getAnnotation(PatchCondition.class);
+        if (condition == null) {
+            PatchCache.apply(patch);
+            return;
+        }
+
+        Environment environment = Environment.fromString(System.getProperty("avrix.mode"));
+        if (condition.environment() != Environment.BOTH && condition.environment() != environment) return;
+
+        if (condition.onDemand() && (condition.events().length > 0 || condition.otherEvents())) {
+            DeferredPatchManager.defer(patch, condition);
+            return;
+        }
+
+        DeferredPatchManager.declareEvents(condition);
+        PatchCache.apply(patch);
+    }
+}
@@ -1,22 +1,32 @@
 package com.avrix.utils;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.yaml.snakeyaml.DumperOptions;
@@ -26,9 +36,35 @@ import org.yaml.snakeyaml.Yaml;
  * This class represents a YAML file and provides methods to read, write, and manipulate its contents.
  */
 public class YamlFile {
+    /**
+     * YAML loader of the current thread. {@link Yaml} instances are not thread-safe and costly to create,
+     * so each thread reuses its own when files are loaded in parallel (e.g. plugin metadata).
+     */
+    private static final ThreadLocal<Yaml> yamlLoader = ThreadLocal.withInitial(Yaml::new);
+
+    /**
+     * YAML writer of the current thread, configured for block style output.
+     */
+    private static final ThreadLocal<Yaml> yamlDumper = ThreadLocal.withInitial(() -> {
+        DumperOptions options = new DumperOptions();
+        options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+        options.setDefaultScalarStyle(DumperOptions.ScalarStyle.PLAIN);
+        options.setProcessComments(true);
+        return new Yaml(options);
+    });
+
+    /**
+     * Maximum number of split keys kept by {@link #splitKey(String)}
+     */
+    private static final int MAX_CACHED_KEYS = 4096;
+
+    private static final Map<String, String[]> keyPaths = new ConcurrentHashMap<>(); // Keys split on dots, keys are mostly constants
+
     private Map<String, Object> yamlData = new LinkedHashMap<>(); // Deserialized YAML file content as a dictionary
     private Path filePath; // Path to the YAML file
     private String fileName; // YAML file name
+    private final Object saveLock = new Object(); // Orders the writes of this file, held while writing to disk
+    private volatile int savedContentHash; // Hash of the content last written to the file path, 0 if none
 
     /**
      * Constructor to load a YAML file from a JAR file.
@@ -46,8 +82,7 @@ public class YamlFile {
         }
 
         try (InputStream inputStream = jarUrl.openStream()) {
-            Yaml yaml = new Yaml();
-            Map<String, Object> loadData = yaml.load(inputStream);
+            Map<String, Object> loadData = yamlLoader.get().load(inputStream);
             if (loadData != null) {
                 this.yamlData = loadData;
             }
@@ -67,8 +102,7 @@ public class YamlFile {
      */
     public YamlFile(InputStream inputStream, Path filePath, String fileName) {
         try (inputStream) {
-            Yaml yaml = new Yaml();
-            Map<String, Object> loadData = yaml.load(inputStream);
+            Map<String, Object> loadData = yamlLoader.get().load(inputStream);
             if (loadData != null) {
                 this.yamlData = loadData;
             }
@@ -150,10 +184,15 @@ public class YamlFile {
 
     /**
      * Saves the YAML file to a specified file path.
+     * <p>
+     * The content is written to a temporary file in the same folder, flushed to disk and renamed over the target,
+     * so a crash during the save never leaves a truncated file. Reading and modifying the file from other threads is
+     * only blocked while the content is serialized, not during the write.
+     * </p>
      *
      * @param path the path to save the YAML file to
      */
-    public synchronized void save(String path) {
+    public void save(String path) {
         File filePath = new File(path);
 
         if (filePath.getParentFile() != null && !filePath.getParentFile().exists()) {
@@ -163,26 +202,176 @@ public class YamlFile {
             }
         }
 
-        DumperOptions options = new DumperOptions();
-        options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
-        options.setDefaultScalarStyle(DumperOptions.ScalarStyle.PLAIN);
-        options.setProcessComments(true);
+        synchronized (saveLock) {
+            String content;
+            synchronized (this) {
+                content = yamlDumper.get().dump(yamlData);
+            }
 
-        Yaml yaml = new Yaml(options);
-        try (FileWriter writer = new FileWriter(filePath)) {
-            yaml.dump(yamlData, writer);
-        } catch (IOException e) {
-            System.err.println("[!] Error occurred while saving YAML file: " + e.getMessage());
+            try {
+                writeAtomically(filePath.toPath(), content);
+                if (this.filePath != null && isSamePath(filePath.toPath(), this.filePath)) {
+                    savedContentHash = content.hashCode();
+                }
+            } catch (IOException e) {
+                System.err.println("[!] Error occurred while saving YAML file: " + e.getMessage());
+            }
         }
     }
 
     /**
      * Saves the YAML file to its original file path.
      */
-    public synchronized void save() {
+    public void save() {
         this.save(this.filePath.toString());
     }
 
+    /**
+     * Saves the YAML file to its original file path on a background thread, after {@link YamlSaver#SAVE_DELAY_MS} milliseconds.
+     * All calls made for the same file until the save happens are combined into a single write, so the file can be saved
+     * after each change from the game thread without blocking it. Pending saves are written when the server stops.
+     */
+    public void saveAsync() {
+        saveAsync(YamlSaver.SAVE_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Saves the YAML file to its original file path on a background thread, after the specified delay.
+     * Calls made for the same file until the save happens are combined into a single write.
+     *
+     * @param delay time during which further saves of the file are combined
+     * @param unit  {@link TimeUnit} of the delay
+     */
+    public void saveAsync(long delay, TimeUnit unit) {
+        YamlSaver.schedule(this, unit.toMillis(delay));
+    }
+
+    /**
+     * Writes all pending background saves immediately, on the calling thread.
+     */
+    public static void flushPendingSaves() {
+        YamlSaver.flush();
+    }
+
+    /**
+     * Writes a file through a temporary file flushed to disk, then renamed over the target.
+     * The temporary file is created with the default permissions, then given those of the target if it exists,
+     * so saving does not change who can read the file.
+     *
+     * @param target  file to write
+     * @param content text to write
+     * @throws IOException if the file cannot be written
+     */
+    private static void writeAtomically(Path target, String content) throws IOException {
+        Path folder = target.toAbsolutePath().getParent();
+        Path tempFile = createSiblingFile(folder, target.getFileName().toString());
+
+        try {
+            copyPermissions(target, tempFile);
+
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+
+            try {
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Creates an empty file with a unique name next to the target, with the default permissions of new files.
+     *
+     * @param folder   folder of the target
+     * @param baseName file name of the target
+     * @return path of the created file
+     * @throws IOException if the file cannot be created
+     */
+    private static Path createSiblingFile(Path folder, String baseName) throws IOException {
+        while (true) {
+            Path tempFile = folder.resolve(baseName + "." + UUID.randomUUID() + ".tmp");
+            try {
+                return Files.createFile(tempFile);
+            } catch (FileAlreadyExistsException ignored) {
+                // Name taken, try another one
+            }
+        }
+    }
+
+    /**
+     * Copies the POSIX permissions of a file to another, if the source exists and the file system supports them.
+     *
+     * @param source file whose permissions are copied
+     * @param target file receiving the permissions
+     * @throws IOException if the permissions cannot be read or set
+     */
+    private static void copyPermissions(Path source, Path target) throws IOException {
+        if (!Files.exists(source)) return;
+
+        PosixFileAttributeView sourceView = Files.getFileAttributeView(source, PosixFileAttributeView.class);
+        PosixFileAttributeView targetView = Files.getFileAttributeView(target, PosixFileAttributeView.class);
+        if (sourceView == null || targetView == null) return;
+
+        targetView.setPermissions(sourceView.readAttributes().permissions());
+    }
+
+    /**
+     * Checks whether two paths point to the same file.
+     *
+     * @param first  first path
+     * @param second second path
+     * @return true if the normalized absolute paths are equal
+     */
+    private static boolean isSamePath(Path first, Path second) {
+        return first.toAbsolutePath().normalize().equals(second.toAbsolutePath().normalize());
+    }
+
+    /**
+     * Reads the file again from its path, replacing the current content. If the file still contains what this object
+     * last saved, the current content is kept, so changes made since then and not yet saved are not lost.
+     *
+     * @return true if the content was replaced
+     * @throws IOException if the file cannot be read or is not valid YAML
+     */
+    public boolean reload() throws IOException {
+        String content = Files.readString(filePath, StandardCharsets.UTF_8);
+        if (savedContentHash != 0 && content.hashCode() == savedContentHash) return false;
+
+        Map<String, Object> loadData;
+        try {
+            loadData = yamlLoader.get().load(content);
+        } catch (RuntimeException e) {
+            throw new IOException("Invalid YAML in " + fileName + ": " + e.getMessage(), e);
+        }
+
+        synchronized (this) {
+            yamlData = loadData != null ? loadData : new LinkedHashMap<>();
+        }
+        return true;
+    }
+
+    /**
+     * Maps the content of the file onto a record or an object with a no-argument constructor. Record components and fields
+     * are read from the keys of the same name, nested records and objects from nested sections.
+     * To follow changes of the file, use a {@link ConfigSnapshot}.
+     *
+     * @param <T>  type of the configuration
+     * @param type record or class of the configuration
+     * @return new instance of the type filled with the values of the file
+     * @throws IllegalArgumentException if the type cannot be created or a value cannot be converted
+     */
+    public synchronized <T> T bind(Class<T> type) {
+        return ConfigBinder.bind(yamlData, type);
+    }
+
     /**
      * Loads a YAML file from a File.
      *
@@ -264,6 +453,22 @@ public class YamlFile {
         return create(new File(filePath));
     }
 
+    /**
+     * Splits a key into the names of its nested sections, reusing the result for keys already seen.
+     *
+     * @param key key separated by dots
+     * @return section names, must not be modified
+     */
+    private static String[] splitKey(String key) {
+        String[] keys = keyPaths.get(key);
+        if (keys == null) {
+            keys = key.split("\\.");
+            if (keyPaths.size() >= MAX_CACHED_KEYS) keyPaths.clear();
+            keyPaths.put(key, keys);
+        }
+        return keys;
+    }
+
     /**
      * Removes a key from the YAML file.
      *
@@ -271,7 +476,7 @@ public class YamlFile {
      */
     @SuppressWarnings("unchecked")
     public final synchronized void remove(String key) {
-        String[] keys = key.split("\\.");
+        String[] keys = splitKey(key);
         Map<String, Object> data = yamlData;
 
         for (int i = 0; i < keys.length - 1; i++) {
@@ -292,7 +497,7 @@ public class YamlFile {
      */
     @SuppressWarnings("unchecked")
     public synchronized void setValue(String key, Object value) {
-        String[] keys = key.split("\\.");
+        String[] keys = splitKey(key);
         Map<String, Object> data = yamlData;
 
         for (int i = 0; i < keys.length - 1; i++) {
@@ -317,7 +522,7 @@ public class YamlFile {
      */
     @SuppressWarnings("unchecked")
     public synchronized Object getValue(String key) {
-        String[] keys = key.split("\\.");
+        String[] keys = splitKey(key);
         Map<String, Object> data = yamlData;
 
         for (int i = 0; i < keys.length - 1; i++) {
@@ -0,0 +1,88 @@
+package com.avrix.utils;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background writer of the {@link YamlFile#saveAsync()} saves.
+ * <p>
+ * The first save requested for a file is scheduled after a delay, further requests for the same file until then only
+ * mark it as pending, so a burst of changes results in a single write. Writes happen on one daemon thread,
+ * a shutdown hook writes the saves still pending when the server stops.
+ * </p>
+ */
+final class YamlSaver {
+    /**
+     * Default delay in milliseconds during which saves of a file are combined, {@code -Davrix.yaml.saveDelay}
+     */
+    static final long SAVE_DELAY_MS = Long.getLong("avrix.yaml.saveDelay", 1000);
+
+    private static final Map<Path, YamlFile> pendingSaves = new ConcurrentHashMap<>(); // Files waiting to be saved, by path
+    private static final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Avrix-YamlSaver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(YamlSaver::flush, "Avrix-YamlSaver-Shutdown"));
+    }
+
+    /**
+     * Private constructor, static methods only
+     */
+    private YamlSaver() {
+    }
+
+    /**
+     * Schedules the save of a file, unless a save of the same path is already pending.
+     *
+     * @param yamlFile file to save to its original path
+     * @param delayMs  delay before the save in milliseconds
+     */
+    static void schedule(YamlFile yamlFile, long delayMs) {
+        Path filePath = yamlFile.getFilePath().toAbsolutePath().normalize();
+
+        if (pendingSaves.put(filePath, yamlFile) == null) {
+            executor.schedule(() -> write(filePath), delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Writes all pending saves on the calling thread.
+     */
+    static void flush() {
+        for (Path filePath : pendingSaves.keySet()) {
+            write(filePath);
+        }
+    }
+
+    /**
+     * Returns the number of files waiting to be saved.
+     *
+     * @return number of pending saves
+     */
+    static int getPendingCount() {
+        return pendingSaves.size();
+    }
+
+    /**
+     * Writes the pending save of a path, if it was not written by a flush meanwhile.
+     *
+     * @param filePath normalized path of the file
+     */
+    private static void write(Path filePath) {
+        YamlFile yamlFile = pendingSaves.remove(filePath);
+        if (yamlFile == null) return;
+
+        try {
+            yamlFile.save(filePath.toString());
+        } catch (Exception e) {
+            System.out.printf("[!] Failed to save YAML file '%s': %s%n", filePath, e.getMessage());
+        }
+    }
+}
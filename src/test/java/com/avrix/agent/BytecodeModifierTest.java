@@ -0,0 +1,173 @@
+package com.avrix.agent;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the hooks woven by {@link BytecodeModifier}.
+ */
+public class BytecodeModifierTest {
+    private static final String TARGET_CLASS = Target.class.getName(); // Name of the patched class
+    private static final String HOOKS_CLASS = Hooks.class.getName(); // Name of the class declaring the hooks
+    public static int beforeCalls; // Number of calls of the before hook
+    public static int lastArgument; // Last argument received by the before hook
+
+    /**
+     * Resets the state of the hooks.
+     */
+    @BeforeEach
+    public void setUp() {
+        beforeCalls = 0;
+        lastArgument = 0;
+    }
+
+    /**
+     * Tests that the hooks are called with the instance, the arguments and the returned value of the method.
+     *
+     * @throws Exception if the patched class cannot be loaded or invoked
+     */
+    @Test
+    public void testInsertBeforeAndAfter() throws Exception {
+        BytecodeModifier modifier = new BytecodeModifier.BytecodeModifierBuilder(TARGET_CLASS)
+                .modifyMethod("multiply", method -> method
+                        .insertBefore(Hooks.class, "beforeMultiply")
+                        .insertAfter(Hooks.class, "afterMultiply"))
+                .build();
+
+        Object target = loadPatched(modifier).getDeclaredConstructor().newInstance();
+        Method multiply = target.getClass().getMethod("multiply", int.class);
+
+        assertEquals(61, multiply.invoke(target, 3));
+        assertEquals(1, beforeCalls);
+        assertEquals(3, lastArgument);
+    }
+
+    /**
+     * Tests that a method call is replaced by a call to the hook, with the target of the call as first argument.
+     *
+     * @throws Exception if the patched class cannot be loaded or invoked
+     */
+    @Test
+    public void testReplaceMethodCall() throws Exception {
+        BytecodeModifier modifier = new BytecodeModifier.BytecodeModifierBuilder(TARGET_CLASS)
+                .modifyMethod("describe", method -> method
+                        .replaceMethodCall("java.lang.String", "toUpperCase", "()Ljava/lang/String;",
+                                Hooks.class, "replaceToUpperCase"))
+                .build();
+
+        Object target = loadPatched(modifier).getDeclaredConstructor().newInstance();
+
+        assertEquals("replaced:avrix", target.getClass().getMethod("describe", String.class).invoke(target, "avrix"));
+    }
+
+    /**
+     * Tests that a missing method or hook is reported when the class is transformed.
+     */
+    @Test
+    public void testMissingMethodOrHook() {
+        byte[] classFile = AgentManager.readClassFile(Target.class.getClassLoader(), TARGET_CLASS.replace('.', '/'));
+
+        assertThrows(IllegalArgumentException.class, () -> new BytecodeModifier.BytecodeModifierBuilder(TARGET_CLASS)
+                .modifyMethod("missing", method -> method.insertBefore(Hooks.class, "beforeMultiply"))
+                .build().transform(classFile));
+        assertThrows(IllegalArgumentException.class, () -> new BytecodeModifier.BytecodeModifierBuilder(TARGET_CLASS)
+                .modifyMethod("multiply", method -> method.insertBefore(Hooks.class, "afterMultiply"))
+                .build().transform(classFile));
+    }
+
+    /**
+     * Transforms {@link Target} and defines the result in a separate class loader, along with {@link Hooks}.
+     *
+     * @param modifier modifier to apply
+     * @return patched class
+     * @throws ClassNotFoundException if the patched class cannot be defined
+     */
+    private static Class<?> loadPatched(BytecodeModifier modifier) throws ClassNotFoundException {
+        byte[] classFile = AgentManager.readClassFile(Target.class.getClassLoader(), TARGET_CLASS.replace('.', '/'));
+        byte[] patchedClass = modifier.transform(classFile);
+
+        return new ClassLoader(BytecodeModifierTest.class.getClassLoader()) {
+            @Override
+            protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                if (name.equals(TARGET_CLASS) || name.equals(HOOKS_CLASS)) {
+                    synchronized (getClassLoadingLock(name)) {
+                        Class<?> loadedClass = findLoadedClass(name);
+                        if (loadedClass != null) return loadedClass;
+
+                        byte[] classFile = name.equals(TARGET_CLASS)
+                                ? patchedClass
+                                : AgentManager.readClassFile(Hooks.class.getClassLoader(), HOOKS_CLASS.replace('.', '/'));
+                        return defineClass(name, classFile, 0, classFile.length);
+                    }
+                }
+                return super.loadClass(name, resolve);
+            }
+        }.loadClass(TARGET_CLASS);
+    }
+
+    /**
+     * Class patched by the tests
+     */
+    public static class Target {
+        /**
+         * Multiplies a value by 20.
+         *
+         * @param value value to multiply
+         * @return multiplied value
+         */
+        public int multiply(int value) {
+            return value * 20;
+        }
+
+        /**
+         * Converts a value to upper case.
+         *
+         * @param value value to convert
+         * @return converted value
+         */
+        public String describe(String value) {
+            return value.toUpperCase();
+        }
+    }
+
+    /**
+     * Hooks woven into {@link Target}, defined in the same class loader as the patched class
+     */
+    public static class Hooks {
+        /**
+         * Hook called at the start of {@link Target#multiply(int)}.
+         *
+         * @param self  patched instance
+         * @param value argument of the method
+         */
+        public static void beforeMultiply(Target self, int value) {
+            BytecodeModifierTest.beforeCalls++;
+            BytecodeModifierTest.lastArgument = value;
+        }
+
+        /**
+         * Hook called before {@link Target#multiply(int)} returns.
+         *
+         * @param self   patched instance
+         * @param result value returned by the method
+         * @return new returned value
+         */
+        public static int afterMultiply(Target self, int result) {
+            return result + 1;
+        }
+
+        /**
+         * Hook replacing {@link String#toUpperCase()} in {@link Target#describe(String)}.
+         *
+         * @param value target of the call
+         * @return replaced value
+         */
+        public static String replaceToUpperCase(String value) {
+            return "replaced:" + value;
+        }
+    }
+}
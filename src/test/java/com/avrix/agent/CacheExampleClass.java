@@ -0,0 +1,15 @@
+package com.avrix.agent;
+
+/**
+ * Example class patched through the {@link PatchCache} in tests.
+ */
+public class CacheExampleClass {
+    /**
+     * A method that returns 1. This method will be patched in tests to return 2.
+     *
+     * @return 1 always
+     */
+    public static int getValue() {
+        return 1;
+    }
+}
@@ -0,0 +1,143 @@
+package com.avrix.agent;
+
+import com.avrix.events.Event;
+import com.avrix.events.EventManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the patches applied on demand by {@link DeferredPatchManager}.
+ */
+public class DeferredPatchManagerTest {
+    private static final String EVENT_NAME = "onDeferredPatchTest"; // Event raised by the test patch
+    private static final String LUA_EVENT_NAME = "OnTick"; // Lua event with an Avrix event class
+
+    /**
+     * Removes the listeners added by the tests.
+     */
+    @AfterEach
+    public void tearDown() {
+        EventManager.clearListenersForEvent(EVENT_NAME);
+        EventManager.clearListenersForEvent(LUA_EVENT_NAME);
+    }
+
+    /**
+     * Tests that a deferred patch is applied once, when the first listener of its event is added.
+     */
+    @Test
+    public void testPatchAppliedWhenListenerAdded() {
+        RecordingPatch patch = new RecordingPatch();
+
+        DeferredPatchManager.defer(patch, RecordingPatch.class.getAnnotation(PatchCondition.class));
+        DeferredPatchManager.activate();
+        assertEquals(0, patch.modifyCount);
+
+        EventManager.addListener(new TestListener(EVENT_NAME));
+        DeferredPatchManager.flush();
+        assertEquals(1, patch.modifyCount);
+
+        EventManager.addListener(new TestListener(EVENT_NAME));
+        DeferredPatchManager.flush();
+        assertEquals(1, patch.modifyCount);
+    }
+
+    /**
+     * Tests that a patch raising the other events is demanded by a listener of a Lua event,
+     * and not by a listener of a custom event.
+     */
+    @Test
+    public void testOtherEventsPatchOnlyForLuaEvents() {
+        LuaPatch patch = new LuaPatch();
+
+        DeferredPatchManager.defer(patch, LuaPatch.class.getAnnotation(PatchCondition.class));
+        DeferredPatchManager.activate();
+
+        EventManager.addListener(new TestListener(EVENT_NAME));
+        DeferredPatchManager.flush();
+        assertEquals(0, patch.modifyCount);
+
+        EventManager.addListener(new TestListener(LUA_EVENT_NAME));
+        DeferredPatchManager.flush();
+        assertEquals(1, patch.modifyCount);
+    }
+
+    /**
+     * Patch counting the calls of {@link #modifyClass()}
+     */
+    @PatchCondition(events = EVENT_NAME)
+    public static class RecordingPatch extends ClassTransformer {
+        private int modifyCount; // Number of calls of modifyClass
+
+        /**
+         * Constructor for creating a {@link ClassTransformer} object.
+         */
+        public RecordingPatch() {
+            super("com.avrix.agent.DeferredPatchTarget");
+        }
+
+        /**
+         * Counts the call, the target class does not exist so no modification is made.
+         */
+        @Override
+        public void modifyClass() {
+            modifyCount++;
+        }
+    }
+
+    /**
+     * Patch raising the events of no other patch, counting the calls of {@link #modifyClass()}
+     */
+    @PatchCondition(otherEvents = true)
+    public static class LuaPatch extends ClassTransformer {
+        private int modifyCount; // Number of calls of modifyClass
+
+        /**
+         * Constructor for creating a {@link ClassTransformer} object.
+         */
+        public LuaPatch() {
+            super("com.avrix.agent.DeferredLuaPatchTarget");
+        }
+
+        /**
+         * Counts the call, the target class does not exist so no modification is made.
+         */
+        @Override
+        public void modifyClass() {
+            modifyCount++;
+        }
+    }
+
+    /**
+     * Listener of a test event
+     */
+    public static class TestListener extends Event {
+        private final String eventName; // Name of the listened event
+
+        /**
+         * Creates a listener of an event.
+         *
+         * @param eventName name of the listened event
+         */
+        public TestListener(String eventName) {
+            this.eventName = eventName;
+        }
+
+        /**
+         * Getting the event name
+         *
+         * @return name of the event being implemented
+         */
+        @Override
+        public String getEventName() {
+            return eventName;
+        }
+
+        /**
+         * Called Event Handling Method
+         */
+        public void handleEvent() {
+        }
+    }
+}
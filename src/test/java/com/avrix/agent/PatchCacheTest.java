@@ -0,0 +1,260 @@
+package com.avrix.agent;
+
+import com.avrix.events.EventRegistry;
+import com.avrix.utils.Constants;
+import javassist.CannotCompileException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the cache keys and entries of {@link PatchCache}.
+ */
+public class PatchCacheTest {
+    /**
+     * Temporary folder of the cached class files
+     */
+    @TempDir
+    Path cacheFolder;
+
+    /**
+     * Loads the agent and points the cache to the temporary folder.
+     */
+    @BeforeEach
+    public void setUp() {
+        AgentLoader.loadAgent();
+        PatchCache.setCacheFolder(cacheFolder);
+    }
+
+    /**
+     * Restores the default cache folder.
+     */
+    @AfterEach
+    public void tearDown() {
+        PatchCache.setCacheFolder(Paths.get(Constants.CACHE_DIR_NAME, "classes"));
+    }
+
+    /**
+     * Tests that the key of a patch is stable and changes with the class bytes the patch is applied to.
+     */
+    @Test
+    public void testKeyDependsOnInputClass() {
+        ExamplePatch patch = new ExamplePatch();
+        byte[] inputClass = {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 1};
+        byte[] otherInputClass = {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 2};
+
+        String key = PatchCache.computeKey(patch, inputClass);
+
+        assertNotNull(key);
+        assertEquals(64, key.length());
+        assertEquals(key, PatchCache.computeKey(new ExamplePatch(), inputClass.clone()));
+        assertNotEquals(key, PatchCache.computeKey(patch, otherInputClass));
+    }
+
+    /**
+     * Tests that the key of a patch changes when the content of the jar containing it changes.
+     *
+     * @throws Exception if the jars cannot be written or the patch cannot be loaded
+     */
+    @Test
+    public void testKeyDependsOnPatchJar() throws Exception {
+        byte[] inputClass = {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 1};
+
+        Path firstJar = writePatchJar(cacheFolder.resolve("first.jar"), "version: 1");
+        Path sameJar = writePatchJar(cacheFolder.resolve("same.jar"), "version: 1");
+        Path changedJar = writePatchJar(cacheFolder.resolve("changed.jar"), "version: 2");
+
+        String key = computeKeyFromJar(firstJar, inputClass);
+
+        assertNotNull(key);
+        assertEquals(key, computeKeyFromJar(sameJar, inputClass));
+        assertNotEquals(key, computeKeyFromJar(changedJar, inputClass));
+    }
+
+    /**
+     * Tests that a patch is compiled on the first application and read from the cache on the next one.
+     */
+    @Test
+    public void testApplyHitsCacheOnSecondApplication() {
+        byte[] inputClass = AgentManager.getCurrentClass(CacheExamplePatch.CLASS_NAME);
+        assertNotNull(inputClass);
+
+        long hits = PatchCache.getHits();
+        long misses = PatchCache.getMisses();
+
+        PatchCache.apply(new CacheExamplePatch());
+        assertEquals(misses + 1, PatchCache.getMisses());
+        assertEquals(hits, PatchCache.getHits());
+        assertEquals(2, CacheExampleClass.getValue());
+
+        String key = PatchCache.computeKey(new CacheExamplePatch(), inputClass);
+        assertTrue(Files.isRegularFile(cacheFolder.resolve(key + ".class")));
+        assertTrue(Files.isRegularFile(cacheFolder.resolve(key + ".events")));
+
+        // Restore the unpatched class, as on a new launch
+        assertTrue(AgentManager.redefineClass(CacheExamplePatch.CLASS_NAME, inputClass));
+        assertEquals(1, CacheExampleClass.getValue());
+
+        PatchCache.apply(new CacheExamplePatch());
+        assertEquals(hits + 1, PatchCache.getHits());
+        assertEquals(misses + 1, PatchCache.getMisses());
+        assertEquals(2, CacheExampleClass.getValue());
+    }
+
+    /**
+     * Tests that an entry compiled with other event identifiers is not used.
+     *
+     * @throws IOException if the event names of the entry cannot be rewritten
+     */
+    @Test
+    public void testApplyMissesWhenEventIdsDiffer() throws IOException {
+        EventRegistry.getId("PatchCacheTestEvent");
+        byte[] inputClass = AgentManager.getCurrentClass(CacheExamplePatch.CLASS_NAME);
+        assertNotNull(inputClass);
+
+        PatchCache.apply(new CacheExamplePatch());
+
+        // Shift every stored identifier by one, as if another event had been registered first
+        String key = PatchCache.computeKey(new CacheExamplePatch(), inputClass);
+        Path eventsFile = cacheFolder.resolve(key + ".events");
+        List<String> eventNames = new ArrayList<>(Files.readAllLines(eventsFile, StandardCharsets.UTF_8));
+        assertFalse(eventNames.isEmpty());
+        eventNames.add(0, "PatchCacheTestShiftedEvent" + System.nanoTime());
+        Files.write(eventsFile, eventNames, StandardCharsets.UTF_8);
+
+        assertTrue(AgentManager.redefineClass(CacheExamplePatch.CLASS_NAME, inputClass));
+
+        long hits = PatchCache.getHits();
+        long misses = PatchCache.getMisses();
+
+        PatchCache.apply(new CacheExamplePatch());
+        assertEquals(hits, PatchCache.getHits());
+        assertEquals(misses + 1, PatchCache.getMisses());
+        assertEquals(2, CacheExampleClass.getValue());
+    }
+
+    /**
+     * Writes a jar containing {@link ExamplePatch} and a resource.
+     *
+     * @param jarPath  path of the jar
+     * @param resource content of the resource, to make jars differ
+     * @return path of the jar
+     * @throws IOException if the jar cannot be written
+     */
+    private static Path writePatchJar(Path jarPath, String resource) throws IOException {
+        String entryName = ExamplePatch.class.getName().replace('.', '/') + ".class";
+        byte[] patchClass = AgentManager.readClassFile(PatchCacheTest.class.getClassLoader(), ExamplePatch.class.getName().replace('.', '/'));
+        assertNotNull(patchClass);
+
+        try (OutputStream output = Files.newOutputStream(jarPath); JarOutputStream jar = new JarOutputStream(output)) {
+            jar.putNextEntry(new JarEntry(entryName));
+            jar.write(patchClass);
+            jar.closeEntry();
+
+            jar.putNextEntry(new JarEntry("plugin.yml"));
+            jar.write(resource.getBytes(StandardCharsets.UTF_8));
+            jar.closeEntry();
+        }
+        return jarPath;
+    }
+
+    /**
+     * Loads {@link ExamplePatch} from a jar rather than from the test classes and computes its key.
+     *
+     * @param jarPath    jar containing the patch
+     * @param inputClass class file the patch is applied to
+     * @return cache key of the patch defined from the jar
+     * @throws Exception if the patch cannot be loaded
+     */
+    private static String computeKeyFromJar(Path jarPath, byte[] inputClass) throws Exception {
+        String patchName = ExamplePatch.class.getName();
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{jarPath.toUri().toURL()}, PatchCacheTest.class.getClassLoader()) {
+            @Override
+            protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                if (!name.equals(patchName)) return super.loadClass(name, resolve);
+
+                synchronized (getClassLoadingLock(name)) {
+                    Class<?> loadedClass = findLoadedClass(name);
+                    return loadedClass != null ? loadedClass : findClass(name);
+                }
+            }
+        }) {
+            Class<?> patchClass = loader.loadClass(patchName);
+            assertNotSame(ExamplePatch.class, patchClass);
+            return PatchCache.computeKey((ClassTransformer) patchClass.getDeclaredConstructor().newInstance(), inputClass);
+        }
+    }
+
+    /**
+     * Example patch of {@link ExampleClass}
+     */
+    public static class ExamplePatch extends ClassTransformer {
+        /**
+         * Constructor for creating a {@link ClassTransformer} object.
+         */
+        public ExamplePatch() {
+            super("com.avrix.agent.ExampleClass");
+        }
+
+        /**
+         * Patches {@link ExampleClass#getTest()} to return true.
+         */
+        @Override
+        public void modifyClass() {
+            getModifierBuilder().modifyMethod("getTest", (ctClass, ctMethod) -> {
+                try {
+                    ctMethod.setBody("{return true;}");
+                } catch (CannotCompileException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Example patch of {@link CacheExampleClass}
+     */
+    public static class CacheExamplePatch extends ClassTransformer {
+        /**
+         * Name of the patched class
+         */
+        static final String CLASS_NAME = "com.avrix.agent.CacheExampleClass";
+
+        /**
+         * Constructor for creating a {@link ClassTransformer} object.
+         */
+        public CacheExamplePatch() {
+            super(CLASS_NAME);
+        }
+
+        /**
+         * Patches {@link CacheExampleClass#getValue()} to return 2.
+         */
+        @Override
+        public void modifyClass() {
+            getModifierBuilder().modifyMethod("getValue", (ctClass, ctMethod) -> {
+                try {
+                    ctMethod.setBody("{return 2;}");
+                } catch (CannotCompileException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+    }
+}
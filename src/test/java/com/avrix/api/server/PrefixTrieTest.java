@@ -0,0 +1,52 @@
+package com.avrix.api.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link PrefixTrie} class used by {@link PlayerIndex}.
+ */
+public class PrefixTrieTest {
+    /**
+     * Tests exact and partial lookups, including the precedence of exact matches.
+     */
+    @Test
+    public void testPrefixLookup() {
+        PrefixTrie<String> trie = new PrefixTrie<>();
+        trie.put("bob", "Bob");
+        trie.put("bobby", "Bobby");
+        trie.put("alice", "Alice");
+        trie.put("albert", "Albert");
+
+        assertEquals("Bob", trie.getFirst("bob"));
+        assertEquals("Bob", trie.getFirst("b"));
+        assertEquals("Bobby", trie.getFirst("bobb"));
+        assertEquals("Albert", trie.getFirst("al"));
+        assertEquals("Alice", trie.getFirst("ali"));
+        assertNull(trie.getFirst("carl"));
+
+        assertEquals(List.of("Albert", "Alice"), trie.getAll("al", 10));
+        assertEquals(List.of("Albert", "Alice", "Bob"), trie.getAll("", 3));
+    }
+
+    /**
+     * Tests that removed values are no longer found and other values sharing the prefix are kept.
+     */
+    @Test
+    public void testRemove() {
+        PrefixTrie<String> trie = new PrefixTrie<>();
+        trie.put("bob", "Bob");
+        trie.put("bobby", "Bobby");
+
+        assertTrue(trie.remove("bob", "Bob"));
+        assertFalse(trie.remove("bob", "Bob"));
+        assertEquals("Bobby", trie.getFirst("bob"));
+
+        assertTrue(trie.remove("bobby", "Bobby"));
+        assertNull(trie.getFirst("b"));
+        assertTrue(trie.getAll("", 10).isEmpty());
+    }
+}
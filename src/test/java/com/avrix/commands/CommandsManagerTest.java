@@ -1,8 +1,20 @@
 package com.avrix.commands;
 
+import com.avrix.enums.AccessLevel;
+import com.avrix.enums.ArgumentType;
+import com.avrix.enums.CommandScope;
+import com.avrix.scheduler.Scheduler;
 import org.junit.jupiter.api.Test;
+import zombie.core.raknet.UdpConnection;
 
-import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * This class contains unit tests for the {@link CommandsManager} class.
@@ -78,4 +90,161 @@ public class CommandsManagerTest {
         String[] expected2 = {"test", "arg1 with spaces", "arg2"};
         assertArrayEquals(expected2, result2);
     }
-}
\ No newline at end of file
+
+    /**
+     * Test the dispatch of subcommands and aliases with typed arguments.
+     */
+    @Test
+    public void testTypedCommandDispatch() {
+        CommandsManager.addCommand(new TestTeleportCommand());
+        CommandsManager.addCommand(new TestTeleportCommand());
+
+        assertEquals("Coordinates[x=10, y=20, z=1] 5", CommandsManager.handleCustomCommand(null, "!testtp to 10 20 1 5"));
+        assertEquals("Coordinates[x=10, y=20, z=5] 0", CommandsManager.handleCustomCommand(null, "/TTP 10 20 5"));
+        assertEquals("Coordinates[x=10, y=20, z=0] 0", CommandsManager.handleCustomCommand(null, "!testtp to 10 20"));
+
+        String error = CommandsManager.handleCustomCommand(null, "!testtp to 10 twenty");
+        assertTrue(error.startsWith("[!] Argument 'target' must be coordinates"));
+        assertTrue(error.endsWith("Usage: testtp to <target: x y [z]> [delay: number]"));
+
+        assertEquals("[!] Too many arguments. Usage: testtp to <target: x y [z]> [delay: number]",
+                CommandsManager.handleCustomCommand(null, "!testtp to 1 2 3 4 5"));
+        assertNull(CommandsManager.handleCustomCommand(null, "!testtp"));
+    }
+
+    /**
+     * Test the completion of command names, subcommands and aliases.
+     */
+    @Test
+    public void testComplete() {
+        CommandsManager.addCommand(new TestTeleportCommand());
+
+        assertEquals(List.of("testtp"), CommandsManager.complete(null, "!tes"));
+        assertEquals(List.of("to"), CommandsManager.complete(null, "testtp "));
+        assertEquals(List.of("ttp"), CommandsManager.complete(null, "/tt"));
+        assertEquals(List.of(), CommandsManager.complete(null, "testtp to 1 "));
+    }
+
+    /**
+     * Test the parsing of durations.
+     */
+    @Test
+    public void testParseDuration() {
+        assertEquals(Duration.ofSeconds(90), ArgumentParser.parseDuration("time", "90"));
+        assertEquals(Duration.ofSeconds(30), ArgumentParser.parseDuration("time", "30s"));
+        assertEquals(Duration.ofMinutes(5), ArgumentParser.parseDuration("time", "5m"));
+        assertEquals(Duration.ofMinutes(90), ArgumentParser.parseDuration("time", "1h30m"));
+        assertEquals(Duration.ofDays(2), ArgumentParser.parseDuration("time", "2D"));
+
+        assertThrows(IllegalArgumentException.class, () -> ArgumentParser.parseDuration("time", ""));
+        assertThrows(IllegalArgumentException.class, () -> ArgumentParser.parseDuration("time", "m"));
+        assertThrows(IllegalArgumentException.class, () -> ArgumentParser.parseDuration("time", "5w"));
+        assertThrows(IllegalArgumentException.class, () -> ArgumentParser.parseDuration("time", "99999999999999999999"));
+    }
+
+    /**
+     * Test the execution of asynchronous commands, their timeout and the delivery of their output on the game thread.
+     */
+    @Test
+    public void testAsyncCommand() throws InterruptedException {
+        CommandsManager.addCommand(new TestAsyncCommand());
+
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(outContent));
+        try {
+            assertEquals("", CommandsManager.handleCustomCommand(null, "!testasync 50"));
+            assertEquals("", CommandsManager.handleCustomCommand(null, "!testasync 10000"));
+            assertEquals(2, CommandsManager.getPendingAsyncCommandCount());
+
+            assertTrue(waitForAsyncCommands());
+            assertTrue(TestAsyncCommand.interrupted.await(5, TimeUnit.SECONDS));
+            assertFalse(outContent.toString().contains("Slept 50 ms"));
+
+            Scheduler.tick();
+            assertTrue(outContent.toString().contains("Slept 50 ms"));
+            assertTrue(outContent.toString().contains("[!] Command 'testasync' timed out after 1000 ms."));
+
+            assertEquals("", CommandsManager.handleCustomCommand(null, "!testasync 10000"));
+            assertEquals(1, CommandsManager.cancelAsyncCommands(null));
+            assertEquals(0, CommandsManager.getPendingAsyncCommandCount());
+
+            Scheduler.tick();
+            assertTrue(outContent.toString().contains("[!] Command 'testasync' was cancelled."));
+        } finally {
+            System.setOut(originalOut);
+        }
+    }
+
+    /**
+     * Waits until all asynchronous commands have finished.
+     *
+     * @return true if the commands finished within 5 seconds
+     */
+    private static boolean waitForAsyncCommands() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (CommandsManager.getPendingAsyncCommandCount() > 0) {
+            if (System.nanoTime() > deadline) return false;
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    /**
+     * Test asynchronous console command sleeping for the given number of milliseconds
+     */
+    @CommandName("testasync")
+    @CommandDescription("Test async command")
+    @CommandAccessLevel(AccessLevel.ADMIN)
+    @CommandExecutionScope(CommandScope.CONSOLE)
+    @CommandAsync(timeout = 1, unit = TimeUnit.SECONDS)
+    @CommandArgument(name = "millis", type = ArgumentType.INT)
+    public static class TestAsyncCommand extends TypedCommand {
+        /**
+         * Counted down when a command is interrupted
+         */
+        static final CountDownLatch interrupted = new CountDownLatch(1);
+
+        /**
+         * Sleeps for the given time.
+         *
+         * @param playerConnection {@link UdpConnection}, {@code null} for the console
+         * @param args             parsed arguments of the received command
+         * @return time slept
+         */
+        @Override
+        public String onInvoke(UdpConnection playerConnection, CommandArguments args) {
+            try {
+                Thread.sleep(args.getInt("millis"));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                return null;
+            }
+            return "Slept " + args.getInt("millis") + " ms";
+        }
+    }
+
+    /**
+     * Test console command with a subcommand name, an alias and typed arguments
+     */
+    @CommandName("testtp to")
+    @CommandAliases("ttp")
+    @CommandDescription("Test teleport command")
+    @CommandAccessLevel(AccessLevel.ADMIN)
+    @CommandExecutionScope(CommandScope.CONSOLE)
+    @CommandArgument(name = "target", type = ArgumentType.COORDINATES)
+    @CommandArgument(name = "delay", type = ArgumentType.INT, optional = true)
+    public static class TestTeleportCommand extends TypedCommand {
+        /**
+         * Returns the parsed arguments.
+         *
+         * @param playerConnection {@link UdpConnection}, {@code null} for the console
+         * @param args             parsed arguments of the received command
+         * @return parsed coordinates and delay
+         */
+        @Override
+        public String onInvoke(UdpConnection playerConnection, CommandArguments args) {
+            return args.getCoordinates("target") + " " + args.getInt("delay", 0);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.avrix.events;
+
+import com.avrix.enums.BackpressurePolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the backpressure policies of the {@link AsyncEventQueue} class.
+ */
+public class AsyncEventQueueTest {
+    /**
+     * Tests that a listener raising its own event while its blocking queue is full drops the event instead of waiting forever.
+     *
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void testBlockFromDrainThread() throws InterruptedException {
+        CountDownLatch delivered = new CountDownLatch(1);
+        AsyncEventQueue[] queue = new AsyncEventQueue[1];
+
+        queue[0] = new AsyncEventQueue("test", 1, BackpressurePolicy.BLOCK, args -> {
+            if (args[0].equals("first")) {
+                queue[0].offer(new Object[]{"second"});
+                queue[0].offer(new Object[]{"third"});
+            }
+            if (args[0].equals("second")) delivered.countDown();
+        });
+        queue[0].offer(new Object[]{"first"});
+
+        assertTrue(delivered.await(10, TimeUnit.SECONDS));
+        assertEquals(1, queue[0].getDroppedEvents());
+    }
+
+    /**
+     * Tests that an asynchronous listener raising an event for another full blocking queue drops the event
+     * instead of parking its pool thread.
+     *
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void testBlockFromOtherAsyncListener() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch returned = new CountDownLatch(1);
+
+        AsyncEventQueue blocked = new AsyncEventQueue("blocked", 1, BackpressurePolicy.BLOCK, args -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        AsyncEventQueue raising = new AsyncEventQueue("raising", 1, BackpressurePolicy.BLOCK, args -> {
+            blocked.offer(new Object[]{"third"});
+            returned.countDown();
+        });
+
+        try {
+            blocked.offer(new Object[]{"first"});
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            blocked.offer(new Object[]{"second"});
+
+            raising.offer(new Object[]{"event"});
+            assertTrue(returned.await(10, TimeUnit.SECONDS));
+            assertEquals(1, blocked.getDroppedEvents());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    /**
+     * Tests that a pending event is replaced by a newer event with the same first argument, keeping its place in the queue.
+     *
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void testCoalescePendingEvents() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(3);
+        List<String> received = new CopyOnWriteArrayList<>();
+        Object first = new Object();
+        Object second = new Object();
+
+        AsyncEventQueue queue = new AsyncEventQueue("test", 4, BackpressurePolicy.COALESCE, args -> {
+            if (args[1].equals("blocker")) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            } else {
+                received.add((String) args[1]);
+            }
+            finished.countDown();
+        });
+
+        queue.offer(new Object[]{new Object(), "blocker"});
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        queue.offer(new Object[]{first, "first-1"});
+        queue.offer(new Object[]{second, "second-1"});
+        queue.offer(new Object[]{first, "first-2"});
+        release.countDown();
+
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        assertEquals(List.of("first-2", "second-1"), received);
+        assertEquals(0, queue.getDroppedEvents());
+    }
+}
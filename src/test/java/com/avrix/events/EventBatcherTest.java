@@ -0,0 +1,47 @@
+package com.avrix.events;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link EventBatcher} class.
+ */
+public class EventBatcherTest {
+    /**
+     * Clears all event listeners after each test.
+     */
+    @AfterEach
+    public void clearListeners() {
+        EventManager.clearAllListeners();
+    }
+
+    /**
+     * Tests that the first argument of events with several arguments is collected and delivered on the next tick.
+     */
+    @Test
+    public void testBatchEventWithSeveralArguments() {
+        List<Object> received = new ArrayList<>();
+        BatchListener<Object> listener = batch -> {
+            for (int i = 0; i < batch.size(); i++) {
+                received.add(batch.get(i));
+            }
+        };
+        EventBatcher.addBatchListener("OnTestBatchEvent", listener);
+
+        try {
+            EventManager.invokeEvent("OnTestBatchEvent", "first", 1);
+            EventManager.invokeEvent("OnTestBatchEvent", "second", 2);
+            assertTrue(received.isEmpty());
+
+            EventManager.invokeEvent(EventBatcher.TICK_EVENT_NAME, 1);
+            assertEquals(List.of("first", "second"), received);
+        } finally {
+            EventBatcher.removeBatchListener(listener);
+        }
+    }
+}
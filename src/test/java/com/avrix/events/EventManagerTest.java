@@ -1,5 +1,6 @@
 package com.avrix.events;
 
+import com.avrix.enums.BackpressurePolicy;
 import com.avrix.enums.Priority;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -7,6 +8,9 @@ import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -161,4 +165,275 @@ public class EventManagerTest {
         assertEquals(exceptionTextFirst, lines[1].trim());
         assertEquals(exceptionTextSecond, lines[2].trim());
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests event invocation for a listener declared as an anonymous (non-public) class.
+     */
+    @Test
+    public void testAnonymousListener() {
+        EventManager.addListener(new TestEvent() {
+            @Override
+            public void handleEvent(String testString, Integer testInteger) {
+                System.out.printf("[#] Anonymous test event! String: %s, Integer: %s%n", testString, testInteger);
+            }
+
+            @Override
+            public void handleEvent() {
+                System.out.println("[#] Anonymous test event!");
+            }
+        });
+
+        EventManager.invokeEvent("OnTestEvent");
+        EventManager.invokeEvent("OnTestEvent", "Example text", 1337);
+
+        String[] lines = outContent.toString().split("\\r?\\n");
+
+        assertEquals("[#] Anonymous test event!", lines[0].trim());
+        assertEquals("[#] Anonymous test event! String: Example text, Integer: 1337", lines[1].trim());
+    }
+
+    /**
+     * Tests that listeners with the same priority are called in the order of registration.
+     */
+    @Test
+    public void testEventPriorityRegistrationOrder() {
+        EventManager.addListener(new TestEventImpl(), Priority.LOW);
+        EventManager.addListener(new TestEventHighPriorityImpl(), Priority.HIGH);
+        EventManager.addListener(new TestEventImpl(), Priority.LOW);
+        EventManager.addListener(new TestEventHighPriorityImpl(), Priority.LOWEST);
+
+        EventManager.invokeEvent("OnTestEvent");
+
+        String[] lines = outContent.toString().split("\\r?\\n");
+
+        assertEquals(4, lines.length);
+        assertEquals("[#] Test event high priority!", lines[0].trim());
+        assertEquals("[#] Test event!", lines[1].trim());
+        assertEquals("[#] Test event!", lines[2].trim());
+        assertEquals("[#] Test event high priority!", lines[3].trim());
+    }
+
+    /**
+     * Tests that an event can be raised from another thread while a handler is still running.
+     */
+    @Test
+    public void testEventFromAnotherThreadDuringHandler() throws InterruptedException {
+        EventManager.addListener(new TestEventImpl());
+        EventManager.addListener(new TestEvent() {
+            @Override
+            public String getEventName() {
+                return "OnTestEventOuter";
+            }
+
+            @Override
+            public void handleEvent(String testString, Integer testInteger) {
+            }
+
+            @Override
+            public void handleEvent() {
+                Thread thread = new Thread(() -> EventManager.invokeEvent("OnTestEvent"));
+                thread.start();
+                try {
+                    thread.join(5000);
+                } catch (InterruptedException ignored) {
+                }
+            }
+        });
+
+        EventManager.invokeEvent("OnTestEventOuter");
+
+        assertEquals("[#] Test event!", outContent.toString().trim());
+    }
+
+    /**
+     * Tests the {@link EventManager#hasListeners(int)} and {@link EventManager#hasListeners(String)} methods.
+     */
+    @Test
+    public void testHasListeners() {
+        int eventId = EventRegistry.getId("OnTestEvent");
+
+        assertEquals(eventId, EventRegistry.getId("OnTestEvent"));
+        assertNotEquals(eventId, EventRegistry.getId("OnTestEventException"));
+        assertFalse(EventManager.hasListeners(eventId));
+        assertFalse(EventManager.hasListeners("OnTestEvent"));
+
+        EventManager.addListener(new TestEventImpl());
+
+        assertTrue(EventManager.hasListeners(eventId));
+        assertTrue(EventManager.hasListeners("OnTestEvent"));
+        assertFalse(EventManager.hasListeners(EventRegistry.getId("OnTestEventException")));
+
+        EventManager.clearListenersForEvent("OnTestEvent");
+
+        assertFalse(EventManager.hasListeners(eventId));
+
+        EventManager.addListener(new TestEventImpl());
+        EventManager.clearAllListeners();
+
+        assertFalse(EventManager.hasListeners(eventId));
+        assertFalse(EventManager.hasListeners("OnTestEvent"));
+    }
+
+    /**
+     * Tests that event names are resolved case-insensitively.
+     */
+    @Test
+    public void testEventNameCaseInsensitive() {
+        assertEquals(EventRegistry.getId("OnTestEvent"), EventRegistry.getId("ontestevent"));
+        assertEquals(EventRegistry.getId("OnTestEvent"), EventRegistry.getId("ONTESTEVENT"));
+        assertEquals("OnTestEvent", EventRegistry.getName(EventRegistry.getId("onTestEvent")));
+
+        EventManager.addListener(new TestEventImpl());
+
+        assertTrue(EventManager.hasListeners("onTestEvent"));
+        assertEquals(1, EventManager.getListenersForEvent("ONTESTEVENT").size());
+
+        EventManager.invokeEvent("onTestEvent");
+        EventManager.invokeEvent(EventRegistry.getId("OnTestEvent"), "Example text", 1337);
+
+        String[] lines = outContent.toString().split("\\r?\\n");
+
+        assertEquals("[#] Test event!", lines[0].trim());
+        assertEquals("[#] Test event! String: Example text, Integer: 1337", lines[1].trim());
+    }
+
+    /**
+     * Tests asynchronous event delivery: handlers run on a background thread, in the order the events were raised.
+     */
+    @Test
+    public void testAsyncListener() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(3);
+        StringBuffer received = new StringBuffer();
+        Thread callerThread = Thread.currentThread();
+
+        EventManager.addListener(new TestEvent() {
+            @Override
+            public void handleEvent(String testString, Integer testInteger) {
+                if (Thread.currentThread() != callerThread) {
+                    received.append(testInteger);
+                }
+                latch.countDown();
+            }
+
+            @Override
+            public void handleEvent() {
+            }
+        }, Priority.NORMAL, 16, BackpressurePolicy.BLOCK);
+
+        EventManager.invokeEvent("OnTestEvent", "Example text", 1);
+        EventManager.invokeEvent("OnTestEvent", "Example text", 2);
+        EventManager.invokeEvent("OnTestEvent", "Example text", 3);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals("123", received.toString());
+    }
+
+    /**
+     * Tests per-key sampling and value change filters of {@link SubscriptionOptions}.
+     */
+    @Test
+    public void testSubscriptionFilters() {
+        EventManager.addListener(new TestEventImpl(), Priority.NORMAL, new SubscriptionOptions.SubscriptionOptionsBuilder()
+                .key(args -> (Integer) args[1] % 2)
+                .sampleEvery(3)
+                .build());
+
+        for (int i = 0; i < 8; i++) {
+            EventManager.invokeEvent("OnTestEvent", "Sampled", i);
+        }
+
+        EventManager.clearAllListeners();
+        EventManager.addListener(new TestEventImpl(), Priority.NORMAL, new SubscriptionOptions.SubscriptionOptionsBuilder()
+                .valueChange(args -> (Integer) args[1], 5)
+                .build());
+
+        for (int i = 0; i < 12; i++) {
+            EventManager.invokeEvent("OnTestEvent", "Changed", i);
+        }
+
+        String[] lines = outContent.toString().split("\\r?\\n");
+
+        assertEquals(7, lines.length);
+        assertEquals("[#] Test event! String: Sampled, Integer: 0", lines[0].trim());
+        assertEquals("[#] Test event! String: Sampled, Integer: 1", lines[1].trim());
+        assertEquals("[#] Test event! String: Sampled, Integer: 6", lines[2].trim());
+        assertEquals("[#] Test event! String: Sampled, Integer: 7", lines[3].trim());
+        assertEquals("[#] Test event! String: Changed, Integer: 0", lines[4].trim());
+        assertEquals("[#] Test event! String: Changed, Integer: 5", lines[5].trim());
+        assertEquals("[#] Test event! String: Changed, Integer: 10", lines[6].trim());
+    }
+
+    /**
+     * Tests per-tick batched delivery with {@link EventBatcher}.
+     */
+    @Test
+    public void testBatchListener() {
+        StringBuilder received = new StringBuilder();
+        BatchListener<String> listener = batch -> {
+            received.append("[");
+            for (int i = 0; i < batch.size(); i++) {
+                received.append(batch.get(i));
+            }
+            received.append("]");
+        };
+
+        EventBatcher.addBatchListener("OnTestBatchEvent", listener);
+
+        EventManager.invokeEvent("OnTestBatchEvent", "a");
+        EventManager.invokeEvent("OnTestBatchEvent", "b");
+        EventManager.invokeEvent(EventBatcher.TICK_EVENT_NAME, 1.0);
+        EventManager.invokeEvent(EventBatcher.TICK_EVENT_NAME, 1.0);
+        EventManager.invokeEvent("OnTestBatchEvent", "c");
+        EventManager.invokeEvent(EventBatcher.TICK_EVENT_NAME, 1.0);
+
+        EventBatcher.removeBatchListener(listener);
+
+        assertEquals("[ab][c]", received.toString());
+        assertNull(EventManager.getListenersForEvent("OnTestBatchEvent"));
+        assertNull(EventManager.getListenersForEvent(EventBatcher.TICK_EVENT_NAME));
+    }
+
+    /**
+     * Tests per-listener profiling with {@link EventMetrics} and the percentiles of {@link LatencyHistogram}.
+     */
+    @Test
+    public void testEventMetrics() {
+        EventManager.addListener(new TestEventImpl());
+
+        EventManager.invokeEvent("OnTestEvent", "Not measured", 1);
+        EventMetrics.setEnabled(true);
+        try {
+            for (int i = 0; i < 10; i++) {
+                EventManager.invokeEvent("OnTestEvent", "Measured", i);
+            }
+
+            List<EventMetrics.ListenerStats> listenerStats = EventMetrics.getSlowestListeners(5);
+            assertEquals(1, listenerStats.size());
+            assertEquals("OnTestEvent", listenerStats.get(0).eventName());
+            assertEquals(TestEventImpl.class.getName(), listenerStats.get(0).listenerClass());
+            assertEquals(EventMetrics.CORE_PLUGIN_ID, listenerStats.get(0).pluginId());
+            assertEquals(10, listenerStats.get(0).invocations());
+            assertTrue(listenerStats.get(0).maxNanos() >= listenerStats.get(0).p50Nanos());
+
+            List<EventMetrics.EventStats> eventStats = EventMetrics.getEventStats();
+            assertEquals(1, eventStats.size());
+            assertEquals(10, eventStats.get(0).invocations());
+
+            EventMetrics.reset();
+            assertTrue(EventMetrics.getListenerStats().isEmpty());
+        } finally {
+            EventMetrics.setEnabled(false);
+        }
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1_000_000L, histogram.getMax());
+        assertEquals(500_000.0, histogram.getPercentile(50), 500_000 * 0.125);
+        assertEquals(990_000.0, histogram.getPercentile(99), 990_000 * 0.125);
+        assertEquals(1_000_000L, histogram.getPercentile(100));
+    }
+}
@@ -0,0 +1,91 @@
+package com.avrix.events;
+
+import com.avrix.plugin.PluginClassLoader;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the plugin attribution of the {@link EventMetrics} class.
+ */
+public class EventMetricsTest {
+    /**
+     * Tests that a listener defined by a class path loader, as for plugins whose jar is added to the system class path,
+     * is attributed to the plugin owning the jar, and that built-in listeners are attributed to the core.
+     *
+     * @throws Exception if the jar cannot be created or the listener cannot be loaded
+     */
+    @Test
+    public void testListenerAttributedByJar() throws Exception {
+        String listenerName = TestEventImpl.class.getName();
+        String entryName = listenerName.replace('.', '/') + ".class";
+        Path jar = Files.createTempFile("metrics-plugin", ".jar");
+
+        try (InputStream classFile = Objects.requireNonNull(getClass().getClassLoader().getResourceAsStream(entryName));
+             OutputStream output = Files.newOutputStream(jar);
+             JarOutputStream jarOutput = new JarOutputStream(output)) {
+            jarOutput.putNextEntry(new JarEntry(entryName));
+            classFile.transferTo(jarOutput);
+            jarOutput.closeEntry();
+        }
+
+        URL[] urls = {jar.toUri().toURL()};
+        try (PluginClassLoader pluginLoader = new PluginClassLoader("metrics-plugin", urls, null);
+             ClassPathLoader classPath = new ClassPathLoader(urls, getClass().getClassLoader(), listenerName)) {
+            Event listener = (Event) classPath.loadClass(listenerName).getDeclaredConstructor().newInstance();
+
+            assertNotSame(pluginLoader, listener.getClass().getClassLoader());
+            assertEquals("metrics-plugin", EventMetrics.createListenerMetrics(listener, false).pluginId());
+            assertEquals(EventMetrics.CORE_PLUGIN_ID, EventMetrics.createListenerMetrics(new TestEventImpl(), false).pluginId());
+        } finally {
+            Files.deleteIfExists(jar);
+        }
+    }
+
+    /**
+     * Loader defining one class from its own jar, standing in for the system class loader
+     */
+    private static class ClassPathLoader extends URLClassLoader {
+        private final String className; // Class defined from the jar rather than by the parent
+
+        /**
+         * Creates the loader.
+         *
+         * @param urls      jar of the class
+         * @param parent    parent for all other classes
+         * @param className class defined from the jar
+         */
+        ClassPathLoader(URL[] urls, ClassLoader parent, String className) {
+            super(urls, parent);
+            this.className = className;
+        }
+
+        /**
+         * Defines the tested class from the jar and delegates the other classes to the parent.
+         *
+         * @param name    class name
+         * @param resolve whether to resolve the class
+         * @return loaded class
+         * @throws ClassNotFoundException if the class is not found
+         */
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.equals(className)) return super.loadClass(name, resolve);
+
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> loaded = findLoadedClass(name);
+                return loaded != null ? loaded : findClass(name);
+            }
+        }
+    }
+}
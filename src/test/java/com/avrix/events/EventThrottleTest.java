@@ -0,0 +1,60 @@
+package com.avrix.events;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link EventThrottle} class.
+ */
+public class EventThrottleTest {
+    /**
+     * Tests that the keys whose minimum interval has elapsed are dropped when the table grows.
+     *
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void testStaleKeysDropped() throws InterruptedException {
+        EventThrottle throttle = new EventThrottle(new SubscriptionOptions.SubscriptionOptionsBuilder()
+                .key(args -> (Long) args[0])
+                .minInterval(1, TimeUnit.MILLISECONDS)
+                .build());
+
+        for (long key = 0; key < 32; key++) {
+            assertTrue(throttle.test(new Object[]{key}));
+        }
+        assertEquals(32, throttle.size());
+
+        Thread.sleep(10);
+
+        // Growing the table drops all previous keys, which would pass again anyway
+        assertTrue(throttle.test(new Object[]{100L}));
+        assertEquals(1, throttle.size());
+        assertTrue(throttle.test(new Object[]{0L}));
+        assertFalse(throttle.test(new Object[]{0L}));
+    }
+
+    /**
+     * Tests that keys whose last observed value must be kept are not dropped, and that the table size stays bounded.
+     */
+    @Test
+    public void testTableBounded() {
+        EventThrottle throttle = new EventThrottle(new SubscriptionOptions.SubscriptionOptionsBuilder()
+                .key(args -> (Long) args[0])
+                .valueChange(args -> 1.0, 0.5)
+                .build());
+
+        assertTrue(throttle.test(new Object[]{0L}));
+        for (long key = 1; key < 1000; key++) {
+            throttle.test(new Object[]{key});
+        }
+        assertFalse(throttle.test(new Object[]{0L}));
+
+        for (long key = 1000; key < 200_000; key++) {
+            throttle.test(new Object[]{key});
+        }
+        assertTrue(throttle.size() < 1 << 15);
+    }
+}
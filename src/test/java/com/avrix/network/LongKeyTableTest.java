@@ -0,0 +1,82 @@
+package com.avrix.network;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the {@link LongKeyTable} class.
+ */
+public class LongKeyTableTest {
+    /**
+     * Test that values are created once per key, including the key used as the empty slot marker, and survive growth.
+     */
+    @Test
+    public void testComputeIfAbsent() {
+        LongKeyTable<String> table = new LongKeyTable<>();
+
+        for (long key = 0; key < 100; key++) {
+            assertEquals("v" + key, table.computeIfAbsent(key, k -> "v" + k));
+        }
+        assertEquals("min", table.computeIfAbsent(Long.MIN_VALUE, k -> "min"));
+
+        assertEquals(101, table.size());
+        assertEquals("v42", table.computeIfAbsent(42L, k -> "other"));
+        assertEquals("min", table.get(Long.MIN_VALUE));
+        assertNull(table.get(100L));
+        assertEquals(101, table.entries().size());
+    }
+
+    /**
+     * Test that removing a key keeps the other keys reachable and only removes the expected value.
+     */
+    @Test
+    public void testRemove() {
+        LongKeyTable<String> table = new LongKeyTable<>();
+
+        for (long key = 0; key < 20; key++) {
+            table.computeIfAbsent(key, k -> "v" + k);
+        }
+
+        assertFalse(table.remove(5L, "other"));
+        assertTrue(table.remove(5L, table.get(5L)));
+        assertTrue(table.remove(6L, null));
+        assertFalse(table.remove(6L, null));
+
+        assertNull(table.get(5L));
+        for (long key = 7; key < 20; key++) {
+            assertEquals("v" + key, table.get(key));
+        }
+        assertEquals(18, table.size());
+
+        table.clear();
+        assertEquals(0, table.size());
+        assertNull(table.get(0L));
+    }
+
+    /**
+     * Test that removing the entries accepted by a filter keeps the other entries reachable.
+     */
+    @Test
+    public void testRemoveIf() {
+        LongKeyTable<Long> table = new LongKeyTable<>();
+
+        for (long key = 0; key < 40; key++) {
+            table.computeIfAbsent(key, k -> k);
+        }
+        table.computeIfAbsent(Long.MIN_VALUE, k -> k);
+
+        assertEquals(0, table.removeIf(value -> value > 1000));
+        assertEquals(21, table.removeIf(value -> value % 2 == 0));
+
+        assertEquals(20, table.size());
+        assertNull(table.get(Long.MIN_VALUE));
+        for (long key = 0; key < 40; key++) {
+            if (key % 2 == 0) {
+                assertNull(table.get(key));
+            } else {
+                assertEquals(key, table.get(key));
+            }
+        }
+    }
+}
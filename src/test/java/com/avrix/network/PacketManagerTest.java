@@ -0,0 +1,76 @@
+package com.avrix.network;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link PacketManager} class.
+ */
+public class PacketManagerTest {
+    /**
+     * Clears all packet listeners after each test.
+     */
+    @AfterEach
+    public void clearListeners() {
+        PacketManager.clearPacketListeners();
+    }
+
+    /**
+     * Tests that packets are only passed to the listeners of their opcode, including opcodes with the sign bit set.
+     */
+    @Test
+    public void testDispatchByOpcode() {
+        List<String> calls = new ArrayList<>();
+        PacketListener listener = (opcode, data, connection) -> calls.add(opcode + ":" + data.getInt());
+
+        PacketManager.addPacketListener((short) 7, listener);
+        PacketManager.addPacketListener((short) -2, listener);
+
+        assertTrue(PacketManager.hasListeners((short) 7));
+        assertTrue(PacketManager.hasListeners((short) -2));
+        assertFalse(PacketManager.hasListeners((short) 8));
+
+        PacketManager.dispatch((short) 7, ByteBuffer.allocate(4).putInt(0, 42), null);
+        PacketManager.dispatch((short) 8, ByteBuffer.allocate(4).putInt(0, 43), null);
+        PacketManager.dispatch((short) -2, ByteBuffer.allocate(4).putInt(0, 44), null);
+
+        assertEquals(List.of("7:42", "-2:44"), calls);
+
+        assertTrue(PacketManager.removePacketListener(listener));
+        assertFalse(PacketManager.hasListeners((short) 7));
+        assertFalse(PacketManager.hasListeners((short) -2));
+    }
+
+    /**
+     * Tests that every listener receives a read-only view at the original position, and the original buffer is not changed.
+     */
+    @Test
+    public void testReadOnlyView() {
+        List<Integer> values = new ArrayList<>();
+        PacketListener reader = (opcode, data, connection) -> values.add(data.getInt());
+
+        PacketManager.addPacketListener((short) 1, reader);
+        PacketManager.addPacketListener((short) 1, (opcode, data, connection) -> {
+            assertTrue(data.isReadOnly());
+            data.getShort();
+            assertThrows(ReadOnlyBufferException.class, () -> data.put((byte) 0));
+        });
+        PacketManager.addPacketListener((short) 1, reader);
+
+        ByteBuffer packet = ByteBuffer.allocate(8).putInt(0, 1).putInt(4, 2);
+        packet.position(4);
+
+        PacketManager.dispatch((short) 1, packet, null);
+
+        assertEquals(List.of(2, 2), values);
+        assertEquals(4, packet.position());
+        assertEquals(8, packet.limit());
+    }
+}
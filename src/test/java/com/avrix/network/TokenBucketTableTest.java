@@ -0,0 +1,84 @@
+package com.avrix.network;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the {@link TokenBucketTable} class.
+ */
+public class TokenBucketTableTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Test that a bucket allows its burst, then refills at its rate.
+     */
+    @Test
+    public void testBurstAndRefill() {
+        TokenBucketTable buckets = new TokenBucketTable(2, 3);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(buckets.tryAcquire(1L, 0L));
+        }
+        assertFalse(buckets.tryAcquire(1L, 0L));
+
+        // Another connection has its own bucket
+        assertTrue(buckets.tryAcquire(2L, 0L));
+
+        // Two tokens per second
+        assertFalse(buckets.tryAcquire(1L, SECOND / 4));
+        assertTrue(buckets.tryAcquire(1L, SECOND / 2));
+        assertFalse(buckets.tryAcquire(1L, SECOND / 2));
+
+        // The bucket never holds more than the burst
+        long later = 100 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertTrue(buckets.tryAcquire(1L, later));
+        }
+        assertFalse(buckets.tryAcquire(1L, later));
+    }
+
+    /**
+     * Test that removing a bucket restores a full bucket and keeps colliding keys reachable.
+     */
+    @Test
+    public void testRemove() {
+        TokenBucketTable buckets = new TokenBucketTable(1, 1);
+
+        for (long key = 0; key < 20; key++) {
+            assertTrue(buckets.tryAcquire(key, 0L));
+        }
+        assertTrue(buckets.tryAcquire(Long.MIN_VALUE, 0L));
+        assertEquals(21, buckets.size());
+
+        buckets.remove(5L);
+        buckets.remove(Long.MIN_VALUE);
+        assertEquals(19, buckets.size());
+
+        assertTrue(buckets.tryAcquire(5L, 0L));
+        assertTrue(buckets.tryAcquire(Long.MIN_VALUE, 0L));
+        for (long key = 0; key < 20; key++) {
+            assertFalse(buckets.tryAcquire(key, 0L));
+        }
+    }
+
+    /**
+     * Test that buckets that have refilled are dropped once the number of buckets has doubled.
+     */
+    @Test
+    public void testRefilledBucketsDropped() {
+        TokenBucketTable buckets = new TokenBucketTable(1, 1);
+
+        for (long key = 0; key < 32; key++) {
+            buckets.tryAcquire(key, 0L);
+        }
+        assertEquals(32, buckets.size());
+
+        // All previous buckets have refilled after a second
+        buckets.tryAcquire(100L, SECOND);
+        assertEquals(1, buckets.size());
+        assertTrue(buckets.tryAcquire(0L, SECOND));
+    }
+}
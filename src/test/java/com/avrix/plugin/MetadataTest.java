@@ -97,6 +97,19 @@ public class MetadataTest {
         assertEquals("P1", sortedMetadata.get(3).getId());
     }
 
+    /**
+     * Tests the groupByDependencyLevel method to ensure plugins are placed one level after their deepest dependency.
+     */
+    @Test
+    public void testGroupByDependencyLevel() {
+        List<List<Metadata>> levels = Metadata.groupByDependencyLevel(metadataList);
+
+        assertEquals(3, levels.size());
+        assertEquals(List.of("P2", "P1"), levels.get(0).stream().map(Metadata::getId).toList());
+        assertEquals(List.of("P4"), levels.get(1).stream().map(Metadata::getId).toList());
+        assertEquals(List.of("P3"), levels.get(2).stream().map(Metadata::getId).toList());
+    }
+
     /**
      * Tests the sortMetadata method to ensure it detects and handles cycles in dependencies.
      */
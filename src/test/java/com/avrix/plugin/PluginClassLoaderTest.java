@@ -0,0 +1,125 @@
+package com.avrix.plugin;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the class resolution between plugins of the {@link PluginClassLoader} class.
+ */
+public class PluginClassLoaderTest {
+    private final List<PluginClassLoader> loaders = new ArrayList<>(); // Loaders created by the test
+    private final List<Path> jars = new ArrayList<>(); // Jars created by the test
+
+    /**
+     * Closes the loaders and deletes the jars created by the test.
+     *
+     * @throws IOException if a loader or a jar cannot be closed
+     */
+    @AfterEach
+    public void tearDown() throws IOException {
+        for (PluginClassLoader loader : loaders) {
+            loader.close();
+        }
+        for (Path jar : jars) {
+            Files.deleteIfExists(jar);
+        }
+    }
+
+    /**
+     * Tests that a plugin resolves a class of another plugin through the loader owning its package.
+     *
+     * @throws Exception if a jar cannot be created or the class cannot be loaded
+     */
+    @Test
+    public void testCrossPluginLookup() throws Exception {
+        PluginClassLoader owner = createLoader("test-owner", SharedClass.class);
+        PluginClassLoader user = createLoader("test-user", OtherClass.class);
+
+        Class<?> sharedClass = user.loadClass(SharedClass.class.getName());
+
+        assertSame(owner, sharedClass.getClassLoader());
+        assertSame(sharedClass, owner.loadClass(SharedClass.class.getName()));
+        assertSame(sharedClass, PluginClassLoader.getClassByName(SharedClass.class.getName()));
+        assertThrows(ClassNotFoundException.class, () -> user.loadClass("com.avrix.plugin.MissingClass"));
+        assertNull(PluginClassLoader.getClassByName("com.avrix.unknown.MissingClass"));
+    }
+
+    /**
+     * Tests that a missing class is found once a loader containing it is created,
+     * and that the classes of a closed loader are no longer resolved.
+     *
+     * @throws Exception if a jar cannot be created or a loader cannot be closed
+     */
+    @Test
+    public void testMissingClassAndClose() throws Exception {
+        createLoader("test-other", OtherClass.class);
+        assertNull(PluginClassLoader.getClassByName(LateClass.class.getName()));
+
+        PluginClassLoader late = createLoader("test-late", LateClass.class);
+        Class<?> lateClass = PluginClassLoader.getClassByName(LateClass.class.getName());
+        assertNotNull(lateClass);
+        assertSame(late, lateClass.getClassLoader());
+
+        late.close();
+        assertNull(PluginClassLoader.getClassByName(LateClass.class.getName()));
+    }
+
+    /**
+     * Creates a jar containing a class of this test and a {@link PluginClassLoader} for it. The loader has no parent,
+     * so the class is defined by the plugin loader rather than by the test class path.
+     *
+     * @param pluginId ID of the plugin
+     * @param clazz    class to put in the jar
+     * @return created loader
+     * @throws IOException if the jar cannot be written
+     */
+    private PluginClassLoader createLoader(String pluginId, Class<?> clazz) throws IOException {
+        String entryName = clazz.getName().replace('.', '/') + ".class";
+        Path jar = Files.createTempFile(pluginId, ".jar");
+        jars.add(jar);
+
+        try (InputStream classFile = Objects.requireNonNull(clazz.getClassLoader().getResourceAsStream(entryName));
+             OutputStream output = Files.newOutputStream(jar);
+             JarOutputStream jarOutput = new JarOutputStream(output)) {
+            jarOutput.putNextEntry(new JarEntry(entryName));
+            classFile.transferTo(jarOutput);
+            jarOutput.closeEntry();
+        }
+
+        PluginClassLoader loader = new PluginClassLoader(pluginId, new URL[]{jar.toUri().toURL()}, null);
+        loaders.add(loader);
+        return loader;
+    }
+
+    /**
+     * Class published by one plugin and used by another
+     */
+    public static class SharedClass {
+    }
+
+    /**
+     * Class of the plugin using {@link SharedClass}
+     */
+    public static class OtherClass {
+    }
+
+    /**
+     * Class published by a plugin loaded after it was looked up
+     */
+    public static class LateClass {
+    }
+}
@@ -0,0 +1,144 @@
+package com.avrix.plugin;
+
+import com.avrix.enums.Priority;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link ServiceManager} class.
+ */
+public class ServiceManagerTest {
+    /**
+     * Removes the services registered by the tests.
+     */
+    @AfterEach
+    public void tearDown() {
+        ServiceManager.unregister(GreetingService.class);
+    }
+
+    /**
+     * Tests that the implementation with the highest priority is returned, and the last registered one among equal priorities.
+     */
+    @Test
+    public void testPriorities() {
+        GreetingService low = () -> "low";
+        GreetingService normal = () -> "normal";
+        GreetingService newer = () -> "newer";
+        GreetingService high = () -> "high";
+
+        ServiceManager.register(GreetingService.class, low, Priority.LOW);
+        ServiceManager.register(GreetingService.class, normal);
+        assertSame(normal, ServiceManager.getService(GreetingService.class));
+
+        ServiceManager.register(GreetingService.class, newer);
+        assertSame(newer, ServiceManager.getService(GreetingService.class));
+
+        ServiceManager.register(GreetingService.class, high, Priority.HIGH);
+        assertEquals(List.of(high, newer, normal, low), ServiceManager.getServices(GreetingService.class));
+
+        ServiceManager.unregister(GreetingService.class, high);
+        assertSame(newer, ServiceManager.getService(GreetingService.class));
+    }
+
+    /**
+     * Tests that registering the same instance or another instance of the same class replaces the previous registration.
+     */
+    @Test
+    public void testRegisterTwiceReplaces() {
+        GreetingService other = () -> "other";
+        FixedGreeting first = new FixedGreeting("first");
+        FixedGreeting second = new FixedGreeting("second");
+
+        ServiceManager.register(GreetingService.class, other, Priority.LOW);
+        ServiceManager.register(GreetingService.class, first);
+        ServiceManager.register(GreetingService.class, first, Priority.HIGH);
+        assertEquals(List.of(first, other), ServiceManager.getServices(GreetingService.class));
+
+        ServiceManager.register(GreetingService.class, second);
+        assertEquals(List.of(second, other), ServiceManager.getServices(GreetingService.class));
+        assertSame(second, ServiceManager.getService(GreetingService.class));
+    }
+
+    /**
+     * Tests that a lazily provided implementation is created once, on first use.
+     */
+    @Test
+    public void testLazyProvider() {
+        AtomicInteger created = new AtomicInteger();
+        ServiceManager.registerProvider(GreetingService.class, () -> {
+            created.incrementAndGet();
+            return () -> "lazy";
+        }, Priority.NORMAL);
+        assertEquals(0, created.get());
+
+        assertEquals("lazy", ServiceManager.getService(GreetingService.class).greet());
+        assertEquals("lazy", ServiceManager.getService(GreetingService.class).greet());
+        assertEquals(1, created.get());
+    }
+
+    /**
+     * Tests that a handle follows the registrations made after its creation.
+     */
+    @Test
+    public void testHandle() {
+        ServiceHandle<GreetingService> handle = ServiceManager.getHandle(GreetingService.class);
+        assertFalse(handle.isAvailable());
+        assertNull(handle.get());
+
+        GreetingService first = () -> "first";
+        ServiceManager.register(GreetingService.class, first);
+        assertSame(first, handle.get());
+
+        GreetingService second = () -> "second";
+        ServiceManager.register(GreetingService.class, second, Priority.HIGHEST);
+        assertSame(second, handle.get());
+
+        ServiceManager.unregister(GreetingService.class);
+        assertFalse(handle.isAvailable());
+        assertNull(handle.get());
+    }
+
+    /**
+     * Tests that the implementations of a class loader are removed, as when a plugin is unloaded.
+     */
+    @Test
+    public void testUnregisterAllOfClassLoader() {
+        GreetingService service = () -> "service";
+        ServiceManager.register(GreetingService.class, service);
+        ServiceManager.registerProvider(GreetingService.class, () -> () -> "lazy", Priority.LOW);
+
+        assertEquals(0, ServiceManager.unregisterAll(new ClassLoader() {
+        }));
+        assertEquals(2, ServiceManager.unregisterAll(ServiceManagerTest.class.getClassLoader()));
+        assertNull(ServiceManager.getService(GreetingService.class));
+    }
+
+    /**
+     * Service registered by the tests
+     */
+    public interface GreetingService {
+        /**
+         * Returns a greeting.
+         *
+         * @return greeting text
+         */
+        String greet();
+    }
+
+    /**
+     * Implementation of {@link GreetingService} returning a fixed text
+     *
+     * @param text greeting text
+     */
+    public record FixedGreeting(String text) implements GreetingService {
+        @Override
+        public String greet() {
+            return text;
+        }
+    }
+}
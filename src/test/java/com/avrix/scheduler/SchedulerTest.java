@@ -0,0 +1,167 @@
+package com.avrix.scheduler;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link Scheduler} class.
+ */
+public class SchedulerTest {
+    /**
+     * Restores the default tick budget after each test.
+     */
+    @AfterEach
+    public void restoreBudget() {
+        Scheduler.setTickBudget(Scheduler.DEFAULT_TICK_BUDGET_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Tests that synchronous and delayed tasks run on the expected ticks, in submission order.
+     */
+    @Test
+    public void testRunSyncAndLater() {
+        List<String> calls = new ArrayList<>();
+
+        Scheduler.runLater(() -> calls.add("later"), 3);
+        Scheduler.runSync(() -> calls.add("sync1"));
+        Scheduler.runSync(() -> calls.add("sync2"));
+
+        Scheduler.tick();
+        assertEquals(List.of("sync1", "sync2"), calls);
+        assertTrue(Scheduler.isGameThread());
+
+        Scheduler.tick();
+        assertEquals(2, calls.size());
+
+        Scheduler.tick();
+        assertEquals(List.of("sync1", "sync2", "later"), calls);
+    }
+
+    /**
+     * Tests repeating tasks and their cancellation.
+     */
+    @Test
+    public void testRunTimer() {
+        AtomicInteger runs = new AtomicInteger();
+        ScheduledTask timer = Scheduler.runTimer(runs::incrementAndGet, 1, 2);
+
+        for (int i = 0; i < 6; i++) {
+            Scheduler.tick();
+        }
+        assertEquals(3, runs.get());
+        assertFalse(timer.isDone());
+
+        timer.cancel();
+        for (int i = 0; i < 4; i++) {
+            Scheduler.tick();
+        }
+        assertEquals(3, runs.get());
+        assertTrue(timer.isDone());
+    }
+
+    /**
+     * Tests that the tasks of a class loader are cancelled, as when a plugin is unloaded.
+     */
+    @Test
+    public void testCancelTasksOfClassLoader() {
+        AtomicInteger runs = new AtomicInteger();
+        ScheduledTask timer = Scheduler.runTimer(runs::incrementAndGet, 1, 1);
+        ScheduledTask later = Scheduler.runLater(runs::incrementAndGet, 5);
+
+        Scheduler.tick();
+        assertEquals(1, runs.get());
+
+        Scheduler.cancelTasks(new ClassLoader() {
+        });
+        Scheduler.tick();
+        assertEquals(2, runs.get());
+
+        Scheduler.cancelTasks(SchedulerTest.class.getClassLoader());
+        for (int i = 0; i < 6; i++) {
+            Scheduler.tick();
+        }
+        assertEquals(2, runs.get());
+        assertTrue(timer.isCancelled());
+        assertTrue(later.isCancelled());
+    }
+
+    /**
+     * Tests that an incremental job exceeding the tick budget is spread across ticks.
+     */
+    @Test
+    public void testRunIncrementalWithinBudget() {
+        Scheduler.setTickBudget(1, TimeUnit.MILLISECONDS);
+        AtomicInteger processed = new AtomicInteger();
+
+        ScheduledTask job = Scheduler.runIncremental(IntStream.range(0, 20).iterator(), value -> {
+            long end = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(300);
+            while (System.nanoTime() < end) {
+                Thread.onSpinWait();
+            }
+            processed.incrementAndGet();
+        });
+
+        Scheduler.tick();
+        assertTrue(processed.get() > 0 && processed.get() < 20);
+
+        for (int i = 0; i < 20 && !job.isDone(); i++) {
+            Scheduler.tick();
+        }
+        assertEquals(20, processed.get());
+        assertTrue(job.isDone());
+    }
+
+    /**
+     * Tests that a task submitted while a long incremental job is running does not wait for the job to complete.
+     */
+    @Test
+    public void testRunSyncBehindIncrementalJob() {
+        Scheduler.setTickBudget(1, TimeUnit.MILLISECONDS);
+        AtomicInteger steps = new AtomicInteger();
+        List<Integer> syncRuns = new ArrayList<>();
+
+        ScheduledTask job = Scheduler.runIncremental(() -> steps.incrementAndGet() >= 1_000_000_000);
+        Scheduler.tick();
+        assertFalse(job.isDone());
+
+        Scheduler.runSync(() -> syncRuns.add(steps.get()));
+        Scheduler.tick();
+        assertEquals(1, syncRuns.size());
+        assertFalse(job.isDone());
+
+        job.cancel();
+        Scheduler.tick();
+    }
+
+    /**
+     * Tests that the result of an asynchronous task is delivered on the game thread.
+     */
+    @Test
+    public void testSupplyAsyncCallbackOnGameThread() throws Exception {
+        Scheduler.tick();
+        Thread gameThread = Thread.currentThread();
+        List<Thread> callbackThreads = new ArrayList<>();
+
+        CompletableFuture<Void> future = Scheduler.supplyAsync(() -> Thread.currentThread(), asyncThread -> {
+            assertNotSame(gameThread, asyncThread);
+            callbackThreads.add(Thread.currentThread());
+        });
+
+        for (int i = 0; i < 200 && !future.isDone(); i++) {
+            Thread.sleep(5);
+            Scheduler.tick();
+        }
+
+        future.get(1, TimeUnit.SECONDS);
+        assertEquals(List.of(gameThread), callbackThreads);
+    }
+}
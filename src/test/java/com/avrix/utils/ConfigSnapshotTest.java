@@ -0,0 +1,166 @@
+package com.avrix.utils;
+
+import com.avrix.enums.Priority;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link ConfigSnapshot} class and the binding of {@link YamlFile}.
+ */
+public class ConfigSnapshotTest {
+    private Path tempDir; // Folder of the test configuration
+    private Path configPath; // Test configuration file
+
+    /**
+     * Creates the test configuration file.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("configSnapshot");
+        configPath = tempDir.resolve("config.yml");
+        Files.writeString(configPath, """
+                maxPlayers: 16
+                welcome: Hello
+                mode: high
+                ranks: [admin, moderator]
+                limits:
+                  chat: 2.5
+                  commands: 4
+                """);
+    }
+
+    /**
+     * Deletes the test configuration file.
+     *
+     * @throws IOException if the file cannot be deleted
+     */
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(configPath);
+        Files.deleteIfExists(tempDir);
+    }
+
+    /**
+     * Tests binding to a record with nested sections, lists, maps and enums.
+     *
+     * @throws IOException if the file cannot be read
+     */
+    @Test
+    public void testBindRecord() throws IOException {
+        ServerConfig config = new YamlFile(configPath).bind(ServerConfig.class);
+
+        assertEquals(16, config.maxPlayers());
+        assertEquals("Hello", config.welcome());
+        assertEquals(Priority.HIGH, config.mode());
+        assertEquals(List.of("admin", "moderator"), config.ranks());
+        assertEquals(Map.of("chat", 2.5, "commands", 4.0), config.limits());
+        assertFalse(config.debug());
+        assertThrows(UnsupportedOperationException.class, () -> config.ranks().add("player"));
+    }
+
+    /**
+     * Tests that fields of an object missing from the file keep their initial value.
+     *
+     * @throws IOException if the file cannot be read
+     */
+    @Test
+    public void testBindObjectDefaults() throws IOException {
+        ObjectConfig config = new YamlFile(configPath).bind(ObjectConfig.class);
+
+        assertEquals(16, config.maxPlayers);
+        assertEquals("default", config.missing);
+    }
+
+    /**
+     * Tests that a watched snapshot is replaced when the file is modified, and kept when the new content is invalid.
+     *
+     * @throws Exception if the file cannot be written or the reload does not happen in time
+     */
+    @Test
+    public void testWatchReload() throws Exception {
+        CountDownLatch reloaded = new CountDownLatch(1);
+        ConfigSnapshot<ServerConfig> snapshot = new ConfigSnapshot<>(new YamlFile(configPath), ServerConfig.class)
+                .onChange((previous, current) -> {
+                    if (previous.maxPlayers() == 16 && current.maxPlayers() == 32) reloaded.countDown();
+                })
+                .watch();
+
+        try {
+            ServerConfig initial = snapshot.get();
+            Files.writeString(configPath, "maxPlayers: 32\n");
+
+            assertTrue(reloaded.await(10, TimeUnit.SECONDS));
+            assertEquals(32, snapshot.get().maxPlayers());
+            assertEquals(16, initial.maxPlayers());
+
+            Files.writeString(configPath, "maxPlayers: [not, a, number]\n");
+            assertFalse(snapshot.reload());
+            assertEquals(32, snapshot.get().maxPlayers());
+        } finally {
+            snapshot.unwatch();
+        }
+    }
+
+    /**
+     * Tests that integral values are bound exactly, and that fractional or out of range values are rejected.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Test
+    public void testBindIntegralValues() throws IOException {
+        Files.writeString(configPath, "maxPlayers: 32\nbudget: '9007199254740993'\n");
+        LimitConfig config = new YamlFile(configPath).bind(LimitConfig.class);
+        assertEquals(32, config.maxPlayers());
+        assertEquals(9007199254740993L, config.budget());
+
+        Files.writeString(configPath, "maxPlayers: 1.5\n");
+        assertThrows(IllegalArgumentException.class, () -> new YamlFile(configPath).bind(LimitConfig.class));
+
+        Files.writeString(configPath, "maxPlayers: 3000000000\n");
+        assertThrows(IllegalArgumentException.class, () -> new YamlFile(configPath).bind(LimitConfig.class));
+    }
+
+    /**
+     * Configuration bound to a record
+     *
+     * @param maxPlayers maximum number of players
+     * @param welcome    welcome message
+     * @param mode       priority mode
+     * @param ranks      rank names
+     * @param limits     limits by name
+     * @param debug      debug flag, missing from the file
+     */
+    public record ServerConfig(int maxPlayers, String welcome, Priority mode, List<String> ranks,
+                               Map<String, Double> limits, boolean debug) {
+    }
+
+    /**
+     * Configuration with integral values
+     *
+     * @param maxPlayers maximum number of players
+     * @param budget     budget in nanoseconds
+     */
+    public record LimitConfig(int maxPlayers, long budget) {
+    }
+
+    /**
+     * Configuration bound to an object
+     */
+    public static class ObjectConfig {
+        private int maxPlayers; // Maximum number of players
+        private String missing = "default"; // Value missing from the file
+    }
+}
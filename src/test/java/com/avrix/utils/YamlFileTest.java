@@ -11,9 +11,14 @@ import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 /**
  * This class contains test cases for the YamlFile class.
@@ -65,6 +70,84 @@ public class YamlFileTest {
         Files.deleteIfExists(Paths.get(filePath));
     }
 
+    /**
+     * Tests that saving leaves no temporary file and that reloading ignores the content saved by the same object.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    @Test
+    void testAtomicSaveAndReload() throws IOException {
+        Path folder = Files.createTempDirectory("yamlSave");
+        Path filePath = folder.resolve("atomic.yml");
+        YamlFile yamlFile = YamlFile.create(filePath);
+        yamlFile.setInt("counter", 1);
+        yamlFile.save();
+
+        try (var files = Files.list(folder)) {
+            assertEquals(List.of(filePath), files.toList());
+        }
+
+        yamlFile.setInt("counter", 2);
+        assertFalse(yamlFile.reload());
+        assertEquals(2, yamlFile.getInt("counter"));
+
+        Files.writeString(filePath, "counter: 5\n");
+        assertTrue(yamlFile.reload());
+        assertEquals(5, yamlFile.getInt("counter"));
+
+        Files.deleteIfExists(filePath);
+        Files.deleteIfExists(folder);
+    }
+
+    /**
+     * Tests that saving keeps the POSIX permissions of an existing file.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    @Test
+    void testSaveKeepsPermissions() throws IOException {
+        Path folder = Files.createTempDirectory("yamlPermissions");
+        Path filePath = folder.resolve("permissions.yml");
+        Files.writeString(filePath, "key: old\n");
+        assumeTrue(Files.getFileAttributeView(filePath, PosixFileAttributeView.class) != null);
+
+        Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-r--r--");
+        Files.setPosixFilePermissions(filePath, permissions);
+
+        YamlFile yamlFile = YamlFile.load(filePath.toString());
+        yamlFile.setString("key", "new");
+        yamlFile.save();
+
+        assertEquals(permissions, Files.getPosixFilePermissions(filePath));
+
+        Files.deleteIfExists(filePath);
+        Files.deleteIfExists(folder);
+    }
+
+    /**
+     * Tests that background saves of a file are combined into a single write of the latest content.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    @Test
+    void testSaveAsyncCoalesced() throws IOException {
+        Path filePath = Files.createTempFile("yamlAsync", ".yml");
+        YamlFile yamlFile = new YamlFile(filePath);
+
+        for (int i = 1; i <= 3; i++) {
+            yamlFile.setInt("counter", i);
+            yamlFile.saveAsync(1, TimeUnit.MINUTES);
+        }
+        assertEquals(1, YamlSaver.getPendingCount());
+        assertEquals("", Files.readString(filePath));
+
+        YamlFile.flushPendingSaves();
+        assertEquals(0, YamlSaver.getPendingCount());
+        assertEquals(3, YamlFile.load(filePath).getInt("counter"));
+
+        Files.deleteIfExists(filePath);
+    }
+
     /**
      * Test to create YamlFile from path.
      *